@@ -94,7 +94,7 @@ public class CodeGenerator {
 
         }
         genFiles.add(generateMainBal(serviceList));
-        genFiles.add(generateCommonEndpoints());
+        genFiles.add(generateCommonEndpoints(serviceList));
         CodegenUtils.writeGeneratedSources(genFiles, Paths.get(projectSrcPath), overwrite);
 
         GatewayCmdUtils.copyFilesToSources(GatewayCmdUtils.getProjectExtensionsDirectoryPath(projectName)
@@ -148,7 +148,7 @@ public class CodeGenerator {
                     }
                 });
         genFiles.add(generateMainBal(serviceList));
-        genFiles.add(generateCommonEndpoints());
+        genFiles.add(generateCommonEndpoints(serviceList));
         CodegenUtils.writeGeneratedSources(genFiles, Paths.get(projectSrcPath), overwrite);
         GatewayCmdUtils.copyFilesToSources(GatewayCmdUtils.getProjectExtensionsDirectoryPath(projectName)
                         + File.separator + GatewayCliConstants.GW_DIST_EXTENSION_FILTER,
@@ -194,8 +194,22 @@ public class CodeGenerator {
      * @throws IOException when code generation with specified templates fails
      */
     private GenSrcFile generateCommonEndpoints() throws IOException {
+        return generateCommonEndpoints(new ListenerEndpoint().buildContext());
+    }
+
+    /**
+     * Generate common endpoint, with the filter chain required by the resources of the given services
+     *
+     * @param services list of model context of the services exposed by the listeners
+     * @return generated source files as a list of {@link GenSrcFile}
+     * @throws IOException when code generation with specified templates fails
+     */
+    private GenSrcFile generateCommonEndpoints(List<BallerinaService> services) throws IOException {
+        return generateCommonEndpoints(new ListenerEndpoint().buildContext(services));
+    }
+
+    private GenSrcFile generateCommonEndpoints(ListenerEndpoint listnerEndpoint) throws IOException {
         String srcFile = GeneratorConstants.LISTENERS + GeneratorConstants.BALLERINA_EXTENSION;
-        ListenerEndpoint listnerEndpoint = new ListenerEndpoint().buildContext();
         String endpointContent = getContent(listnerEndpoint, GeneratorConstants.DEFAULT_TEMPLATE_DIR,
                 GeneratorConstants.LISTENERS_TEMPLATE_NAME);
         return new GenSrcFile(GenSrcFile.GenFileType.GEN_SRC, srcFile, endpointContent);
@@ -29,12 +29,14 @@ import java.util.List;
 public class ThrottlePolicyInitializer {
     private List<String> policyInitNames;
     private List<String> policyNames;
+    private List<ThrottlePolicy> policies;
     private String srcPackage;
     private String modelPackage;
 
     public ThrottlePolicyInitializer() {
         policyInitNames = new ArrayList<>();
         policyNames = new ArrayList<>();
+        policies = new ArrayList<>();
     }
 
     public List<String> getPolicyInitNames() {
@@ -45,12 +47,21 @@ public class ThrottlePolicyInitializer {
         this.policyInitNames = policyInitNames;
     }
 
+    public List<ThrottlePolicy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(List<ThrottlePolicy> policies) {
+        this.policies = policies;
+    }
+
     public ThrottlePolicyInitializer buildAppContext(List<ApplicationThrottlePolicyDTO> applicationPolicies) {
         for (ApplicationThrottlePolicyDTO policyDTO : applicationPolicies) {
             String escapedPolicyName = CodegenUtils.trim(policyDTO.getPolicyName());
             policyInitNames.add(GeneratorConstants.APPLICATION_INIT_FUNC_PREFIX + escapedPolicyName
                     + GeneratorConstants.INIT_FUNC_SUFFIX);
             policyNames.add(escapedPolicyName);
+            policies.add(new ThrottlePolicy().buildContext(policyDTO));
         }
         return this;
     }
@@ -61,6 +72,7 @@ public class ThrottlePolicyInitializer {
             policyInitNames.add(GeneratorConstants.SUBSCRIPTION_INIT_FUNC_PREFIX + escapedPolicyName
                     + GeneratorConstants.INIT_FUNC_SUFFIX);
             policyNames.add(escapedPolicyName);
+            policies.add(new ThrottlePolicy().buildContext(policyDTO));
         }
         return this;
     }
@@ -84,6 +96,7 @@ public class ThrottlePolicyInitializer {
                 break;
             }
             policyNames.add(escapedPolicyName);
+            policies.add(new ThrottlePolicy().buildContext(policyDTO, type));
         }
         return this;
     }
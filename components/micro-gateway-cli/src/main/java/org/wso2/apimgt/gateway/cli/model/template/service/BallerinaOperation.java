@@ -38,11 +38,13 @@ public class BallerinaOperation implements BallerinaOpenAPIObject<BallerinaOpera
     public static final String X_THROTTLING_TIER = "x-throttling-tier";
     public static final String X_SCOPE = "x-scope";
     public static final String X_AUTH_TYPE = "x-auth-type";
+    public static final String X_RESPONSE_CACHE_TTL = "x-response-cache-ttl";
     public static final String AUTH_TYPE_NONE = "None";
     private List<String> tags;
     private String summary;
     private String description;
     private String resourceTier;
+    private Integer responseCacheTtl;
     private ExternalDocumentation externalDocs;
     private String operationId;
     private List<BallerinaParameter> parameters;
@@ -88,6 +90,8 @@ public class BallerinaOperation implements BallerinaOpenAPIObject<BallerinaOpera
                     this.isSecured = false;
                 }
             });
+            Optional<Object> responseCacheTtl = Optional.ofNullable(extension.get(X_RESPONSE_CACHE_TTL));
+            responseCacheTtl.ifPresent(value -> this.responseCacheTtl = Integer.valueOf(value.toString()));
         }
 
         if (operation.getParameters() != null) {
@@ -165,6 +169,14 @@ public class BallerinaOperation implements BallerinaOpenAPIObject<BallerinaOpera
         this.resourceTier = resourceTier;
     }
 
+    public Integer getResponseCacheTtl() {
+        return responseCacheTtl;
+    }
+
+    public void setResponseCacheTtl(Integer responseCacheTtl) {
+        this.responseCacheTtl = responseCacheTtl;
+    }
+
     public String getScope() {
         return scope;
     }
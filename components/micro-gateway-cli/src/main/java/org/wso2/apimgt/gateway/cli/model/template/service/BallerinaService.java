@@ -63,6 +63,8 @@ public class BallerinaService implements BallerinaOpenAPIObject<BallerinaService
     private String basepath;
     //to recognize whether it is a devfirst approach
     private boolean isDevFirst = true;
+    //whether the auth providers of the resources include jwt and oauth2
+    private boolean tokenAuthProvided = true;
 
     /**
      * Build a {@link BallerinaService} object from a {@link OpenAPI} object.
@@ -299,9 +301,15 @@ public class BallerinaService implements BallerinaOpenAPIObject<BallerinaService
             basicAuth.setOptional(false);
             basicAuth.setRequired(false);
         }
+        // only an API secured with basic auth alone is generated without the jwt and oauth2 auth providers
+        this.tokenAuthProvided = !(basic && !oauth2);
         config.setBasicAuth(basicAuth);
     }
 
+    public boolean isTokenAuthProvided() {
+        return tokenAuthProvided;
+    }
+
     public void setIsDevFirst(boolean value){
         isDevFirst = value;
     }
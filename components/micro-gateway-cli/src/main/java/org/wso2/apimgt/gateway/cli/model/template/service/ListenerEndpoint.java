@@ -22,9 +22,13 @@ import org.wso2.apimgt.gateway.cli.model.config.Config;
 import org.wso2.apimgt.gateway.cli.utils.GatewayCmdUtils;
 import org.wso2.apimgt.gateway.cli.model.config.ContainerConfig;
 
+import java.util.List;
+import java.util.Map;
+
 public class ListenerEndpoint {
     private ContainerConfig containerConfig;
     private Config config;
+    private boolean jwtFiltersRequired = true;
 
     public ListenerEndpoint buildContext() {
         this.containerConfig = GatewayCmdUtils.getContainerConfig();
@@ -32,7 +36,46 @@ public class ListenerEndpoint {
         return this;
     }
 
+    /**
+     * Builds the context of the listeners for the given services. Filters which can never act on a request to any
+     * resource of the services are left out of the filter chain of the listeners.
+     *
+     * @param services services exposed by the listeners
+     * @return the listener context
+     */
+    public ListenerEndpoint buildContext(List<BallerinaService> services) {
+        buildContext();
+        // authorization and subscription filters only act on requests authenticated with a JWT or an oauth2 token
+        this.jwtFiltersRequired = hasTokenSecuredResource(services);
+        return this;
+    }
+
+    /**
+     * Checks whether any of the given services has a secured resource which accepts a JWT or an oauth2 token. The
+     * auth providers are decided per API, hence the decision can not be taken from the global basic auth config.
+     *
+     * @param services services exposed by the listeners
+     * @return true if a resource of the services may be invoked with a JWT or an oauth2 token
+     */
+    private static boolean hasTokenSecuredResource(List<BallerinaService> services) {
+        for (BallerinaService service : services) {
+            if (!service.isTokenAuthProvided() || service.getPaths() == null) {
+                continue;
+            }
+            for (Map.Entry<String, BallerinaPath> path : service.getPaths()) {
+                for (Map.Entry<String, BallerinaOperation> operation : path.getValue().getOperations()) {
+                    if (operation.getValue().isSecured()) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
      public ContainerConfig getContainerConfig() { return containerConfig; }
 
      public  Config getConfig(){ return config; }
+
+     public boolean isJwtFiltersRequired() { return jwtFiltersRequired; }
 }
@@ -22,12 +22,10 @@ function initApplication10PerMinPolicy() {
             }
         }
 
-        from s10PerMineligibilityStream
-        throttler:timeBatch(60000)
-        where s10PerMineligibilityStream.isEligible == true
-        select s10PerMineligibilityStream.throttleKey as throttleKey, count() as eventCount, true as
+        from s10PerMineligibilityStream where s10PerMineligibilityStream.isEligible == true
+        throttler:keyedTimeBatch(60000, s10PerMineligibilityStream.throttleKey)
+        select s10PerMineligibilityStream.throttleKey as throttleKey, eventCount, true as
         stopOnQuota, expiryTimeStamp
-        group by s10PerMineligibilityStream.throttleKey
         => (gateway:IntermediateStream[] counts) {
             foreach var c in counts {
                 s10PerMinintermediateStream.publish(c);
@@ -45,7 +43,8 @@ function initApplication10PerMinPolicy() {
         }
 
         from s10PerMinresultStream
-        throttler:emitOnStateChange(s10PerMinresultStream.throttleKey, s10PerMinresultStream.isThrottled)
+        throttler:emitOnStateChange(s10PerMinresultStream.throttleKey, s10PerMinresultStream.isThrottled,
+        s10PerMinresultStream.expiryTimeStamp)
         select s10PerMinresultStream.throttleKey as throttleKey, s10PerMinresultStream.isThrottled,
         s10PerMinresultStream.stopOnQuota, s10PerMinresultStream.expiryTimeStamp
         => (gateway:GlobalThrottleStreamDTO[] counts) {
@@ -22,12 +22,10 @@ function initApplication20PerMinPolicy() {
             }
         }
 
-        from s20PerMineligibilityStream
-        throttler:timeBatch(60000)
-        where s20PerMineligibilityStream.isEligible == true
-        select s20PerMineligibilityStream.throttleKey as throttleKey, count() as eventCount, true as
+        from s20PerMineligibilityStream where s20PerMineligibilityStream.isEligible == true
+        throttler:keyedTimeBatch(60000, s20PerMineligibilityStream.throttleKey)
+        select s20PerMineligibilityStream.throttleKey as throttleKey, eventCount, true as
         stopOnQuota, expiryTimeStamp
-        group by s20PerMineligibilityStream.throttleKey
         => (gateway:IntermediateStream[] counts) {
             foreach var c in counts {
                 s20PerMinintermediateStream.publish(c);
@@ -45,7 +43,8 @@ function initApplication20PerMinPolicy() {
         }
 
         from s20PerMinresultStream
-        throttler:emitOnStateChange(s20PerMinresultStream.throttleKey, s20PerMinresultStream.isThrottled)
+        throttler:emitOnStateChange(s20PerMinresultStream.throttleKey, s20PerMinresultStream.isThrottled,
+        s20PerMinresultStream.expiryTimeStamp)
         select s20PerMinresultStream.throttleKey as throttleKey, s20PerMinresultStream.isThrottled,
         s20PerMinresultStream.stopOnQuota, s20PerMinresultStream.expiryTimeStamp
         => (gateway:GlobalThrottleStreamDTO[] counts) {
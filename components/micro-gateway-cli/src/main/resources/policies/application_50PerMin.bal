@@ -22,12 +22,10 @@ function initApplication50PerMinPolicy() {
             }
         }
 
-        from s50PerMineligibilityStream
-        throttler:timeBatch(60000)
-        where s50PerMineligibilityStream.isEligible == true
-        select s50PerMineligibilityStream.throttleKey as throttleKey, count() as eventCount, true as
+        from s50PerMineligibilityStream where s50PerMineligibilityStream.isEligible == true
+        throttler:keyedTimeBatch(60000, s50PerMineligibilityStream.throttleKey)
+        select s50PerMineligibilityStream.throttleKey as throttleKey, eventCount, true as
         stopOnQuota, expiryTimeStamp
-        group by s50PerMineligibilityStream.throttleKey
         => (gateway:IntermediateStream[] counts) {
             foreach var c in counts {
                 s50PerMinintermediateStream.publish(c);
@@ -45,7 +43,8 @@ function initApplication50PerMinPolicy() {
         }
 
         from s50PerMinresultStream
-        throttler:emitOnStateChange(s50PerMinresultStream.throttleKey, s50PerMinresultStream.isThrottled)
+        throttler:emitOnStateChange(s50PerMinresultStream.throttleKey, s50PerMinresultStream.isThrottled,
+        s50PerMinresultStream.expiryTimeStamp)
         select s50PerMinresultStream.throttleKey as throttleKey, s50PerMinresultStream.isThrottled,
         s50PerMinresultStream.stopOnQuota, s50PerMinresultStream.expiryTimeStamp
         => (gateway:GlobalThrottleStreamDTO[] counts) {
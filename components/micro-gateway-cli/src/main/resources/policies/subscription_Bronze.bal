@@ -22,12 +22,10 @@ function initSubscriptionBronzePolicy() {
             }
         }
 
-        from sBronzeeligibilityStream
-        throttler:timeBatch(60000)
-        where sBronzeeligibilityStream.isEligible == true
-        select sBronzeeligibilityStream.throttleKey as throttleKey, count() as eventCount, true as
+        from sBronzeeligibilityStream where sBronzeeligibilityStream.isEligible == true
+        throttler:keyedTimeBatch(60000, sBronzeeligibilityStream.throttleKey)
+        select sBronzeeligibilityStream.throttleKey as throttleKey, eventCount, true as
         stopOnQuota, expiryTimeStamp
-        group by sBronzeeligibilityStream.throttleKey
         => (gateway:IntermediateStream[] counts) {
             foreach var c in counts {
                 sBronzeintermediateStream.publish(c);
@@ -45,7 +43,8 @@ function initSubscriptionBronzePolicy() {
         }
 
         from sBronzeresultStream
-        throttler:emitOnStateChange(sBronzeresultStream.throttleKey, sBronzeresultStream.isThrottled)
+        throttler:emitOnStateChange(sBronzeresultStream.throttleKey, sBronzeresultStream.isThrottled,
+        sBronzeresultStream.expiryTimeStamp)
         select sBronzeresultStream.throttleKey as throttleKey, sBronzeresultStream.isThrottled,
         sBronzeresultStream.stopOnQuota, sBronzeresultStream.expiryTimeStamp
         => (gateway:GlobalThrottleStreamDTO[] counts) {
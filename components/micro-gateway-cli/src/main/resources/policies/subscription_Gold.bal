@@ -22,12 +22,10 @@ function initSubscriptionGoldPolicy() {
             }
         }
 
-        from sGoldeligibilityStream
-        throttler:timeBatch(60000)
-        where sGoldeligibilityStream.isEligible == true
-        select sGoldeligibilityStream.throttleKey as throttleKey, count() as eventCount, true as
+        from sGoldeligibilityStream where sGoldeligibilityStream.isEligible == true
+        throttler:keyedTimeBatch(60000, sGoldeligibilityStream.throttleKey)
+        select sGoldeligibilityStream.throttleKey as throttleKey, eventCount, true as
         stopOnQuota, expiryTimeStamp
-        group by sGoldeligibilityStream.throttleKey
         => (gateway:IntermediateStream[] counts) {
             foreach var c in counts {
                 sGoldintermediateStream.publish(c);
@@ -45,7 +43,8 @@ function initSubscriptionGoldPolicy() {
         }
 
         from sGoldresultStream
-        throttler:emitOnStateChange(sGoldresultStream.throttleKey, sGoldresultStream.isThrottled)
+        throttler:emitOnStateChange(sGoldresultStream.throttleKey, sGoldresultStream.isThrottled,
+        sGoldresultStream.expiryTimeStamp)
         select sGoldresultStream.throttleKey as throttleKey, sGoldresultStream.isThrottled,
         sGoldresultStream.stopOnQuota, sGoldresultStream.expiryTimeStamp
         => (gateway:GlobalThrottleStreamDTO[] counts) {
@@ -22,12 +22,10 @@ function initSubscriptionSilverPolicy() {
             }
         }
 
-        from sSilvereligibilityStream
-        throttler:timeBatch(60000)
-        where sSilvereligibilityStream.isEligible == true
-        select sSilvereligibilityStream.throttleKey as throttleKey, count() as eventCount, true as
+        from sSilvereligibilityStream where sSilvereligibilityStream.isEligible == true
+        throttler:keyedTimeBatch(60000, sSilvereligibilityStream.throttleKey)
+        select sSilvereligibilityStream.throttleKey as throttleKey, eventCount, true as
         stopOnQuota, expiryTimeStamp
-        group by sSilvereligibilityStream.throttleKey
         => (gateway:IntermediateStream[] counts) {
             foreach var c in counts {
                 sSilverintermediateStream.publish(c);
@@ -45,7 +43,8 @@ function initSubscriptionSilverPolicy() {
         }
 
         from sSilverresultStream
-        throttler:emitOnStateChange(sSilverresultStream.throttleKey, sSilverresultStream.isThrottled)
+        throttler:emitOnStateChange(sSilverresultStream.throttleKey, sSilverresultStream.isThrottled,
+        sSilverresultStream.expiryTimeStamp)
         select sSilverresultStream.throttleKey as throttleKey, sSilverresultStream.isThrottled,
         sSilverresultStream.stopOnQuota, sSilverresultStream.expiryTimeStamp
         => (gateway:GlobalThrottleStreamDTO[] counts) {
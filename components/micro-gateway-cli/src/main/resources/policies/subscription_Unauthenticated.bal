@@ -22,12 +22,10 @@ function initSubscriptionUnauthenticatedPolicy() {
             }
         }
 
-        from sUnauthenticatedeligibilityStream
-        throttler:timeBatch(60000)
-        where sUnauthenticatedeligibilityStream.isEligible == true
-        select sUnauthenticatedeligibilityStream.throttleKey as throttleKey, count() as eventCount, true as
+        from sUnauthenticatedeligibilityStream where sUnauthenticatedeligibilityStream.isEligible == true
+        throttler:keyedTimeBatch(60000, sUnauthenticatedeligibilityStream.throttleKey)
+        select sUnauthenticatedeligibilityStream.throttleKey as throttleKey, eventCount, true as
         stopOnQuota, expiryTimeStamp
-        group by sUnauthenticatedeligibilityStream.throttleKey
         => (gateway:IntermediateStream[] counts) {
             foreach var c in counts {
                 sUnauthenticatedintermediateStream.publish(c);
@@ -46,7 +44,8 @@ function initSubscriptionUnauthenticatedPolicy() {
         }
 
         from sUnauthenticatedresultStream
-        throttler:emitOnStateChange(sUnauthenticatedresultStream.throttleKey, sUnauthenticatedresultStream.isThrottled)
+        throttler:emitOnStateChange(sUnauthenticatedresultStream.throttleKey, sUnauthenticatedresultStream.isThrottled,
+        sUnauthenticatedresultStream.expiryTimeStamp)
         select sUnauthenticatedresultStream.throttleKey as throttleKey, sUnauthenticatedresultStream.isThrottled,
         sUnauthenticatedresultStream.stopOnQuota, sUnauthenticatedresultStream.expiryTimeStamp
         => (gateway:GlobalThrottleStreamDTO[] counts) {
@@ -7,6 +7,19 @@ future<()> ftr = start initThrottlePolicies();
 function initThrottlePolicies() {
     boolean globalThrottlingEnabled=gateway:initiateThrottlingJmsListener();
 
+    // the local throttle engine counts requests against the policies of their tiers, without the streaming queries
+    if (gateway:isLocalThrottleEngineEnabled()) {
+        gateway:addLocalThrottlePolicy("appTier", "50PerMin", 50, 60000, true);
+        gateway:addLocalThrottlePolicy("appTier", "20PerMin", 20, 60000, true);
+        gateway:addLocalThrottlePolicy("appTier", "10PerMin", 10, 60000, true);
+        gateway:addLocalThrottlePolicy("subscriptionTier", "Gold", 5000, 60000, true);
+        gateway:addLocalThrottlePolicy("subscriptionTier", "Silver", 2000, 60000, true);
+        gateway:addLocalThrottlePolicy("subscriptionTier", "Bronze", 1000, 60000, true);
+        gateway:addLocalThrottlePolicy("subscriptionTier", "Unauthenticated", 500, 60000, true);
+        log:printDebug("Throttle policies added to the local throttle engine.");
+        return;
+    }
+
     if (!globalThrottlingEnabled) {
         while (true) {
             if (gateway:isStreamsInitialized == true) {
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.apimgt.gateway.cli.test;
+
+import com.github.jknack.handlebars.Context;
+import com.github.jknack.handlebars.context.FieldValueResolver;
+import com.github.jknack.handlebars.context.JavaBeanValueResolver;
+import com.github.jknack.handlebars.context.MapValueResolver;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.apimgt.gateway.cli.constants.GeneratorConstants;
+import org.wso2.apimgt.gateway.cli.exception.BallerinaServiceGenException;
+import org.wso2.apimgt.gateway.cli.model.config.Config;
+import org.wso2.apimgt.gateway.cli.model.config.Etcd;
+import org.wso2.apimgt.gateway.cli.model.mgwcodegen.MgwEndpointConfigDTO;
+import org.wso2.apimgt.gateway.cli.model.mgwcodegen.MgwEndpointDTO;
+import org.wso2.apimgt.gateway.cli.model.mgwcodegen.MgwEndpointListDTO;
+import org.wso2.apimgt.gateway.cli.model.rest.EndpointUrlTypeEnum;
+import org.wso2.apimgt.gateway.cli.model.rest.ext.ExtendedAPI;
+import org.wso2.apimgt.gateway.cli.model.route.EndpointType;
+import org.wso2.apimgt.gateway.cli.model.template.service.BallerinaOperation;
+import org.wso2.apimgt.gateway.cli.model.template.service.BallerinaPath;
+import org.wso2.apimgt.gateway.cli.model.template.service.BallerinaService;
+import org.wso2.apimgt.gateway.cli.utils.CodegenUtils;
+import org.wso2.apimgt.gateway.cli.utils.GatewayCmdUtils;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Unit tests for the http endpoints generated by the httpEndpoint and httpResourceEndpoint templates and the forward
+ * generated by the prodEndpointForward and sandEndpointForward templates
+ */
+public class EndpointTemplateTest {
+    private static final String API_ID = "petstore-api-id";
+    private OpenAPI openAPI;
+
+    @BeforeClass()
+    public void setup() {
+        String definitionPath = EndpointTemplateTest.class.getClassLoader().getResource("petstore.yaml").getPath();
+        openAPI = new OpenAPIV3Parser().read(definitionPath);
+        GatewayCmdUtils.setConfig(new Config());
+    }
+
+    @AfterMethod
+    public void resetEtcd() {
+        GatewayCmdUtils.setEtcd(null);
+    }
+
+    @Test
+    public void testEtcdEndpointsAreReinitializedByTheListener() throws Exception {
+        setEtcdEnabled(true);
+        BallerinaService service = buildService();
+        String client = service.getQualifiedServiceName();
+
+        String generated = generateService(service);
+        for (String urlType : new String[] { "prod", "sand" }) {
+            assertClientCreatedFromEtcd(generated, client, urlType, API_ID);
+            Assert.assertTrue(generated.contains("var " + urlType + "Client = " + client + "_" + urlType + ";"),
+                    "The " + urlType + " client is not read on each request");
+        }
+        assertForwardFallsBackToError(generated);
+    }
+
+    @Test
+    public void testEtcdResourceEndpointsAreReinitializedByTheListener() throws Exception {
+        setEtcdEnabled(true);
+        BallerinaService service = buildService();
+        MgwEndpointConfigDTO resourceEpConfig = createEndpointConfig("http://resource.prod", "http://resource.sand");
+        for (Map.Entry<String, BallerinaPath> path : service.getPaths()) {
+            for (Map.Entry<String, BallerinaOperation> operation : path.getValue().getOperations()) {
+                operation.getValue().setEpConfigDTO(resourceEpConfig);
+            }
+        }
+
+        String generated = generateService(service);
+        for (Map.Entry<String, BallerinaPath> path : service.getPaths()) {
+            for (Map.Entry<String, BallerinaOperation> operation : path.getValue().getOperations()) {
+                String client = operation.getValue().getOperationId();
+                for (String urlType : new String[] { "prod", "sand" }) {
+                    assertClientCreatedFromEtcd(generated, client, urlType, client);
+                    Assert.assertTrue(generated.contains("var " + urlType + "Client = " + client + "_" + urlType
+                            + ";"), "The " + urlType + " client of the resource is not read on each request");
+                }
+            }
+        }
+        assertForwardFallsBackToError(generated);
+    }
+
+    @Test
+    public void testEndpointsAreCreatedOnceWithoutEtcd() throws Exception {
+        setEtcdEnabled(false);
+        BallerinaService service = buildService();
+        String client = service.getQualifiedServiceName();
+
+        String generated = generateService(service);
+        Assert.assertTrue(generated.contains("http:Client " + client + "_prod = new ("),
+                "The prod client is not created at startup");
+        Assert.assertTrue(generated.contains("http:Client " + client + "_sand = new ("),
+                "The sand client is not created at startup");
+        Assert.assertTrue(generated.contains("clientResponse = " + client + "_prod->forward(urlPostfix, req);"),
+                "The request is not forwarded with the prod client");
+        Assert.assertFalse(generated.contains("addEtcdUrlChangeListener"),
+                "An etcd listener is generated although etcd is disabled");
+        Assert.assertFalse(generated.contains("function reinit"),
+                "A client is reinitialized although etcd is disabled");
+    }
+
+    private void assertClientCreatedFromEtcd(String generated, String client, String urlType, String keyPrefix) {
+        String qualifiedClient = client + "_" + urlType;
+        Assert.assertTrue(generated.contains("http:Client? " + qualifiedClient + " = create" + qualifiedClient + "("),
+                "The " + qualifiedClient + " client is not created from the URL defined at etcd");
+        Assert.assertTrue(generated.contains("function create" + qualifiedClient
+                + "(string url) returns http:Client? {"), "create" + qualifiedClient + " is not generated");
+        Assert.assertTrue(generated.contains("function reinit" + qualifiedClient + "(string url) { "
+                + qualifiedClient + " = create" + qualifiedClient + "(url);"),
+                "reinit" + qualifiedClient + " does not replace the client");
+        Assert.assertTrue(generated.contains("gateway:addEtcdUrlChangeListener(\"" + keyPrefix + "_" + urlType
+                + "_etcdKey\""), "No etcd listener is registered for " + qualifiedClient);
+    }
+
+    private void assertForwardFallsBackToError(String generated) {
+        for (String urlType : new String[] { "prod", "sand" }) {
+            Assert.assertTrue(generated.contains("if (" + urlType + "Client is http:Client) { clientResponse = "
+                    + urlType + "Client->forward(urlPostfix, req);"),
+                    "The request is not forwarded with the " + urlType + " client read for the request");
+        }
+        Assert.assertTrue(generated.contains("\"code\": \"101503\""),
+                "No 101503 error is returned when the URL defined at etcd is invalid");
+        Assert.assertTrue(generated.contains("attributes[\"error_code\"] = \"101503\";"),
+                "The 101503 error code is not recorded when the URL defined at etcd is invalid");
+    }
+
+    private void setEtcdEnabled(boolean etcdEnabled) {
+        Etcd etcd = new Etcd();
+        etcd.setEtcdEnabled(etcdEnabled);
+        GatewayCmdUtils.setEtcd(etcd);
+    }
+
+    private MgwEndpointConfigDTO createEndpointConfig(String prodUrl, String sandUrl) {
+        MgwEndpointConfigDTO endpointConfig = new MgwEndpointConfigDTO();
+        endpointConfig.setProdEndpointList(createEndpointList(prodUrl, EndpointUrlTypeEnum.PROD));
+        endpointConfig.setSandboxEndpointList(createEndpointList(sandUrl, EndpointUrlTypeEnum.SAND));
+        return endpointConfig;
+    }
+
+    private MgwEndpointListDTO createEndpointList(String url, EndpointUrlTypeEnum urlType) {
+        MgwEndpointListDTO endpointList = new MgwEndpointListDTO();
+        endpointList.setType(EndpointType.http);
+        endpointList.setEndpointUrlType(urlType);
+        endpointList.setEndpoints(Collections.singletonList(new MgwEndpointDTO(url)));
+        return endpointList;
+    }
+
+    private BallerinaService buildService() throws BallerinaServiceGenException {
+        ExtendedAPI api = new ExtendedAPI();
+        api.setId(API_ID);
+        api.setName("PetStore");
+        api.setVersion("1.0.0");
+        api.setApiSecurity("oauth2");
+        api.setEndpointConfigRepresentation(createEndpointConfig("http://petstore.prod", "http://petstore.sand"));
+        BallerinaService service = new BallerinaService();
+        service.setIsDevFirst(false);
+        return service.buildContext(openAPI, api);
+    }
+
+    /**
+     * Generates the service with each run of whitespace collapsed to a single space, so that the assertions do not
+     * depend on how the partials are indented
+     */
+    private String generateService(BallerinaService service) throws IOException {
+        Context context = Context.newBuilder(service)
+                .resolver(MapValueResolver.INSTANCE, JavaBeanValueResolver.INSTANCE, FieldValueResolver.INSTANCE)
+                .build();
+        return CodegenUtils.compileTemplate(GeneratorConstants.DEFAULT_TEMPLATE_DIR,
+                GeneratorConstants.SERVICE_TEMPLATE_NAME).apply(context).replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.apimgt.gateway.cli.test;
+
+import com.github.jknack.handlebars.Context;
+import com.github.jknack.handlebars.context.FieldValueResolver;
+import com.github.jknack.handlebars.context.JavaBeanValueResolver;
+import com.github.jknack.handlebars.context.MapValueResolver;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.apimgt.gateway.cli.constants.GeneratorConstants;
+import org.wso2.apimgt.gateway.cli.exception.BallerinaServiceGenException;
+import org.wso2.apimgt.gateway.cli.model.config.Config;
+import org.wso2.apimgt.gateway.cli.model.rest.ext.ExtendedAPI;
+import org.wso2.apimgt.gateway.cli.model.template.service.BallerinaService;
+import org.wso2.apimgt.gateway.cli.model.template.service.ListenerEndpoint;
+import org.wso2.apimgt.gateway.cli.utils.CodegenUtils;
+import org.wso2.apimgt.gateway.cli.utils.GatewayCmdUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for the filter chain generated by {@link ListenerEndpoint}
+ */
+public class ListenerEndpointTest {
+    private OpenAPI openAPI;
+
+    @BeforeClass()
+    public void setup() {
+        String definitionPath = ListenerEndpointTest.class.getClassLoader().getResource("petstore.yaml").getPath();
+        openAPI = new OpenAPIV3Parser().read(definitionPath);
+        GatewayCmdUtils.setConfig(new Config());
+    }
+
+    @Test
+    public void testJwtFiltersAreKeptWhenLastApiIsBasicOnly() throws Exception {
+        List<BallerinaService> services = new ArrayList<>();
+        services.add(buildService("JwtAPI", "oauth2"));
+        services.add(buildService("BasicAPI", "basic"));
+
+        String listeners = generateListeners(services);
+        Assert.assertTrue(listeners.contains("filters[filters.length()] = authorizationFilter;"),
+                "Authorization filter is missing from the filter chain");
+        Assert.assertTrue(listeners.contains("filters[filters.length()] = subscriptionFilter;"),
+                "Subscription filter is missing from the filter chain");
+    }
+
+    @Test
+    public void testJwtFiltersAreKeptWhenBasicAuthIsOptional() throws Exception {
+        List<BallerinaService> services = new ArrayList<>();
+        services.add(buildService("OptionalBasicAPI", "basic,oauth2"));
+
+        String listeners = generateListeners(services);
+        Assert.assertTrue(listeners.contains("filters[filters.length()] = authorizationFilter;"),
+                "Authorization filter is missing from the filter chain");
+        Assert.assertTrue(listeners.contains("filters[filters.length()] = subscriptionFilter;"),
+                "Subscription filter is missing from the filter chain");
+    }
+
+    @Test
+    public void testJwtFiltersAreLeftOutForBasicOnlyApis() throws Exception {
+        List<BallerinaService> services = new ArrayList<>();
+        services.add(buildService("BasicAPI", "basic"));
+
+        String listeners = generateListeners(services);
+        Assert.assertFalse(listeners.contains("authorizationFilter"),
+                "Authorization filter is generated although no resource accepts a JWT");
+        Assert.assertFalse(listeners.contains("subscriptionFilter"),
+                "Subscription filter is generated although no resource accepts a JWT");
+    }
+
+    private BallerinaService buildService(String name, String apiSecurity) throws BallerinaServiceGenException {
+        ExtendedAPI api = new ExtendedAPI();
+        api.setName(name);
+        api.setVersion("1.0.0");
+        api.setApiSecurity(apiSecurity);
+        BallerinaService service = new BallerinaService();
+        service.setIsDevFirst(false);
+        return service.buildContext(openAPI, api);
+    }
+
+    private String generateListeners(List<BallerinaService> services) throws IOException {
+        Context context = Context.newBuilder(new ListenerEndpoint().buildContext(services))
+                .resolver(MapValueResolver.INSTANCE, JavaBeanValueResolver.INSTANCE, FieldValueResolver.INSTANCE)
+                .build();
+        return CodegenUtils.compileTemplate(GeneratorConstants.DEFAULT_TEMPLATE_DIR,
+                GeneratorConstants.LISTENERS_TEMPLATE_NAME).apply(context);
+    }
+}
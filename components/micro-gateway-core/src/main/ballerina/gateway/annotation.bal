@@ -21,6 +21,15 @@ public type TierConfiguration record {
 
 public annotation <resource> RateLimit TierConfiguration;
 
+# Response caching of a resource, or of all resources of a service. Responses are cached for the given number of
+# seconds, or for the default TTL of the response cache if none is given.
+public type ResponseCacheConfiguration record {
+    int ttl?;
+
+};
+
+public annotation <service, resource> ResponseCache ResponseCacheConfiguration;
+
 public type APIConfiguration record {
     string apiVersion;
     string name;
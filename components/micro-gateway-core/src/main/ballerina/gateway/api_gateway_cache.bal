@@ -21,6 +21,11 @@ public cache:Cache gatewayTokenCache = new;
 public cache:Cache gatewayKeyValidationCache = new;
 public cache:Cache invalidTokenCache= new;
 public cache:Cache jwtCache = new;
+// subscription index of each JWT. This is a cache of its own, which is configured with the same expiry time as the
+// jwtCache but evicts its entries independently, hence a JWT found in the jwtCache may have to be indexed again
+public cache:Cache jwtSubscriptionCache = new;
+// resolved basic auth headers, keyed by a keyed digest of the header so that credentials are not kept in the keys
+public cache:Cache basicAuthCache = new;
 
 public function initGatewayCaches() {
     gatewayTokenCache = new(expiryTimeMillis = getConfigIntValue(CACHING_ID, TOKEN_CACHE_EXPIRY,
@@ -32,6 +37,12 @@ public function initGatewayCaches() {
     invalidTokenCache = new(expiryTimeMillis = getConfigIntValue(CACHING_ID, TOKEN_CACHE_EXPIRY, 900000),
         capacity = getConfigIntValue(CACHING_ID, TOKEN_CACHE_CAPACITY, 100),
         evictionFactor = getConfigFloatValue(CACHING_ID, TOKEN_CACHE_EVICTION_FACTOR, 0.25));
+    jwtSubscriptionCache = new(expiryTimeMillis = getConfigIntValue(CACHING_ID, TOKEN_CACHE_EXPIRY, 900000),
+        capacity = getConfigIntValue(CACHING_ID, TOKEN_CACHE_CAPACITY, 100),
+        evictionFactor = getConfigFloatValue(CACHING_ID, TOKEN_CACHE_EVICTION_FACTOR, 0.25));
+    basicAuthCache = new(expiryTimeMillis = getConfigIntValue(CACHING_ID, BASIC_AUTH_CACHE_EXPIRY, 60000),
+        capacity = getConfigIntValue(CACHING_ID, BASIC_AUTH_CACHE_CAPACITY, 1000),
+        evictionFactor = getConfigFloatValue(CACHING_ID, TOKEN_CACHE_EVICTION_FACTOR, 0.25));
 }
 
 public type APIGatewayCache object {
@@ -26,6 +26,9 @@ import ballerina/reflect;
 import ballerina/crypto;
 import ballerina/encoding;
 
+// secret of the keyed digest of the basic auth cache keys, which is not known outside this gateway process
+byte[] basicAuthCacheKeySecret = system:uuid().toByteArray(UTF_8);
+
 public type BasicAuthUtils object {
 
 
@@ -45,6 +48,23 @@ public type BasicAuthUtils object {
         string[] providerIds = [AUTHN_SCHEME_BASIC];
         //set Username from the request
         string authHead = request.getHeader(AUTHORIZATION_HEADER);
+        boolean cacheEnabled = getConfigBooleanValue(CACHING_ID, BASIC_AUTH_CACHE_ENABLED, true);
+        string cacheKey = "";
+        if (cacheEnabled) {
+            cacheKey = getBasicAuthCacheKey(authHead);
+            BasicAuthCacheEntry? cacheEntry = retrieveFromBasicAuthCache(cacheKey);
+            if (cacheEntry is BasicAuthCacheEntry) {
+                printDebug(KEY_AUTHN_FILTER, "Basic auth credentials of " + cacheEntry.authenticationContext.username
+                        + " found in the basic auth cache.");
+                request.setHeader(AUTHORIZATION_HEADER, cacheEntry.hashedHeader);
+                runtime:Principal principal = runtime:getInvocationContext().userPrincipal;
+                principal.userId = cacheEntry.userId;
+                principal.username = cacheEntry.authenticationContext.username;
+                principal.scopes = cacheEntry.scopes;
+                setBasicAuthenticationContext(context, cacheEntry.authenticationContext.clone());
+                return true;
+            }
+        }
         string[] headers = authHead.trim().split("\\s* \\s*");
         string encodedCredentials = headers[1];
         byte[]|error decodedCredentials =  encoding:decodeBase64(encodedCredentials);
@@ -95,9 +115,6 @@ public type BasicAuthUtils object {
             return false;
         }
 
-        int startingTime = getCurrentTime();
-        context.attributes[REQUEST_TIME] = startingTime;
-        context.attributes[FILTER_FAILED] = false;
         //Set authenticationContext data
         authenticationContext.authenticated = true;
         //Authentication context data is set to default value bacuase in basic authentication we cannot have informtaion on subscription and applications
@@ -114,9 +131,47 @@ public type BasicAuthUtils object {
         authenticationContext.apiPublisher = USER_NAME_UNKNOWN;
         authenticationContext.subscriberTenantDomain = ANONYMOUS_USER_TENANT_DOMAIN;
         authenticationContext.keyType = ANONYMOUS_CONSUMER_KEY;
-        runtime:getInvocationContext().attributes[KEY_TYPE_ATTR] = authenticationContext.keyType;
-        context.attributes[AUTHENTICATION_CONTEXT] = authenticationContext;
+        if (cacheEnabled) {
+            runtime:Principal principal = runtime:getInvocationContext().userPrincipal;
+            BasicAuthCacheEntry cacheEntry = { authenticationContext: authenticationContext.clone(),
+                hashedHeader: hashedRequest, password: getConfiguredPassword(userName), userId: principal.userId,
+                scopes: principal.scopes.clone() };
+            basicAuthCache.put(cacheKey, cacheEntry);
+            printDebug(KEY_GW_CACHE, "Added the basic auth credentials of " + userName + " to the basic auth cache.");
+        }
+        setBasicAuthenticationContext(context, authenticationContext);
         isAuthenticated = true;
         return isAuthenticated;
     }
 };
+
+function setBasicAuthenticationContext(http:FilterContext context, AuthenticationContext authenticationContext) {
+    int startingTime = getCurrentTime();
+    context.attributes[REQUEST_TIME] = startingTime;
+    context.attributes[FILTER_FAILED] = false;
+    runtime:getInvocationContext().attributes[KEY_TYPE_ATTR] = authenticationContext.keyType;
+    context.attributes[AUTHENTICATION_CONTEXT] = authenticationContext;
+}
+
+function getBasicAuthCacheKey(string authHead) returns string {
+    return encoding:encodeHex(crypto:hmacSha256(authHead.toByteArray(UTF_8), basicAuthCacheKeySecret));
+}
+
+// an entry is dropped once the password of its user is changed or removed in b7a.users
+function retrieveFromBasicAuthCache(string cacheKey) returns BasicAuthCacheEntry? {
+    var cacheEntry = basicAuthCache.get(cacheKey);
+    if (cacheEntry is BasicAuthCacheEntry) {
+        string configuredPassword = getConfiguredPassword(cacheEntry.authenticationContext.username);
+        if (configuredPassword != "" && configuredPassword == cacheEntry.password) {
+            return cacheEntry;
+        }
+        basicAuthCache.remove(cacheKey);
+        printDebug(KEY_GW_CACHE, "Removed the basic auth credentials of " + cacheEntry.authenticationContext.username
+                + " from the basic auth cache since the user is changed.");
+    }
+    return ();
+}
+
+function getConfiguredPassword(string username) returns string {
+    return config:getAsString("b7a.users." + username + ".password", default = "");
+}
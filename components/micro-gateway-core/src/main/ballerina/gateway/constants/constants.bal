@@ -34,6 +34,10 @@
  public const string COOKIE_HEADER = "Cookie";
  public const string CONTENT_TYPE_HEADER = "Content-Type";
  public const string CONTENT_LENGHT_HEADER = "Content-Length";
+ public const string ETAG_HEADER = "ETag";
+ public const string LAST_MODIFIED_HEADER = "Last-Modified";
+ public const string IF_NONE_MATCH_HEADER = "If-None-Match";
+ public const string IF_MODIFIED_SINCE_HEADER = "If-Modified-Since";
  public const string X_WWW_FORM_URLENCODED = "application/x-www-form-urlencoded";
  public const string APPLICATION_JSON = "application/json";
  public const string TEXT_XML = "text/xml";
@@ -51,6 +55,7 @@
  public const string THROTTLE_KEY = "throttleKey";
  public const string RESOURCE_TIER_ANN_PACKAGE = "ballerina.gateway";
  public const string RESOURCE_TIER_ANN_NAME = "RateLimit";
+ public const string RESPONSE_CACHE_ANN_NAME = "ResponseCache";
  public const string UNLIMITED_TIER = "Unlimited";
  public const string UNAUTHENTICATED_TIER = "Unauthenticated";
  public const string END_USER_ANONYMOUS = "anonymous";
@@ -63,6 +68,9 @@
  public const string IS_THROTTLE_OUT = "IS_THROTTLE_OUT";
  public const string ALLOWED_ON_QUOTA_REACHED = "ALLOWED_ON_QUOTA_REACHED";
  public const string IS_SECURED = "IS_SECURED";
+ public const string RESPONSE_CACHE_KEY = "RESPONSE_CACHE_KEY";
+ public const string RESPONSE_CACHE_REVALIDATING = "RESPONSE_CACHE_REVALIDATING";
+public const string RESPONSE_CACHE_HIT = "RESPONSE_CACHE_HIT";
  public const string THROTTLE_OUT_REASON = "THROTTLE_REASON";
  public const string JWT_HEADER_NAME = "X-JWT-Assertion";
  public const string PRODUCTION_KEY_TYPE = "PRODUCTION";
@@ -144,10 +152,28 @@
  public const string API_USAGE_DIR = "api-usage-data";
  public const string FILE_UPLOAD_TASK = "task.uploadFiles";
  public const string DESTINATION = "destination";
+ public const string WRITER_BUFFER_SIZE = "writerBufferSize";
+ public const string WRITER_BATCH_SIZE = "writerBatchSize";
+ public const string WRITER_FLUSH_INTERVAL = "writerFlushIntervalInMillis";
+ public const string EVENT_BUFFER_CAPACITY = "eventBufferCapacity";
+ public const string EVENT_BUFFER_OVERFLOW_POLICY = "eventBufferOverflowPolicy";
+ public const string EVENT_BUFFER_SAMPLE_RATE = "eventBufferSampleRate";
+ public const string DEFAULT_EVENT_BUFFER_OVERFLOW_POLICY = "dropNewest";
+ public const int ANALYTICS_METRICS_INTERVAL = 10000;
+ public const string ANALYTICS_FILE_FORMAT = "fileFormat";
+ public const string TEXT_FILE_FORMAT = "text";
+ public const string UPLOAD_CONCURRENCY = "uploadConcurrency";
+ public const string UPLOAD_RETRY_INITIAL_DELAY = "uploadRetryInitialDelayInMillis";
+ public const string UPLOAD_RETRY_MAX_DELAY = "uploadRetryMaxDelayInMillis";
+ public const string REQUEST_STREAM_ID = "org.wso2.apimgt.statistics.request:3.0.0";
+ public const string FAULT_STREAM_ID = "org.wso2.apimgt.statistics.fault:3.0.0";
+ public const string THROTTLE_STREAM_ID = "org.wso2.apimgt.statistics.throttle:3.0.0";
 
 //validation_filter related constatnts
  public const string PATHS = "paths";
  public const string PARAMETERS = "parameters";
+ public const string REQUEST_BODY = "requestBody";
+ public const string CONTENT = "content";
  public const string REFERENCE = "$ref";
  public const string RESPONSES = "responses";
  public const string SCHEMA = "schema";
@@ -181,6 +207,9 @@
  public const string KM_TOKEN_CONTEXT = "/oauth2";
  public const string TIMESTAMP_SKEW = "timestampSkew";
  public const string ENABLE_HOSTNAME_VERIFICATION = "verifyHostname";
+ public const string KM_MAX_CONNECTIONS = "maxConnections";
+ public const string KM_CONNECT_TIMEOUT = "connectTimeoutInMillis";
+ public const string KM_READ_TIMEOUT = "readTimeoutInMillis";
 
 
  public const string BLOCKING_CONDITION_STATE = "state";
@@ -218,6 +247,10 @@
  public const string TOKEN_CACHE_EXPIRY = "tokenCache.expiryTime";
  public const string TOKEN_CACHE_CAPACITY = "tokenCache.capacity";
  public const string TOKEN_CACHE_EVICTION_FACTOR = "tokenCache.evictionFactor";
+ public const string TOKEN_CACHE_REFRESH_AHEAD_TIME = "tokenCache.refreshAheadTimeInMillis";
+ public const string BASIC_AUTH_CACHE_ENABLED = "basicAuthCache.enabled";
+ public const string BASIC_AUTH_CACHE_EXPIRY = "basicAuthCache.expiryTime";
+ public const string BASIC_AUTH_CACHE_CAPACITY = "basicAuthCache.capacity";
 
  public const string JWT_CONFIG_INSTANCE_ID = "jwtConfig";
  public const string JWT_HEADER = "header";
@@ -226,6 +259,8 @@
  public const string VALIDATION_CONFIG_INSTANCE_ID = "validationConfig";
  public const string REQUEST_VALIDATION_ENABLED = "enableRequestValidation";
  public const string RESPONSE_VALIDATION_ENABLED = "enableResponseValidation";
+ public const string STREAMING_VALIDATION_ENABLED = "enableStreamingValidation";
+public const string STREAMING_VALIDATION_MAX_PAYLOAD_SIZE = "maxStreamingPayloadSize";
  public const string SWAGGER_ABSOLUTE_PATH = "absolutePathToSwagger";
 
  public const string THROTTLE_CONF_INSTANCE_ID = "throttlingConfig";
@@ -236,9 +271,30 @@
  public const string JMS_CONNECTION_PASSWORD = "jmsConnectionPassword";
  public const string THROTTLE_ENDPOINT_URL = "throttleEndpointUrl";
  public const string THROTTLE_ENDPOINT_BASE64_HEADER = "throttleEndpointbase64Header";
+ public const string THROTTLE_EVENT_QUEUE_SIZE = "throttleEventQueueSize";
+ public const string THROTTLE_EVENT_BATCH_SIZE = "throttleEventBatchSize";
+ public const string THROTTLE_EVENT_LINGER_TIME = "throttleEventLingerTime";
+ public const string THROTTLE_DECISION_STORE_CAPACITY = "throttleDecisionStoreCapacity";
+ public const int THROTTLE_DECISION_STORE_METRICS_INTERVAL = 1000;
+ public const string LOCAL_THROTTLE_ENGINE_ENABLED = "enableLocalThrottleEngine";
+ public const string APPLICATION_TIER_TYPE = "appTier";
+ public const string SUBSCRIPTION_TIER_TYPE = "subscriptionTier";
+ public const string RESOURCE_TIER_TYPE = "resourceTier";
+
+ public const string RESPONSE_CACHE_CONF_INSTANCE_ID = "responseCacheConfig";
+ public const string RESPONSE_CACHE_ENABLED = "enabled";
+ public const string RESPONSE_CACHE_MAX_SIZE = "maxSize";
+ public const string RESPONSE_CACHE_MAX_ENTRY_SIZE = "maxEntrySize";
+ public const string RESPONSE_CACHE_OFF_HEAP = "enableOffHeapStore";
+ public const string RESPONSE_CACHE_VARY_HEADERS = "varyHeaders";
+ public const string RESPONSE_CACHE_DEFAULT_TTL = "defaultTtlInSeconds";
+ public const int RESPONSE_CACHE_METRICS_INTERVAL = 10000;
 
  public const string TOKEN_REVOCATION_CONF_INSTANCE_ID = "tokenRevocationConfig";
  public const string TOKEN_REVOCATION_ENABLED = "enabledTokenRevocation";
+ public const string REVOKED_TOKEN_STORE_CAPACITY = "revokedTokenStoreCapacity";
+ public const string REVOKED_TOKEN_BLOOM_FILTER_ENABLED = "enableRevokedTokenBloomFilter";
+ public const int REVOKED_TOKEN_MAP_SYNC_INTERVAL = 1000;
  public const string REALTIME_MESSAGE_INSTANCE_ID = "tokenRevocationConfig.realtime";
  public const string REALTIME_MESSAGE_ENABLED = "enableRealtimeMessageRetrieval";
  public const string REALTIME_JMS_CONNECTION_INITIAL_CONTEXT_FACTORY = "jmsConnectioninitialContextFactory";
@@ -292,6 +348,7 @@
  const string KEY_ANALYTICS_FILTER = "AnalyticsFilter";
  const string KEY_MUTUAL_SSL_FILTER = "MutualSSLFilter";
  const string KEY_VALIDATION_FILTER = "ValidationFilter";
+ const string KEY_RESPONSE_CACHE_FILTER = "ResponseCacheFilter";
  const string KEY_BASIC_AUTH_FILTER = "BasicAuthFilter";
  const string KEY_THROTTLE_UTIL = "ThrottleUtil";
  const string KEY_GW_CACHE = "GatewayCache";
@@ -307,6 +364,8 @@
 
  public int DEFAULT_LISTENER_TIMEOUT = 120000; //2 mins
  public int DEFAULT_ETCD_TRIGGER_TIME = 10000; //10 seconds
+ public int DEFAULT_ETCD_WATCH_APPLY_TIME = 1000; //1 second
+ public int DEFAULT_ETCD_WATCH_RETRY_DELAY = 1000; //1 second
 
 //jwt claims
  const string APPLICATION = "application";
@@ -14,8 +14,9 @@
 // specific language governing permissions and limitations
 // under the License.
 
-import ballerina/io;
 import ballerina/http;
+import ballerina/observe;
+import ballerina/task;
 
 
 public const string KVT = "-KS-";
@@ -24,8 +25,16 @@ public const string OBJ = "-OS-";
 
 int initializingTime = 0;
 int rotatingTime = 0;
-//streams associated with DTOs
-stream<EventDTO> eventStream = new;
+
+observe:Counter enqueuedAnalyticsEventCounter = new("analytics_events_enqueued",
+    desc = "Number of analytics events added to the analytics event buffer");
+observe:Counter droppedAnalyticsEventCounter = new("analytics_events_dropped",
+    desc = "Number of analytics events dropped since the analytics event buffer was full");
+observe:Gauge analyticsEventLagGauge = new("analytics_event_lag",
+    desc = "Number of analytics events waiting in the analytics event buffer to be written");
+// enqueued and dropped events already added to the counters
+int countedEnqueuedAnalyticsEvents = 0;
+int countedDroppedAnalyticsEvents = 0;
 
 
 function setRequestAttributesToContext(http:Request request, http:FilterContext context) {
@@ -51,33 +60,100 @@ function setRequestAttributesToContext(http:Request request, http:FilterContext
     context.attributes[REQUEST_TIME_PROPERTY] = currentTimeMills;
 }
 
-public function getEventData(EventDTO dto) returns string {
-    string output = "streamId" + KVT + dto.streamId + EVS + "timestamp" + KVT + dto.timeStamp + EVS +
-        "metadata" + KVT + dto.metaData + EVS + "correlationData" + KVT + "null" + EVS +
-        "payLoadData" + KVT + dto.payloadData + "\n";
-    return output;
+# Queue an analytics event to be written to the usage file. The payload is serialized by the writer from the fields
+# of the given DTO, in the order of the attributes of the stream.
+#
+# + streamId - Id of the analytics stream
+# + metaData - Meta data of the event
+# + payload - DTO holding the payload of the event
+public function publishAnalyticsEvent(string streamId, string metaData, map<anydata> payload) {
+    error? result = writeAnalyticsEventRecord(streamId, metaData, payload);
+    if (result is error) {
+        printError(KEY_ANALYTICS_FILTER, result.reason());
+    }
 }
 
-function writeEventToFile(EventDTO eventDTO) {
-    string fileLocation = retrieveConfig(API_USAGE_PATH, API_USAGE_DIR) + PATH_SEPERATOR;
-    io:WritableCharacterChannel charChannel = new(io:openWritableFile(fileLocation + API_USAGE_FILE), "UTF-8");
-    var result = charChannel.write(getEventData(eventDTO), 0);
-    if(result is error ) {
-        closeWC(charChannel);
-        panic result;
-    } else  {
-        closeWC(charChannel);
-        printDebug(KEY_ANALYTICS_FILTER, "Event is being written");
+# Start the writer of the usage file. Events are added to a bounded buffer and written in batches by a single
+# writer, which keeps the file open until it is rotated.
+function initEventWriter() {
+    string filePath = retrieveConfig(API_USAGE_PATH, API_USAGE_DIR) + PATH_SEPERATOR + API_USAGE_FILE;
+    int bufferSize = getConfigIntValue(ANALYTICS, WRITER_BUFFER_SIZE, 65536);
+    int batchSize = getConfigIntValue(ANALYTICS, WRITER_BATCH_SIZE, 500);
+    int flushInterval = getConfigIntValue(ANALYTICS, WRITER_FLUSH_INTERVAL, 1000);
+    int eventBufferCapacity = getConfigIntValue(ANALYTICS, EVENT_BUFFER_CAPACITY, 65536);
+    int sampleRate = getConfigIntValue(ANALYTICS, EVENT_BUFFER_SAMPLE_RATE, 10);
+    error? result = initAnalyticsEventWriter(filePath, bufferSize, batchSize, flushInterval, eventBufferCapacity,
+        getConfigValue(ANALYTICS, EVENT_BUFFER_OVERFLOW_POLICY, DEFAULT_EVENT_BUFFER_OVERFLOW_POLICY), sampleRate,
+        getConfigValue(ANALYTICS, ANALYTICS_FILE_FORMAT, TEXT_FILE_FORMAT));
+    if (result is error) {
+        printError(KEY_ANALYTICS_FILTER, result.reason() + ". Using the " + DEFAULT_EVENT_BUFFER_OVERFLOW_POLICY
+                + " policy and the " + TEXT_FILE_FORMAT + " format");
+        result = initAnalyticsEventWriter(filePath, bufferSize, batchSize, flushInterval, eventBufferCapacity,
+            DEFAULT_EVENT_BUFFER_OVERFLOW_POLICY, sampleRate, TEXT_FILE_FORMAT);
     }
+    initAnalyticsEventMetrics();
+}
 
+function initAnalyticsEventMetrics() {
+    error? result = enqueuedAnalyticsEventCounter.register();
+    if (result is ()) {
+        result = droppedAnalyticsEventCounter.register();
+    }
+    if (result is ()) {
+        result = analyticsEventLagGauge.register();
+    }
+    if (result is error) {
+        printError(KEY_ANALYTICS_FILTER, "Unable to register the analytics event buffer metrics: " + result.reason());
+        return;
+    }
+    (function() returns error?) onTriggerFunction = updateAnalyticsEventMetrics;
+    function(error) onErrorFunction = errorOnUpdatingAnalyticsEventMetrics;
+    task:Timer metricsTimer = new task:Timer(onTriggerFunction, onErrorFunction, ANALYTICS_METRICS_INTERVAL);
+    metricsTimer.start();
 }
 
-public function closeWC(io:WritableCharacterChannel charChannel) {
-    var result = charChannel.close();
-    if(result is error){
-            printError(KEY_ANALYTICS_FILTER, "Error occurred while closing the channel: "
-                    + result.reason());
-    } else {
-        printDebug(KEY_ANALYTICS_FILTER, "Source channel closed successfully.");
+function updateAnalyticsEventMetrics() returns error? {
+    map<int> metrics = getAnalyticsEventBufferMetrics();
+    analyticsEventLagGauge.setValue(<float>(metrics["lag"] ?: 0));
+    // the event buffer keeps running totals, hence the counters are incremented by the difference to the last update
+    int enqueued = metrics["enqueued"] ?: 0;
+    int dropped = metrics["dropped"] ?: 0;
+    if (enqueued > countedEnqueuedAnalyticsEvents) {
+        enqueuedAnalyticsEventCounter.increment(amount = enqueued - countedEnqueuedAnalyticsEvents);
+        countedEnqueuedAnalyticsEvents = enqueued;
     }
+    if (dropped > countedDroppedAnalyticsEvents) {
+        droppedAnalyticsEventCounter.increment(amount = dropped - countedDroppedAnalyticsEvents);
+        countedDroppedAnalyticsEvents = dropped;
+    }
+    return;
+}
+
+function errorOnUpdatingAnalyticsEventMetrics(error e) {
+    printDebug(KEY_ANALYTICS_FILTER, "Unable to update the analytics event buffer metrics: " + e.reason());
 }
+
+# Start the writer of the usage file.
+#
+# + filePath - Path of the usage file
+# + bufferSize - Size of the write buffer in bytes
+# + batchSize - Number of events after which the file is flushed
+# + flushInterval - Maximum time in milliseconds an event is kept in the write buffer
+# + eventBufferCapacity - Maximum number of events waiting to be written
+# + overflowPolicy - What to do once the event buffer is full: block, dropNewest, dropOldest or sample
+# + sampleRate - One of how many events is kept by the sample policy once the event buffer is half full
+# + fileFormat - Format of the usage file: text, or binary with a dictionary of the repeated values
+# + return - Error if the overflow policy or the file format is not known
+extern function initAnalyticsEventWriter(string filePath, int bufferSize, int batchSize, int flushInterval,
+                                         int eventBufferCapacity, string overflowPolicy, int sampleRate,
+                                         string fileFormat) returns error?;
+
+extern function writeAnalyticsEventRecord(string streamId, string metaData, map<anydata> payload) returns error?;
+
+extern function getAnalyticsEventBufferMetrics() returns map<int>;
+
+# Write the pending events and close the current segment of the usage file, so that it can be uploaded. Events
+# published afterwards are written to a new segment.
+#
+# + return - Name of the closed segment, or an empty string if no events were written since the last rotation
+extern function rotateAnalyticsEventFile() returns string;
@@ -74,6 +74,47 @@ public type AuthenticationContext record {
     string apiPublisher=UNKNOWN_VALUE;
 };
 
+// static details of a resource, resolved from the annotations of the resource and its service when the service is
+// registered. Descriptors are shared by all requests to the resource and must not be modified.
+public type ResourceDescriptor record {
+    string serviceName = "";
+    string resourceName = "";
+    APIConfiguration? apiConfig = ();
+    string apiName = "";
+    string apiVersion = "";
+    string apiPublisher = "";
+    string context = "";
+    // context of the API including its version, as sent to the key validation service
+    string keyValidationContext = "";
+    string tenantDomain = SUPER_TENANT_DOMAIN_NAME;
+    string authorizationHeader = AUTHORIZATION_HEADER;
+    boolean secured = true;
+    string[] authProviders = [];
+    string[] scopes = [];
+    string resourcePath = "";
+    string httpVerb = "";
+    string resourceTier = "";
+    // "<context>:<version>", the API level throttle and blocking key
+    string apiThrottleKey = "";
+    // ":<context>:<version>", appended to the application id or client IP to get the subscription level throttle key
+    string contextThrottleKeySuffix = "";
+    // "<resource name>:<version>", the resource level throttle key
+    string resourceThrottleKey = "";
+    // id of the resource level throttle key, if the resource has a throttle tier
+    int resourceThrottleKeyId = NO_THROTTLE_KEY_ID;
+    // time in milliseconds for which the responses of the resource are cached, 0 if they are not cached
+    int responseCacheTtl = 0;
+};
+
+// resolved result of a basic auth header, kept in the basic auth cache
+public type BasicAuthCacheEntry record {
+    AuthenticationContext authenticationContext;
+    string hashedHeader;
+    string password;
+    string userId;
+    string[] scopes;
+};
+
 public type KeyManagerConf record {
    string serverUrl="";
    Credentials credentials?;
@@ -84,3 +125,32 @@ public type Credentials record {
    string password="";
 };
 
+
+# Claims of a JWT needed for subscription validation, with the subscriptions indexed by API name and version.
+#
+# + hasSubscribedAPIsClaim - Whether the token has the subscribedAPIs claim
+# + subscriptionCount - Number of subscriptions in the subscribedAPIs claim
+# + subscriptions - Subscriptions of the token indexed by "<api name>:<api version>"
+public type JwtSubscriptionIndex record {
+    boolean hasSubscribedAPIsClaim = false;
+    int subscriptionCount = 0;
+    string username = "";
+    string applicationId = UNKNOWN_VALUE;
+    string applicationName = UNKNOWN_VALUE;
+    string applicationTier = UNLIMITED_TIER;
+    string subscriber = UNKNOWN_VALUE;
+    string consumerKey = UNKNOWN_VALUE;
+    string keyType = PRODUCTION_KEY_TYPE;
+    map<JwtSubscription> subscriptions = {};
+};
+
+# Subscription of a JWT to an API.
+#
+# + tier - Subscription tier
+# + publisher - Publisher of the API
+# + subscriberTenantDomain - Tenant domain of the subscriber
+public type JwtSubscription record {
+    string tier = "";
+    string publisher = "";
+    string subscriberTenantDomain = "";
+};
@@ -32,6 +32,20 @@ public type RequestStreamDTO record {
     string appId="";
     string apiName="";
     string properties="";
+    int appKeyId=NO_THROTTLE_KEY_ID;
+    int subscriptionKeyId=NO_THROTTLE_KEY_ID;
+    int resourceKeyId=NO_THROTTLE_KEY_ID;
+};
+
+# Throttle keys of a request, computed once by the throttle filter. Keys which were not interned have the id
+# NO_THROTTLE_KEY_ID and are looked up by the key itself.
+public type ThrottleKeys record {
+    string appKey="";
+    int appKeyId=NO_THROTTLE_KEY_ID;
+    string subscriptionKey="";
+    int subscriptionKeyId=NO_THROTTLE_KEY_ID;
+    string resourceKey="";
+    int resourceKeyId=NO_THROTTLE_KEY_ID;
 };
 
 public type GlobalThrottleStreamDTO record {
@@ -0,0 +1,24 @@
+// Copyright (c)  WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+# Schema of a single request body or response payload, resolved from the swagger at startup.
+#
+# + key - Key of the compiled schema which the payload is validated against
+# + modelName - Name of the referenced model, empty for inline schemas
+public type ValidationSchema record {
+    string key = "";
+    string modelName = "";
+};
@@ -30,8 +30,22 @@ http:Client throttleEndpoint = new(throttleEndpointUrl, config =
         }
     });
 
-public function publishThrottleEventToTrafficManager(RequestStreamDTO throttleEvent) {
+# Publish a batch of throttle events to the traffic manager with a single request.
+#
+# + throttleEvents - Throttle events to be published
+# + return - `true` if the traffic manager accepted the events, else `false`
+public function publishThrottleEventBatchToTrafficManager(RequestStreamDTO[] throttleEvents) returns boolean {
+    json[] sendEvents = [];
+    int i = 0;
+    foreach var throttleEvent in throttleEvents {
+        sendEvents[i] = createThrottleEventPayload(throttleEvent);
+        i = i + 1;
+    }
+    log:printDebug("Batch of " + i + " throttle messages is sent to traffic manager");
+    return sendThrottleEvents(sendEvents);
+}
 
+function createThrottleEventPayload(RequestStreamDTO throttleEvent) returns json {
     json sendEvent = {
         event: {
             metaData: {},
@@ -57,21 +71,23 @@ public function publishThrottleEventToTrafficManager(RequestStreamDTO throttleEv
             }
         }
     };
+    return sendEvent;
+}
 
+function sendThrottleEvents(json sendEvent) returns boolean {
     http:Request clientRequest = new;
     string encodedBasicAuthHeader = encoding:encodeBase64(throttleEndpointbase64Header.toByteArray("UTF-8"));
     clientRequest.setHeader(AUTHORIZATION_HEADER, BASIC_PREFIX_WITH_SPACE + encodedBasicAuthHeader);
     clientRequest.setPayload(sendEvent);
 
-    log:printDebug("ThrottleMessage is sent to traffic manager");
-
     var response = throttleEndpoint->post("/throttleEventReceiver", clientRequest);
 
     if(response is http:Response) {
         log:printDebug("\nStatus Code: " + response.statusCode);
+        return response.statusCode < 300;
     }
     else if(response is error){
         log:printError(response.reason(), err = response);
     }
-
+    return false;
 }
@@ -0,0 +1,170 @@
+// Copyright (c)  WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/observe;
+import ballerina/task;
+
+int throttleEventQueueSize = getThrottleEventPublisherConfig(THROTTLE_EVENT_QUEUE_SIZE, 10000);
+int throttleEventBatchSize = getThrottleEventPublisherConfig(THROTTLE_EVENT_BATCH_SIZE, 100);
+int throttleEventLingerTime = getThrottleEventPublisherConfig(THROTTLE_EVENT_LINGER_TIME, 1000);
+
+// Throttle events waiting to be published are kept in a ring buffer. The oldest event is at throttleEventQueueHead.
+RequestStreamDTO?[] throttleEventQueue = [];
+int throttleEventQueueHead = 0;
+int throttleEventQueueDepth = 0;
+boolean throttleEventFlushInProgress = false;
+boolean throttleEventPublisherStarted = false;
+task:Timer? throttleEventFlushTimer = ();
+
+observe:Gauge throttleEventQueueDepthGauge = new("throttle_event_queue_depth",
+    desc = "Number of throttle events waiting to be published to the traffic manager");
+observe:Counter droppedThrottleEventCounter = new("throttle_events_dropped",
+    desc = "Number of throttle events dropped since the queue was full");
+observe:Counter publishedThrottleEventCounter = new("throttle_events_published",
+    desc = "Number of throttle events published to the traffic manager");
+observe:Counter failedThrottleEventCounter = new("throttle_events_failed",
+    desc = "Number of throttle events which the traffic manager did not accept");
+
+# Start the timer which publishes the queued throttle events to the traffic manager once in every linger time.
+public function initThrottleEventPublisher() {
+    if (!enabledGlobalTMEventPublishing) {
+        return;
+    }
+    lock {
+        if (!throttleEventPublisherStarted) {
+            registerThrottleEventMetrics();
+            (function() returns error?) onTriggerFunction = flushThrottleEventsOnTimer;
+            function(error) onErrorFunction = throttleEventFlushError;
+            throttleEventFlushTimer = new task:Timer(onTriggerFunction, onErrorFunction, throttleEventLingerTime,
+                delay = throttleEventLingerTime);
+            throttleEventFlushTimer.start();
+            throttleEventPublisherStarted = true;
+            printDebug(KEY_THROTTLE_UTIL, "Throttle event publisher started with a batch size of "
+                    + throttleEventBatchSize + " and a linger time of " + throttleEventLingerTime + "ms");
+        }
+    }
+}
+
+//the queue, the batches and the timer need positive sizes, hence values which are not positive are replaced by the
+//defaults
+function getThrottleEventPublisherConfig(string property, int defaultValue) returns int {
+    int value = getConfigIntValue(THROTTLE_CONF_INSTANCE_ID, property, defaultValue);
+    if (value <= 0) {
+        printError(KEY_THROTTLE_UTIL, "Invalid value " + value + " for " + THROTTLE_CONF_INSTANCE_ID + "." + property
+                + ". It should be greater than 0, hence " + defaultValue + " is used");
+        return defaultValue;
+    }
+    return value;
+}
+
+# Add a throttle event to the queue of events to be published to the traffic manager. The event is dropped if the
+# queue is full, which happens when the traffic manager can not keep up with the gateway.
+#
+# + throttleEvent - Throttle event to be published
+public function enqueueThrottleEvent(RequestStreamDTO throttleEvent) {
+    boolean dropped = false;
+    boolean flush = false;
+    lock {
+        if (throttleEventQueueDepth >= throttleEventQueueSize) {
+            dropped = true;
+        } else {
+            throttleEventQueue[(throttleEventQueueHead + throttleEventQueueDepth) % throttleEventQueueSize] =
+                throttleEvent;
+            throttleEventQueueDepth = throttleEventQueueDepth + 1;
+            //publish without waiting for the timer once a batch is filled
+            if (throttleEventQueueDepth >= throttleEventBatchSize && !throttleEventFlushInProgress) {
+                throttleEventFlushInProgress = true;
+                flush = true;
+            }
+        }
+    }
+    if (dropped) {
+        droppedThrottleEventCounter.increment();
+        printDebug(KEY_THROTTLE_UTIL, "Throttle event queue is full. Throttle event is dropped.");
+        return;
+    }
+    throttleEventQueueDepthGauge.increment();
+    if (flush) {
+        future<()> flushedEvents = start flushThrottleEvents();
+    }
+}
+
+function flushThrottleEventsOnTimer() returns error? {
+    boolean flush = false;
+    lock {
+        if (throttleEventQueueDepth > 0 && !throttleEventFlushInProgress) {
+            throttleEventFlushInProgress = true;
+            flush = true;
+        }
+    }
+    if (flush) {
+        flushThrottleEvents();
+    }
+    return ();
+}
+
+function throttleEventFlushError(error e) {
+    printError(KEY_THROTTLE_UTIL, "Error occurred while publishing throttle events: " + e.reason());
+}
+
+//publish the queued events in batches until the queue is empty. Only one flush runs at a time, so batches are sent one
+//after the other and the queue fills up when the traffic manager is slow.
+function flushThrottleEvents() {
+    while (true) {
+        RequestStreamDTO[] batch = [];
+        int batchLength = 0;
+        lock {
+            while (batchLength < throttleEventBatchSize && throttleEventQueueDepth > 0) {
+                RequestStreamDTO? throttleEvent = throttleEventQueue[throttleEventQueueHead];
+                throttleEventQueue[throttleEventQueueHead] = ();
+                throttleEventQueueHead = (throttleEventQueueHead + 1) % throttleEventQueueSize;
+                throttleEventQueueDepth = throttleEventQueueDepth - 1;
+                if (throttleEvent is RequestStreamDTO) {
+                    batch[batchLength] = throttleEvent;
+                    batchLength = batchLength + 1;
+                }
+            }
+            if (batchLength == 0) {
+                throttleEventFlushInProgress = false;
+            }
+        }
+        if (batchLength == 0) {
+            return;
+        }
+        throttleEventQueueDepthGauge.decrement(amount = <float>batchLength);
+        if (publishThrottleEventBatchToTrafficManager(batch)) {
+            publishedThrottleEventCounter.increment(amount = batchLength);
+        } else {
+            failedThrottleEventCounter.increment(amount = batchLength);
+        }
+    }
+}
+
+function registerThrottleEventMetrics() {
+    error? result = throttleEventQueueDepthGauge.register();
+    if (result is ()) {
+        result = droppedThrottleEventCounter.register();
+    }
+    if (result is ()) {
+        result = publishedThrottleEventCounter.register();
+    }
+    if (result is ()) {
+        result = failedThrottleEventCounter.register();
+    }
+    if (result is error) {
+        printError(KEY_THROTTLE_UTIL, "Unable to register the throttle event publisher metrics: " + result.reason());
+    }
+}
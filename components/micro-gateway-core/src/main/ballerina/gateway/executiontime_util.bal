@@ -20,19 +20,20 @@ import ballerina/http;
 
 public function generateExecutionTimeEvent(http:FilterContext context) returns ExecutionTimeDTO {
     ExecutionTimeDTO executionTimeDTO = {};
+    ResourceDescriptor descriptor = getResourceDescriptor(context);
     boolean isSecured =  <boolean>context.attributes[IS_SECURED];
     if (isSecured && context.attributes.hasKey(AUTHENTICATION_CONTEXT)) {
         AuthenticationContext authContext =  <AuthenticationContext>context.attributes[AUTHENTICATION_CONTEXT];
         executionTimeDTO.provider = authContext.apiPublisher;
         executionTimeDTO.keyType = authContext.keyType;
     } else {
-        executionTimeDTO.provider = apiConfigAnnotationMap[getServiceName(context.serviceName)].publisher;
+        executionTimeDTO.provider = descriptor.apiPublisher;
         executionTimeDTO.keyType = PRODUCTION_KEY_TYPE;
     }
-    executionTimeDTO.apiName = getApiName(context);
-    executionTimeDTO.apiVersion = apiConfigAnnotationMap[getServiceName(context.serviceName)].apiVersion;
-    executionTimeDTO.tenantDomain = getTenantDomain(context);
-    executionTimeDTO.context = getContext(context);
+    executionTimeDTO.apiName = descriptor.apiName;
+    executionTimeDTO.apiVersion = descriptor.apiVersion;
+    executionTimeDTO.tenantDomain = descriptor.tenantDomain;
+    executionTimeDTO.context = descriptor.context;
     executionTimeDTO.correleationID = <string>context.attributes[MESSAGE_ID];
 
     executionTimeDTO.securityLatency = getSecurityLatency(context);
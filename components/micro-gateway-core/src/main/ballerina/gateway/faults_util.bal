@@ -30,7 +30,7 @@ public function getFaultPayloadData(FaultDTO dto) returns string {
 
 public function getEventFromFaultData(FaultDTO dto) returns EventDTO {
     EventDTO eventDTO = {};
-    eventDTO.streamId = "org.wso2.apimgt.statistics.fault:3.0.0";
+    eventDTO.streamId = FAULT_STREAM_ID;
     eventDTO.timeStamp = getCurrentTime();
     eventDTO.metaData = getFaultMetaData(dto);
     eventDTO.correlationData = "null";
@@ -15,7 +15,6 @@
 // under the License.
 
 import ballerina/io;
-import ballerina/internal;
 import ballerina/task;
 import ballerina/math;
 import ballerina/runtime;
@@ -24,22 +23,13 @@ import ballerina/log;
 
 
 function sendFileRotatingEvent() returns error? {
-    int cnt = 0;
-    string fileLocation = retrieveConfig(API_USAGE_PATH, API_USAGE_DIR) + PATH_SEPERATOR;
-    internal:Path path = new(fileLocation + API_USAGE_FILE);
-
-    if (path.exists()) {
-        var result = rotateFile(API_USAGE_FILE);
-        if(result is string) {
-            printInfo(KEY_ROTATE_TASK, "File rotated successfully.");
-        } else {
-            printFullError(KEY_ROTATE_TASK, result);
-        }
-        return;
+    var result = rotateFile(API_USAGE_FILE);
+    if(result is string) {
+        printInfo(KEY_ROTATE_TASK, "File rotated successfully.");
     } else {
-        error er = error("No files present to rotate.");
-        return er;
+        return result;
     }
+    return;
 }
 
 function errorOnRotating(error e) {
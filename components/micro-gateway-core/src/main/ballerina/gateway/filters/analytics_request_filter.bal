@@ -18,6 +18,13 @@ import ballerina/io;
 import ballerina/http;
 import ballerina/time;
 
+# Returns whether the analytics filter has to be added to the filter chain of the listeners.
+#
+# + return - Whether analytics is enabled
+public function isAnalyticsFilterRequired() returns boolean {
+    return getConfigBooleanValue(ANALYTICS, ENABLE, false);
+}
+
 public type AnalyticsRequestFilter object {
 
     public function filterRequest(http:Caller caller, http:Request request, http:FilterContext context) returns boolean {
@@ -43,7 +50,7 @@ public type AnalyticsRequestFilter object {
                 boolean isThrottleOut = <boolean>context.attributes[IS_THROTTLE_OUT];
                 if (isThrottleOut) {
                     ThrottleAnalyticsEventDTO eventDto = populateThrottleAnalyticsDTO(context);
-                    eventStream.publish(getEventFromThrottleData(eventDto));
+                    publishAnalyticsEvent(THROTTLE_STREAM_ID, getThrottleMetaData(eventDto), eventDto);
                 } else {
                     if (!filterFailed) {
                         doFilterAll(response, context);
@@ -68,15 +75,15 @@ function doFilterRequest(http:Request request, http:FilterContext context) {
 
 function doFilterFault(http:FilterContext context, error err) {
     FaultDTO faultDTO = populateFaultAnalyticsDTO(context, err);
-    eventStream.publish(getEventFromFaultData(faultDTO));
+    publishAnalyticsEvent(FAULT_STREAM_ID, getFaultMetaData(faultDTO), faultDTO);
 }
 
 function doFilterResponseData(http:Response response, http:FilterContext context) {
     //Response data publishing
     RequestResponseExecutionDTO requestResponseExecutionDTO = generateRequestResponseExecutionDataEvent(response,
         context);
-    EventDTO event = generateEventFromRequestResponseExecutionDTO(requestResponseExecutionDTO);
-    eventStream.publish(event);
+    publishAnalyticsEvent(REQUEST_STREAM_ID, getMetaDataForRequestResponseExecutionData(requestResponseExecutionDTO),
+        requestResponseExecutionDTO);
 }
 
 function doFilterAll(http:Response response, http:FilterContext context) {
@@ -72,7 +72,9 @@ function doAuthnFilterRequest(http:Caller caller, http:Request request, http:Fil
     runtime:getInvocationContext().attributes[RESOURCE_NAME_ATTR] = context.resourceName;
     // get auth config for this resource
     boolean authenticated;
-    var (isSecured, authProvidersIds) = getResourceAuthConfig(context);
+    ResourceDescriptor descriptor = getResourceDescriptor(context);
+    boolean isSecured = descriptor.secured;
+    string[] authProvidersIds = descriptor.authProviders;
     context.attributes[IS_SECURED] = isSecured;
     AuthenticationContext authenticationContext = {};
     boolean isAuthorized = false;
@@ -82,7 +84,7 @@ function doAuthnFilterRequest(http:Caller caller, http:Request request, http:Fil
         string authHeader = "";
         string|error result = "";
         string|error extractedToken = "";
-        string authHeaderName = getAuthorizationHeader(serviceAnnotationMap[getServiceName(context.serviceName)] ?: []);
+        string authHeaderName = descriptor.authorizationHeader;
         //check for the header of the request and choose the path
         if (request.hasHeader(authHeaderName)) {
             authHeader = request.getHeader(authHeaderName);
@@ -280,41 +282,6 @@ function doAuthnFilterRequest(http:Caller caller, http:Request request, http:Fil
     return isAuthorized;
 }
 
-function getResourceAuthConfig(http:FilterContext context) returns (boolean, string[]) {
-    boolean resourceSecured;
-    string[] authProviderIds = [];
-    // get authn details from the resource level
-    http:ListenerAuthConfig? resourceLevelAuthAnn = getAuthAnnotation(ANN_PACKAGE,
-        RESOURCE_ANN_NAME,resourceAnnotationMap[context.resourceName] ?: []);
-    http:ListenerAuthConfig? serviceLevelAuthAnn = getAuthAnnotation(ANN_PACKAGE,
-        SERVICE_ANN_NAME,serviceAnnotationMap[getServiceName(context.serviceName)] ?: []);
-    // check if authentication is enabled
-    resourceSecured = isResourceSecured(resourceLevelAuthAnn, serviceLevelAuthAnn);
-    // if resource is not secured, no need to check further
-    if (!resourceSecured) {
-        return (resourceSecured, authProviderIds);
-    }
-    // check if auth providers are given at resource level
-    var providers = resourceLevelAuthAnn.authProviders;
-    if(providers is string[]) {
-        authProviderIds = providers;
-    } else {
-        // no auth providers found in resource level, try in rest level
-        if(serviceLevelAuthAnn.authProviders is string[]) {
-            string[]? sss = serviceLevelAuthAnn.authProviders;
-            if (sss is string[]) {
-                authProviderIds = sss;
-            } else {
-                // no auth providers found
-            }
-
-        } else {
-            // no auth providers found
-        }
-    }
-    return (resourceSecured, authProviderIds);
-}
-
 function getAuthenticationProviderType(string authHeader) returns (string) {
     if (authHeader.contains(AUTH_SCHEME_BASIC)){
         return AUTHN_SCHEME_BASIC;
@@ -0,0 +1,358 @@
+// Copyright (c)  WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file   except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/http;
+import ballerina/log;
+import ballerina/observe;
+import ballerina/runtime;
+import ballerina/task;
+
+boolean responseCacheEnabled = getConfigBooleanValue(RESPONSE_CACHE_CONF_INSTANCE_ID, RESPONSE_CACHE_ENABLED, false);
+int defaultResponseCacheTtl = getConfigIntValue(RESPONSE_CACHE_CONF_INSTANCE_ID, RESPONSE_CACHE_DEFAULT_TTL, 300);
+string responseCacheVaryHeaderNames = getConfigValue(RESPONSE_CACHE_CONF_INSTANCE_ID, RESPONSE_CACHE_VARY_HEADERS,
+    "Accept,Accept-Encoding");
+string[] responseCacheVaryHeaders = responseCacheVaryHeaderNames.split(",");
+// metrics of each API which are counted by the response cache, in the order of the counters of an API
+string[] responseCacheCountedMetrics = ["hits", "misses", "revalidations", "evictions"];
+observe:Gauge responseCacheEntryGauge = new("response_cache_entries",
+    desc = "Number of responses in the response cache");
+observe:Gauge responseCacheSizeGauge = new("response_cache_size",
+    desc = "Total size of the responses in the response cache in bytes");
+// API name -> counters of the hits, misses, revalidations and evictions of the response cache
+map<observe:Counter[]> responseCacheCounters = {};
+// API name -> hits, misses, revalidations and evictions already added to the counters of the API
+map<int[]> countedResponseCacheMetrics = {};
+
+# Returns whether the response cache filter has to be added to the filter chain of the listeners.
+#
+# + return - Whether the response cache is enabled
+public function isResponseCacheFilterRequired() returns boolean {
+    return responseCacheEnabled;
+}
+
+# Serves the responses of the resources which have a response cache TTL from the response cache. Stale responses
+# are revalidated with the backend using their ETag or Last-Modified header. Responses of secured resources are cached
+# per user and application.
+public type ResponseCacheFilter object {
+
+    public function __init() {
+        initResponseCache(getConfigIntValue(RESPONSE_CACHE_CONF_INSTANCE_ID, RESPONSE_CACHE_MAX_SIZE, 104857600),
+            getConfigIntValue(RESPONSE_CACHE_CONF_INSTANCE_ID, RESPONSE_CACHE_MAX_ENTRY_SIZE, 1048576),
+            getConfigBooleanValue(RESPONSE_CACHE_CONF_INSTANCE_ID, RESPONSE_CACHE_OFF_HEAP, false),
+            responseCacheVaryHeaderNames);
+        // the filter is created for the listeners even if it is not added to their filter chains
+        if (responseCacheEnabled) {
+            initResponseCacheMetrics();
+        }
+    }
+
+    public function filterRequest(http:Caller caller, http:Request request, http:FilterContext context)
+                        returns boolean {
+        checkOrSetMessageID(context);
+        return doResponseCacheFilterRequest(caller, request, context);
+    }
+
+    public function filterResponse(http:Response response, http:FilterContext context) returns boolean {
+        return doResponseCacheFilterResponse(response, context);
+    }
+
+};
+
+function doResponseCacheFilterRequest(http:Caller caller, http:Request request, http:FilterContext context)
+             returns boolean {
+    ResourceDescriptor descriptor = getResourceDescriptor(context);
+    if (descriptor.responseCacheTtl <= 0 || (request.method != "GET" && request.method != "HEAD")) {
+        return true;
+    }
+    string? identity = getResponseCacheIdentity(descriptor, context);
+    if (identity is ()) {
+        printDebug(KEY_RESPONSE_CACHE_FILTER, "Response of " + request.method + " " + request.rawPath
+                + " is not cached since the request was not authenticated");
+        return true;
+    }
+    string key = createResponseCacheKey(request.method, request.rawPath,
+        getResponseCacheVaryValues(request, identity));
+    context.attributes[RESPONSE_CACHE_KEY] = key;
+    map<any> cachedResponse = getCachedResponse(key, descriptor.apiName, getRequestHeader(request,
+            IF_NONE_MATCH_HEADER), getRequestHeader(request, IF_MODIFIED_SINCE_HEADER));
+    if (cachedResponse.length() == 0) {
+        printDebug(KEY_RESPONSE_CACHE_FILTER, "No cached response found for " + request.method + " "
+                + request.rawPath);
+        return true;
+    }
+    if (<boolean>cachedResponse["fresh"]) {
+        printDebug(KEY_RESPONSE_CACHE_FILTER, "Serving the cached response of " + request.method + " "
+                + request.rawPath);
+        http:Response response = createCachedResponse(cachedResponse, <boolean>cachedResponse["notModified"]);
+        var result = caller->respond(response);
+        if (result is error) {
+            log:printError("Error occurred while sending the cached response", err = result);
+        }
+        publishCachedResponseAnalytics(response, context);
+        return false;
+    }
+    // the backend is asked whether the stale response has changed, unless the client sent conditional headers of
+    // its own, in which case the response of the backend is meant for the client
+    if (!request.hasHeader(IF_NONE_MATCH_HEADER) && !request.hasHeader(IF_MODIFIED_SINCE_HEADER)) {
+        string eTag = <string>cachedResponse["eTag"];
+        string lastModified = <string>cachedResponse["lastModified"];
+        if (eTag != "") {
+            request.setHeader(IF_NONE_MATCH_HEADER, eTag);
+        }
+        if (lastModified != "") {
+            request.setHeader(IF_MODIFIED_SINCE_HEADER, lastModified);
+        }
+        context.attributes[RESPONSE_CACHE_REVALIDATING] = true;
+        printDebug(KEY_RESPONSE_CACHE_FILTER, "Revalidating the cached response of " + request.method + " "
+                + request.rawPath);
+    }
+    return true;
+}
+
+function doResponseCacheFilterResponse(http:Response response, http:FilterContext context) returns boolean {
+    if (!context.attributes.hasKey(RESPONSE_CACHE_KEY)) {
+        return true;
+    }
+    string key = <string>context.attributes[RESPONSE_CACHE_KEY];
+    ResourceDescriptor descriptor = getResourceDescriptor(context);
+    if (context.attributes.hasKey(RESPONSE_CACHE_REVALIDATING) && response.statusCode == 304) {
+        map<any> cachedResponse = revalidateCachedResponse(key, descriptor.apiName, getResponseHeaders(response),
+            descriptor.responseCacheTtl);
+        if (cachedResponse.length() > 0) {
+            // the client did not send a conditional request, hence it is sent the renewed cached response
+            response.statusCode = <int>cachedResponse["statusCode"];
+            response.setBinaryPayload(<byte[]>cachedResponse["body"]);
+            foreach var (name, value) in <map<string>>cachedResponse["headers"] {
+                response.setHeader(name, value);
+            }
+        }
+    } else {
+        var body = response.getBinaryPayload();
+        if (body is byte[]) {
+            boolean cached = cacheResponse(key, descriptor.apiName, response.statusCode,
+                getResponseHeaders(response), body, descriptor.responseCacheTtl);
+            printDebug(KEY_RESPONSE_CACHE_FILTER, "Response of " + key + " cached: " + cached);
+        } else {
+            printDebug(KEY_RESPONSE_CACHE_FILTER, "Unable to read the response of " + key + " to cache it: "
+                    + body.reason());
+        }
+    }
+    return true;
+}
+
+function createCachedResponse(map<any> cachedResponse, boolean notModified) returns http:Response {
+    http:Response response = new;
+    if (notModified) {
+        response.statusCode = 304;
+    } else {
+        response.statusCode = <int>cachedResponse["statusCode"];
+        response.setBinaryPayload(<byte[]>cachedResponse["body"]);
+    }
+    // set after the payload, so that the cached content type replaces the one set with the payload
+    foreach var (name, value) in <map<string>>cachedResponse["headers"] {
+        response.setHeader(name, value);
+    }
+    return response;
+}
+
+# Returns the user and the application a response of a secured resource is cached for. The Authorization header is
+# removed by the authentication filter, hence it can not be used to vary the cached responses.
+#
+# + descriptor - Resource descriptor of the request
+# + context - Filter context of the request
+# + return - Username and application id of the request, empty for resources which are not secured, or nil if a
+#            secured request carries no authentication context
+function getResponseCacheIdentity(ResourceDescriptor descriptor, http:FilterContext context) returns string? {
+    if (!descriptor.secured) {
+        return "";
+    }
+    if (!context.attributes.hasKey(AUTHENTICATION_CONTEXT)) {
+        return ();
+    }
+    AuthenticationContext authContext = <AuthenticationContext>context.attributes[AUTHENTICATION_CONTEXT];
+    return authContext.username + "\n" + authContext.applicationId;
+}
+
+function getResponseCacheVaryValues(http:Request request, string identity) returns string {
+    // responses of production and sandbox keys come from different backends
+    string varyValues = <string>runtime:getInvocationContext().attributes[KEY_TYPE_ATTR] + "\n" + identity;
+    foreach var header in responseCacheVaryHeaders {
+        varyValues = varyValues + "\n" + getRequestHeader(request, header.trim());
+    }
+    return varyValues;
+}
+
+# Publishes the analytics event of a request served from the response cache. The response path of the filters is not
+# run for such requests, hence the analytics filter does not publish it.
+#
+# + response - Cached response sent to the client
+# + context - Filter context of the request
+function publishCachedResponseAnalytics(http:Response response, http:FilterContext context) {
+    if (!isAnalyticsEnabled || <boolean>context.attributes[FILTER_FAILED]) {
+        return;
+    }
+    // the backend was not called, hence the backend time is zero
+    int currentTime = getCurrentTime();
+    runtime:getInvocationContext().attributes[TS_REQUEST_OUT] = currentTime;
+    runtime:getInvocationContext().attributes[TS_RESPONSE_IN] = currentTime;
+    if (!runtime:getInvocationContext().attributes.hasKey(DESTINATION)) {
+        runtime:getInvocationContext().attributes[DESTINATION] = "";
+    }
+    if (!context.attributes.hasKey(THROTTLE_LATENCY)) {
+        context.attributes[THROTTLE_LATENCY] = 0;
+    }
+    context.attributes[RESPONSE_CACHE_HIT] = true;
+    doFilterAll(response, context);
+}
+
+function getRequestHeader(http:Request request, string name) returns string {
+    return request.hasHeader(name) ? request.getHeader(name) : "";
+}
+
+function getResponseHeaders(http:Response response) returns map<string> {
+    map<string> headers = {};
+    foreach var name in response.getHeaderNames() {
+        string value = "";
+        foreach var headerValue in response.getHeaders(name) {
+            value = value == "" ? headerValue : value + ", " + headerValue;
+        }
+        headers[name] = value;
+    }
+    return headers;
+}
+
+# Registers the response cache metrics and starts the timer which publishes them. The metrics are not updated by the
+# requests themselves, which keeps the natives and the metric updates out of the request path.
+function initResponseCacheMetrics() {
+    error? result = responseCacheEntryGauge.register();
+    if (result is ()) {
+        result = responseCacheSizeGauge.register();
+    }
+    if (result is error) {
+        printError(KEY_RESPONSE_CACHE_FILTER, "Unable to register the response cache metrics: " + result.reason());
+        return;
+    }
+    (function() returns error?) onTriggerFunction = updateResponseCacheMetrics;
+    function(error) onErrorFunction = errorOnUpdatingResponseCacheMetrics;
+    task:Timer metricsTimer = new task:Timer(onTriggerFunction, onErrorFunction, RESPONSE_CACHE_METRICS_INTERVAL);
+    metricsTimer.start();
+}
+
+function updateResponseCacheMetrics() returns error? {
+    map<int> usage = getResponseCacheUsage();
+    responseCacheEntryGauge.setValue(<float>(usage["entries"] ?: 0));
+    responseCacheSizeGauge.setValue(<float>(usage["size"] ?: 0));
+    // the response cache keeps running totals, hence the counters are incremented by the difference to the last update
+    foreach var (apiName, metrics) in getResponseCacheMetrics() {
+        observe:Counter[] counters = responseCacheCounters[apiName] ?: registerResponseCacheCounters(apiName);
+        int[] counted = countedResponseCacheMetrics[apiName] ?: [0, 0, 0, 0];
+        int i = 0;
+        while (i < responseCacheCountedMetrics.length()) {
+            int total = metrics[responseCacheCountedMetrics[i]] ?: 0;
+            if (total > counted[i]) {
+                counters[i].increment(amount = total - counted[i]);
+                counted[i] = total;
+            }
+            i = i + 1;
+        }
+        countedResponseCacheMetrics[apiName] = counted;
+    }
+    return;
+}
+
+function errorOnUpdatingResponseCacheMetrics(error e) {
+    printDebug(KEY_RESPONSE_CACHE_FILTER, "Unable to update the response cache metrics: " + e.reason());
+}
+
+function registerResponseCacheCounters(string apiName) returns observe:Counter[] {
+    map<string> tags = { api: apiName };
+    observe:Counter[] counters = [
+        new("response_cache_hits", desc = "Number of requests served from the response cache", tags = tags),
+        new("response_cache_misses", desc = "Number of requests not found in the response cache", tags = tags),
+        new("response_cache_revalidations", desc = "Number of cached responses revalidated with the backend",
+            tags = tags),
+        new("response_cache_evictions", desc = "Number of cached responses evicted since the cache was full",
+            tags = tags)
+    ];
+    foreach var counter in counters {
+        error? result = counter.register();
+        if (result is error) {
+            printError(KEY_RESPONSE_CACHE_FILTER, "Unable to register the response cache metrics of " + apiName
+                    + ": " + result.reason());
+        }
+    }
+    responseCacheCounters[apiName] = counters;
+    return counters;
+}
+
+# Creates the response cache.
+#
+# + maxSize - Maximum total size of the cached responses in bytes
+# + maxEntrySize - Maximum size of a cached response in bytes
+# + offHeap - Whether the bodies of the cached responses are kept off the Java heap
+# + varyHeaders - Comma separated names of the request headers the response cache keys include. Responses which vary
+#                 on other request headers are not cached
+extern function initResponseCache(int maxSize, int maxEntrySize, boolean offHeap, string varyHeaders);
+
+# Returns the response cache key of a request.
+#
+# + method - HTTP method of the request
+# + rawPath - Path of the request including the query
+# + varyValues - Values of the headers the response cache varies on
+# + return - Response cache key
+extern function createResponseCacheKey(string method, string rawPath, string varyValues) returns string;
+
+# Returns the cached response of a request. Stale responses are only returned if they can be revalidated.
+#
+# + key - Response cache key of the request
+# + apiName - Name of the API
+# + ifNoneMatch - If-None-Match header of the request
+# + ifModifiedSince - If-Modified-Since header of the request
+# + return - Map of the statusCode, headers, body, fresh, notModified, eTag and lastModified of the cached response,
+#            empty if the response is not cached
+extern function getCachedResponse(string key, string apiName, string ifNoneMatch, string ifModifiedSince)
+                    returns map<any>;
+
+# Caches a backend response, unless the response can not be cached or is too large.
+#
+# + key - Response cache key of the request
+# + apiName - Name of the API
+# + statusCode - Status code of the response
+# + headers - Headers of the response
+# + body - Body of the response
+# + ttl - Time in milliseconds for which the response is fresh, unless its Cache-Control header allows less
+# + return - true if the response was cached
+extern function cacheResponse(string key, string apiName, int statusCode, map<string> headers, byte[] body, int ttl)
+                    returns boolean;
+
+# Renews a cached response after the backend answered its revalidation with a 304 response.
+#
+# + key - Response cache key of the request
+# + apiName - Name of the API
+# + headers - Headers of the 304 response
+# + ttl - Time in milliseconds for which the response is fresh, unless its Cache-Control header allows less
+# + return - Renewed response in the same form as getCachedResponse, empty if the response is no longer cached
+extern function revalidateCachedResponse(string key, string apiName, map<string> headers, int ttl) returns map<any>;
+
+# Returns the response cache metrics of the APIs which used the response cache.
+#
+# + return - Map of the API names to maps of the running totals of the hits, misses, revalidations and evictions
+extern function getResponseCacheMetrics() returns map<map<int>>;
+
+# Returns the usage of the response cache, which is shared by all APIs.
+#
+# + return - Map of the number of entries and the total size in bytes of the response cache
+extern function getResponseCacheUsage() returns map<int>;
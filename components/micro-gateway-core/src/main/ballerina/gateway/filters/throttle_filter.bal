@@ -52,15 +52,15 @@ function doThrottleFilterRequest(http:Caller caller, http:Request request, http:
     //Throttled decisions
     boolean isThrottled = false;
     boolean stopOnQuota;
-    string apiContext = getContext(context);
-    string? apiVersion = apiConfigAnnotationMap[getServiceName(context.serviceName)].apiVersion;
+    ResourceDescriptor descriptor = getResourceDescriptor(context);
+    ThrottleKeys keys = {};
     boolean isSecured = <boolean>context.attributes[IS_SECURED];
     context.attributes[ALLOWED_ON_QUOTA_REACHED] = false;
     context.attributes[IS_THROTTLE_OUT] = false;
 
     AuthenticationContext keyvalidationResult = {};
     if (context.attributes.hasKey(AUTHENTICATION_CONTEXT)) {
-        if (isRequestBlocked(caller, request, context)) {
+        if (isRequestBlocked(caller, request, context, descriptor)) {
             setThrottleErrorMessageToContext(context, FORBIDDEN, BLOCKING_ERROR_CODE,
                 BLOCKING_MESSAGE, BLOCKING_DESCRIPTION);
             sendErrorResponse(caller, request, context);
@@ -69,6 +69,7 @@ function doThrottleFilterRequest(http:Caller caller, http:Request request, http:
         printDebug(KEY_THROTTLE_FILTER, "Context contains Authentication Context");
         keyvalidationResult = <AuthenticationContext>context.attributes[
         AUTHENTICATION_CONTEXT];
+        keys = getThrottleKeys(descriptor, keyvalidationResult, true);
         printDebug(KEY_THROTTLE_FILTER, "Checking subscription level throttle policy '" + keyvalidationResult.
                 tier
                 + "' exist.");
@@ -82,7 +83,7 @@ function doThrottleFilterRequest(http:Caller caller, http:Request request, http:
             return false;
         }
         printDebug(KEY_THROTTLE_FILTER, "Checking subscription level throttling-out.");
-        if (isResourceLevelThrottled(context, keyvalidationResult)) {
+        if (isResourceLevelThrottled(descriptor)) {
             printDebug(KEY_THROTTLE_FILTER, "Resource level throttled out. Sending throttled out response.");
             context.attributes[IS_THROTTLE_OUT] = true;
             context.attributes[THROTTLE_OUT_REASON] = THROTTLE_OUT_REASON_RESOURCE_LIMIT_EXCEEDED;
@@ -93,7 +94,7 @@ function doThrottleFilterRequest(http:Caller caller, http:Request request, http:
         } else {
             printDebug(KEY_THROTTLE_FILTER, "Resource level throttled out: false");
         }
-        (isThrottled, stopOnQuota) =         isSubscriptionLevelThrottled(context, keyvalidationResult);
+        (isThrottled, stopOnQuota) =         isSubscriptionLevelThrottled(keyvalidationResult, keys);
         printDebug(KEY_THROTTLE_FILTER, "Subscription level throttling result:: isThrottled:"
                 + isThrottled + ", stopOnQuota:" + stopOnQuota);
         if (isThrottled) {
@@ -124,7 +125,7 @@ function doThrottleFilterRequest(http:Caller caller, http:Request request, http:
             return false;
         }
         printDebug(KEY_THROTTLE_FILTER, "Checking application level throttling-out.");
-        if (isApplicationLevelThrottled(keyvalidationResult)) {
+        if (isApplicationLevelThrottled(keyvalidationResult, keys)) {
             printDebug(KEY_THROTTLE_FILTER, "Application level throttled out. Sending throttled out response.");
             context.attributes[IS_THROTTLE_OUT] = true;
             context.attributes[THROTTLE_OUT_REASON] = THROTTLE_OUT_REASON_APPLICATION_LIMIT_EXCEEDED;
@@ -152,7 +153,16 @@ function doThrottleFilterRequest(http:Caller caller, http:Request request, http:
             sendErrorResponse(caller, request, context);
             return false;
         }
-        (isThrottled, stopOnQuota) =         isUnauthenticateLevelThrottled(context);
+        string clientIp = <string>context.attributes[REMOTE_ADDRESS];
+        keyvalidationResult.authenticated = true;
+        keyvalidationResult.tier = UNAUTHENTICATED_TIER;
+        keyvalidationResult.stopOnQuotaReach = true;
+        keyvalidationResult.apiKey = clientIp;
+        keyvalidationResult.username = END_USER_ANONYMOUS;
+        keyvalidationResult.applicationId = clientIp;
+        keyvalidationResult.keyType = PRODUCTION_KEY_TYPE;
+        keys = getThrottleKeys(descriptor, keyvalidationResult, false);
+        (isThrottled, stopOnQuota) =         isUnauthenticateLevelThrottled(keys);
         printDebug(KEY_THROTTLE_FILTER, "Unauthenticated tier throttled out result:: isThrottled:"
                 + isThrottled + ", stopOnQuota:" + stopOnQuota);
         if (isThrottled) {
@@ -170,14 +180,6 @@ function doThrottleFilterRequest(http:Caller caller, http:Request request, http:
                 printDebug(KEY_THROTTLE_FILTER, "Proceeding(2nd) since stopOnQuota is set to false.");
             }
         }
-        string clientIp = <string>context.attributes[REMOTE_ADDRESS];
-        keyvalidationResult.authenticated = true;
-        keyvalidationResult.tier = UNAUTHENTICATED_TIER;
-        keyvalidationResult.stopOnQuotaReach = true;
-        keyvalidationResult.apiKey = clientIp;
-        keyvalidationResult.username = END_USER_ANONYMOUS;
-        keyvalidationResult.applicationId = clientIp;
-        keyvalidationResult.keyType = PRODUCTION_KEY_TYPE;
         // setting keytype to invocationContext
         runtime:getInvocationContext().attributes[KEY_TYPE_ATTR] = keyvalidationResult.keyType;
     } else {
@@ -189,7 +191,7 @@ function doThrottleFilterRequest(http:Caller caller, http:Request request, http:
     }
 
     //Publish throttle event to another worker flow to publish to internal policies or traffic manager
-    RequestStreamDTO throttleEvent = generateThrottleEvent(request, context, keyvalidationResult);
+    RequestStreamDTO throttleEvent = generateThrottleEvent(request, context, descriptor, keyvalidationResult, keys);
     future<()> publishedEvent = start asyncPublishEvent(throttleEvent);
     printDebug(KEY_THROTTLE_FILTER, "Request is not throttled");
     return true;
@@ -209,66 +211,70 @@ function setThrottleErrorMessageToContext(http:FilterContext context, int status
     context.attributes[ERROR_DESCRIPTION] = errorDescription;
 }
 
-function isSubscriptionLevelThrottled(http:FilterContext context, AuthenticationContext keyValidationDto) returns (
-    boolean, boolean) {
-    if (keyValidationDto.tier == UNLIMITED_TIER) {
-        return (false, false);
+# Computes the throttle keys of a request once, so that the throttle checks and the throttle event share them.
+# Application and subscription keys of authenticated requests are interned, while the keys of unauthenticated
+# requests carry the client IP and are not, so that they do not fill the key table.
+#
+# + descriptor - Resource descriptor of the request
+# + keyValidationDto - Authentication context of the request
+# + internKeys - Whether the application and subscription keys are interned
+# + return - Throttle keys of the request
+function getThrottleKeys(ResourceDescriptor descriptor, AuthenticationContext keyValidationDto, boolean internKeys)
+             returns ThrottleKeys {
+    ThrottleKeys keys = {
+        appKey: keyValidationDto.applicationId + ":" + keyValidationDto.username,
+        subscriptionKey: keyValidationDto.applicationId + descriptor.contextThrottleKeySuffix,
+        resourceKey: descriptor.resourceThrottleKey,
+        resourceKeyId: descriptor.resourceThrottleKeyId
+    };
+    if (internKeys) {
+        if (keyValidationDto.applicationTier != UNLIMITED_TIER) {
+            keys.appKeyId = internThrottleKey(keys.appKey);
+        }
+        if (keyValidationDto.tier != UNLIMITED_TIER) {
+            keys.subscriptionKeyId = internThrottleKey(keys.subscriptionKey);
+        }
     }
+    return keys;
+}
 
-    string? apiVersion = apiConfigAnnotationMap[getServiceName(context.serviceName)].apiVersion;
-    string subscriptionLevelThrottleKey = keyValidationDto.applicationId + ":" + getContext(context);
-    if (apiVersion is string) {
-        subscriptionLevelThrottleKey += ":" + apiVersion;
+function isSubscriptionLevelThrottled(AuthenticationContext keyValidationDto, ThrottleKeys keys) returns (boolean,
+    boolean) {
+    if (keyValidationDto.tier == UNLIMITED_TIER) {
+        return (false, false);
     }
-    return isRequestThrottled(subscriptionLevelThrottleKey);
+    return isRequestThrottledById(keys.subscriptionKeyId, keys.subscriptionKey);
 }
 
-function isApplicationLevelThrottled(AuthenticationContext keyValidationDto) returns (boolean) {
+function isApplicationLevelThrottled(AuthenticationContext keyValidationDto, ThrottleKeys keys) returns (boolean) {
     if (keyValidationDto.applicationTier == UNLIMITED_TIER) {
         return false;
     }
-    string applicationLevelThrottleKey = keyValidationDto.applicationId + ":" + keyValidationDto.username;
     boolean throttled;
     boolean stopOnQuota;
-    (throttled, stopOnQuota) = isRequestThrottled(applicationLevelThrottleKey);
+    (throttled, stopOnQuota) = isRequestThrottledById(keys.appKeyId, keys.appKey);
     return throttled;
 }
 
 
-function isResourceLevelThrottled(http:FilterContext context,AuthenticationContext keyValidationDto) returns (boolean) {
-    TierConfiguration? tier = resourceTierAnnotationMap[context.resourceName];
-    string? policy = tier.policy;
-    if (policy is string) {
-        if (policy == UNLIMITED_TIER) {
-            return false;
-        }
-        string? apiVersion = apiConfigAnnotationMap[getServiceName(context.serviceName)].apiVersion;
-        string resourceLevelThrottleKey = context.resourceName.replaceAll("_", "");
-        if (apiVersion is string) {
-            resourceLevelThrottleKey += ":" + apiVersion;
-        }
-        boolean throttled;
-        boolean stopOnQuota;
-        (throttled, stopOnQuota) = isRequestThrottled(resourceLevelThrottleKey);
-        return throttled;
+function isResourceLevelThrottled(ResourceDescriptor descriptor) returns (boolean) {
+    if (descriptor.resourceTier == "" || descriptor.resourceTier == UNLIMITED_TIER) {
+        return false;
     }
-    return false;
+    boolean throttled;
+    boolean stopOnQuota;
+    (throttled, stopOnQuota) = isRequestThrottledById(descriptor.resourceThrottleKeyId, descriptor.resourceThrottleKey);
+    return throttled;
 }
 
-function isUnauthenticateLevelThrottled(http:FilterContext context) returns (boolean, boolean) {
-    string clientIp = <string>context.attributes[REMOTE_ADDRESS];
-    string? apiVersion = apiConfigAnnotationMap[getServiceName(context.serviceName)].apiVersion;
-    string throttleKey = clientIp + ":" + getContext(context);
-    if (apiVersion is string) {
-        throttleKey += ":" + apiVersion;
-    }
-    return isRequestThrottled(throttleKey);
+function isUnauthenticateLevelThrottled(ThrottleKeys keys) returns (boolean, boolean) {
+    return isRequestThrottled(keys.subscriptionKey);
 }
-function isRequestBlocked(http:Caller caller, http:Request request, http:FilterContext context) returns (boolean) {
+function isRequestBlocked(http:Caller caller, http:Request request, http:FilterContext context,
+                          ResourceDescriptor descriptor) returns (boolean) {
     AuthenticationContext keyvalidationResult = <AuthenticationContext>context.attributes[AUTHENTICATION_CONTEXT];
-    string apiLevelBlockingKey = getContext(context);
-    string apiTenantDomain = getTenantDomain(context);
-    string ipLevelBlockingKey = apiTenantDomain + ":" + getClientIp(request, caller);
+    string apiLevelBlockingKey = descriptor.context;
+    string ipLevelBlockingKey = descriptor.tenantDomain + ":" + getClientIp(request, caller);
     string appLevelBlockingKey = keyvalidationResult.subscriber + ":" + keyvalidationResult.applicationName;
     if (isAnyBlockConditionExist() && (isBlockConditionExist(apiLevelBlockingKey) ||
     isBlockConditionExist(ipLevelBlockingKey) || isBlockConditionExist(appLevelBlockingKey)) ||
@@ -279,41 +285,34 @@ function isRequestBlocked(http:Caller caller, http:Request request, http:FilterC
     }
 }
 
-function generateThrottleEvent(http:Request req, http:FilterContext context, AuthenticationContext keyValidationDto)
-    returns (RequestStreamDTO) {
+function generateThrottleEvent(http:Request req, http:FilterContext context, ResourceDescriptor descriptor,
+                               AuthenticationContext keyValidationDto, ThrottleKeys keys) returns (RequestStreamDTO) {
     RequestStreamDTO requestStreamDto = {};
-    string? apiVersion = apiConfigAnnotationMap[getServiceName(context.serviceName)].apiVersion;
     requestStreamDto.messageID = <string>context.attributes[MESSAGE_ID];
-    requestStreamDto.apiKey = getContext(context);
-    requestStreamDto.appKey = keyValidationDto.applicationId + ":" + keyValidationDto.username;
-    requestStreamDto.subscriptionKey = keyValidationDto.applicationId + ":" + getContext(context);
+    requestStreamDto.apiKey = descriptor.apiThrottleKey;
+    requestStreamDto.appKey = keys.appKey;
+    requestStreamDto.appKeyId = keys.appKeyId;
+    requestStreamDto.subscriptionKey = keys.subscriptionKey;
+    requestStreamDto.subscriptionKeyId = keys.subscriptionKeyId;
     requestStreamDto.appTier = keyValidationDto.applicationTier;
     requestStreamDto.apiTier = keyValidationDto.apiTier;
     requestStreamDto.subscriptionTier = keyValidationDto.tier;
-    string resourcekey = context.resourceName;
-    requestStreamDto.resourceKey = resourcekey.replaceAll("_", "");
-    TierConfiguration? tier = resourceTierAnnotationMap[context.resourceName];
-    string? policy = tier.policy;
-    if (policy is string) {
-       requestStreamDto.resourceTier = policy;
+    requestStreamDto.resourceKey = keys.resourceKey;
+    requestStreamDto.resourceKeyId = keys.resourceKeyId;
+    if (descriptor.resourceTier != "") {
+       requestStreamDto.resourceTier = descriptor.resourceTier;
     }
 
     requestStreamDto.userId = keyValidationDto.username;
-    requestStreamDto.apiContext = getContext(context);
-    if (apiVersion is string) {
-        requestStreamDto.apiVersion = apiVersion;
+    requestStreamDto.apiContext = descriptor.context;
+    if (descriptor.apiConfig is APIConfiguration) {
+        requestStreamDto.apiVersion = descriptor.apiVersion;
     }
     requestStreamDto.appTenant = keyValidationDto.subscriberTenantDomain;
-    requestStreamDto.apiTenant = getTenantDomain(context);
-    requestStreamDto.apiName = getApiName(context);
+    requestStreamDto.apiTenant = descriptor.tenantDomain;
+    requestStreamDto.apiName = descriptor.apiName;
     requestStreamDto.appId = keyValidationDto.applicationId;
 
-    if (apiVersion is string) {
-        requestStreamDto.apiKey += ":" + apiVersion;
-        requestStreamDto.subscriptionKey +=":" + apiVersion;
-        requestStreamDto.resourceKey += ":" + apiVersion;
-    }
-
     json properties = {};
     requestStreamDto.properties = properties.toString();
     return requestStreamDto;
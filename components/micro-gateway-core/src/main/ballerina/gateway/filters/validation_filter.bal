@@ -30,16 +30,27 @@ public int errorItem = 0;
 public string? requestPath = "";
 public string requestMethod = "";
 public boolean isType = false;
-public string[] pathKeys = [];
 public string pathType = "";
 
 boolean enableRequestValidation = getConfigBooleanValue(VALIDATION_CONFIG_INSTANCE_ID, REQUEST_VALIDATION_ENABLED, false
 );
 boolean enableResponseValidation = getConfigBooleanValue(VALIDATION_CONFIG_INSTANCE_ID, RESPONSE_VALIDATION_ENABLED,
     false);
+boolean enableStreamingValidation = getConfigBooleanValue(VALIDATION_CONFIG_INSTANCE_ID, STREAMING_VALIDATION_ENABLED,
+    false);
+// payloads are held in memory until they are validated, hence larger payloads are rejected by streaming validation
+int maxStreamingPayloadSize = getConfigIntValue(VALIDATION_CONFIG_INSTANCE_ID, STREAMING_VALIDATION_MAX_PAYLOAD_SIZE,
+    10485760);
 
 string swaggerAbsolutePath = getConfigValue(VALIDATION_CONFIG_INSTANCE_ID, SWAGGER_ABSOLUTE_PATH, " ");
 
+# Returns whether the validation filter has to be added to the filter chain of the listeners.
+#
+# + return - Whether request or response validation is enabled
+public function isValidationFilterRequired() returns boolean {
+    return enableRequestValidation || enableResponseValidation;
+}
+
 public type ValidationFilter object {
 
     public function filterRequest(http:Caller caller, http:Request request, http:FilterContext filterContext)
@@ -63,169 +74,113 @@ public type ValidationFilter object {
 function doValidationFilterRequest(http:Caller caller, http:Request request, http:FilterContext filterContext)
              returns boolean {
     if (enableRequestValidation) {
-        //getting the payload of the request
-        var payload = request.getJsonPayload();
         isType = false;
-        APIConfiguration? apiConfig = apiConfigAnnotationMap[getServiceName(filterContext.serviceName)];
-        json swagger = read(swaggerAbsolutePath);
-        json model = {};
-        json models = {};
-        string modelName = "";
-        //getting all the keys defined under the paths in the swagger
-        pathKeys = untaint swagger[PATHS].getKeys();
         //getting the method of the request
         requestMethod = request.method.toLower();
         //getting the path hit by the request
-        requestPath = getResourceConfigAnnotation(resourceAnnotationMap[filterContext.resourceName] ?: []).path;
-        //getting the name of the model hit by the request
-        if (swagger.components.schemas != null) {//In swagger 3.0 models are defined under the components.schemas
-            models = swagger.components.schemas;
-        } else if (swagger.definitions != null) {//In swagger 2.0 models are defined under the definitions
-            //getting all models defined in the schema
-            models = swagger.definitions;
-            //loop each key defined under the paths in swagger and compare whether it contain the path hit by the
-            //request
-            foreach var i in pathKeys {
-                if (requestPath == i) {
-                    json parameters = swagger[PATHS][i][requestMethod][PARAMETERS];
-                    //go through each item in parameters array and find the schema property
-                    //go through each item in parameters array and find the schema property
-                    json[] para = <json[]>parameters;
-                    foreach var k in para {
-                        if (k[SCHEMA] != null) {
-                            if (k[SCHEMA][REFERENCE] != null)  {
-                                //getting the reference to the model
-                                string modelReference = k[SCHEMA][REFERENCE].toString();
-                                //getting the model name
-                                modelName = untaint replaceModelPrefix(modelReference);
-                                //check whether there is a model available from the assigned model name
-                                if (models[modelName] != null) {
-                                    model = models[modelName];
-                                }
-                            } else {
-                                //getting inline model
-                                model = k[SCHEMA];
-                            }
-                        }
-                    }
-                }
-            }
+        requestPath = getResourceDescriptor(filterContext).resourcePath;
+        string resourcePath = requestPath ?: "";
+        //getting the model of the payload from the schema index
+        ValidationSchema? schema = getRequestValidationSchema(resourcePath, requestMethod);
+        if (schema is ()) {
+            printDebug(KEY_VALIDATION_FILTER, "No request schema found for " + requestMethod + " " + resourcePath);
+            return true;
         }
-
-        //payload can be of type json or error
-        if(payload is json) {
-            //do the validation if only there is a payload and a model available
-            if (model != null && payload != null)  {
-                //validate the payload against the model and return the result
-                Result finalResult = validate(modelName, payload, model, models);
-                if (!finalResult.valid) {
-                    //setting the error message to the context
-                    setErrorMessageToFilterContext(filterContext, INVALID_ENTITY);
-                    filterContext.attributes[ERROR_DESCRIPTION] = untaint finalResult.resultErr[0].reason();
-                    //sending the error response to the client
-                    sendErrorResponse(caller, request, filterContext);
-                    return false;//avoid sending the invalid request to the backend by returning false.
+        string validationError = "";
+        if (enableStreamingValidation) {
+            //validate the payload as it is read from the entity, without building the JSON tree of the payload
+            var byteChannel = request.getByteChannel();
+            if (byteChannel is io:ReadableByteChannel) {
+                string contentType = request.hasHeader(CONTENT_TYPE_HEADER) ? request.getContentType()
+                    : "application/octet-stream";
+                map<any> result = validatePayloadStream(schema.key, byteChannel, false, maxStreamingPayloadSize);
+                validationError = <string>result["error"];
+                var payload = result["payload"];
+                if (payload is byte[]) {
+                    //the channel is consumed, hence the bytes read are forwarded to the backend
+                    request.setBinaryPayload(untaint payload, contentType = contentType);
                 }
             }
-        } else {}
+        } else {
+            //getting the payload of the request
+            var payload = request.getTextPayload();
+            //payload can be of type string or error
+            if (payload is string) {
+                //validate the payload against the compiled schema
+                validationError = validatePayload(schema.key, payload, false);
+            }
+        }
+        if (validationError != "") {
+            //setting the error message to the context
+            setErrorMessageToFilterContext(filterContext, INVALID_ENTITY);
+            filterContext.attributes[ERROR_DESCRIPTION] = untaint validationError;
+            //sending the error response to the client
+            sendErrorResponse(caller, request, filterContext);
+            return false;//avoid sending the invalid request to the backend by returning false.
+        }
     }
     return true;
 }
 
 public function doValidationFilterResponse(http:Response response, http:FilterContext context) returns boolean {
     if (enableResponseValidation) {
-        //getting the payload of the response
-        var payload = response.getJsonPayload();
-        APIConfiguration? apiConfig = apiConfigAnnotationMap[getServiceName(context.serviceName)];
-        json swagger = read(swaggerAbsolutePath);
-        json model = {};
-        json models = {};
-        string modelName = "";
-        string responseStatusCode = string.convert(response.statusCode);
-        if (swagger.components.schemas != null){//getting the schemas from a swagger 3.0 version file
-            models = swagger.components.schemas;
-        } else if (swagger.definitions != null){//getting schemas from a swagger 2.0 version file
-            models = swagger.definitions;
-            foreach var i in pathKeys {
-                if (requestPath == i) {
-                    string modelReference;
-                    if (swagger[PATHS][i][requestMethod][RESPONSES][responseStatusCode][SCHEMA] != null) {
-                        if (swagger[PATHS][i][requestMethod][RESPONSES][responseStatusCode][SCHEMA][ITEMS] != null)
-                        {
-                            if (swagger[PATHS][i][requestMethod][RESPONSES][responseStatusCode][SCHEMA][ITEMS][
-                            REFERENCE] != null) {
-                                //getting referenced model
-                                modelReference = swagger[PATHS][i][requestMethod][RESPONSES][responseStatusCode][
-                                SCHEMA][ITEMS][REFERENCE].toString();
-                                modelName = replaceModelPrefix(modelReference);
-                                if (models[modelName] != null) {
-                                    model = models[modelName];
-                                }
-                            } else {
-                                //getting inline model defined under the items
-                                model = swagger[PATHS][i][requestMethod][RESPONSES][responseStatusCode][SCHEMA][
-                                ITEMS];
-                            }
-                        } else {
-                            if (swagger[PATHS][i][requestMethod][RESPONSES][responseStatusCode][SCHEMA]
-                            [REFERENCE] != null) {
-                                //getting referenced model
-                                modelReference = swagger[PATHS][i][requestMethod][RESPONSES][responseStatusCode][
-                                SCHEMA]
-                                [REFERENCE].toString();
-                                modelName = replaceModelPrefix(modelReference);
-                                if (models[modelName] != null) {
-                                    model = models[modelName];
-                                }
-                            } else {
-                                //getting inline model defined under the schema
-                                model = swagger[PATHS][i][requestMethod][RESPONSES][responseStatusCode][SCHEMA];
-                            }
-                        }
-                        if (swagger[PATHS][i][requestMethod][RESPONSES][responseStatusCode][SCHEMA][TYPE] != null) {
-                            isType = true;
-                            pathType = untaint swagger[PATHS][i][requestMethod][RESPONSES][responseStatusCode][
-                            SCHEMA][
-                            TYPE].toString();
-                        }
-                    }
-                }
-            }
-
+        ResourceDescriptor descriptor = getResourceDescriptor(context);
+        string resourcePath = descriptor.resourcePath;
+        string method = descriptor.httpVerb;
+        //getting the model of the payload from the schema index
+        ValidationSchema? schema = getResponseValidationSchema(resourcePath, method, response.statusCode);
+        if (schema is ()) {
+            printDebug(KEY_VALIDATION_FILTER, "No response schema found for " + method + " " + resourcePath + " "
+                    + response.statusCode);
+            return true;
         }
-        //payload can be of type json or error
-        if(payload is json) {
-            //do the validation if only there is a payload and a model available. prevent validating error
-            //responses sent from the filterRequest if the request is invalid.
-            if (model != null && payload != null && payload.fault == null) {
-                //validate the payload against the model and return the result
-                Result finalResult = validate(modelName, payload, model, models);
-                if (!finalResult.valid) {
-                    //setting the error message to the context
-                    setErrorMessageToFilterContext(context, INVALID_RESPONSE);
-                    context.attributes[ERROR_DESCRIPTION] = untaint finalResult.resultErr[0].reason();
-                    //getting attributes from the context
-                    int statusCode = <int>context.attributes[HTTP_STATUS_CODE];
-                    string errorDescription = <string>context.attributes[ERROR_DESCRIPTION];
-                    string errorMesssage = <string>context.attributes[ERROR_MESSAGE];
-                    int errorCode = <int>context.attributes[ERROR_CODE];
-                    //changing the response
-                    response.statusCode = statusCode;
-                    response.setContentType(APPLICATION_JSON);
-                    //creating a new payload which is having the error message
-                    json newPayload = { fault: {
-                        code: errorCode,
-                        message: errorMesssage,
-                        description: errorDescription
-                    } };
-                    //setting the new payload to the response
-                    response.setJsonPayload(untaint newPayload);
-                    return true;//send the changed response(error response) to the user
+        string validationError = "";
+        //prevent validating error responses sent from the filterRequest if the request is invalid.
+        if (enableStreamingValidation) {
+            //validate the payload as it is read from the entity, without building the JSON tree of the payload
+            var byteChannel = response.getByteChannel();
+            if (byteChannel is io:ReadableByteChannel) {
+                string contentType = response.hasHeader(CONTENT_TYPE_HEADER) ? response.getContentType()
+                    : "application/octet-stream";
+                map<any> result = validatePayloadStream(schema.key, byteChannel, true, maxStreamingPayloadSize);
+                validationError = <string>result["error"];
+                var payload = result["payload"];
+                if (payload is byte[]) {
+                    //the channel is consumed, hence the bytes read are sent to the client
+                    response.setBinaryPayload(untaint payload, contentType = contentType);
                 }
             }
+        } else {
+            //getting the payload of the response
+            var payload = response.getTextPayload();
+            //payload can be of type string or error
+            if (payload is string) {
+                //validate the payload against the compiled schema
+                validationError = validatePayload(schema.key, payload, true);
+            }
+        }
+        if (validationError != "") {
+            //setting the error message to the context
+            setErrorMessageToFilterContext(context, INVALID_RESPONSE);
+            context.attributes[ERROR_DESCRIPTION] = untaint validationError;
+            //getting attributes from the context
+            int statusCode = <int>context.attributes[HTTP_STATUS_CODE];
+            string errorDescription = <string>context.attributes[ERROR_DESCRIPTION];
+            string errorMesssage = <string>context.attributes[ERROR_MESSAGE];
+            int errorCode = <int>context.attributes[ERROR_CODE];
+            //changing the response
+            response.statusCode = statusCode;
+            response.setContentType(APPLICATION_JSON);
+            //creating a new payload which is having the error message
+            json newPayload = { fault: {
+                code: errorCode,
+                message: errorMesssage,
+                description: errorDescription
+            } };
+            //setting the new payload to the response
+            response.setJsonPayload(untaint newPayload);
+            return true;//send the changed response(error response) to the user
         }
-        else {}
-
     }
     return true;
 }
@@ -101,6 +101,10 @@ public function initiateGatewayConfigurations(http:ServiceEndpointConfiguration
     initGatewayCaches();
     printDebug(KEY_GW_LISTNER, "Initialized gateway caches");
     initializeAnalytics();
+    initValidationSchemaIndex();
+    initThrottleDecisionStore();
+    initThrottleEventPublisher();
+    initRevokedTokenStore();
 
     //Change the httpVersion
     if (getConfigBooleanValue(HTTP2_INSTANCE_ID, HTTP2_PROPERTY, false)) {
@@ -180,4 +184,5 @@ function initiateKeyManagerConfigurations() {
     credentials.password = getConfigValue(KM_CONF_INSTANCE_ID, PASSWORD, "admin");
     keyManagerConf.credentials = credentials;
     getGatewayConfInstance().setKeyManagerConf(keyManagerConf);
+    initKeyValidation();
 }
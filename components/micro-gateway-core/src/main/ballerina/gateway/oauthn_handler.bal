@@ -22,14 +22,9 @@ import ballerina/config;
 import ballerina/runtime;
 import ballerina/time;
 import ballerina/io;
-import ballerina/encoding;
 
 // Authentication handler
 
-xmlns "http://schemas.xmlsoap.org/soap/envelope/" as soapenv;
-xmlns "http://org.apache.axis2/xsd" as xsd;
-xmlns "http://dto.impl.apimgt.carbon.wso2.org/xsd" as apim;
-
 public type OAuthnAuthenticator object {
     public string name= "oauth2";
     public OAuthAuthProvider oAuthAuthenticator = new;
@@ -82,17 +77,10 @@ function  getAccessTokenCacheKey(APIRequestMetaDataDto dto) returns string {
 
 public type OAuthAuthProvider object {
     public APIGatewayCache gatewayCache= new;
-    string encodedBasicAuthHeader;
-
-    public function __init() {
-        string base64Header = getConfigValue(KM_CONF_INSTANCE_ID, USERNAME, "admin") + ":" +
-            getConfigValue(KM_CONF_INSTANCE_ID, PASSWORD, "admin");
-        self.encodedBasicAuthHeader = encoding:encodeBase64(base64Header.toByteArray(UTF_8));
-    }
 
     public function authenticate (APIRequestMetaDataDto apiRequestMetaDataDto) returns (APIKeyValidationDto);
 
-    public function doKeyValidation(APIRequestMetaDataDto apiRequestMetaDataDto) returns (xml | error);
+    public function doKeyValidation(APIRequestMetaDataDto apiRequestMetaDataDto) returns (map<string> | error);
 
     public function invokeKeyValidation(APIRequestMetaDataDto apiRequestMetaDataDto) returns (boolean,
                 APIKeyValidationDto);
@@ -127,6 +115,10 @@ public function OAuthAuthProvider.authenticate (APIRequestMetaDataDto apiRequest
                     authorized = apiKeyValidationDtoFromcache.authorized;
                     apiKeyValidationDto = apiKeyValidationDtoFromcache;
                     printDebug(KEY_OAUTH_PROVIDER, "Authorized value from the token cache: " + authorized);
+                    if (isKeyValidationRefreshDue(cacheKey)) {
+                        printDebug(KEY_OAUTH_PROVIDER, "Revalidating the access token before its cache entry expires.");
+                        _ = start refreshKeyValidation(self, apiRequestMetaDataDto);
+                    }
                 } else {
                     printDebug(KEY_OAUTH_PROVIDER, "Access token not found in the invalid token cache."
                     + " Calling the key validation service.");
@@ -163,15 +155,12 @@ public function OAuthAuthProvider.invokeKeyValidation(APIRequestMetaDataDto apiR
     APIKeyValidationDto apiKeyValidationDto = {};
     string accessToken = apiRequestMetaDataDto.accessToken;
     boolean authorized = false;
-    xml|error keyValidationResponseXML = self.doKeyValidation(apiRequestMetaDataDto);
-    if (keyValidationResponseXML is xml) {
-        printTrace(KEY_OAUTH_PROVIDER, "key Validation json " + keyValidationResponseXML.getTextValue());
-        xml keyValidationInfoXML = keyValidationResponseXML[soapenv:Body][xsd:validateKeyResponse][xsd:^"return"];
-        string authorizeValue = keyValidationInfoXML[apim:authorized].getTextValue();
-        boolean auth = boolean.convert(authorizeValue);
+    map<string>|error keyValidationInfo = self.doKeyValidation(apiRequestMetaDataDto);
+    if (keyValidationInfo is map<string>) {
+        boolean auth = boolean.convert(<string>keyValidationInfo["authorized"]);
         printDebug(KEY_OAUTH_PROVIDER, "Authorized value from key validation service: " + auth);
         if (auth) {
-            apiKeyValidationDto = convertXmlToKeyValidationObject(keyValidationInfoXML);
+            apiKeyValidationDto = convertToKeyValidationObject(keyValidationInfo);
             printDebug(KEY_OAUTH_PROVIDER, "key type: " + apiKeyValidationDto.keyType);
             authorized = auth;
             if (getConfigBooleanValue(CACHING_ID, TOKEN_CACHE_ENABLED, true)) {
@@ -181,93 +170,142 @@ public function OAuthAuthProvider.invokeKeyValidation(APIRequestMetaDataDto apiR
             }
         } else {
             apiKeyValidationDto.authorized = false;
-            apiKeyValidationDto.validationStatus = keyValidationInfoXML[apim:validationStatus].getTextValue();
+            apiKeyValidationDto.validationStatus = <string>keyValidationInfo["validationStatus"];
             if (getConfigBooleanValue(CACHING_ID, TOKEN_CACHE_ENABLED, true)) {
+                // the token may have been cached as valid, if it was revalidated ahead of the expiry of its entry
+                self.gatewayCache.removeFromGatewayKeyValidationCache(getAccessTokenCacheKey(apiRequestMetaDataDto));
+                self.gatewayCache.removeFromTokenCache(accessToken);
                 self.gatewayCache.addToInvalidTokenCache(accessToken, apiKeyValidationDto);
             }
         }
-    } else if(keyValidationResponseXML is error){
+    } else {
         string errorMessage = "Error occurred while the key validation request";
-        log:printError(errorMessage, err=keyValidationResponseXML);
+        log:printError(errorMessage, err=keyValidationInfo);
         panic error(errorMessage);
     }
-
     return (authorized, apiKeyValidationDto);
 
 }
 
-public function OAuthAuthProvider.doKeyValidation (APIRequestMetaDataDto apiRequestMetaDataDto) returns (xml|error) {
-
-    http:Request keyValidationRequest = new;
-    http:Response keyValidationResponse = new;
-    xml soapEnvelope = xml `<soapenv:Envelope>
-                                <soapenv:Body>
-                                    <xsd:validateKey>
-                                        <xsd:context>{{apiRequestMetaDataDto.context}}</xsd:context>
-                                        <xsd:version>{{apiRequestMetaDataDto.apiVersion}}</xsd:version>
-                                        <xsd:accessToken>{{apiRequestMetaDataDto.accessToken}}</xsd:accessToken>
-                                        <xsd:requiredAuthenticationLevel>{{apiRequestMetaDataDto.requiredAuthenticationLevel}}</xsd:requiredAuthenticationLevel>
-                                        <xsd:clientDomain>{{apiRequestMetaDataDto.clientDomain}}</xsd:clientDomain>
-                                        <xsd:matchingResource>{{apiRequestMetaDataDto.matchingResource}}</xsd:matchingResource>
-                                        <xsd:httpVerb>{{apiRequestMetaDataDto.httpVerb}}</xsd:httpVerb>
-                                    </xsd:validateKey>
-                                </soapenv:Body>
-                            </soapenv:Envelope>`;
-    keyValidationRequest.setXmlPayload(soapEnvelope, contentType=TEXT_XML);
-    keyValidationRequest.setHeader(AUTHORIZATION_HEADER, BASIC_PREFIX_WITH_SPACE + self.encodedBasicAuthHeader);
-    keyValidationRequest.setHeader(SOAP_ACTION, VALIDATE_KEY_SOAP_ACTION);
+public function OAuthAuthProvider.doKeyValidation (APIRequestMetaDataDto apiRequestMetaDataDto)
+                                   returns (map<string> | error) {
     time:Time time = time:currentTime();
     int startTimeMills = time.time;
-    var result = keyValidationEndpoint -> post(KEY_VALIDATION_SERVICE_CONTEXT, keyValidationRequest);
+    var result = validateKey(getAccessTokenCacheKey(apiRequestMetaDataDto), apiRequestMetaDataDto.context,
+        apiRequestMetaDataDto.apiVersion,
+        apiRequestMetaDataDto.accessToken, apiRequestMetaDataDto.requiredAuthenticationLevel,
+        apiRequestMetaDataDto.clientDomain, apiRequestMetaDataDto.matchingResource, apiRequestMetaDataDto.httpVerb);
     time = time:currentTime();
     int endTimeMills = time.time;
     printDebug(KEY_OAUTH_PROVIDER, "Total time taken for the key validation service call : " + (endTimeMills -
                 startTimeMills) + "ms");
-    if(result is http:Response) {
-        keyValidationResponse = result;
-    } else if(result is error) {
-        string message = "Error occurred while reading the key validation response";
-        log:printError(message ,err =result);
-        return result;
+    if (result is error) {
+        log:printError("Error occurred while reading the key validation response", err = result);
     }
-    var responseXml =  keyValidationResponse.getXmlPayload();
-    if(responseXml is xml) {
-        printTrace(KEY_OAUTH_PROVIDER, "Key validation response:" + responseXml.getTextValue());
+    return result;
+}
 
-    } else if(responseXml is error){
-        string message = "Error occurred while getting the key validation service XML response payload";
-        log:printError(message,err=responseXml);
+// revalidates a cached token in the background, so that the request which found it in the cache is not delayed
+function refreshKeyValidation(OAuthAuthProvider provider, APIRequestMetaDataDto apiRequestMetaDataDto) {
+    var result = trap provider.invokeKeyValidation(apiRequestMetaDataDto);
+    if (result is error) {
+        printError(KEY_OAUTH_PROVIDER, "Unable to revalidate the access token: " + result.reason());
     }
-    return responseXml;
-
 }
 
-function convertXmlToKeyValidationObject(xml keyValidationInfoXML) returns APIKeyValidationDto {
+function convertToKeyValidationObject(map<string> keyValidationInfo) returns APIKeyValidationDto {
      APIKeyValidationDto apiKeyValidationDto = {};
-     apiKeyValidationDto.apiName = keyValidationInfoXML[apim:apiName].getTextValue();
-     apiKeyValidationDto.apiPublisher = keyValidationInfoXML[apim:apiPublisher].getTextValue();
-     apiKeyValidationDto.apiTier = keyValidationInfoXML[apim:apiTier].getTextValue();
-     apiKeyValidationDto.applicationId = keyValidationInfoXML[apim:applicationId].getTextValue();
-     apiKeyValidationDto.applicationName = keyValidationInfoXML[apim:applicationName].getTextValue();
-     apiKeyValidationDto.applicationTier = keyValidationInfoXML[apim:applicationTier].getTextValue();
-     apiKeyValidationDto.authorized = boolean.convert(keyValidationInfoXML[apim:authorized].getTextValue());
-     apiKeyValidationDto.authorizedDomains = keyValidationInfoXML[apim:authorizedDomains].getTextValue();
-     apiKeyValidationDto.consumerKey = keyValidationInfoXML[apim:consumerKey].getTextValue();
-     apiKeyValidationDto.contentAware = keyValidationInfoXML[apim:contentAware].getTextValue();
-     apiKeyValidationDto.endUserName = keyValidationInfoXML[apim:endUserName].getTextValue();
-     apiKeyValidationDto.endUserToken = keyValidationInfoXML[apim:endUserToken].getTextValue();
-     apiKeyValidationDto.issuedTime = keyValidationInfoXML[apim:issuedTime].getTextValue();
-     apiKeyValidationDto.spikeArrestLimit = keyValidationInfoXML[apim:spikeArrestLimit].getTextValue();
-     apiKeyValidationDto.spikeArrestUnit = keyValidationInfoXML[apim:spikeArrestUnit].getTextValue();
-     apiKeyValidationDto.stopOnQuotaReach = keyValidationInfoXML[apim:stopOnQuotaReach].getTextValue();
-     apiKeyValidationDto.subscriber = keyValidationInfoXML[apim:subscriber].getTextValue();
-     apiKeyValidationDto.subscriberTenantDomain = keyValidationInfoXML[apim:subscriberTenantDomain].getTextValue();
-     apiKeyValidationDto.throttlingDataList = keyValidationInfoXML[apim:throttlingDataList].getTextValue();
-     apiKeyValidationDto.tier = keyValidationInfoXML[apim:tier].getTextValue();
-     apiKeyValidationDto.keyType = keyValidationInfoXML[apim:^"type"].getTextValue();
-     apiKeyValidationDto.userType = keyValidationInfoXML[apim:userType].getTextValue();
-     apiKeyValidationDto.validationStatus = keyValidationInfoXML[apim:validationStatus].getTextValue();
-     apiKeyValidationDto.validityPeriod = keyValidationInfoXML[apim:validityPeriod].getTextValue();
+     apiKeyValidationDto.apiName = <string>keyValidationInfo["apiName"];
+     apiKeyValidationDto.apiPublisher = <string>keyValidationInfo["apiPublisher"];
+     apiKeyValidationDto.apiTier = <string>keyValidationInfo["apiTier"];
+     apiKeyValidationDto.applicationId = <string>keyValidationInfo["applicationId"];
+     apiKeyValidationDto.applicationName = <string>keyValidationInfo["applicationName"];
+     apiKeyValidationDto.applicationTier = <string>keyValidationInfo["applicationTier"];
+     apiKeyValidationDto.authorized = boolean.convert(<string>keyValidationInfo["authorized"]);
+     apiKeyValidationDto.authorizedDomains = <string>keyValidationInfo["authorizedDomains"];
+     apiKeyValidationDto.consumerKey = <string>keyValidationInfo["consumerKey"];
+     apiKeyValidationDto.contentAware = <string>keyValidationInfo["contentAware"];
+     apiKeyValidationDto.endUserName = <string>keyValidationInfo["endUserName"];
+     apiKeyValidationDto.endUserToken = <string>keyValidationInfo["endUserToken"];
+     apiKeyValidationDto.issuedTime = <string>keyValidationInfo["issuedTime"];
+     apiKeyValidationDto.spikeArrestLimit = <string>keyValidationInfo["spikeArrestLimit"];
+     apiKeyValidationDto.spikeArrestUnit = <string>keyValidationInfo["spikeArrestUnit"];
+     apiKeyValidationDto.stopOnQuotaReach = <string>keyValidationInfo["stopOnQuotaReach"];
+     apiKeyValidationDto.subscriber = <string>keyValidationInfo["subscriber"];
+     apiKeyValidationDto.subscriberTenantDomain = <string>keyValidationInfo["subscriberTenantDomain"];
+     apiKeyValidationDto.throttlingDataList = <string>keyValidationInfo["throttlingDataList"];
+     apiKeyValidationDto.tier = <string>keyValidationInfo["tier"];
+     apiKeyValidationDto.keyType = <string>keyValidationInfo["type"];
+     apiKeyValidationDto.userType = <string>keyValidationInfo["userType"];
+     apiKeyValidationDto.validationStatus = <string>keyValidationInfo["validationStatus"];
+     apiKeyValidationDto.validityPeriod = <string>keyValidationInfo["validityPeriod"];
      return apiKeyValidationDto;
 }
 
+# Create the client of the key validation service. Connections to the key manager are kept alive and reused by the
+# key validation requests. If a refresh ahead time is configured for the token cache, tokens found in the cache are
+# revalidated in the background once they are that close to the expiry of their cache entries.
+public function initKeyValidation() {
+    boolean cacheEnabled = getConfigBooleanValue(CACHING_ID, TOKEN_CACHE_ENABLED, true);
+    error? result = initKeyValidationClient(getConfigValue(KM_CONF_INSTANCE_ID, KM_SERVER_URL,
+            "https://localhost:9443") + KEY_VALIDATION_SERVICE_CONTEXT,
+        getConfigValue(KM_CONF_INSTANCE_ID, USERNAME, "admin"), getConfigValue(KM_CONF_INSTANCE_ID, PASSWORD, "admin"),
+        getConfigIntValue(KM_CONF_INSTANCE_ID, KM_MAX_CONNECTIONS, 20),
+        getConfigIntValue(KM_CONF_INSTANCE_ID, KM_CONNECT_TIMEOUT, 10000),
+        getConfigIntValue(KM_CONF_INSTANCE_ID, KM_READ_TIMEOUT, 60000),
+        getConfigIntValue(CACHING_ID, TOKEN_CACHE_EXPIRY, 900000),
+        cacheEnabled ? getConfigIntValue(CACHING_ID, TOKEN_CACHE_REFRESH_AHEAD_TIME, 0) : 0,
+        getConfigIntValue(CACHING_ID, TOKEN_CACHE_CAPACITY, 100),
+        getConfigBooleanValue(KM_CONF_INSTANCE_ID, ENABLE_HOSTNAME_VERIFICATION, true),
+        getConfigValue(LISTENER_CONF_INSTANCE_ID, TRUST_STORE_PATH,
+            "${ballerina.home}/bre/security/ballerinaTruststore.p12"),
+        getConfigValue(LISTENER_CONF_INSTANCE_ID, TRSUT_STORE_PASSWORD, "ballerina"));
+    if (result is error) {
+        printError(KEY_OAUTH_PROVIDER, result.reason());
+    }
+}
+
+# Create the client of the key validation service.
+#
+# + serviceUrl - URL of the key validation service
+# + username - Username of the key manager
+# + password - Password of the key manager
+# + maxConnections - Maximum number of connections to the key manager. Validations wait up to the connect timeout
+#                    once all of them are in use
+# + connectTimeout - Connect timeout in milliseconds
+# + readTimeout - Read timeout in milliseconds
+# + cacheExpiry - Expiry time of the token cache entries in milliseconds
+# + refreshAheadTime - Time before the expiry of a token cache entry from which the token is revalidated, or 0 to
+#                      revalidate tokens only once they are missing in the cache
+# + cacheCapacity - Capacity of the token cache
+# + verifyHostname - Whether the host name of the key manager should be verified
+# + trustStorePath - Path of the trust store used to connect to the key manager
+# + trustStorePassword - Password of the trust store
+# + return - Error if the client could not be created
+extern function initKeyValidationClient(string serviceUrl, string username, string password, int maxConnections,
+                                        int connectTimeout, int readTimeout, int cacheExpiry, int refreshAheadTime,
+                                        int cacheCapacity, boolean verifyHostname, string trustStorePath,
+                                        string trustStorePassword) returns error?;
+
+# Validate an access token at the key validation service. Concurrent validations of the same cache key send only one
+# request, and all of them return its result.
+#
+# + cacheKey - Key of the token in the token cache
+# + context - Context of the API
+# + apiVersion - Version of the API
+# + accessToken - Access token to be validated
+# + requiredAuthenticationLevel - Authentication level required by the resource
+# + clientDomain - Domain of the client
+# + matchingResource - Resource of the API matching the request
+# + httpVerb - HTTP method of the request
+# + return - Fields of the key validation info by name, or an error if the key manager could not be reached
+extern function validateKey(string cacheKey, string context, string apiVersion, string accessToken,
+                            string requiredAuthenticationLevel, string clientDomain, string matchingResource,
+                            string httpVerb) returns map<string>|error;
+
+# Check whether a cached token should be revalidated since its cache entry is about to expire. Only the first caller
+# is told to revalidate the token.
+#
+# + cacheKey - Key of the token in the token cache
+# + return - Whether the caller should revalidate the token
+extern function isKeyValidationRefreshDue(string cacheKey) returns boolean;
@@ -63,7 +63,7 @@ function generateEventFromRequestResponseExecutionDTO(RequestResponseExecutionDT
                                                                                                                    EventDTO
 {
     EventDTO eventDTO = {};
-    eventDTO.streamId = "org.wso2.apimgt.statistics.request:3.0.0";
+    eventDTO.streamId = REQUEST_STREAM_ID;
     eventDTO.timeStamp = getCurrentTime();
     eventDTO.metaData = getMetaDataForRequestResponseExecutionData(requestResponseExecutionDTO);
     eventDTO.correlationData = "null";
@@ -75,6 +75,7 @@ public function generateRequestResponseExecutionDataEvent(http:Response response
                                                                                                            RequestResponseExecutionDTO
 {
     RequestResponseExecutionDTO requestResponseExecutionDTO = {};
+    ResourceDescriptor descriptor = getResourceDescriptor(context);
     boolean isSecured = <boolean>context.attributes[IS_SECURED];
     if (isSecured && context.attributes.hasKey(AUTHENTICATION_CONTEXT)) {
         AuthenticationContext authContext = <AuthenticationContext>context.attributes[AUTHENTICATION_CONTEXT];
@@ -86,7 +87,7 @@ public function generateRequestResponseExecutionDataEvent(http:Response response
         requestResponseExecutionDTO.applicationName = authContext.applicationName;
         requestResponseExecutionDTO.userTenantDomain = authContext.subscriberTenantDomain;
     } else {
-        requestResponseExecutionDTO.apiCreator = <string>apiConfigAnnotationMap[getServiceName(context.serviceName)].publisher;
+        requestResponseExecutionDTO.apiCreator = descriptor.apiPublisher;
         requestResponseExecutionDTO.metaClientType = PRODUCTION_KEY_TYPE;
         requestResponseExecutionDTO.applicationConsumerKey = ANONYMOUS_CONSUMER_KEY;
         requestResponseExecutionDTO.userName = END_USER_ANONYMOUS;
@@ -94,9 +95,9 @@ public function generateRequestResponseExecutionDataEvent(http:Response response
         requestResponseExecutionDTO.applicationName = ANONYMOUS_APP_NAME;
         requestResponseExecutionDTO.userTenantDomain = ANONYMOUS_USER_TENANT_DOMAIN;
     }
-    requestResponseExecutionDTO.apiName = getApiName(context);
-    requestResponseExecutionDTO.apiVersion = <string>apiConfigAnnotationMap[getServiceName(context.serviceName)].apiVersion;
-    requestResponseExecutionDTO.apiContext = getContext(context);
+    requestResponseExecutionDTO.apiName = descriptor.apiName;
+    requestResponseExecutionDTO.apiVersion = descriptor.apiVersion;
+    requestResponseExecutionDTO.apiContext = descriptor.context;
     requestResponseExecutionDTO.correlationId = <string>context.attributes[MESSAGE_ID];
 
     var res = response.cacheControl.noCache;
@@ -105,6 +106,9 @@ public function generateRequestResponseExecutionDataEvent(http:Response response
     } else {
         //todo: cacheHit does not gives boolean
     }
+    if (context.attributes.hasKey(RESPONSE_CACHE_HIT)) {
+        requestResponseExecutionDTO.cacheHit = true;
+    }
 
     requestResponseExecutionDTO.apiHostname = retrieveHostname(DATACENTER_ID, <string>context.attributes[
         HOSTNAME_PROPERTY]);
@@ -121,10 +125,8 @@ public function generateRequestResponseExecutionDataEvent(http:Response response
         requestResponseExecutionDTO.responseSize = 0;
     }
     requestResponseExecutionDTO.responseCode = response.statusCode;
-    requestResponseExecutionDTO.apiResourcePath = <string>getResourceConfigAnnotation
-    (resourceAnnotationMap[context.resourceName] ?: []).path;
-    requestResponseExecutionDTO.apiResourceTemplate = <string>getResourceConfigAnnotation
-    (resourceAnnotationMap[context.resourceName] ?: []).path;
+    requestResponseExecutionDTO.apiResourcePath = descriptor.resourcePath;
+    requestResponseExecutionDTO.apiResourceTemplate = descriptor.resourcePath;
     //request method
     requestResponseExecutionDTO.apiMethod = <string>context.attributes[API_METHOD_PROPERTY];
     int initTime = <int>context.attributes[REQUEST_TIME];
@@ -14,24 +14,76 @@
 // specific language governing permissions and limitations
 // under the License.
 
+import ballerina/task;
+
+// Tokens revoked by the events of the gateway are kept in the native revoked token store, which expires them with
+// their ttl. The map is kept for the persistent revocation extensions, which are given the map to fill. The tokens
+// added to the map are moved to the store on a timer, and are looked up in the map as well until they are moved, so
+// that a token is rejected as soon as it is revoked.
 map<string> revokedTokenMap ={};
+boolean revokedTokenStoreInitialized = false;
+boolean revokedTokenMapSyncStarted = false;
+
+# Set the capacity of the revoked token store and whether lookups go through a Bloom filter.
+public function initRevokedTokenStore() {
+    lock {
+        if (!revokedTokenStoreInitialized) {
+            initRevokedTokenStoreCapacity(getConfigIntValue(TOKEN_REVOCATION_CONF_INSTANCE_ID,
+                REVOKED_TOKEN_STORE_CAPACITY, 1000000), getConfigBooleanValue(TOKEN_REVOCATION_CONF_INSTANCE_ID,
+                REVOKED_TOKEN_BLOOM_FILTER_ENABLED, true));
+            revokedTokenStoreInitialized = true;
+        }
+    }
+}
 
 public function getRevokedTokenMap() returns map<string>{
+    lock {
+        if (!revokedTokenMapSyncStarted) {
+            (function() returns error?) onTriggerFunction = moveRevokedTokenMapToStore;
+            function(error) onErrorFunction = errorOnMovingRevokedTokenMap;
+            task:Timer revokedTokenMapTimer = new task:Timer(onTriggerFunction, onErrorFunction,
+                REVOKED_TOKEN_MAP_SYNC_INTERVAL);
+            revokedTokenMapTimer.start();
+            revokedTokenMapSyncStarted = true;
+        }
+    }
     return revokedTokenMap;
 }
 
+function moveRevokedTokenMapToStore() returns error? {
+    foreach var jti in revokedTokenMap.keys() {
+        addRevokedToken(jti, revokedTokenMap[jti] ?: "");
+        _ = revokedTokenMap.remove(jti);
+    }
+    return;
+}
+
+function errorOnMovingRevokedTokenMap(error e) {
+    printError(KEY_UTILS, "Unable to move the revoked tokens to the revoked token store: "
+            + e.reason());
+}
+
+# Add revoked tokens to the revoked token store.
+#
+# + revokedTokens - Map of the JTIs of the revoked tokens to their remaining lifetime in seconds
+# + return - true once the tokens are added
 public function addToRevokedTokenMap(map<string> revokedTokens) returns (boolean|()){
     foreach var (revokedTokenKey,revokedTokenValue) in revokedTokens{
-        revokedTokenMap[<string>revokedTokenKey]=<string>revokedTokenValue;
+        addRevokedToken(<string>revokedTokenKey, <string>revokedTokenValue);
     }
     return true;
 }
 
+# Check whether a token is revoked and has not expired yet.
+#
+# + token - JTI of the token
+# + return - true if the token is revoked
 public function retrieveFromRevokedTokenMap(string token) returns (boolean|()){
-    foreach var (revokedTokenKey,revokedTokenValue) in revokedTokenMap{
-        if(token==revokedTokenKey){
-            return true;
-        }
-    }
-    return false;
+    return isTokenRevoked(token) || revokedTokenMap.hasKey(token);
 }
+
+extern function initRevokedTokenStoreCapacity(int capacity, boolean bloomFilterEnabled);
+
+extern function addRevokedToken(string jti, string ttl);
+
+extern function isTokenRevoked(string jti) returns boolean;
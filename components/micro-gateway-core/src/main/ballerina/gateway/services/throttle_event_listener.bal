@@ -34,7 +34,7 @@ service {
         map<any>|error m = message.getMapMessageContent();
         if (m is map<any>) {
             log:printDebug("ThrottleMessage Received");
-            //Throttling decisions made by TM going to throttleDataMap
+            //Throttling decisions made by TM going to the throttle decision store
             if (m.hasKey(THROTTLE_KEY)) {
                 GlobalThrottleStreamDTO globalThrottleStreamDtoTM = {
                     throttleKey: <string>m[THROTTLE_KEY],
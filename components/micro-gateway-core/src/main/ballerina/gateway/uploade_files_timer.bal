@@ -15,49 +15,112 @@
 // under the License.
 
 import ballerina/io;
-import ballerina/internal;
 import ballerina/task;
 import ballerina/math;
 import ballerina/runtime;
 import ballerina/log;
+import ballerina/observe;
 
 string uploadingUrl = "";
 string analyticsUsername = "";
 string analyticsPassword = "";
 
+observe:Counter uploadedAnalyticsFileCounter = new("analytics_files_uploaded",
+    desc = "Number of usage files uploaded to the analytics server");
+observe:Counter uploadedAnalyticsBytesCounter = new("analytics_file_bytes_uploaded",
+    desc = "Number of bytes of the usage files uploaded to the analytics server");
+observe:Counter failedAnalyticsUploadCounter = new("analytics_file_uploads_failed",
+    desc = "Number of failed attempts to upload a usage file");
+observe:Gauge pendingAnalyticsFileGauge = new("analytics_files_pending",
+    desc = "Number of usage files being uploaded or waiting to be retried");
+observe:Gauge analyticsUploadThroughputGauge = new("analytics_file_upload_throughput",
+    desc = "Average number of bytes uploaded per second while uploading usage files");
+// uploads, uploaded bytes and failures already added to the counters
+int countedAnalyticsFileUploads = 0;
+int countedAnalyticsUploadedBytes = 0;
+int countedAnalyticsUploadFailures = 0;
+
 
 function searchFilesToUpload() returns (error?) {
-    int cnt = 0;
+    int pendingFiles = uploadAnalyticsFiles();
+    if (pendingFiles == 0) {
+        error er = error("No files present to upload.");
+        return er;
+    }
+    printDebug(KEY_UPLOAD_TASK, pendingFiles + " file(s) are being uploaded");
+    return ();
+}
+
+# Create the uploader of the usage files. Files are uploaded concurrently and failed uploads are retried with
+# exponential backoff by the uploader itself.
+#
+# + return - Error if the uploader could not be created
+function initFileUploader() returns error? {
     string fileLocation = retrieveConfig(API_USAGE_PATH, API_USAGE_DIR);
-    internal:Path ex = new(fileLocation);
-    
-    internal:Path[]|error pathList = ex.list();
-
-    if(pathList is error){
-        printError(KEY_UPLOAD_TASK, "Error occured in getting path lists");
-        return pathList;
-    }else{
-        foreach var pathEntry in pathList {
-            string fileName = pathEntry.getName();
-            if (fileName.contains(ZIP_EXTENSION)) {
-                http:Response response = multipartSender(fileLocation + PATH_SEPERATOR, pathEntry.getName(),
-                    analyticsUsername, analyticsPassword);
-                if (response.statusCode == 201) {
-                    printInfo(KEY_UPLOAD_TASK, "Successfully uploaded the file: " + fileName);
-                    var result = pathEntry.delete();
-                } else {
-                    printError(KEY_UPLOAD_TASK, "Error occurred while uploading the file");
-                }
-                cnt=cnt +1;
-            }
-        }
-        if (cnt == 0) {
-            error er = error("No files present to upload.");
-            return er;
-        } else {
-            return ();
-        }
+    error? result = initAnalyticsFileUploader(fileLocation,
+        getConfigValue(ANALYTICS, UPLOADING_EP, "https://localhost:9444/analytics/v1.0/usage/upload-file"),
+        analyticsUsername, analyticsPassword, getConfigIntValue(ANALYTICS, UPLOAD_CONCURRENCY, 2),
+        getConfigIntValue(ANALYTICS, UPLOAD_RETRY_INITIAL_DELAY, 1000),
+        getConfigIntValue(ANALYTICS, UPLOAD_RETRY_MAX_DELAY, 300000),
+        getConfigBooleanValue(ANALYTICS, ENABLE_HOSTNAME_VERIFICATION, true),
+        getConfigValue(LISTENER_CONF_INSTANCE_ID, TRUST_STORE_PATH,
+            "${ballerina.home}/bre/security/ballerinaTruststore.p12"),
+        getConfigValue(LISTENER_CONF_INSTANCE_ID, TRSUT_STORE_PASSWORD, "ballerina"));
+    if (result is ()) {
+        initAnalyticsUploadMetrics();
+    }
+    return result;
+}
+
+function initAnalyticsUploadMetrics() {
+    error? result = uploadedAnalyticsFileCounter.register();
+    if (result is ()) {
+        result = uploadedAnalyticsBytesCounter.register();
+    }
+    if (result is ()) {
+        result = failedAnalyticsUploadCounter.register();
+    }
+    if (result is ()) {
+        result = pendingAnalyticsFileGauge.register();
+    }
+    if (result is ()) {
+        result = analyticsUploadThroughputGauge.register();
     }
+    if (result is error) {
+        printError(KEY_UPLOAD_TASK, "Unable to register the analytics upload metrics: " + result.reason());
+        return;
+    }
+    (function() returns error?) onTriggerFunction = updateAnalyticsUploadMetrics;
+    function(error) onErrorFunction = errorOnUpdatingAnalyticsUploadMetrics;
+    task:Timer metricsTimer = new task:Timer(onTriggerFunction, onErrorFunction, ANALYTICS_METRICS_INTERVAL);
+    metricsTimer.start();
+}
+
+function updateAnalyticsUploadMetrics() returns error? {
+    map<int> metrics = getAnalyticsUploadMetrics();
+    pendingAnalyticsFileGauge.setValue(<float>(metrics["pending"] ?: 0));
+    analyticsUploadThroughputGauge.setValue(<float>(metrics["throughput"] ?: 0));
+    // the uploader keeps running totals, hence the counters are incremented by the difference to the last update
+    int uploaded = metrics["uploaded"] ?: 0;
+    int uploadedBytes = metrics["uploadedBytes"] ?: 0;
+    int failed = metrics["failed"] ?: 0;
+    if (uploaded > countedAnalyticsFileUploads) {
+        uploadedAnalyticsFileCounter.increment(amount = uploaded - countedAnalyticsFileUploads);
+        countedAnalyticsFileUploads = uploaded;
+    }
+    if (uploadedBytes > countedAnalyticsUploadedBytes) {
+        uploadedAnalyticsBytesCounter.increment(amount = uploadedBytes - countedAnalyticsUploadedBytes);
+        countedAnalyticsUploadedBytes = uploadedBytes;
+    }
+    if (failed > countedAnalyticsUploadFailures) {
+        failedAnalyticsUploadCounter.increment(amount = failed - countedAnalyticsUploadFailures);
+        countedAnalyticsUploadFailures = failed;
+    }
+    return;
+}
+
+function errorOnUpdatingAnalyticsUploadMetrics(error e) {
+    printDebug(KEY_UPLOAD_TASK, "Unable to update the analytics upload metrics: " + e.reason());
 }
 
 
@@ -72,6 +135,11 @@ function timerTask() {
     analyticsUsername = <string>vals[USERNAME];
     analyticsPassword = <string>vals[PASSWORD];
     if (uploadFiles) {
+        error? uploaderResult = initFileUploader();
+        if (uploaderResult is error) {
+            printError(KEY_UPLOAD_TASK, uploaderResult.reason());
+            return;
+        }
         printInfo(KEY_UPLOAD_TASK, "Enabled file uploading task.");
         int|error timeSpan = <int>vals[UPLOADING_TIME_SPAN];
         (function() returns error?) onTriggerFunction = searchFilesToUpload;
@@ -85,3 +153,12 @@ function timerTask() {
     }
 }
 
+
+extern function initAnalyticsFileUploader(string directory, string endpointUrl, string username, string password,
+                                          int concurrency, int initialRetryDelay, int maxRetryDelay,
+                                          boolean verifyHostname, string trustStorePath, string trustStorePassword)
+                                          returns error?;
+
+extern function uploadAnalyticsFiles() returns int;
+
+extern function getAnalyticsUploadMetrics() returns map<int>;
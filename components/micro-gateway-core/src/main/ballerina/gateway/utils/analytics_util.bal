@@ -20,18 +20,18 @@ boolean configsRead = false;
 function populateThrottleAnalyticsDTO(http:FilterContext context) returns (ThrottleAnalyticsEventDTO) {
     boolean isSecured = <boolean>context.attributes[IS_SECURED];
     ThrottleAnalyticsEventDTO eventDto = {};
-    var api_Version = apiConfigAnnotationMap[getServiceName(context.serviceName)].apiVersion;
-    string apiVersion = (api_Version is string) ? api_Version : "";
+    ResourceDescriptor descriptor = getResourceDescriptor(context);
+    string apiVersion = descriptor.apiVersion;
     time:Time time = time:currentTime();
     int currentTimeMills = time.time;
 
     json metaInfo = {};
-    eventDto.userTenantDomain = getTenantDomain(context);
-    eventDto.apiName = getApiName(context);
-    eventDto.apiContext = getContext(context);
+    eventDto.userTenantDomain = descriptor.tenantDomain;
+    eventDto.apiName = descriptor.apiName;
+    eventDto.apiContext = descriptor.context;
     eventDto.throttledTime = currentTimeMills;
     eventDto.throttledOutReason = <string>context.attributes[THROTTLE_OUT_REASON];
-    eventDto.apiCreatorTenantDomain = getTenantDomain(context);
+    eventDto.apiCreatorTenantDomain = descriptor.tenantDomain;
     eventDto.gatewayType = GATEWAY_TYPE;
     eventDto.hostname = retrieveHostname(DATACENTER_ID, <string>context.attributes[
         HOSTNAME_PROPERTY]);
@@ -47,8 +47,7 @@ function populateThrottleAnalyticsDTO(http:FilterContext context) returns (Throt
     } else {
         metaInfo.keyType = PRODUCTION_KEY_TYPE;
         eventDto.userName = END_USER_ANONYMOUS;
-        var api_Creator = apiConfigAnnotationMap[getServiceName(context.serviceName)].publisher;
-        eventDto.apiCreator = (api_Creator is string) ? api_Creator : "";
+        eventDto.apiCreator = descriptor.apiPublisher;
         eventDto.applicationName = ANONYMOUS_APP_NAME;
         eventDto.applicationId = ANONYMOUS_APP_ID;
         eventDto.subscriber = END_USER_ANONYMOUS;
@@ -62,20 +61,19 @@ function populateThrottleAnalyticsDTO(http:FilterContext context) returns (Throt
 function populateFaultAnalyticsDTO(http:FilterContext context, error err) returns (FaultDTO) {
     boolean isSecured = <boolean>context.attributes[IS_SECURED];
     FaultDTO eventDto = {};
+    ResourceDescriptor descriptor = getResourceDescriptor(context);
     time:Time time = time:currentTime();
     int currentTimeMills = time.time;
     json metaInfo = {};
-    eventDto.apiContext = getContext(context);
-    var api_Version = apiConfigAnnotationMap[getServiceName(context.serviceName)].apiVersion;
-    eventDto.apiVersion = (api_Version is string) ? api_Version : "";
-    eventDto.apiName = getApiName(context);
-    var resource_Path = getResourceConfigAnnotation(resourceAnnotationMap[context.resourceName] ?: []).path;
-    eventDto.resourcePath = (resource_Path is string) ? resource_Path : "";
+    eventDto.apiContext = descriptor.context;
+    eventDto.apiVersion = descriptor.apiVersion;
+    eventDto.apiName = descriptor.apiName;
+    eventDto.resourcePath = descriptor.resourcePath;
     eventDto.method = <string>context.attributes[API_METHOD_PROPERTY];
     eventDto.errorCode = <int>runtime:getInvocationContext().attributes[ERROR_RESPONSE_CODE];
     eventDto.errorMessage = err.reason();
     eventDto.faultTime = currentTimeMills;
-    eventDto.apiCreatorTenantDomain = getTenantDomain(context);
+    eventDto.apiCreatorTenantDomain = descriptor.tenantDomain;
     eventDto.hostName = retrieveHostname(DATACENTER_ID, <string>context.attributes[HOSTNAME_PROPERTY]);
     eventDto.protocol = <string>context.attributes[PROTOCOL_PROPERTY];
     if (isSecured && context.attributes.hasKey(AUTHENTICATION_CONTEXT)) {
@@ -90,8 +88,7 @@ function populateFaultAnalyticsDTO(http:FilterContext context, error err) return
     } else {
         metaInfo.keyType = PRODUCTION_KEY_TYPE;
         eventDto.consumerKey = ANONYMOUS_CONSUMER_KEY;
-        var api_Creater = apiConfigAnnotationMap[getServiceName(context.serviceName)].publisher;
-        eventDto.apiCreator = (api_Creater is string) ? api_Creater : "";
+        eventDto.apiCreator = descriptor.apiPublisher;
         eventDto.userName = END_USER_ANONYMOUS;
         eventDto.applicationName = ANONYMOUS_APP_NAME;
         eventDto.applicationId = ANONYMOUS_APP_ID;
@@ -128,8 +125,7 @@ function initializeAnalytics() {
 }
 
 function initStreamPublisher() {
-    printDebug(KEY_UTILS, "Subscribing writing method to event stream");
-    eventStream.subscribe(writeEventToFile);
+    initEventWriter();
 }
 
 public function retrieveHostname(string key, string default) returns string {
@@ -28,7 +28,11 @@ import ballerina/task;
 import ballerina/encoding;
 
 public map<string> etcdUrls = {};
+# Deprecated: endpoint clients are rebuilt by the listeners registered with addEtcdUrlChangeListener, so requests
+# should not check for URL changes. Whether the URL of each etcd key changed is still kept, for the services generated
+# by earlier versions of the toolkit, which read it to decide whether to rebuild their client.
 public map<any> urlChanged = {};
+map<EtcdUrlChangeListener> etcdUrlChangeListeners = {};
 map<string> defaultUrls ={};
 string etcdToken ="";
 boolean etcdPeriodicQueryInitialized = false;
@@ -37,12 +41,17 @@ boolean etcdConnectionAttempted = false;
 boolean credentialsProvided = false;
 boolean etcdAuthenticationEnabled = true;
 task:Timer? etcdTimer = ();
+boolean etcdWatchEnabled = false;
+task:Timer? etcdWatchTimer = ();
 string etcdKVBasePath = "/v3alpha/kv";
 string etcdAuthBasePath = "/v3alpha/auth";
 
 # Setting up etcd timer task
 public function initiateEtcdTimerTask() {
     printDebug(KEY_ETCD_UTIL, "initiateEtcdTimerTask Called");
+    if (config:getAsBoolean("etcdwatch", default = false) && initiateEtcdWatch()) {
+        return;
+    }
     int etcdTriggerTime = config:getAsInt("etcdtimer", default = DEFAULT_ETCD_TRIGGER_TIME);
     string|error trigTime = string.convert(etcdTriggerTime);
     (function() returns error?) onTriggerFunction = etcdTimerTask;
@@ -54,6 +63,47 @@ public function initiateEtcdTimerTask() {
     }
 }
 
+# Start watching the etcd keys instead of querying them periodically. Changes received through the watch stream are
+# applied to the endpoint URLs by a timer task, which does not query etcd.
+# + return - true if the keys are watched, false if they should be queried periodically
+function initiateEtcdWatch() returns boolean {
+    error? result = startEtcdWatch(config:getAsString("etcdurl", default = ""),
+        config:getAsString("etcdusername", default = ""), config:getAsString("etcdpassword", default = ""),
+        config:getAsString("etcdwatchprefix", default = ""), DEFAULT_ETCD_WATCH_RETRY_DELAY,
+        getConfigValue(LISTENER_CONF_INSTANCE_ID, TRUST_STORE_PATH,
+            "${ballerina.home}/bre/security/ballerinaTruststore.p12"),
+        getConfigValue(LISTENER_CONF_INSTANCE_ID, TRSUT_STORE_PASSWORD, "ballerina"));
+    if (result is error) {
+        printError(KEY_ETCD_UTIL, result.reason() + ". Etcd keys will be queried periodically");
+        return false;
+    }
+    etcdWatchEnabled = true;
+    (function() returns error?) onTriggerFunction = applyEtcdWatchChanges;
+    function(error) onErrorFunction = etcdError;
+    etcdWatchTimer = new task:Timer(onTriggerFunction, onErrorFunction, DEFAULT_ETCD_WATCH_APPLY_TIME,
+        delay = DEFAULT_ETCD_WATCH_APPLY_TIME);
+    etcdWatchTimer.start();
+    printInfo(KEY_ETCD_UTIL, "Etcd keys are watched for changes");
+    return true;
+}
+
+# Apply the values of the etcd keys changed since the last run. Trigger function of etcd watch timer task
+# + return - Always (), since the changes are applied without querying etcd
+public function applyEtcdWatchChanges() returns error? {
+    foreach var (key, value) in getEtcdWatchChanges() {
+        string fetchedUrl = <string>value;
+        if (fetchedUrl == "") {
+            printDebug(KEY_ETCD_UTIL, "value not found at etcd for " + key);
+            fetchedUrl = <string>defaultUrls[<string>key];
+        }
+        if (<string>etcdUrls[<string>key] != fetchedUrl) {
+            updateEtcdUrl(<string>key, fetchedUrl);
+        }
+        printDebug(KEY_ETCD_UTIL, key + " : " + <string>etcdUrls[<string>key]);
+    }
+    return ();
+}
+
 # Periodic Etcd Query. Trigger function of etcd timer task
 # + return - ....
 public function etcdTimerTask() returns error? {
@@ -65,8 +115,7 @@ public function etcdTimerTask() returns error? {
             string fetchedUrl = etcdLookup(<string>key);
 
             if (currentUrl != fetchedUrl) {
-                etcdUrls[<string>key] = fetchedUrl;
-                urlChanged[<string>key] = true;
+                updateEtcdUrl(<string>key, fetchedUrl);
             }
             printDebug(KEY_ETCD_UTIL, key + " : " + <string>etcdUrls[<string>key]);
         }
@@ -80,6 +129,31 @@ public function etcdTimerTask() returns error? {
     return ();
 }
 
+# Register a function which rebuilds the client of an endpoint when the URL defined at etcd for it changes. Clients
+# are rebuilt by the etcd timer tasks, so that requests do not check for URL changes.
+# + etcdConfigKey - Config key holding the etcd key of the endpoint URL
+# + onChange - Function which rebuilds the client of the endpoint with the new URL
+# + return - true if the function is registered, false if the URL of the endpoint is not defined at etcd
+public function addEtcdUrlChangeListener(string etcdConfigKey, function (string) onChange) returns boolean {
+    string etcdKey = config:getAsString(etcdConfigKey, default = "");
+    if (etcdKey == "" || !etcdConnectionEstablished) {
+        return false;
+    }
+    etcdUrlChangeListeners[etcdConfigKey] = { etcdKey: etcdKey, onChange: onChange };
+    return true;
+}
+
+function updateEtcdUrl(string etcdKey, string url) {
+    etcdUrls[etcdKey] = url;
+    urlChanged[etcdKey] = true;
+    foreach var (etcdConfigKey, listener) in etcdUrlChangeListeners {
+        if (listener.etcdKey == etcdKey) {
+            printDebug(KEY_ETCD_UTIL, "Rebuilding the endpoint client of " + etcdConfigKey);
+            listener.onChange.call(url);
+        }
+    }
+}
+
 # Error function of etcd timer task
 public function etcdError(error e) {
     printError(KEY_ETCD_UTIL, "Etcd Timer Task failed");
@@ -113,6 +187,9 @@ public function etcdSetup(string key, string etcdConfigKey, string default) retu
             urlChanged[etcdKey] = false;
             etcdUrls[etcdKey] = etcdLookup(etcdKey);
             endpointUrl = <string>etcdUrls[etcdKey];
+            if (etcdWatchEnabled) {
+                registerEtcdWatchKey(etcdKey, endpointUrl);
+            }
         }
     }
     else {
@@ -247,3 +324,27 @@ public function etcdAuthenticate() {
         printError(KEY_ETCD_UTIL, response.reason());
     }
 }
+
+# Start watching the etcd keys registered with registerEtcdWatchKey.
+#
+# + etcdUrl - URL of etcd
+# + username - Username to authenticate to etcd
+# + password - Password to authenticate to etcd
+# + prefix - Prefix of the watched keys, empty to watch the range of the registered keys
+# + retryDelay - Delay in milliseconds before the first attempt to reopen a broken watch stream
+# + trustStorePath - Path of the trust store used to connect to etcd
+# + trustStorePassword - Password of the trust store
+# + return - Error if the keys could not be watched
+extern function startEtcdWatch(string etcdUrl, string username, string password, string prefix, int retryDelay,
+                               string trustStorePath, string trustStorePassword) returns error?;
+
+# Add an etcd key to the watched keys.
+#
+# + key - Etcd key of an endpoint URL
+# + value - Endpoint URL currently used
+extern function registerEtcdWatchKey(string key, string value);
+
+# Returns the values of the watched keys changed since the last call.
+#
+# + return - Values by key, empty for the keys which are not defined at etcd
+extern function getEtcdWatchChanges() returns map<string>;
@@ -0,0 +1,125 @@
+// Copyright (c)  WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/auth;
+import ballerina/internal;
+
+// Subscriptions in the subscribedAPIs claim of a JWT are indexed by "<api name>:<api version>" the first time the token
+// is seen, and the index is cached for as long as the JWT itself. Later requests with the same token are checked with
+// a single map lookup instead of decoding the token and scanning the claim.
+
+# Returns the subscription index of a JWT, building it from the JWT cache entry or the token itself if it is not
+# cached yet.
+#
+# + jwtToken - JWT of the request
+# + return - Subscription index of the token or an error if the token could not be decoded
+public function getJwtSubscriptionIndex(string jwtToken) returns JwtSubscriptionIndex|error {
+    var cachedIndex = trap <JwtSubscriptionIndex>jwtSubscriptionCache.get(jwtToken);
+    if (cachedIndex is JwtSubscriptionIndex) {
+        printDebug(KEY_SUBSCRIPTION_FILTER, "Subscription index found from the jwt subscription cache");
+        return cachedIndex;
+    }
+    json decodedPayload = check getJwtClaims(jwtToken);
+    printTrace(KEY_SUBSCRIPTION_FILTER, "Decoded JWT payload: " + decodedPayload.toString());
+    JwtSubscriptionIndex subscriptionIndex = buildJwtSubscriptionIndex(decodedPayload);
+    jwtSubscriptionCache.put(jwtToken, subscriptionIndex);
+    return subscriptionIndex;
+}
+
+# Returns the subscription of an API from the subscription index of a JWT.
+#
+# + subscriptionIndex - Subscription index of the JWT
+# + apiName - Name of the API
+# + apiVersion - Version of the API
+# + return - Subscription of the API or nil if the token is not subscribed to it
+public function getJwtSubscription(JwtSubscriptionIndex subscriptionIndex, string apiName, string apiVersion)
+                    returns JwtSubscription? {
+    return subscriptionIndex.subscriptions[getJwtSubscriptionKey(apiName, apiVersion)];
+}
+
+function getJwtSubscriptionKey(string apiName, string apiVersion) returns string {
+    return apiName + ":" + apiVersion;
+}
+
+function getJwtClaims(string jwtToken) returns json|error {
+    var cachedJwt = trap <auth:CachedJwt>jwtCache.get(jwtToken);
+    if (cachedJwt is auth:CachedJwt) {
+        printDebug(KEY_SUBSCRIPTION_FILTER, "jwt found from the jwt cache");
+        internal:JwtPayload jwtPayload = cachedJwt.jwtPayload;
+        json payload = {};
+        map<json> customClaims = jwtPayload.customClaims;
+        if(customClaims.hasKey(APPLICATION)) {
+            payload.application = customClaims[APPLICATION];
+        }
+        if(customClaims.hasKey(SUBSCRIBED_APIS)) {
+            payload.subscribedAPIs = customClaims[SUBSCRIBED_APIS];
+        }
+        if(customClaims.hasKey(CONSUMER_KEY)) {
+            payload.consumerKey = customClaims[CONSUMER_KEY];
+        }
+        if(customClaims.hasKey(KEY_TYPE)) {
+            payload.keytype = customClaims[KEY_TYPE];
+        }
+        payload.sub = jwtPayload["sub"];
+        return payload;
+    }
+    //If not found in cache decode jwt token and get the payload
+    string encodedPayload = check getEncodedJWTPayload(jwtToken);
+    printTrace(KEY_SUBSCRIPTION_FILTER, "Encoded JWT payload: " + encodedPayload);
+    return getDecodedJWTPayload(encodedPayload);
+}
+
+function buildJwtSubscriptionIndex(json decodedPayload) returns JwtSubscriptionIndex {
+    JwtSubscriptionIndex subscriptionIndex = {
+        username: decodedPayload.sub.toString(),
+        consumerKey: decodedPayload.consumerKey.toString(),
+        subscriber: decodedPayload.application.owner.toString()
+    };
+    if (decodedPayload.keytype != null) {
+        subscriptionIndex.keyType = decodedPayload.keytype.toString();
+    }
+    if (decodedPayload.application.id != null) {
+        subscriptionIndex.applicationId = decodedPayload.application.id.toString();
+    }
+    if (decodedPayload.application.name != null) {
+        subscriptionIndex.applicationName = decodedPayload.application.name.toString();
+    }
+    if (decodedPayload.application.tier != null) {
+        subscriptionIndex.applicationTier = decodedPayload.application.tier.toString();
+    }
+    if (decodedPayload.subscribedAPIs == null) {
+        return subscriptionIndex;
+    }
+    printDebug(KEY_SUBSCRIPTION_FILTER, "subscribedAPIs claim found in the jwt");
+    subscriptionIndex.hasSubscribedAPIsClaim = true;
+    json subscribedAPIList = decodedPayload.subscribedAPIs;
+    int l = subscribedAPIList.length();
+    int index = 0;
+    while (index < l) {
+        json subscription = subscribedAPIList[index];
+        JwtSubscription jwtSubscription = {
+            tier: subscription.subscriptionTier.toString(),
+            publisher: subscription.publisher.toString(),
+            subscriberTenantDomain: subscription.subscriberTenantDomain.toString()
+        };
+        subscriptionIndex.subscriptions[getJwtSubscriptionKey(subscription.name.toString(),
+            subscription["version"].toString())] = jwtSubscription;
+        index = index + 1;
+    }
+    subscriptionIndex.subscriptionCount = l;
+    printDebug(KEY_SUBSCRIPTION_FILTER, "Indexed " + l + " subscription(s) of the jwt");
+    return subscriptionIndex;
+}
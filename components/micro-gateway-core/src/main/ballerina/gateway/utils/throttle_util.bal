@@ -18,9 +18,10 @@ import ballerina/http;
 import ballerina/time;
 import ballerina/io;
 import ballerina/log;
+import ballerina/observe;
+import ballerina/task;
 
 map<string> blockConditions = {};
-map<any> throttleDataMap = {};
 public stream<RequestStreamDTO> requestStream = new;
 public stream<GlobalThrottleStreamDTO> globalThrottleStream = new;
 public boolean isStreamsInitialized = false;
@@ -29,6 +30,55 @@ future<()> ftr = start initializeThrottleSubscription();
 boolean blockConditionExist = false;
 boolean enabledGlobalTMEventPublishing = getConfigBooleanValue(THROTTLE_CONF_INSTANCE_ID,
     GLOBAL_TM_EVENT_PUBLISH_ENABLED, false);
+boolean localThrottleEngineEnabled = getConfigBooleanValue(THROTTLE_CONF_INSTANCE_ID,
+    LOCAL_THROTTLE_ENGINE_ENABLED, false);
+boolean throttleDecisionStoreInitialized = false;
+
+// Decisions returned by getThrottleDecision
+const int NOT_THROTTLED = 0;
+const int THROTTLED_STOP_ON_QUOTA = 2;
+// Id of a throttle key which is not interned
+const int NO_THROTTLE_KEY_ID = -1;
+
+observe:Gauge throttleDecisionStoreSizeGauge = new("throttle_decision_store_size",
+    desc = "Number of throttle decisions kept in the throttle decision store");
+observe:Counter evictedThrottleDecisionCounter = new("throttle_decisions_evicted",
+    desc = "Number of throttle decisions evicted since the throttle decision store was full");
+observe:Counter expiredThrottleDecisionCounter = new("throttle_decisions_expired",
+    desc = "Number of throttle decisions removed from the throttle decision store after they expired");
+// evictions and expirations already added to the counters
+int countedThrottleDecisionEvictions = 0;
+int countedThrottleDecisionExpirations = 0;
+
+# Set the capacity of the throttle decision store and register its metrics.
+public function initThrottleDecisionStore() {
+    lock {
+        if (!throttleDecisionStoreInitialized) {
+            initThrottleDecisionStoreCapacity(getConfigIntValue(THROTTLE_CONF_INSTANCE_ID,
+                THROTTLE_DECISION_STORE_CAPACITY, 100000));
+            error? result = throttleDecisionStoreSizeGauge.register();
+            if (result is ()) {
+                result = evictedThrottleDecisionCounter.register();
+            }
+            if (result is ()) {
+                result = expiredThrottleDecisionCounter.register();
+            }
+            if (result is error) {
+                printError(KEY_THROTTLE_UTIL, "Unable to register the throttle decision store metrics: "
+                        + result.reason());
+            } else {
+                // decisions also leave the store when they are swept after expiring, hence the metrics are refreshed
+                // on a timer rather than when decisions are added or removed
+                (function() returns error?) onTriggerFunction = updateThrottleDecisionStoreMetrics;
+                function(error) onErrorFunction = errorOnUpdatingThrottleDecisionStoreMetrics;
+                task:Timer metricsTimer = new task:Timer(onTriggerFunction, onErrorFunction,
+                    THROTTLE_DECISION_STORE_METRICS_INTERVAL);
+                metricsTimer.start();
+            }
+            throttleDecisionStoreInitialized = true;
+        }
+    }
+}
 
 public function isBlockConditionExist(string key) returns (boolean) {
     return blockConditions.hasKey(key);
@@ -51,32 +101,40 @@ public function putBlockCondition(map<any> m) {
     }
 }
 
-//check whether throttle event is in the local map(request is throttled or not)
+//check whether throttle event is in the local throttle decision store(request is throttled or not)
 public function isRequestThrottled(string key) returns (boolean, boolean) {
-    boolean isThrottled = throttleDataMap.hasKey(key);
-    if (isThrottled) {
-        int currentTime = time:currentTime().time;
-        GlobalThrottleStreamDTO dto = <GlobalThrottleStreamDTO>throttleDataMap[key];
-        int timeStamp = dto.expiryTimeStamp;
-        boolean stopOnQuota = dto.stopOnQuota;
-        if (enabledGlobalTMEventPublishing == true) {
-            stopOnQuota = true;
-        }
-        if (timeStamp >= currentTime) {
-            return (isThrottled, stopOnQuota);
-        } else {
-            boolean status = throttleDataMap.remove(key);
-            return (false, stopOnQuota);
-        }
+    return getThrottleResult(getThrottleDecision(key));
+}
+
+# Checks whether a request is throttled, looking up the decision by the id of the throttle key if it was interned.
+#
+# + keyId - Id of the throttle key or NO_THROTTLE_KEY_ID
+# + key - Throttle key
+# + return - Whether the request is throttled and whether it should be stopped
+public function isRequestThrottledById(int keyId, string key) returns (boolean, boolean) {
+    if (keyId == NO_THROTTLE_KEY_ID) {
+        return isRequestThrottled(key);
     }
-    return (isThrottled, false);
+    return getThrottleResult(getThrottleDecisionById(keyId));
+}
+
+function getThrottleResult(int decision) returns (boolean, boolean) {
+    if (decision == NOT_THROTTLED) {
+        return (false, false);
+    }
+    return (true, decision == THROTTLED_STOP_ON_QUOTA || enabledGlobalTMEventPublishing);
 }
 
 public function publishNonThrottleEvent(RequestStreamDTO throttleEvent) {
     //Publish throttle event to traffic manager
     if (enabledGlobalTMEventPublishing == true) {
-        publishThrottleEventToTrafficManager(throttleEvent);
-        printDebug(KEY_THROTTLE_UTIL, "Throttle out event is sent to the traffic manager.");
+        enqueueThrottleEvent(throttleEvent);
+        printDebug(KEY_THROTTLE_UTIL, "Throttle out event is queued to be sent to the traffic manager.");
+    }
+    //Count throttle event against the local throttle engine
+    else if (localThrottleEngineEnabled) {
+        throttleEventLocally(throttleEvent);
+        printDebug(KEY_THROTTLE_UTIL, "Throttle out event is counted by the local throttle engine.");
     }
     //Publish throttle event to internal policies
     else {
@@ -85,6 +143,43 @@ public function publishNonThrottleEvent(RequestStreamDTO throttleEvent) {
     }
 }
 
+function throttleEventLocally(RequestStreamDTO throttleEvent) {
+    _ = throttleKeyLocally(APPLICATION_TIER_TYPE, throttleEvent.appTier, throttleEvent.appKeyId,
+        throttleEvent.appKey);
+    _ = throttleKeyLocally(SUBSCRIPTION_TIER_TYPE, throttleEvent.subscriptionTier, throttleEvent.subscriptionKeyId,
+        throttleEvent.subscriptionKey);
+    _ = throttleKeyLocally(RESOURCE_TIER_TYPE, throttleEvent.resourceTier, throttleEvent.resourceKeyId,
+        throttleEvent.resourceKey);
+}
+
+function throttleKeyLocally(string tierType, string tier, int keyId, string key) returns boolean {
+    if (keyId == NO_THROTTLE_KEY_ID) {
+        return throttleLocally(tierType, tier, key);
+    }
+    return throttleLocallyById(tierType, tier, keyId);
+}
+
+# Returns whether the local throttle policies are evaluated by the local throttle engine instead of the streaming
+# queries of the policies.
+#
+# + return - true if the local throttle engine is enabled
+public function isLocalThrottleEngineEnabled() returns boolean {
+    return localThrottleEngineEnabled && !enabledGlobalTMEventPublishing;
+}
+
+# Adds a policy to the local throttle engine, which throttles a key once the given number of requests are received
+# within the unit time.
+#
+# + tierType - Type of the tier, one of appTier, subscriptionTier or resourceTier
+# + tier - Name of the tier
+# + count - Number of requests allowed within the unit time
+# + unitTime - Unit time in milliseconds
+# + stopOnQuota - Whether requests should be rejected once the key is throttled
+public function addLocalThrottlePolicy(string tierType, string tier, int count, int unitTime, boolean stopOnQuota) {
+    addThrottlePolicyToEngine(tierType, tier, count, unitTime, stopOnQuota);
+    printDebug(KEY_THROTTLE_UTIL, "Added " + tierType + " policy " + tier + " to the local throttle engine.");
+}
+
 public function initializeThrottleSubscription() {
     globalThrottleStream.subscribe(onReceiveThrottleEvent);
     isStreamsInitialized = true;
@@ -99,10 +194,10 @@ public function onReceiveThrottleEvent(GlobalThrottleStreamDTO throttleEvent) {
             ",isThrottled:"
             + throttleEvent.isThrottled + ",expiryTimeStamp:" + throttleEvent.expiryTimeStamp);
     if (throttleEvent.isThrottled){
-        throttleDataMap[throttleEvent.throttleKey] = throttleEvent;
+        putThrottleData(throttleEvent);
     }
     else {
-        _ = throttleDataMap.remove(throttleEvent.throttleKey);
+        removeThrottleData(throttleEvent.throttleKey);
     }
 }
 
@@ -120,7 +215,7 @@ public function getThrottlePayloadData(ThrottleAnalyticsEventDTO dto) returns st
 
 public function getEventFromThrottleData(ThrottleAnalyticsEventDTO dto) returns EventDTO {
     EventDTO eventDTO = {};
-    eventDTO.streamId = "org.wso2.apimgt.statistics.throttle:3.0.0";
+    eventDTO.streamId = THROTTLE_STREAM_ID;
     eventDTO.timeStamp = getCurrentTime();
     eventDTO.metaData = getThrottleMetaData(dto);
     eventDTO.correlationData = "null";
@@ -129,8 +224,96 @@ public function getEventFromThrottleData(ThrottleAnalyticsEventDTO dto) returns
 }
 
 public function putThrottleData(GlobalThrottleStreamDTO throttleEvent) {
-    throttleDataMap[throttleEvent.throttleKey] = throttleEvent;
+    putThrottleDecision(throttleEvent.throttleKey, throttleEvent.stopOnQuota, throttleEvent.expiryTimeStamp);
 }
 public function removeThrottleData(string key) {
-    _ = throttleDataMap.remove(key);
+    removeThrottleDecision(key);
+}
+
+function updateThrottleDecisionStoreMetrics() returns error? {
+    map<int> metrics = getThrottleDecisionStoreMetrics();
+    throttleDecisionStoreSizeGauge.setValue(<float>(metrics["size"] ?: 0));
+    // the store keeps running totals, hence the counters are incremented by the difference to the last update
+    int evictions = metrics["evictions"] ?: 0;
+    int expirations = metrics["expirations"] ?: 0;
+    if (evictions > countedThrottleDecisionEvictions) {
+        evictedThrottleDecisionCounter.increment(amount = evictions - countedThrottleDecisionEvictions);
+        countedThrottleDecisionEvictions = evictions;
+    }
+    if (expirations > countedThrottleDecisionExpirations) {
+        expiredThrottleDecisionCounter.increment(amount = expirations - countedThrottleDecisionExpirations);
+        countedThrottleDecisionExpirations = expirations;
+    }
+    return;
 }
+
+function errorOnUpdatingThrottleDecisionStoreMetrics(error e) {
+    printDebug(KEY_THROTTLE_UTIL, "Unable to update the throttle decision store metrics: " + e.reason());
+}
+
+# Sets the maximum number of throttle decisions kept in the store. Once the store is full, the decisions which
+# expire first are evicted.
+#
+# + capacity - Maximum number of throttle decisions
+extern function initThrottleDecisionStoreCapacity(int capacity);
+
+# Stores the decision to throttle a key until the given time.
+#
+# + key - Throttle key
+# + stopOnQuota - Whether requests should be stopped once the key is throttled
+# + expiryTimeStamp - Time in milliseconds at which the decision expires
+extern function putThrottleDecision(string key, boolean stopOnQuota, int expiryTimeStamp);
+
+# Removes the throttle decision of a key.
+#
+# + key - Throttle key
+extern function removeThrottleDecision(string key);
+
+# Returns the throttle decision of a key. Expired decisions are not returned.
+#
+# + key - Throttle key
+# + return - 0 if the key is not throttled, 1 if it is throttled and 2 if it is throttled and requests should be stopped
+extern function getThrottleDecision(string key) returns int;
+
+# Interns a throttle key, so that its throttle decision and local counters are looked up by id.
+#
+# + key - Throttle key
+# + return - Id of the key or NO_THROTTLE_KEY_ID if the key table is full
+extern function internThrottleKey(string key) returns int;
+
+# Returns the throttle decision of an interned key, in the same form as getThrottleDecision.
+#
+# + keyId - Id of the throttle key
+# + return - 0 if the key is not throttled, 1 if it is throttled and 2 if it is throttled and requests should be stopped
+extern function getThrottleDecisionById(int keyId) returns int;
+
+# Returns the size of the throttle decision store and the number of decisions evicted and expired so far.
+#
+# + return - Map of the metrics
+extern function getThrottleDecisionStoreMetrics() returns map<int>;
+
+# Adds a policy to the local throttle engine.
+#
+# + tierType - Type of the tier
+# + tier - Name of the tier
+# + count - Number of requests allowed within the unit time
+# + unitTime - Unit time in milliseconds
+# + stopOnQuota - Whether requests should be rejected once the key is throttled
+extern function addThrottlePolicyToEngine(string tierType, string tier, int count, int unitTime, boolean stopOnQuota);
+
+# Counts a request against the local throttle policy of its tier and updates the throttle decision of the key.
+#
+# + tierType - Type of the tier
+# + tier - Name of the tier of the request
+# + key - Throttle key of the request
+# + return - true if the throttle decision of the key was updated
+extern function throttleLocally(string tierType, string tier, string key) returns boolean;
+
+# Counts a request of an interned key against the local throttle policy of its tier and updates the throttle decision
+# of the key.
+#
+# + tierType - Type of the tier
+# + tier - Name of the tier of the request
+# + keyId - Id of the throttle key of the request
+# + return - true if the throttle decision of the key was updated
+extern function throttleLocallyById(string tierType, string tier, int keyId) returns boolean;
@@ -30,16 +30,112 @@ public map<reflect:annotationData[]> resourceAnnotationMap = {};
 public map<reflect:annotationData[]> serviceAnnotationMap = {};
 public map<TierConfiguration?> resourceTierAnnotationMap = {};
 public map<APIConfiguration?> apiConfigAnnotationMap = {};
+// descriptors of the resources of each service by service name and resource name
+map<map<ResourceDescriptor>> resourceDescriptorMap = {};
 
 
 public function populateAnnotationMaps(string serviceName, service s, string[] resourceArray) {
+    reflect:annotationData[] serviceAnnotations = reflect:getServiceAnnotations(s);
+    map<ResourceDescriptor> resourceDescriptors = {};
     foreach string resourceFunction in resourceArray {
-        resourceAnnotationMap[resourceFunction] = reflect:getResourceAnnotations(s, resourceFunction);
-        resourceTierAnnotationMap[resourceFunction] = getResourceLevelTier(reflect:getResourceAnnotations
-            (s, resourceFunction));
+        reflect:annotationData[] resourceAnnotations = reflect:getResourceAnnotations(s, resourceFunction);
+        resourceAnnotationMap[resourceFunction] = resourceAnnotations;
+        resourceTierAnnotationMap[resourceFunction] = getResourceLevelTier(resourceAnnotations);
+        resourceDescriptors[resourceFunction] = createResourceDescriptor(serviceName, resourceFunction,
+            serviceAnnotations, resourceAnnotations);
     }
-    serviceAnnotationMap[serviceName] = reflect:getServiceAnnotations(s);
-    apiConfigAnnotationMap[serviceName] = getAPIDetailsFromServiceAnnotation(reflect:getServiceAnnotations(s));
+    serviceAnnotationMap[serviceName] = serviceAnnotations;
+    apiConfigAnnotationMap[serviceName] = getAPIDetailsFromServiceAnnotation(serviceAnnotations);
+    resourceDescriptorMap[serviceName] = resourceDescriptors;
+}
+
+# Returns the descriptor of the resource a request is dispatched to. The descriptor holds the details of the
+# resource which do not change between requests, so that filters do not need to read them from the annotations.
+#
+# + context - Filter context of the request
+# + return - Descriptor of the resource
+public function getResourceDescriptor(http:FilterContext context) returns ResourceDescriptor {
+    string serviceName = getServiceName(context.serviceName);
+    map<ResourceDescriptor>? resourceDescriptors = resourceDescriptorMap[serviceName];
+    if (resourceDescriptors is map<ResourceDescriptor>) {
+        ResourceDescriptor? descriptor = resourceDescriptors[context.resourceName];
+        if (descriptor is ResourceDescriptor) {
+            return descriptor;
+        }
+    }
+    printDebug(KEY_UTILS, "No descriptor found for the resource " + context.resourceName + " of " + serviceName);
+    ResourceDescriptor descriptor = { serviceName: serviceName, resourceName: context.resourceName };
+    return descriptor;
+}
+
+function createResourceDescriptor(string serviceName, string resourceName,
+                                  reflect:annotationData[] serviceAnnotations,
+                                  reflect:annotationData[] resourceAnnotations) returns ResourceDescriptor {
+    ResourceDescriptor descriptor = { serviceName: serviceName, resourceName: resourceName };
+    APIConfiguration? apiConfig = getAPIDetailsFromServiceAnnotation(serviceAnnotations);
+    descriptor.apiConfig = apiConfig;
+    descriptor.apiName = serviceName.split("_")[0];
+    string versionSuffix = "";
+    if (apiConfig is APIConfiguration) {
+        descriptor.apiVersion = apiConfig.apiVersion;
+        descriptor.apiPublisher = apiConfig.publisher;
+        versionSuffix = ":" + apiConfig.apiVersion;
+    }
+    http:HttpServiceConfig? serviceConfig = getServiceConfigAnnotation(serviceAnnotations);
+    string apiContext = serviceConfig.basePath ?: "";
+    descriptor.context = apiContext;
+    descriptor.keyValidationContext = apiContext;
+    if (!apiContext.contains(descriptor.apiVersion)) {
+        if (apiContext.hasSuffix(PATH_SEPERATOR)) {
+            descriptor.keyValidationContext = apiContext + descriptor.apiVersion;
+        } else {
+            descriptor.keyValidationContext = apiContext + PATH_SEPERATOR + descriptor.apiVersion;
+        }
+    }
+    string[] splittedContext = apiContext.split("/");
+    if (splittedContext.length() > 3) {
+        // this check if basepath have /t/domain in
+        descriptor.tenantDomain = splittedContext[2];
+    }
+    descriptor.authorizationHeader = getAuthorizationHeader(serviceAnnotations);
+
+    http:ListenerAuthConfig? resourceLevelAuthAnn = getAuthAnnotation(ANN_PACKAGE, RESOURCE_ANN_NAME,
+        resourceAnnotations);
+    http:ListenerAuthConfig? serviceLevelAuthAnn = getAuthAnnotation(ANN_PACKAGE, SERVICE_ANN_NAME,
+        serviceAnnotations);
+    descriptor.secured = isResourceSecured(resourceLevelAuthAnn, serviceLevelAuthAnn);
+    if (descriptor.secured) {
+        // auth providers and scopes given at the resource level override the ones given at the service level
+        descriptor.authProviders = resourceLevelAuthAnn.authProviders ?: serviceLevelAuthAnn.authProviders ?: [];
+        descriptor.scopes = resourceLevelAuthAnn.scopes ?: serviceLevelAuthAnn.scopes ?: [];
+    }
+
+    http:HttpResourceConfig? resourceConfig = getResourceConfigAnnotation(resourceAnnotations);
+    if (resourceConfig is http:HttpResourceConfig) {
+        descriptor.resourcePath = resourceConfig.path;
+        if (resourceConfig.methods.length() > 0) {
+            descriptor.httpVerb = resourceConfig.methods[0];
+        }
+    }
+    TierConfiguration? tier = getResourceLevelTier(resourceAnnotations);
+    string? policy = tier.policy;
+    if (policy is string) {
+        descriptor.resourceTier = policy;
+    }
+    descriptor.apiThrottleKey = apiContext + versionSuffix;
+    descriptor.contextThrottleKeySuffix = ":" + descriptor.apiThrottleKey;
+    descriptor.resourceThrottleKey = resourceName.replaceAll("_", "") + versionSuffix;
+    if (descriptor.resourceTier != "" && descriptor.resourceTier != UNLIMITED_TIER) {
+        descriptor.resourceThrottleKeyId = internThrottleKey(descriptor.resourceThrottleKey);
+    }
+    // a TTL given at the resource level overrides the one given at the service level
+    ResponseCacheConfiguration? resourceCacheConfig = getResponseCacheAnnotation(resourceAnnotations);
+    ResponseCacheConfiguration? serviceCacheConfig = getResponseCacheAnnotation(serviceAnnotations);
+    if (resourceCacheConfig is ResponseCacheConfiguration || serviceCacheConfig is ResponseCacheConfiguration) {
+        int ttl = resourceCacheConfig.ttl ?: serviceCacheConfig.ttl ?: defaultResponseCacheTtl;
+        descriptor.responseCacheTtl = ttl * 1000;
+    }
+    return descriptor;
 }
 
 public function isResourceSecured(http:ListenerAuthConfig? resourceLevelAuthAnn, http:ListenerAuthConfig?
@@ -149,6 +245,19 @@ public function getResourceLevelTier(reflect:annotationData[] annData)
     }
 }
 
+# Retrieve the response cache annotation
+#
+# + annData - array of annotationData instances
+# + return - ResponseCacheConfiguration: ResponseCacheConfiguration instance if its defined, else nil
+public function getResponseCacheAnnotation(reflect:annotationData[] annData) returns ResponseCacheConfiguration? {
+    foreach var ann in annData {
+        if (ann.name == RESPONSE_CACHE_ANN_NAME && ann.moduleName == GATEWAY_ANN_PACKAGE) {
+            return <ResponseCacheConfiguration>ann.value;
+        }
+    }
+    return ();
+}
+
 # Retrieve the annotation related to service
 #
 # + annData - array of annotationData instances
@@ -178,27 +287,16 @@ public function getServiceConfigAnnotation(reflect:annotationData[] annData)
 #
 # + return - api key validation request dto
 public function getKeyValidationRequestObject(http:FilterContext context) returns APIRequestMetaDataDto {
+    ResourceDescriptor descriptor = getResourceDescriptor(context);
     APIRequestMetaDataDto apiKeyValidationRequest = {};
-    http:HttpServiceConfig? httpServiceConfig = getServiceConfigAnnotation(serviceAnnotationMap[getServiceName(context.serviceName)] ?: []);
-    http:HttpResourceConfig? httpResourceConfig = getResourceConfigAnnotation(resourceAnnotationMap[context.resourceName] ?: []);
-    string apiContext = <string>httpServiceConfig.basePath;
-    APIConfiguration? apiConfig = apiConfigAnnotationMap[getServiceName(context.serviceName)];
-    string apiVersion = <string>apiConfig.apiVersion;
-    apiKeyValidationRequest.apiVersion = apiVersion;
-    if (!apiContext.contains(apiVersion)){
-        if (apiContext.hasSuffix(PATH_SEPERATOR)) {
-            apiContext = apiContext + apiVersion;
-        } else {
-            apiContext = apiContext + PATH_SEPERATOR + apiVersion;
-        }
-    }
-    apiKeyValidationRequest.context = apiContext;
+    apiKeyValidationRequest.apiVersion = descriptor.apiVersion;
+    apiKeyValidationRequest.context = descriptor.keyValidationContext;
     apiKeyValidationRequest.requiredAuthenticationLevel = ANY_AUTHENTICATION_LEVEL;
     apiKeyValidationRequest.clientDomain = "*";
-    apiKeyValidationRequest.matchingResource = <string>httpResourceConfig.path;
-    apiKeyValidationRequest.httpVerb = <string>httpResourceConfig.methods[0];
+    apiKeyValidationRequest.matchingResource = descriptor.resourcePath;
+    apiKeyValidationRequest.httpVerb = descriptor.httpVerb;
     apiKeyValidationRequest.accessToken = <string>runtime:getInvocationContext().attributes[ACCESS_TOKEN_ATTR];
-    printDebug(KEY_UTILS, "Created request meta-data object with context: " + apiContext
+    printDebug(KEY_UTILS, "Created request meta-data object with context: " + apiKeyValidationRequest.context
             + ", resource: " + apiKeyValidationRequest.matchingResource
             + ", verb: " + apiKeyValidationRequest.httpVerb);
     return apiKeyValidationRequest;
@@ -210,7 +308,8 @@ public function getKeyValidationRequestObject(http:FilterContext context) return
 #
 # + return - service name
 public function getServiceName(string serviceObjectName) returns string {
-    return serviceObjectName.split("\\$")[0];
+    int index = serviceObjectName.indexOf("$");
+    return index < 0 ? serviceObjectName : serviceObjectName.substring(0, index);
 }
 
 
@@ -263,9 +362,7 @@ public function isAccessTokenExpired(APIKeyValidationDto apiKeyValidationDto) re
     return false;
 }
 public function getContext(http:FilterContext context) returns (string) {
-    http:HttpServiceConfig? httpServiceConfig = getServiceConfigAnnotation(serviceAnnotationMap[getServiceName(context.serviceName)] ?: []);
-    return <string>httpServiceConfig.basePath;
-
+    return getResourceDescriptor(context).context;
 }
 
 public function getClientIp(http:Request request, http:Caller caller) returns (string) {
@@ -295,19 +392,10 @@ public function handleError(string message) returns (error) {
     return error(message);
 }
 public function getTenantDomain(http:FilterContext context) returns (string) {
-    // todo: need to implement to get tenantDomain
-    string apiContext = getContext(context);
-    string[] splittedContext = apiContext.split("/");
-    if (splittedContext.length() > 3){
-        // this check if basepath have /t/domain in
-        return splittedContext[2];
-    } else {
-        return SUPER_TENANT_DOMAIN_NAME;
-    }
+    return getResourceDescriptor(context).tenantDomain;
 }
 public function getApiName(http:FilterContext context) returns (string) {
-    string serviceName = context.serviceName;
-    return serviceName.split("_")[0];
+    return getResourceDescriptor(context).apiName;
 }
 
 public function getConfigValue(string instanceId, string property, string defaultValue) returns string {
@@ -396,6 +484,16 @@ public function getCurrentTime() returns int {
 }
 
 public function rotateFile(string fileName) returns string|error {
+    if (fileName == API_USAGE_FILE) {
+        // the usage file is compressed as it is written, so rotating only closes the current segment
+        string segmentName = rotateAnalyticsEventFile();
+        if (segmentName == "") {
+            error er = error("No files present to rotate.");
+            return er;
+        }
+        printInfo(KEY_UTILS, "File compressed successfully");
+        return segmentName;
+    }
     string uuid = system:uuid();
     string fileLocation = retrieveConfig(API_USAGE_PATH, API_USAGE_DIR) + PATH_SEPERATOR;
     int rotatingTimeStamp = getCurrentTime();
@@ -0,0 +1,225 @@
+// Copyright (c)  WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/io;
+
+// Schemas of the swagger are compiled once when the listeners are initialized. Request schemas are indexed by
+// "<path>:<method>" and response schemas by "<path>:<method>:<status code>", so the validation filter only needs a map
+// lookup to find the compiled schema of a payload.
+map<ValidationSchema> requestSchemaIndex = {};
+map<ValidationSchema> responseSchemaIndex = {};
+json swaggerModels = {};
+boolean schemaIndexInitialized = false;
+
+string[] httpMethods = ["get", "put", "post", "delete", "options", "head", "patch"];
+
+# Read the swagger defined in the validation config and build the request and response schema index. The swagger
+# is read only once even if this is called by several listeners.
+public function initValidationSchemaIndex() {
+    if (!enableRequestValidation && !enableResponseValidation) {
+        return;
+    }
+    lock {
+        if (!schemaIndexInitialized) {
+            json|error swagger = trap read(swaggerAbsolutePath);
+            if (swagger is json) {
+                buildSchemaIndex(swagger);
+                printDebug(KEY_VALIDATION_FILTER, "Schema index is built with " + requestSchemaIndex.length()
+                        + " request schema(s) and " + responseSchemaIndex.length() + " response schema(s)");
+            } else {
+                printError(KEY_VALIDATION_FILTER, "Unable to read the swagger from " + swaggerAbsolutePath + ": "
+                        + swagger.reason() + ". Payloads will not be validated");
+            }
+            schemaIndexInitialized = true;
+        }
+    }
+}
+
+function buildSchemaIndex(json swagger) {
+    if (swagger.components.schemas != null) {//In swagger 3.0 models are defined under the components.schemas
+        swaggerModels = swagger.components.schemas;
+    } else if (swagger.definitions != null) {//In swagger 2.0 models are defined under the definitions
+        swaggerModels = swagger.definitions;
+    }
+    error? modelsResult = setValidationModels(swaggerModels.toString());
+    if (modelsResult is error) {
+        printError(KEY_VALIDATION_FILTER, modelsResult.reason());
+        return;
+    }
+    if (swagger[PATHS] == null) {
+        return;
+    }
+    foreach var path in swagger[PATHS].getKeys() {
+        json pathItem = swagger[PATHS][path];
+        foreach var method in pathItem.getKeys() {
+            if (!isHttpMethod(method)) {
+                // path level parameters and vendor extensions
+                continue;
+            }
+            json operation = pathItem[method];
+            string operationKey = getSchemaIndexKey(path, method);
+            ValidationSchema? requestSchema = createValidationSchema(operationKey, getRequestSchema(operation));
+            if (requestSchema is ValidationSchema) {
+                requestSchemaIndex[operationKey] = requestSchema;
+            }
+            json responses = operation[RESPONSES];
+            if (responses != null) {
+                foreach var statusCode in responses.getKeys() {
+                    string responseKey = operationKey + ":" + statusCode;
+                    ValidationSchema? responseSchema = createValidationSchema(responseKey,
+                        getResponseSchema(responses[statusCode]));
+                    if (responseSchema is ValidationSchema) {
+                        responseSchemaIndex[responseKey] = responseSchema;
+                    }
+                }
+            }
+        }
+    }
+}
+
+# Returns the key of an operation in the schema index.
+#
+# + path - Resource path as defined in the swagger
+# + method - HTTP method of the operation
+# + return - Key of the operation
+public function getSchemaIndexKey(string path, string method) returns string {
+    return path + ":" + method.toLower();
+}
+
+# Returns the schema of the request body of the given operation.
+#
+# + resourcePath - Resource path as defined in the swagger
+# + method - HTTP method of the request
+# + return - Schema of the request body if there is one, else nil
+public function getRequestValidationSchema(string resourcePath, string method) returns ValidationSchema? {
+    return requestSchemaIndex[getSchemaIndexKey(resourcePath, method)];
+}
+
+# Returns the schema of the response payload of the given operation and status code.
+#
+# + resourcePath - Resource path as defined in the swagger
+# + method - HTTP method of the request
+# + statusCode - Status code of the response
+# + return - Schema of the response payload if there is one, else nil
+public function getResponseValidationSchema(string resourcePath, string method, int statusCode)
+                    returns ValidationSchema? {
+    return responseSchemaIndex[getSchemaIndexKey(resourcePath, method) + ":" + statusCode];
+}
+
+# Validates a request payload against the compiled schema of the given operation.
+#
+# + resourcePath - Resource path as defined in the swagger
+# + method - HTTP method of the request
+# + payload - Payload to be validated
+# + return - Description of the first violation, or an empty string if the payload is valid or has no schema
+public function validateRequestPayload(string resourcePath, string method, string payload) returns string {
+    ValidationSchema? schema = getRequestValidationSchema(resourcePath, method);
+    if (schema is ValidationSchema) {
+        return validatePayload(schema.key, payload, false);
+    }
+    return "";
+}
+
+function getRequestSchema(json operation) returns json {
+    json schema = null;
+    if (operation[REQUEST_BODY] != null) {//In swagger 3.0 the payload is defined under the requestBody
+        schema = getContentSchema(operation[REQUEST_BODY]);
+    } else if (operation[PARAMETERS] != null) {//In swagger 2.0 the payload is defined as a body parameter
+        json[] parameters = <json[]>operation[PARAMETERS];
+        foreach var parameter in parameters {
+            if (parameter[SCHEMA] != null) {
+                schema = parameter[SCHEMA];
+            }
+        }
+    }
+    return schema;
+}
+
+function getResponseSchema(json response) returns json {
+    json schema = response[SCHEMA];
+    if (schema == null) {//In swagger 3.0 the payload is defined under the content
+        schema = getContentSchema(response);
+    }
+    return schema;
+}
+
+function getContentSchema(json body) returns json {
+    if (body[CONTENT] != null && body[CONTENT][APPLICATION_JSON] != null) {
+        return body[CONTENT][APPLICATION_JSON][SCHEMA];
+    }
+    return null;
+}
+
+//compile the schema once, so that payloads are validated without interpreting the swagger again
+function createValidationSchema(string key, json schema) returns ValidationSchema? {
+    if (schema == null) {
+        return ();
+    }
+    error? result = compileValidationSchema(key, schema.toString());
+    if (result is error) {
+        printError(KEY_VALIDATION_FILTER, result.reason());
+        return ();
+    }
+    ValidationSchema validationSchema = { key: key };
+    if (schema[REFERENCE] != null) {
+        validationSchema.modelName = replaceModelPrefix(schema[REFERENCE].toString());
+    }
+    return validationSchema;
+}
+
+function isHttpMethod(string method) returns boolean {
+    foreach var httpMethod in httpMethods {
+        if (httpMethod == method.toLower()) {
+            return true;
+        }
+    }
+    return false;
+}
+
+# Compiles the models of the swagger, which are referred by the schemas compiled afterwards.
+#
+# + models - JSON object of the models defined in the swagger
+# + return - Error if the models could not be compiled
+extern function setValidationModels(string models) returns error?;
+
+# Compiles a schema and registers it against a key of the schema index.
+#
+# + key - Key of the schema in the schema index
+# + schema - JSON schema of the payload
+# + return - Error if the schema could not be compiled
+extern function compileValidationSchema(string key, string schema) returns error?;
+
+# Validates a payload against a compiled schema. Payloads which are not JSON are not validated.
+#
+# + key - Key of the schema in the schema index
+# + payload - Payload to be validated
+# + ignoreFaults - Whether fault payloads sent by the gateway should be skipped
+# + return - Description of the first violation or an empty string if the payload is valid
+extern function validatePayload(string key, string payload, boolean ignoreFaults) returns string;
+
+# Validates a payload against a compiled schema while it is read from the byte channel of the entity, without
+# building the JSON tree of the payload. Reading stops at the first violation. Payloads which are not JSON are not
+# validated. The bytes read are kept in memory until the payload is validated, hence payloads larger than the maximum
+# size are reported as a violation.
+#
+# + key - Key of the schema in the schema index
+# + payload - Byte channel of the payload, which is consumed
+# + ignoreFaults - Whether fault payloads sent by the gateway should be skipped
+# + maxSize - Maximum size of a payload in bytes
+# + return - Map of the description of the first violation as "error", an empty string if the payload is valid, and
+#            the bytes of a valid payload as "payload", to be set back to the entity
+extern function validatePayloadStream(string key, io:ReadableByteChannel payload, boolean ignoreFaults, int maxSize)
+                    returns map<any>;
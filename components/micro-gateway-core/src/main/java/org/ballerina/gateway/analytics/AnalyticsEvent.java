@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Analytics event, as written to the usage file.
+ */
+public class AnalyticsEvent {
+
+    static final String KEY_VALUE_SEPARATOR = "-KS-";
+    static final String ENTRY_SEPARATOR = "-ES-";
+    static final String PAYLOAD_SEPARATOR = "-OS-";
+
+    private final String streamId;
+    private final long timestamp;
+    private final String metaData;
+    private final String[] payload;
+
+    /**
+     * @param streamId  id of the analytics stream the event belongs to
+     * @param timestamp time in milliseconds at which the event was created
+     * @param metaData  meta data of the event
+     * @param payload   values of the payload, in the order of the attributes of the stream
+     */
+    public AnalyticsEvent(String streamId, long timestamp, String metaData, String[] payload) {
+        this.streamId = streamId;
+        this.timestamp = timestamp;
+        this.metaData = metaData;
+        this.payload = payload;
+    }
+
+    public String getStreamId() {
+        return streamId;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getMetaData() {
+        return metaData;
+    }
+
+    public String[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * Returns the event as a line of the text usage file, in which the payload values are separated by -OS-.
+     *
+     * @return the event as a line of text, ending with a new line
+     */
+    public String toText() {
+        StringBuilder text = new StringBuilder(256);
+        text.append("streamId").append(KEY_VALUE_SEPARATOR).append(streamId).append(ENTRY_SEPARATOR)
+                .append("timestamp").append(KEY_VALUE_SEPARATOR).append(timestamp).append(ENTRY_SEPARATOR)
+                .append("metadata").append(KEY_VALUE_SEPARATOR).append(metaData).append(ENTRY_SEPARATOR)
+                .append("correlationData").append(KEY_VALUE_SEPARATOR).append("null").append(ENTRY_SEPARATOR)
+                .append("payLoadData").append(KEY_VALUE_SEPARATOR);
+        for (int i = 0; i < payload.length; i++) {
+            if (i > 0) {
+                text.append(PAYLOAD_SEPARATOR);
+            }
+            text.append(payload[i]);
+        }
+        return text.append('\n').toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AnalyticsEvent)) {
+            return false;
+        }
+        AnalyticsEvent event = (AnalyticsEvent) o;
+        return timestamp == event.timestamp && streamId.equals(event.streamId) && metaData.equals(event.metaData)
+                && Arrays.equals(payload, event.payload);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * streamId.hashCode() + Long.hashCode(timestamp);
+    }
+
+    @Override
+    public String toString() {
+        return toText().trim();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.analytics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Encodes analytics events into the format of the usage file.
+ */
+public interface AnalyticsEventEncoder {
+
+    String TEXT_FORMAT = "text";
+    String BINARY_FORMAT = "binary";
+
+    /**
+     * Called before the first event is written to a file.
+     *
+     * @param out    stream of the file
+     * @param append whether events are appended to a file which already holds events
+     * @throws IOException if the stream could not be written
+     */
+    void start(OutputStream out, boolean append) throws IOException;
+
+    /**
+     * Writes an event.
+     *
+     * @param event event to be written
+     * @param out   stream of the file
+     * @throws IOException if the stream could not be written
+     */
+    void write(AnalyticsEvent event, OutputStream out) throws IOException;
+
+    /**
+     * Copies the complete events of a file which was not closed properly. Reading stops at the first event which
+     * could not be read, so a truncated last event is dropped.
+     *
+     * @param in  stream of the truncated file
+     * @param out stream of the recovered file
+     * @throws IOException if the recovered file could not be written
+     */
+    void recover(InputStream in, OutputStream out) throws IOException;
+
+    /**
+     * Creates the encoder of a usage file format.
+     *
+     * @param format {@link #TEXT_FORMAT} or {@link #BINARY_FORMAT}
+     * @return a new encoder
+     */
+    static AnalyticsEventEncoder create(String format) {
+        if (TEXT_FORMAT.equalsIgnoreCase(format)) {
+            return new TextAnalyticsEventEncoder();
+        }
+        if (BINARY_FORMAT.equalsIgnoreCase(format)) {
+            return new BinaryAnalyticsEventEncoder(BinaryAnalyticsEventEncoder.DEFAULT_MAX_DICTIONARY_SIZE);
+        }
+        throw new IllegalArgumentException("Unknown analytics file format " + format + ", expected " + TEXT_FORMAT
+                + " or " + BINARY_FORMAT);
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.analytics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Writes analytics events to the usage file from a single writer thread. Request threads only add events to a bounded
+ * {@link EventRingBuffer}, which drops or samples events as configured once the writer falls behind. The writer keeps
+ * the file open with a large buffer and flushes it once a batch of events is written or the flush interval elapses, so
+ * that many events are committed to the file with a single write. Events are written in the format of the given
+ * {@link AnalyticsEventEncoder}.
+ * <p>
+ * Events are compressed as they are written, into a zip segment named after the usage file with a .part suffix. When
+ * the file is rotated the segment is closed and renamed to &lt;usage file&gt;.&lt;timestamp&gt;.&lt;uuid&gt;.zip,
+ * which is the name the uploader looks for. A segment left behind by a crash is recovered when the writer opens the
+ * next segment.
+ */
+public class AnalyticsEventWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsEventWriter.class);
+    static final String PART_SUFFIX = ".part";
+    static final String ZIP_EXTENSION = ".zip";
+    private static final String RECOVERY_SUFFIX = ".recovery";
+    private static final String CORRUPTED_SUFFIX = ".corrupted";
+
+    private static AnalyticsEventWriter instance;
+
+    private final File file;
+    private final File segmentFile;
+    private final int bufferSize;
+    private final int batchSize;
+    private final long flushInterval;
+    private final EventRingBuffer<AnalyticsEvent> buffer;
+    private final AnalyticsEventEncoder encoder;
+    private final List<AnalyticsEvent> batch = new ArrayList<>();
+    // guarded by this
+    private OutputStream out;
+    private int unflushedEvents;
+    private long lastFlushTime = System.currentTimeMillis();
+
+    AnalyticsEventWriter(String filePath, EventRingBuffer<AnalyticsEvent> buffer, AnalyticsEventEncoder encoder,
+                         int bufferSize, int batchSize, long flushInterval) {
+        this.buffer = buffer;
+        this.encoder = encoder;
+        this.file = new File(filePath);
+        this.segmentFile = new File(filePath + PART_SUFFIX);
+        this.bufferSize = bufferSize;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Creates the writer used by the gateway and starts its writer thread. The writer is created only once.
+     *
+     * @param filePath      path of the usage file
+     * @param buffer        buffer of the events to be written
+     * @param encoder       encoder of the format of the usage file
+     * @param bufferSize    size of the write buffer in bytes
+     * @param batchSize     number of events after which the file is flushed
+     * @param flushInterval maximum time in milliseconds an event is kept in the buffer before the file is flushed
+     */
+    public static void init(String filePath, EventRingBuffer<AnalyticsEvent> buffer, AnalyticsEventEncoder encoder,
+                            int bufferSize, int batchSize, long flushInterval) {
+        synchronized (AnalyticsEventWriter.class) {
+            if (instance != null) {
+                return;
+            }
+            AnalyticsEventWriter eventWriter = new AnalyticsEventWriter(filePath, buffer, encoder, bufferSize,
+                    batchSize, flushInterval);
+            Thread thread = new Thread(eventWriter::run, "analytics-event-writer");
+            thread.setDaemon(true);
+            thread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(eventWriter::rotate));
+            instance = eventWriter;
+        }
+    }
+
+    public static AnalyticsEventWriter getInstance() {
+        synchronized (AnalyticsEventWriter.class) {
+            return instance;
+        }
+    }
+
+    /**
+     * Adds an event to the buffer, to be written by the writer thread.
+     *
+     * @param event event to be written
+     * @return true if the event was added, false if it was dropped by the overflow policy of the buffer
+     */
+    public boolean write(AnalyticsEvent event) {
+        return buffer.offer(event);
+    }
+
+    /**
+     * Writes all the buffered events and closes the current segment, so that it can be uploaded. Events added after
+     * this are written to a new segment.
+     *
+     * @return name of the closed segment, or null if no events were written since the last rotation
+     */
+    public synchronized String rotate() {
+        batch.clear();
+        buffer.drainTo(batch, Integer.MAX_VALUE);
+        writeBatch();
+        if (out == null || !closeFile()) {
+            return null;
+        }
+        try {
+            return completeSegment(segmentFile);
+        } catch (IOException e) {
+            log.error("Unable to rename " + segmentFile, e);
+            return null;
+        }
+    }
+
+    public EventRingBuffer<AnalyticsEvent> getBuffer() {
+        return buffer;
+    }
+
+    void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            // events are only taken from the buffer while holding the lock, so that rotation sees all of them
+            boolean available = buffer.await(flushInterval, TimeUnit.MILLISECONDS);
+            synchronized (this) {
+                if (available) {
+                    batch.clear();
+                    buffer.drainTo(batch, batchSize);
+                    writeBatch();
+                }
+                if (unflushedEvents >= batchSize || (unflushedEvents > 0
+                        && System.currentTimeMillis() - lastFlushTime >= flushInterval)) {
+                    flush();
+                }
+            }
+        }
+    }
+
+    private void writeBatch() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            if (out == null) {
+                openFile();
+            }
+            for (AnalyticsEvent event : batch) {
+                encoder.write(event, out);
+            }
+            unflushedEvents += batch.size();
+        } catch (IOException e) {
+            log.error("Unable to write " + batch.size() + " analytics event(s) to " + segmentFile, e);
+            closeFile();
+        }
+        batch.clear();
+    }
+
+    private void flush() {
+        lastFlushTime = System.currentTimeMillis();
+        if (out == null) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            log.error("Unable to flush " + unflushedEvents + " analytics event(s) to " + segmentFile, e);
+            closeFile();
+        }
+        unflushedEvents = 0;
+    }
+
+    private void openFile() throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Unable to create the directory " + directory);
+        }
+        recoverFiles();
+        OutputStream stream = new ZipSegmentOutputStream(new BufferedOutputStream(new FileOutputStream(segmentFile),
+                bufferSize), file.getName());
+        try {
+            encoder.start(stream, false);
+        } catch (IOException e) {
+            stream.close();
+            throw e;
+        }
+        out = stream;
+    }
+
+    private boolean closeFile() {
+        if (out == null) {
+            return true;
+        }
+        boolean closed = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.error("Unable to close " + segmentFile, e);
+            closed = false;
+        }
+        out = null;
+        unflushedEvents = 0;
+        return closed;
+    }
+
+    // completes a segment which was not closed, and compresses a usage file written by an earlier version
+    private void recoverFiles() throws IOException {
+        if (segmentFile.length() > 0) {
+            File recoveredFile = new File(file.getPath() + RECOVERY_SUFFIX);
+            try (ZipInputStream in = new ZipInputStream(new BufferedInputStream(new FileInputStream(segmentFile)));
+                 OutputStream recovered = new ZipSegmentOutputStream(new BufferedOutputStream(
+                         new FileOutputStream(recoveredFile), bufferSize), file.getName())) {
+                if (in.getNextEntry() == null) {
+                    throw new IOException("No usage file entry is found");
+                }
+                encoder.recover(in, recovered);
+            } catch (IOException e) {
+                File corruptedFile = new File(file.getPath() + "." + System.currentTimeMillis() + CORRUPTED_SUFFIX);
+                log.error("Unable to recover " + segmentFile + ", it is moved to " + corruptedFile, e);
+                Files.move(segmentFile.toPath(), corruptedFile.toPath());
+                Files.deleteIfExists(recoveredFile.toPath());
+                return;
+            }
+            log.info("Recovered the analytics events of " + segmentFile + " into " + completeSegment(recoveredFile));
+        }
+        if (file.length() > 0) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(file));
+                 OutputStream compressed = new ZipSegmentOutputStream(new BufferedOutputStream(
+                         new FileOutputStream(segmentFile), bufferSize), file.getName())) {
+                byte[] chunk = new byte[8192];
+                int length;
+                while ((length = in.read(chunk)) != -1) {
+                    compressed.write(chunk, 0, length);
+                }
+            }
+            Files.delete(file.toPath());
+            log.info("Compressed the analytics events of " + file + " into " + completeSegment(segmentFile));
+        }
+    }
+
+    private String completeSegment(File segment) throws IOException {
+        String name = file.getName() + "." + System.currentTimeMillis() + "." + UUID.randomUUID() + ZIP_EXTENSION;
+        Files.move(segment.toPath(), new File(segment.getAbsoluteFile().getParentFile(), name).toPath(),
+                StandardCopyOption.ATOMIC_MOVE);
+        return name;
+    }
+}
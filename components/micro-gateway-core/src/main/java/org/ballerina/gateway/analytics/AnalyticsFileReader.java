@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.analytics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the events of a binary usage file written by {@link BinaryAnalyticsEventEncoder}. The main method converts a
+ * binary usage file to the text format read by the analytics server:
+ * <pre>
+ * java org.ballerina.gateway.analytics.AnalyticsFileReader &lt;binary file&gt; [&lt;text file&gt;]
+ * </pre>
+ */
+public class AnalyticsFileReader implements Closeable {
+
+    private final DataInputStream in;
+    private final List<String> dictionary = new ArrayList<>();
+    private byte[] record = new byte[1024];
+    private int position;
+    private int limit;
+
+    /**
+     * @param in stream of a binary usage file
+     * @throws IOException if the stream could not be read or does not start with the header of a binary usage file
+     */
+    public AnalyticsFileReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(in instanceof BufferedInputStream ? in : new BufferedInputStream(in));
+        byte[] magic = new byte[BinaryAnalyticsEventEncoder.MAGIC.length];
+        this.in.readFully(magic);
+        if (!Arrays.equals(magic, BinaryAnalyticsEventEncoder.MAGIC)) {
+            throw new IOException("Not a binary analytics usage file");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version != BinaryAnalyticsEventEncoder.VERSION) {
+            throw new IOException("Unsupported binary analytics usage file version " + version);
+        }
+    }
+
+    /**
+     * Reads the next event.
+     *
+     * @return the event, or null at the end of the file
+     * @throws IOException if the file could not be read or is corrupted
+     */
+    public AnalyticsEvent next() throws IOException {
+        while (readRecord()) {
+            byte type = record[position++];
+            switch (type) {
+                case BinaryAnalyticsEventEncoder.RESET:
+                    dictionary.clear();
+                    break;
+                case BinaryAnalyticsEventEncoder.DICTIONARY_ENTRY:
+                    dictionary.add(new String(record, position, limit - position, StandardCharsets.UTF_8));
+                    break;
+                case BinaryAnalyticsEventEncoder.EVENT:
+                    return readEvent();
+                default:
+                    throw new IOException("Unknown record type " + type);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Converts a binary usage file to the text format.
+     *
+     * @param in  stream of the binary usage file
+     * @param out stream the text is written to
+     * @return number of events converted
+     * @throws IOException if the file could not be read or written
+     */
+    public static long convertToText(InputStream in, OutputStream out) throws IOException {
+        long events = 0;
+        AnalyticsFileReader reader = new AnalyticsFileReader(in);
+        AnalyticsEvent event;
+        while ((event = reader.next()) != null) {
+            out.write(event.toText().getBytes(StandardCharsets.UTF_8));
+            events++;
+        }
+        out.flush();
+        return events;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: AnalyticsFileReader <binary usage file> [<text file>]");
+            System.exit(1);
+        }
+        try (InputStream in = new FileInputStream(args[0]);
+             OutputStream out = args.length > 1 ? new BufferedOutputStream(new FileOutputStream(args[1]))
+                     : new PrintStream(System.out, false, StandardCharsets.UTF_8.name())) {
+            convertToText(in, out);
+        }
+    }
+
+    private AnalyticsEvent readEvent() throws IOException {
+        String streamId = readValue();
+        long timestamp = readVarint();
+        String metaData = readValue();
+        long count = readVarint();
+        if (count > limit - position) {
+            throw new IOException("Invalid payload value count " + count);
+        }
+        String[] payload = new String[(int) count];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = readValue();
+        }
+        return new AnalyticsEvent(streamId, timestamp, metaData, payload);
+    }
+
+    private String readValue() throws IOException {
+        long header = readVarint();
+        if ((header & 1) == 1) {
+            long id = header >>> 1;
+            if (id >= dictionary.size()) {
+                throw new IOException("Unknown dictionary entry " + id);
+            }
+            return dictionary.get((int) id);
+        }
+        long length = header >>> 1;
+        if (length > limit - position) {
+            throw new IOException("Invalid value length " + length);
+        }
+        String value = new String(record, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        return value;
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position == limit) {
+                throw new IOException("Truncated record");
+            }
+            byte b = record[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid varint");
+    }
+
+    // reads the next record into the record buffer, returns false at the end of the file
+    private boolean readRecord() throws IOException {
+        int first = in.read();
+        if (first == -1) {
+            return false;
+        }
+        long length = first & 0x7F;
+        for (int shift = 7; (first & 0x80) != 0; shift += 7) {
+            first = in.read();
+            if (first == -1 || shift > 28) {
+                throw new EOFException("Truncated record length");
+            }
+            length |= (long) (first & 0x7F) << shift;
+        }
+        if (length < 1 || length > Integer.MAX_VALUE) {
+            throw new IOException("Invalid record length " + length);
+        }
+        if (record.length < length) {
+            record = new byte[(int) Math.max(length, record.length * 2L)];
+        }
+        in.readFully(record, 0, (int) length);
+        position = 0;
+        limit = (int) length;
+        return true;
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.analytics;
+
+import org.ballerina.gateway.security.SslUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * Uploads the rotated usage file segments to the analytics server. Segments are uploaded by a fixed number of threads,
+ * each streaming the segment in a multipart request without loading it into memory. A failed upload is retried by the
+ * uploader itself, after an exponentially growing delay with random jitter, so that many gateways do not retry at the
+ * same time.
+ * <p>
+ * The state of every segment is kept in a {@link SegmentUploadManifest} in the usage directory. After a restart,
+ * segments which were uploaded but not deleted yet are deleted without uploading them again, and failed segments keep
+ * their backoff.
+ */
+public class AnalyticsFileUploader {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsFileUploader.class);
+    static final String MANIFEST_FILE = ".upload-manifest";
+    private static final String ZIP_EXTENSION = ".zip";
+    private static final String FILE_NAME_HEADER = "FileName";
+    private static final String CRLF = "\r\n";
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT = 60000;
+    private static final int MAX_BACKOFF_EXPONENT = 30;
+
+    private static AnalyticsFileUploader instance;
+
+    private final File directory;
+    private final URL endpoint;
+    private final String authorization;
+    private final long initialRetryDelay;
+    private final long maxRetryDelay;
+    private final SSLSocketFactory sslSocketFactory;
+    private final HostnameVerifier hostnameVerifier;
+    private final SegmentUploadManifest manifest;
+    private final ScheduledExecutorService executor;
+    // segments which are being uploaded or waiting to be retried
+    private final Set<String> scheduledSegments = ConcurrentHashMap.newKeySet();
+    private final AtomicLong uploadedSegments = new AtomicLong();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+    private final AtomicLong uploadTime = new AtomicLong();
+    private final AtomicLong failedUploads = new AtomicLong();
+
+    AnalyticsFileUploader(String directory, String endpointUrl, String username, String password, int concurrency,
+                          long initialRetryDelay, long maxRetryDelay, SSLSocketFactory sslSocketFactory,
+                          HostnameVerifier hostnameVerifier) throws MalformedURLException {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Invalid number of concurrent uploads " + concurrency);
+        }
+        this.directory = new File(directory);
+        this.endpoint = new URL(endpointUrl);
+        this.authorization = "Basic " + Base64.getEncoder().encodeToString((username + ":" + password)
+                .getBytes(StandardCharsets.UTF_8));
+        this.initialRetryDelay = Math.max(1, initialRetryDelay);
+        this.maxRetryDelay = Math.max(this.initialRetryDelay, maxRetryDelay);
+        this.sslSocketFactory = sslSocketFactory;
+        this.hostnameVerifier = hostnameVerifier;
+        this.manifest = new SegmentUploadManifest(new File(directory, MANIFEST_FILE));
+        AtomicInteger threadCount = new AtomicInteger();
+        ScheduledThreadPoolExecutor uploadExecutor = new ScheduledThreadPoolExecutor(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "analytics-file-uploader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        uploadExecutor.setRemoveOnCancelPolicy(true);
+        this.executor = uploadExecutor;
+    }
+
+    /**
+     * Creates the uploader used by the gateway. The uploader is created only once.
+     *
+     * @param directory          usage directory holding the rotated segments
+     * @param endpointUrl        URL of the upload service of the analytics server
+     * @param username           username to authenticate to the analytics server
+     * @param password           password to authenticate to the analytics server
+     * @param concurrency        maximum number of segments uploaded at the same time
+     * @param initialRetryDelay  delay in milliseconds before the first retry of a failed upload
+     * @param maxRetryDelay      maximum delay in milliseconds between two attempts to upload a segment
+     * @param verifyHostname     whether the host name of the analytics server should be verified
+     * @param trustStorePath     path of the trust store holding the certificate of the analytics server, the default
+     *                           trust store of the JVM is used if empty
+     * @param trustStorePassword password of the trust store
+     * @throws IOException              if the trust store could not be read
+     * @throws GeneralSecurityException if the trust store could not be loaded
+     */
+    public static void init(String directory, String endpointUrl, String username, String password, int concurrency,
+                            long initialRetryDelay, long maxRetryDelay, boolean verifyHostname, String trustStorePath,
+                            String trustStorePassword) throws IOException, GeneralSecurityException {
+        synchronized (AnalyticsFileUploader.class) {
+            if (instance != null) {
+                return;
+            }
+            instance = new AnalyticsFileUploader(directory, endpointUrl, username, password, concurrency,
+                    initialRetryDelay, maxRetryDelay, SslUtils.createSocketFactory(trustStorePath, trustStorePassword),
+                    verifyHostname ? null : (hostname, session) -> true);
+        }
+    }
+
+    public static AnalyticsFileUploader getInstance() {
+        synchronized (AnalyticsFileUploader.class) {
+            return instance;
+        }
+    }
+
+    /**
+     * Schedules the upload of the segments of the usage directory which are not uploaded or scheduled yet.
+     *
+     * @return number of segments which are being uploaded or waiting to be retried
+     */
+    public int scan() {
+        File[] segments = directory.listFiles((dir, name) -> name.contains(ZIP_EXTENSION));
+        if (segments == null) {
+            return scheduledSegments.size();
+        }
+        long now = System.currentTimeMillis();
+        for (File segment : segments) {
+            String segmentName = segment.getName();
+            if (!scheduledSegments.add(segmentName)) {
+                continue;
+            }
+            SegmentUploadManifest.Entry entry = manifest.get(segmentName);
+            if (entry != null && entry.getState() == SegmentUploadManifest.State.UPLOADED) {
+                log.info("Deleting " + segmentName + " which was uploaded before the gateway was restarted");
+                delete(segment);
+                continue;
+            }
+            long delay = entry == null ? 0 : Math.max(0, entry.getNextAttemptTime() - now);
+            executor.schedule(() -> upload(segment), delay, TimeUnit.MILLISECONDS);
+        }
+        // forget the segments which were deleted by someone else
+        for (String segmentName : manifest.getSegmentNames()) {
+            if (!scheduledSegments.contains(segmentName) && !new File(directory, segmentName).exists()) {
+                manifest.remove(segmentName);
+            }
+        }
+        return scheduledSegments.size();
+    }
+
+    public long getUploadedSegmentCount() {
+        return uploadedSegments.get();
+    }
+
+    public long getUploadedBytes() {
+        return uploadedBytes.get();
+    }
+
+    public long getFailedUploadCount() {
+        return failedUploads.get();
+    }
+
+    public int getPendingSegmentCount() {
+        return scheduledSegments.size();
+    }
+
+    /**
+     * Returns the average upload throughput of the segments uploaded so far.
+     *
+     * @return number of bytes uploaded per second while uploading, or 0 if no segment was uploaded yet
+     */
+    public long getThroughput() {
+        long nanos = uploadTime.get();
+        return nanos == 0 ? 0 : (long) (uploadedBytes.get() * (double) TimeUnit.SECONDS.toNanos(1) / nanos);
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns the delay before the given attempt to upload a segment. The delay doubles with every failed attempt up
+     * to the maximum delay, and a random half of it is subtracted so that retries of different gateways spread out.
+     *
+     * @param attempts number of failed attempts so far
+     * @return delay in milliseconds
+     */
+    long getRetryDelay(int attempts) {
+        long delay = initialRetryDelay << Math.min(Math.max(attempts - 1, 0), MAX_BACKOFF_EXPONENT);
+        if (delay <= 0 || delay > maxRetryDelay) {
+            delay = maxRetryDelay;
+        }
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private void upload(File segment) {
+        String segmentName = segment.getName();
+        if (!segment.exists()) {
+            scheduledSegments.remove(segmentName);
+            manifest.remove(segmentName);
+            return;
+        }
+        SegmentUploadManifest.Entry entry = manifest.get(segmentName);
+        int attempts = entry == null ? 0 : entry.getAttempts();
+        manifest.update(segmentName, SegmentUploadManifest.State.IN_FLIGHT, attempts, System.currentTimeMillis());
+        long startTime = System.nanoTime();
+        try {
+            int status = send(segment);
+            if (status != HttpURLConnection.HTTP_CREATED) {
+                throw new IOException("Analytics server responded with status " + status);
+            }
+        } catch (IOException e) {
+            attempts++;
+            failedUploads.incrementAndGet();
+            long delay = getRetryDelay(attempts);
+            manifest.update(segmentName, SegmentUploadManifest.State.PENDING, attempts,
+                    System.currentTimeMillis() + delay);
+            log.warn("Unable to upload " + segmentName + " (attempt " + attempts + "), retrying in " + delay
+                    + " ms: " + e.getMessage());
+            try {
+                executor.schedule(() -> upload(segment), delay, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException rejected) {
+                // the uploader is shutting down, the segment is uploaded after the restart
+                scheduledSegments.remove(segmentName);
+            }
+            return;
+        }
+        uploadTime.addAndGet(System.nanoTime() - startTime);
+        uploadedBytes.addAndGet(segment.length());
+        uploadedSegments.incrementAndGet();
+        manifest.update(segmentName, SegmentUploadManifest.State.UPLOADED, attempts, System.currentTimeMillis());
+        log.info("Successfully uploaded the file: " + segmentName);
+        delete(segment);
+    }
+
+    private void delete(File segment) {
+        try {
+            Files.deleteIfExists(segment.toPath());
+            manifest.remove(segment.getName());
+        } catch (IOException e) {
+            // kept as uploaded in the manifest, so that it is deleted by the next scan
+            log.error("Unable to delete the uploaded file " + segment, e);
+        }
+        scheduledSegments.remove(segment.getName());
+    }
+
+    // streams the segment as the file part of a multipart/form-data request
+    private int send(File segment) throws IOException {
+        String boundary = UUID.randomUUID().toString();
+        byte[] head = ("--" + boundary + CRLF
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + segment.getName() + "\"" + CRLF
+                + "Content-Type: application/octet-stream" + CRLF + CRLF).getBytes(StandardCharsets.UTF_8);
+        byte[] tail = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.UTF_8);
+        long length = segment.length();
+
+        HttpURLConnection connection = (HttpURLConnection) endpoint.openConnection();
+        if (connection instanceof HttpsURLConnection) {
+            HttpsURLConnection httpsConnection = (HttpsURLConnection) connection;
+            if (sslSocketFactory != null) {
+                httpsConnection.setSSLSocketFactory(sslSocketFactory);
+            }
+            if (hostnameVerifier != null) {
+                httpsConnection.setHostnameVerifier(hostnameVerifier);
+            }
+        }
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(head.length + length + tail.length);
+        connection.setRequestProperty("Authorization", authorization);
+        connection.setRequestProperty(FILE_NAME_HEADER, segment.getName());
+        connection.setRequestProperty("Accept", "application/json");
+        connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+        try {
+            try (OutputStream out = connection.getOutputStream(); InputStream in = new FileInputStream(segment)) {
+                out.write(head);
+                byte[] chunk = new byte[8192];
+                long remaining = length;
+                int read;
+                while (remaining > 0 && (read = in.read(chunk, 0, (int) Math.min(chunk.length, remaining))) != -1) {
+                    out.write(chunk, 0, read);
+                    remaining -= read;
+                }
+                if (remaining > 0) {
+                    throw new IOException("File " + segment + " was truncated while it was uploaded");
+                }
+                out.write(tail);
+            }
+            int status = connection.getResponseCode();
+            // read the response fully, so that the connection can be reused for the next upload
+            drain(status < HttpURLConnection.HTTP_BAD_REQUEST ? connection.getInputStream()
+                    : connection.getErrorStream());
+            return status;
+        } catch (IOException e) {
+            connection.disconnect();
+            throw e;
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        if (in == null) {
+            return;
+        }
+        try (InputStream response = in) {
+            byte[] chunk = new byte[1024];
+            while (response.read(chunk) != -1) {
+                // discard
+            }
+        }
+    }
+}
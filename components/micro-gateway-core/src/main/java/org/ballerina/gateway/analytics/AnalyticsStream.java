@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.analytics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Attributes of the payload of the analytics streams written by the gateway, in the order the analytics server expects
+ * them. Attributes whose values repeat across events, such as the API name, context and tenant, are marked to be
+ * written through the dictionary of the binary usage file.
+ */
+public class AnalyticsStream {
+
+    public static final AnalyticsStream REQUEST = new AnalyticsStream("org.wso2.apimgt.statistics.request:3.0.0",
+            "+applicationConsumerKey", "+applicationName", "+applicationId", "+applicationOwner", "+apiContext",
+            "+apiName", "+apiVersion", "+apiResourcePath", "+apiResourceTemplate", "+apiMethod", "+apiCreator",
+            "+apiCreatorTenantDomain", "+apiTier", "+apiHostname", "+userName", "+userTenantDomain", "userIp",
+            "+userAgent", "requestTimestamp", "+throttledOut", "responseTime", "serviceTime", "backendTime",
+            "+responseCacheHit", "responseSize", "+protocol", "+responseCode", "+destination",
+            "executionTime.securityLatency", "executionTime.throttlingLatency",
+            "executionTime.requestMediationLatency", "executionTime.responseMediationLatency",
+            "executionTime.backEndLatency", "executionTime.otherLatency", "+gatewayType", "+label");
+    public static final AnalyticsStream FAULT = new AnalyticsStream("org.wso2.apimgt.statistics.fault:3.0.0",
+            "+consumerKey", "+apiName", "+apiVersion", "+apiContext", "+resourcePath", "+method", "+apiCreator",
+            "+userName", "+userTenantDomain", "+apiCreatorTenantDomain", "+hostName", "+applicationId",
+            "+applicationName", "+protocol", "+errorCode", "+errorMessage", "faultTime");
+    public static final AnalyticsStream THROTTLE = new AnalyticsStream("org.wso2.apimgt.statistics.throttle:3.0.0",
+            "+userName", "+userTenantDomain", "+apiName", "+apiVersion", "+apiContext", "+apiCreator",
+            "+apiCreatorTenantDomain", "+applicationId", "+applicationName", "+subscriber", "+throttledOutReason",
+            "+gatewayType", "throttledTime", "+hostname");
+
+    private static final String DICTIONARY_PREFIX = "+";
+    private static final Map<String, AnalyticsStream> STREAMS = new HashMap<>();
+
+    static {
+        for (AnalyticsStream stream : new AnalyticsStream[]{REQUEST, FAULT, THROTTLE}) {
+            STREAMS.put(stream.id, stream);
+        }
+    }
+
+    private final String id;
+    private final String[][] attributePaths;
+    private final boolean[] dictionaryAttributes;
+
+    // attributes prefixed with + are written through the dictionary, and nested attributes are separated by a dot
+    private AnalyticsStream(String id, String... attributes) {
+        this.id = id;
+        this.attributePaths = new String[attributes.length][];
+        this.dictionaryAttributes = new boolean[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            String attribute = attributes[i];
+            dictionaryAttributes[i] = attribute.startsWith(DICTIONARY_PREFIX);
+            if (dictionaryAttributes[i]) {
+                attribute = attribute.substring(DICTIONARY_PREFIX.length());
+            }
+            attributePaths[i] = attribute.split("\\.");
+        }
+    }
+
+    /**
+     * Returns the stream of the given id.
+     *
+     * @param id id of the stream, such as org.wso2.apimgt.statistics.request:3.0.0
+     * @return the stream, or null if the gateway does not write the stream
+     */
+    public static AnalyticsStream get(String id) {
+        return STREAMS.get(id);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getAttributeCount() {
+        return attributePaths.length;
+    }
+
+    /**
+     * Returns the path of an attribute in the record the gateway builds the payload from. The path of a nested
+     * attribute holds the name of every enclosing record.
+     *
+     * @param index index of the attribute in the payload
+     * @return the field names leading to the attribute
+     */
+    public String[] getAttributePath(int index) {
+        return attributePaths[index];
+    }
+
+    /**
+     * Returns whether the values of an attribute are written through the dictionary of the binary usage file.
+     *
+     * @param index index of the attribute in the payload
+     * @return true if the values of the attribute are repeated across events
+     */
+    public boolean isDictionaryAttribute(int index) {
+        return dictionaryAttributes[index];
+    }
+}
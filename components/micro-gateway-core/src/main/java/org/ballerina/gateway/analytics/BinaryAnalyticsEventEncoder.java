@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.analytics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes events as length prefixed binary records. Values repeated across events, such as stream ids, API names and
+ * tenant domains, are written once per file as a dictionary entry and referred to by their id afterwards.
+ * <p>
+ * A file starts with the magic bytes MGWA and a version byte, followed by records. Every record is a varint length
+ * followed by a 1 byte record type and the record body:
+ * <ul>
+ * <li>RESET: clears the dictionary. Written when events are appended to a file written by an earlier encoder.</li>
+ * <li>DICTIONARY_ENTRY: the UTF-8 bytes of the value. Entries get consecutive ids starting from 0, in the order they
+ * are written.</li>
+ * <li>EVENT: the stream id, a varint timestamp, the meta data, a varint payload value count and the payload
+ * values.</li>
+ * </ul>
+ * A value is a varint holding (id &lt;&lt; 1) | 1 if it refers to a dictionary entry, or (length &lt;&lt; 1) followed
+ * by that many UTF-8 bytes if it is written inline. Varints are unsigned LEB128. See {@link AnalyticsFileReader} for
+ * reading the files.
+ */
+public class BinaryAnalyticsEventEncoder implements AnalyticsEventEncoder {
+
+    static final byte[] MAGIC = {'M', 'G', 'W', 'A'};
+    static final byte VERSION = 1;
+    static final byte RESET = 0;
+    static final byte DICTIONARY_ENTRY = 1;
+    static final byte EVENT = 2;
+    static final int DEFAULT_MAX_DICTIONARY_SIZE = 65536;
+    // longer values are unlikely to repeat
+    private static final int MAX_DICTIONARY_VALUE_LENGTH = 256;
+
+    private final int maxDictionarySize;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(1024);
+    private final ByteArrayOutputStream entry = new ByteArrayOutputStream(MAX_DICTIONARY_VALUE_LENGTH * 4);
+
+    /**
+     * @param maxDictionarySize maximum number of dictionary entries per file, values are written inline afterwards
+     */
+    public BinaryAnalyticsEventEncoder(int maxDictionarySize) {
+        this.maxDictionarySize = maxDictionarySize;
+    }
+
+    @Override
+    public void start(OutputStream out, boolean append) throws IOException {
+        dictionary.clear();
+        if (append) {
+            writeRecord(out, RESET, null);
+        } else {
+            out.write(MAGIC);
+            out.write(VERSION);
+        }
+    }
+
+    @Override
+    public void write(AnalyticsEvent event, OutputStream out) throws IOException {
+        record.reset();
+        writeValue(event.getStreamId(), true, out);
+        writeVarint(record, event.getTimestamp());
+        writeValue(event.getMetaData(), false, out);
+        String[] payload = event.getPayload();
+        AnalyticsStream stream = AnalyticsStream.get(event.getStreamId());
+        boolean knownAttributes = stream != null && stream.getAttributeCount() == payload.length;
+        writeVarint(record, payload.length);
+        for (int i = 0; i < payload.length; i++) {
+            writeValue(payload[i], knownAttributes && stream.isDictionaryAttribute(i), out);
+        }
+        writeRecord(out, EVENT, record);
+    }
+
+    @Override
+    public void recover(InputStream in, OutputStream out) throws IOException {
+        start(out, false);
+        AnalyticsFileReader reader;
+        try {
+            reader = new AnalyticsFileReader(in);
+        } catch (IOException e) {
+            return;
+        }
+        while (true) {
+            AnalyticsEvent event;
+            try {
+                event = reader.next();
+            } catch (IOException e) {
+                return;
+            }
+            if (event == null) {
+                return;
+            }
+            write(event, out);
+        }
+    }
+
+    // dictionary entries are written to the file right away, so that they precede the event referring to them
+    private void writeValue(String value, boolean repeated, OutputStream out) throws IOException {
+        if (repeated && value.length() <= MAX_DICTIONARY_VALUE_LENGTH) {
+            Integer id = dictionary.get(value);
+            if (id == null && dictionary.size() < maxDictionarySize) {
+                id = dictionary.size();
+                dictionary.put(value, id);
+                entry.reset();
+                entry.write(value.getBytes(StandardCharsets.UTF_8));
+                writeRecord(out, DICTIONARY_ENTRY, entry);
+            }
+            if (id != null) {
+                writeVarint(record, ((long) id << 1) | 1);
+                return;
+            }
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(record, (long) bytes.length << 1);
+        record.write(bytes);
+    }
+
+    private static void writeRecord(OutputStream out, byte type, ByteArrayOutputStream body) throws IOException {
+        int length = body == null ? 0 : body.size();
+        writeVarint(out, length + 1);
+        out.write(type);
+        if (body != null) {
+            body.writeTo(out);
+        }
+    }
+
+    static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
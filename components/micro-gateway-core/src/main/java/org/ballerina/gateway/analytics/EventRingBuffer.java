@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.analytics;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock free ring buffer of events, written by many producers and read by a single consumer. Every slot holds a
+ * sequence number which tells producers and the consumer whether the slot is free to be written or holds an event to
+ * be read, so neither side takes a lock. What a producer does when the buffer is full is decided by the
+ * {@link OverflowPolicy}.
+ *
+ * @param <T> type of the events
+ */
+public class EventRingBuffer<T> {
+
+    /**
+     * What to do with an event which is offered while the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait until the consumer frees a slot. */
+        BLOCK,
+        /** Drop the event offered. */
+        DROP_NEWEST,
+        /** Drop the oldest event in the buffer to make room for the event offered. */
+        DROP_OLDEST,
+        /** Once the buffer is half full, accept only one of every sample rate events and drop the rest. */
+        SAMPLE;
+
+        /**
+         * Returns the policy of the given name, such as dropNewest or DROP_NEWEST.
+         *
+         * @param name name of the policy
+         * @return the policy
+         */
+        public static OverflowPolicy fromName(String name) {
+            for (OverflowPolicy policy : values()) {
+                if (policy.name().replace("_", "").equalsIgnoreCase(name.replace("_", ""))) {
+                    return policy;
+                }
+            }
+            throw new IllegalArgumentException("Unknown overflow policy " + name + ", expected one of block, "
+                    + "dropNewest, dropOldest or sample");
+        }
+    }
+
+    private static final long BLOCK_WAIT = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<T> events;
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerSequence = new AtomicLong();
+    private final AtomicLong consumerSequence = new AtomicLong();
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final AtomicLong sampleCounter = new AtomicLong();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile Thread waitingConsumer;
+
+    /**
+     * @param capacity       maximum number of events, rounded up to a power of two
+     * @param overflowPolicy what to do with events offered while the buffer is full
+     * @param sampleRate     one of how many events is accepted by the {@link OverflowPolicy#SAMPLE} policy
+     */
+    public EventRingBuffer(int capacity, OverflowPolicy overflowPolicy, int sampleRate) {
+        this.capacity = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.events = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    /**
+     * Adds an event to the buffer, applying the overflow policy if the buffer is full.
+     *
+     * @param event event to be added
+     * @return true if the event was added, false if it was dropped
+     */
+    public boolean offer(T event) {
+        if (overflowPolicy == OverflowPolicy.SAMPLE && size() >= capacity / 2
+                && sampleCounter.getAndIncrement() % sampleRate != 0) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        while (!tryOffer(event)) {
+            switch (overflowPolicy) {
+                case BLOCK:
+                    LockSupport.parkNanos(BLOCK_WAIT);
+                    break;
+                case DROP_OLDEST:
+                    if (tryPoll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                    break;
+                default:
+                    dropped.incrementAndGet();
+                    return false;
+            }
+        }
+        enqueued.incrementAndGet();
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the oldest event of the buffer.
+     *
+     * @return the oldest event, or null if the buffer is empty
+     */
+    public T poll() {
+        return tryPoll();
+    }
+
+    /**
+     * Removes events from the buffer in the order they were added.
+     *
+     * @param collection collection to add the events to
+     * @param maxEvents  maximum number of events to remove
+     * @return number of events removed
+     */
+    public int drainTo(Collection<? super T> collection, int maxEvents) {
+        int count = 0;
+        T event;
+        while (count < maxEvents && (event = tryPoll()) != null) {
+            collection.add(event);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Waits until the buffer holds an event or the timeout elapses. Only the consumer may wait.
+     *
+     * @param timeout maximum time to wait
+     * @param unit    unit of the timeout
+     * @return true if the buffer holds an event
+     */
+    public boolean await(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        waitingConsumer = Thread.currentThread();
+        try {
+            // checked after the consumer is published, so that an event added meanwhile unparks it
+            while (isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+            return true;
+        } finally {
+            waitingConsumer = null;
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the number of events waiting to be consumed, which is how far the consumer lags behind the producers.
+     *
+     * @return number of events in the buffer
+     */
+    public int size() {
+        long consumed = consumerSequence.get();
+        return (int) Math.max(0, Math.min(capacity, producerSequence.get() - consumed));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private boolean tryOffer(T event) {
+        while (true) {
+            long sequence = producerSequence.get();
+            int index = (int) sequence & mask;
+            long slotSequence = sequences.get(index);
+            if (slotSequence == sequence) {
+                if (producerSequence.compareAndSet(sequence, sequence + 1)) {
+                    events.lazySet(index, event);
+                    sequences.set(index, sequence + 1);
+                    return true;
+                }
+            } else if (slotSequence < sequence) {
+                // the slot still holds the event written a lap before, so the buffer is full
+                return false;
+            }
+        }
+    }
+
+    // producers also take events with the drop oldest policy, so a slot is claimed with a CAS
+    private T tryPoll() {
+        while (true) {
+            long sequence = consumerSequence.get();
+            int index = (int) sequence & mask;
+            long slotSequence = sequences.get(index);
+            if (slotSequence == sequence + 1) {
+                if (consumerSequence.compareAndSet(sequence, sequence + 1)) {
+                    T event = events.get(index);
+                    events.lazySet(index, null);
+                    sequences.set(index, sequence + capacity);
+                    return event;
+                }
+            } else if (slotSequence < sequence + 1) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.analytics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Upload state of the usage file segments, kept in a file of the usage directory so that it survives restarts. Every
+ * line holds the name of a segment, its state, the number of failed upload attempts and the time of the next attempt,
+ * separated by tabs. The file is replaced atomically whenever the state of a segment changes.
+ */
+class SegmentUploadManifest {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentUploadManifest.class);
+    private static final String SEPARATOR = "\t";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * States of a segment in the manifest.
+     */
+    enum State {
+        // waiting for the next attempt after a failed upload
+        PENDING,
+        // being uploaded, so it may or may not have reached the analytics server if the gateway stopped meanwhile
+        IN_FLIGHT,
+        // accepted by the analytics server, but not deleted yet
+        UPLOADED
+    }
+
+    /**
+     * Upload state of a single segment.
+     */
+    static class Entry {
+
+        private final State state;
+        private final int attempts;
+        private final long nextAttemptTime;
+
+        Entry(State state, int attempts, long nextAttemptTime) {
+            this.state = state;
+            this.attempts = attempts;
+            this.nextAttemptTime = nextAttemptTime;
+        }
+
+        State getState() {
+            return state;
+        }
+
+        int getAttempts() {
+            return attempts;
+        }
+
+        long getNextAttemptTime() {
+            return nextAttemptTime;
+        }
+    }
+
+    private final File file;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    SegmentUploadManifest(File file) {
+        this.file = file;
+        load();
+    }
+
+    synchronized Entry get(String segmentName) {
+        return entries.get(segmentName);
+    }
+
+    synchronized List<String> getSegmentNames() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    synchronized void update(String segmentName, State state, int attempts, long nextAttemptTime) {
+        entries.put(segmentName, new Entry(state, attempts, nextAttemptTime));
+        save();
+    }
+
+    synchronized void remove(String segmentName) {
+        if (entries.remove(segmentName) != null) {
+            save();
+        }
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(SEPARATOR);
+                if (fields.length != 4) {
+                    continue;
+                }
+                try {
+                    entries.put(fields[0], new Entry(State.valueOf(fields[1]), Integer.parseInt(fields[2]),
+                            Long.parseLong(fields[3])));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Ignoring the invalid entry '" + line + "' of the upload manifest " + file);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Unable to read the upload manifest " + file + ", all the segments will be uploaded", e);
+        }
+    }
+
+    private void save() {
+        File tempFile = new File(file.getPath() + TEMP_SUFFIX);
+        try {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile),
+                    StandardCharsets.UTF_8))) {
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    Entry value = entry.getValue();
+                    writer.write(entry.getKey() + SEPARATOR + value.state + SEPARATOR + value.attempts + SEPARATOR
+                            + value.nextAttemptTime + "\n");
+                }
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Unable to write the upload manifest " + file, e);
+        }
+    }
+}
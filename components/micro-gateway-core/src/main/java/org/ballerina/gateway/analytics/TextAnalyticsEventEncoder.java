@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.analytics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes every event as a line of text, in which the entries of the event are separated by -ES- and the payload values
+ * by -OS-. This is the format the analytics server reads.
+ */
+public class TextAnalyticsEventEncoder implements AnalyticsEventEncoder {
+
+    @Override
+    public void start(OutputStream out, boolean append) {
+        // the lines of the text format are independent of each other
+    }
+
+    @Override
+    public void write(AnalyticsEvent event, OutputStream out) throws IOException {
+        out.write(event.toText().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void recover(InputStream in, OutputStream out) throws IOException {
+        byte[] chunk = new byte[8192];
+        // bytes read after the last new line, which are written once the line is complete
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (true) {
+            int length;
+            try {
+                length = in.read(chunk);
+            } catch (IOException e) {
+                return;
+            }
+            if (length == -1) {
+                return;
+            }
+            int end = length - 1;
+            while (end >= 0 && chunk[end] != '\n') {
+                end--;
+            }
+            if (end >= 0) {
+                line.writeTo(out);
+                line.reset();
+                out.write(chunk, 0, end + 1);
+            }
+            line.write(chunk, end + 1, length - end - 1);
+        }
+    }
+}
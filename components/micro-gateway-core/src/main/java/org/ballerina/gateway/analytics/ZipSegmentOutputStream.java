@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.analytics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Zip file holding a single entry, which is compressed as it is written. Flushing the stream also flushes the
+ * compressor, so that everything written before a flush can be read back from the file even if the zip file is never
+ * closed.
+ */
+class ZipSegmentOutputStream extends ZipOutputStream {
+
+    ZipSegmentOutputStream(OutputStream out, String entryName) throws IOException {
+        super(out);
+        putNextEntry(new ZipEntry(entryName));
+    }
+
+    @Override
+    public void flush() throws IOException {
+        int length;
+        while ((length = def.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH)) > 0) {
+            out.write(buf, 0, length);
+        }
+        out.flush();
+    }
+}
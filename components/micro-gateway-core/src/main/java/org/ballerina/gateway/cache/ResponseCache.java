@@ -0,0 +1,514 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the responses of the resources which have a response cache TTL. Responses are keyed by the method, the path,
+ * the query parameters in sorted order and the values of the headers the cache varies on. Lookups are lock free.
+ * Entries are kept in a min-heap ordered by expiry time, so once the total size of the cached responses exceeds the
+ * maximum size, the entries which expired or expire first are evicted. Expired entries with an ETag or Last-Modified
+ * header are kept until they are evicted, so that they can be revalidated with the backend. Responses are never kept
+ * fresh for longer than the max-age or s-maxage the backend allows, and responses with no-cache are revalidated on
+ * every request. Responses which vary on request headers the keys do not include, or on more than request headers as
+ * Vary: * states, are not cached, since they could be served to requests they were not meant for. Bodies are copied to
+ * direct buffers when the off-heap store is enabled, which keeps large bodies out of the Java heap.
+ */
+public class ResponseCache {
+
+    // rough size of an entry apart from its body and headers
+    private static final int ENTRY_OVERHEAD = 256;
+    private static final Set<Integer> CACHEABLE_STATUS_CODES = new HashSet<>(Arrays.asList(200, 203, 204, 300, 301,
+            404, 410));
+    // headers which only apply to a single connection or a single client, hence are not cached
+    private static final Set<String> UNCACHED_HEADERS = new HashSet<>(Arrays.asList("connection", "keep-alive",
+            "transfer-encoding", "content-length", "upgrade", "te", "trailer", "proxy-authenticate",
+            "proxy-authorization", "set-cookie", "age"));
+
+    private static ResponseCache instance;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // guarded by itself, as are the writes of the entries
+    private final PriorityQueue<Entry> expiryQueue = new PriorityQueue<>();
+    private final Map<String, Metrics> metrics = new ConcurrentHashMap<>();
+    private final long maxSize;
+    private final int maxEntrySize;
+    private final boolean offHeap;
+    // lower case names of the request headers the keys include
+    private final Set<String> varyHeaders;
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * @param maxSize      maximum total size of the cached responses in bytes
+     * @param maxEntrySize maximum size of a cached response in bytes
+     * @param offHeap      whether bodies are kept in direct buffers
+     * @param varyHeaders  comma separated names of the request headers the keys include
+     */
+    ResponseCache(long maxSize, int maxEntrySize, boolean offHeap, String varyHeaders) {
+        this.maxSize = maxSize;
+        this.maxEntrySize = maxEntrySize;
+        this.offHeap = offHeap;
+        this.varyHeaders = new HashSet<>();
+        for (String name : varyHeaders.split(",")) {
+            if (!name.trim().isEmpty()) {
+                this.varyHeaders.add(name.trim().toLowerCase(Locale.ENGLISH));
+            }
+        }
+    }
+
+    public static void init(long maxSize, int maxEntrySize, boolean offHeap, String varyHeaders) {
+        synchronized (ResponseCache.class) {
+            if (instance == null) {
+                instance = new ResponseCache(maxSize, maxEntrySize, offHeap, varyHeaders);
+            }
+        }
+    }
+
+    public static ResponseCache getInstance() {
+        synchronized (ResponseCache.class) {
+            return instance;
+        }
+    }
+
+    /**
+     * Creates the cache key of a request. Query parameters are sorted, so that requests which only differ in the
+     * order of their parameters share a cache entry.
+     *
+     * @param method     HTTP method of the request
+     * @param rawPath    path of the request including the query
+     * @param varyValues values of the headers the cache varies on, along with the key type of the request
+     * @return cache key
+     */
+    public static String createKey(String method, String rawPath, String varyValues) {
+        StringBuilder key = new StringBuilder(method.length() + rawPath.length() + varyValues.length() + 2);
+        key.append(method).append(' ');
+        int queryStart = rawPath.indexOf('?');
+        if (queryStart < 0) {
+            key.append(rawPath);
+        } else {
+            key.append(rawPath, 0, queryStart);
+            String[] parameters = rawPath.substring(queryStart + 1).split("&");
+            Arrays.sort(parameters);
+            char separator = '?';
+            for (String parameter : parameters) {
+                if (!parameter.isEmpty()) {
+                    key.append(separator).append(parameter);
+                    separator = '&';
+                }
+            }
+        }
+        return key.append('\n').append(varyValues).toString();
+    }
+
+    /**
+     * Returns whether a backend response can be cached. Only responses with a status code which is cacheable by
+     * default are cached, unless the backend forbids it or the response sets a cookie.
+     *
+     * @param statusCode status code of the response
+     * @param headers    headers of the response with lower case names
+     * @return true if the response can be cached
+     */
+    public static boolean isCacheable(int statusCode, Map<String, String> headers) {
+        if (!CACHEABLE_STATUS_CODES.contains(statusCode) || headers.containsKey("set-cookie")) {
+            return false;
+        }
+        String cacheControl = headers.get("cache-control");
+        if (cacheControl == null) {
+            return true;
+        }
+        cacheControl = cacheControl.toLowerCase(Locale.ENGLISH);
+        return !cacheControl.contains("no-store") && !cacheControl.contains("private");
+    }
+
+    /**
+     * Returns the time for which a backend response is fresh, which is the given TTL unless the Cache-Control header
+     * of the response allows less. A response with no-cache has to be revalidated before it is served again, hence
+     * is not fresh at all. The s-maxage directive takes precedence over max-age, as the gateway is a shared cache.
+     *
+     * @param headers headers of the response with lower case names
+     * @param ttl     time in milliseconds for which the resource allows the response to be cached
+     * @return time in milliseconds for which the response is fresh
+     */
+    public static long getFreshnessLifetime(Map<String, String> headers, long ttl) {
+        String cacheControl = headers.get("cache-control");
+        if (cacheControl == null) {
+            return ttl;
+        }
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+        for (String directive : cacheControl.toLowerCase(Locale.ENGLISH).split(",")) {
+            String[] nameValue = directive.trim().split("=", 2);
+            if (nameValue[0].equals("no-cache")) {
+                return 0;
+            } else if (nameValue.length == 2 && nameValue[0].equals("max-age")) {
+                maxAge = parseSeconds(nameValue[1]);
+            } else if (nameValue.length == 2 && nameValue[0].equals("s-maxage")) {
+                sharedMaxAge = parseSeconds(nameValue[1]);
+            }
+        }
+        long lifetime = sharedMaxAge >= 0 ? sharedMaxAge : maxAge;
+        return lifetime >= 0 ? Math.min(ttl, lifetime * 1000) : ttl;
+    }
+
+    /**
+     * Returns whether the keys include each request header listed in the Vary header of a response.
+     *
+     * @param headers headers of the response with lower case names
+     * @return true if the response has no Vary header or varies only on request headers the keys include
+     */
+    boolean isKeyedOnVary(Map<String, String> headers) {
+        String vary = headers.get("vary");
+        if (vary == null) {
+            return true;
+        }
+        for (String name : vary.split(",")) {
+            name = name.trim().toLowerCase(Locale.ENGLISH);
+            // * is never one of the vary headers, hence a response with Vary: * is not cached
+            if (!name.isEmpty() && !varyHeaders.contains(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseSeconds(String value) {
+        value = value.trim();
+        if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            // an invalid value makes the response stale
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the cached response of a key. Expired responses are only returned if they can be revalidated.
+     *
+     * @param key         cache key of the request
+     * @param api         name of the API, which the hits and misses are counted against
+     * @param currentTime current time in milliseconds
+     * @return cached response or null if there is none
+     */
+    public Entry get(String key, String api, long currentTime) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiryTime <= currentTime && !entry.isRevalidatable()) {
+            synchronized (expiryQueue) {
+                if (entries.remove(key, entry)) {
+                    size.addAndGet(-entry.size);
+                }
+            }
+            entry = null;
+        }
+        Metrics apiMetrics = getMetrics(api);
+        if (entry != null && entry.expiryTime > currentTime) {
+            apiMetrics.hits.incrementAndGet();
+        } else {
+            apiMetrics.misses.incrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * Caches a backend response until the given time, or until the time its Cache-Control header allows if that is
+     * earlier. Responses which are stale right away are only cached if they can be revalidated.
+     *
+     * @param key        cache key of the request
+     * @param api        name of the API
+     * @param statusCode status code of the response
+     * @param headers    headers of the response
+     * @param body       body of the response, which is not copied unless it is kept in a direct buffer
+     * @param expiryTime time in milliseconds until which the response is fresh
+     * @return true if the response was cached, false if it is larger than the maximum entry size, varies on request
+     *         headers the key does not include or can not be served without revalidation although it has no
+     *         validators
+     */
+    public boolean put(String key, String api, int statusCode, Map<String, String> headers, byte[] body,
+                       long expiryTime) {
+        Map<String, String> cachedHeaders = new HashMap<>();
+        int headerSize = 0;
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            String name = header.getKey().toLowerCase(Locale.ENGLISH);
+            if (!UNCACHED_HEADERS.contains(name)) {
+                cachedHeaders.put(name, header.getValue());
+                headerSize += name.length() + header.getValue().length();
+            }
+        }
+        if (!isKeyedOnVary(cachedHeaders)) {
+            return false;
+        }
+        long storedTime = System.currentTimeMillis();
+        expiryTime = storedTime + getFreshnessLifetime(cachedHeaders, expiryTime - storedTime);
+        if (expiryTime <= storedTime && !cachedHeaders.containsKey("etag")
+                && !cachedHeaders.containsKey("last-modified")) {
+            return false;
+        }
+        int entrySize = ENTRY_OVERHEAD + key.length() + headerSize + body.length;
+        if (entrySize > maxEntrySize) {
+            return false;
+        }
+        ByteBuffer storedBody;
+        if (offHeap) {
+            storedBody = ByteBuffer.allocateDirect(body.length);
+            storedBody.put(body).flip();
+        } else {
+            storedBody = ByteBuffer.wrap(body);
+        }
+        add(new Entry(key, api, statusCode, Collections.unmodifiableMap(cachedHeaders), storedBody, entrySize,
+                storedTime, expiryTime));
+        return true;
+    }
+
+    /**
+     * Renews a cached response after the backend confirmed with a 304 response that it has not changed. The headers
+     * of the 304 response replace the cached ones, and the response is fresh for no longer than they allow. If the
+     * 304 response adds a Vary header the key does not cover, the renewed response is returned but no longer cached.
+     *
+     * @param key        cache key of the request
+     * @param api        name of the API
+     * @param headers    headers of the 304 response
+     * @param expiryTime time in milliseconds until which the response is fresh
+     * @return renewed response or null if the response is no longer cached
+     */
+    public Entry revalidate(String key, String api, Map<String, String> headers, long expiryTime) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        Map<String, String> cachedHeaders = new HashMap<>(entry.headers);
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            String name = header.getKey().toLowerCase(Locale.ENGLISH);
+            if (!UNCACHED_HEADERS.contains(name)) {
+                cachedHeaders.put(name, header.getValue());
+            }
+        }
+        long storedTime = System.currentTimeMillis();
+        expiryTime = storedTime + getFreshnessLifetime(cachedHeaders, expiryTime - storedTime);
+        Entry renewed = new Entry(key, entry.api, entry.statusCode, Collections.unmodifiableMap(cachedHeaders),
+                entry.body, entry.size, storedTime, expiryTime);
+        if (isKeyedOnVary(cachedHeaders)) {
+            add(renewed);
+        } else {
+            synchronized (expiryQueue) {
+                if (entries.remove(key, entry)) {
+                    size.addAndGet(-entry.size);
+                }
+            }
+        }
+        getMetrics(api).revalidations.incrementAndGet();
+        return renewed;
+    }
+
+    private void add(Entry entry) {
+        synchronized (expiryQueue) {
+            Entry replaced = entries.put(entry.key, entry);
+            if (replaced != null) {
+                size.addAndGet(-replaced.size);
+            }
+            size.addAndGet(entry.size);
+            expiryQueue.add(entry);
+            while (size.get() > maxSize && !expiryQueue.isEmpty()) {
+                Entry evicted = expiryQueue.poll();
+                if (entries.remove(evicted.key, evicted)) {
+                    size.addAndGet(-evicted.size);
+                    getMetrics(evicted.api).evictions.incrementAndGet();
+                }
+            }
+            // replaced entries stay in the queue until they are polled, unless they pile up
+            if (expiryQueue.size() > 2 * entries.size() + 1024) {
+                expiryQueue.clear();
+                expiryQueue.addAll(entries.values());
+            }
+        }
+    }
+
+    public Metrics getMetrics(String api) {
+        return metrics.computeIfAbsent(api, name -> new Metrics());
+    }
+
+    /**
+     * Returns the metrics of the APIs which used the cache.
+     *
+     * @return API name to metrics
+     */
+    public Map<String, Metrics> getMetrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * Returns the total size of the cached responses.
+     *
+     * @return size in bytes
+     */
+    public long size() {
+        return size.get();
+    }
+
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Cached response.
+     */
+    public static final class Entry implements Comparable<Entry> {
+
+        private final String key;
+        private final String api;
+        private final int statusCode;
+        private final Map<String, String> headers;
+        // heap or direct buffer, which is never read through, so that views of it always start at the body
+        private final ByteBuffer body;
+        private final int size;
+        private final long storedTime;
+        private final long expiryTime;
+
+        private Entry(String key, String api, int statusCode, Map<String, String> headers, ByteBuffer body, int size,
+                      long storedTime, long expiryTime) {
+            this.key = key;
+            this.api = api;
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+            this.size = size;
+            this.storedTime = storedTime;
+            this.expiryTime = expiryTime;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * Returns the cached headers with lower case names.
+         *
+         * @return cached headers
+         */
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        /**
+         * Returns a read-only view of the cached body. Each call returns a view of its own, hence the body can be read
+         * any number of times and by concurrent requests, without being copied.
+         *
+         * @return cached body
+         */
+        public ByteBuffer getBody() {
+            return body.asReadOnlyBuffer();
+        }
+
+        public String getETag() {
+            return headers.get("etag");
+        }
+
+        public String getLastModified() {
+            return headers.get("last-modified");
+        }
+
+        public boolean isFresh(long currentTime) {
+            return expiryTime > currentTime;
+        }
+
+        /**
+         * Returns the number of seconds since the response was stored or last revalidated.
+         *
+         * @param currentTime current time in milliseconds
+         * @return age in seconds
+         */
+        public long getAge(long currentTime) {
+            return Math.max(0, (currentTime - storedTime) / 1000);
+        }
+
+        /**
+         * Returns whether the conditional headers of a client request match this response, in which case the client
+         * can be answered with a 304 response.
+         *
+         * @param ifNoneMatch     If-None-Match header of the request, or an empty string
+         * @param ifModifiedSince If-Modified-Since header of the request, or an empty string
+         * @return true if the client has the current version of the response
+         */
+        public boolean isNotModified(String ifNoneMatch, String ifModifiedSince) {
+            String eTag = getETag();
+            if (!ifNoneMatch.isEmpty()) {
+                if (eTag == null) {
+                    return false;
+                }
+                String weakTag = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+                for (String tag : ifNoneMatch.split(",")) {
+                    tag = tag.trim();
+                    if (tag.equals("*") || tag.equals(eTag) || tag.equals(weakTag) || tag.equals("W/" + weakTag)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return !ifModifiedSince.isEmpty() && ifModifiedSince.equals(getLastModified());
+        }
+
+        private boolean isRevalidatable() {
+            return getETag() != null || getLastModified() != null;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Long.compare(expiryTime, other.expiryTime);
+        }
+    }
+
+    /**
+     * Hit, miss, revalidation and eviction counts of an API.
+     */
+    public static final class Metrics {
+
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong revalidations = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+
+        public long getRevalidations() {
+            return revalidations.get();
+        }
+
+        public long getEvictions() {
+            return evictions.get();
+        }
+    }
+}
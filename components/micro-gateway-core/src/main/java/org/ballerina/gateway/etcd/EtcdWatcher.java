@@ -0,0 +1,524 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.etcd;
+
+import org.ballerina.gateway.security.HttpConnectionPool;
+import org.ballerina.gateway.security.SslUtils;
+import org.ballerina.gateway.validation.JsonTokenizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * Keeps the endpoint URLs defined at etcd up to date through the watch API of etcd v3, instead of querying every key
+ * periodically. A single watch stream is opened for the range of keys used by the gateway, either the configured key
+ * prefix or the range between the smallest and the largest key. Whenever the stream is (re)opened, the values of all
+ * the keys are read with a single range query, so that changes made while the stream was broken are not missed.
+ * A stream which stays silent for longer than the watch timeout is reopened, so that a connection which was dropped
+ * without being closed falls back to the range query. Keys registered outside of the watched range are picked up by a
+ * single restart of the stream shortly after they are registered. Requests are sent with the same HTTP client as the
+ * key validation requests, which keeps the connection used for the range queries alive.
+ * <p>
+ * Changed values are collected until they are taken with {@link #drainChanges()}. A key which is deleted or not
+ * defined at etcd is reported with an empty value.
+ */
+public class EtcdWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EtcdWatcher.class);
+    private static final String AUTHENTICATE_PATH = "/v3alpha/auth/authenticate";
+    private static final String RANGE_PATH = "/v3alpha/kv/range";
+    private static final String WATCH_PATH = "/v3alpha/watch";
+    private static final String AUTHENTICATION_NOT_ENABLED = "authentication is not enabled";
+    private static final String DELETE_EVENT = "DELETE";
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT = 30000;
+    // etcd sends progress notifications only every 10 minutes by default, so an idle stream is reopened well before
+    private static final int WATCH_TIMEOUT = 60000;
+    private static final long RESTART_DELAY = 1000;
+    private static final long MAX_RETRY_DELAY = 60000;
+    private static final int MAX_BACKOFF_EXPONENT = 16;
+
+    private static EtcdWatcher instance;
+
+    private final String basePath;
+    private final String username;
+    private final String password;
+    private final byte[] prefix;
+    private final long retryDelay;
+    private final int watchTimeout;
+    // the watch stream is read with a timeout of its own, over a connection which is never pooled again
+    private final HttpConnectionPool client;
+    private final HttpConnectionPool watchClient;
+    // last value read for every key used by the gateway, empty if the key is not defined at etcd
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+    private final Map<String, String> changes = new ConcurrentHashMap<>();
+    private final AtomicBoolean restartRequested = new AtomicBoolean();
+    private final AtomicBoolean restartScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService restartScheduler;
+    private final AtomicLong rangeQueryCount = new AtomicLong();
+    private volatile boolean running;
+    private volatile HttpConnectionPool.Response watchResponse;
+    private volatile byte[] rangeStart;
+    private volatile byte[] rangeEnd;
+    private Thread thread;
+    // used by the watcher thread only
+    private String token;
+    private long revision;
+
+    EtcdWatcher(String etcdUrl, String username, String password, String prefix, long retryDelay,
+                SSLSocketFactory sslSocketFactory) throws MalformedURLException {
+        this(etcdUrl, username, password, prefix, retryDelay, WATCH_TIMEOUT, sslSocketFactory);
+    }
+
+    EtcdWatcher(String etcdUrl, String username, String password, String prefix, long retryDelay, int watchTimeout,
+                SSLSocketFactory sslSocketFactory) throws MalformedURLException {
+        URL url = new URL(etcdUrl.endsWith("/") ? etcdUrl.substring(0, etcdUrl.length() - 1) : etcdUrl);
+        this.basePath = url.getPath();
+        this.client = new HttpConnectionPool(url, sslSocketFactory, true, 1, CONNECT_TIMEOUT, READ_TIMEOUT);
+        this.watchClient = new HttpConnectionPool(url, sslSocketFactory, true, 1, CONNECT_TIMEOUT, watchTimeout);
+        this.username = username;
+        this.password = password;
+        this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+        this.retryDelay = Math.max(1, retryDelay);
+        this.watchTimeout = watchTimeout;
+        this.restartScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "etcd-watcher-restart");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates and starts the watcher used by the gateway. The watcher is created only once.
+     *
+     * @param etcdUrl            URL of etcd
+     * @param username           username to authenticate to etcd, empty if authentication is not used
+     * @param password           password to authenticate to etcd
+     * @param prefix             prefix of the keys to be watched, empty to watch the range of the registered keys
+     * @param retryDelay         delay in milliseconds before the first attempt to reopen a broken watch stream
+     * @param trustStorePath     path of the trust store holding the certificate of etcd
+     * @param trustStorePassword password of the trust store
+     * @throws IOException              if the trust store could not be read
+     * @throws GeneralSecurityException if the trust store could not be loaded
+     */
+    public static void init(String etcdUrl, String username, String password, String prefix, long retryDelay,
+                            String trustStorePath, String trustStorePassword)
+            throws IOException, GeneralSecurityException {
+        synchronized (EtcdWatcher.class) {
+            if (instance != null) {
+                return;
+            }
+            EtcdWatcher watcher = new EtcdWatcher(etcdUrl, username, password, prefix, retryDelay,
+                    SslUtils.createSocketFactory(trustStorePath, trustStorePassword));
+            watcher.start();
+            instance = watcher;
+        }
+    }
+
+    public static EtcdWatcher getInstance() {
+        synchronized (EtcdWatcher.class) {
+            return instance;
+        }
+    }
+
+    /**
+     * Adds a key to be watched. The watch stream is reopened shortly after, if the key is outside of the range being
+     * watched. Keys are usually registered together while the APIs are set up, so a single restart covers them all.
+     *
+     * @param key   key at etcd
+     * @param value value of the key known by the gateway
+     */
+    public void register(String key, String value) {
+        values.putIfAbsent(key, value);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (prefix.length > 0) {
+            if (!startsWith(keyBytes, prefix)) {
+                log.warn("Etcd key " + key + " is not watched since it does not start with the prefix "
+                        + new String(prefix, StandardCharsets.UTF_8));
+            }
+            return;
+        }
+        if (isOutsideOfRange(keyBytes) && restartScheduled.compareAndSet(false, true)) {
+            restartScheduler.schedule(this::restartIfOutsideOfRange, RESTART_DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Returns the values which changed since the last call, by key.
+     *
+     * @return new values of the changed keys, empty for the keys which are not defined at etcd
+     */
+    public Map<String, String> drainChanges() {
+        Map<String, String> drained = new HashMap<>();
+        for (String key : changes.keySet()) {
+            String value = changes.remove(key);
+            if (value != null) {
+                drained.put(key, value);
+            }
+        }
+        return drained;
+    }
+
+    long getRangeQueryCount() {
+        return rangeQueryCount.get();
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "etcd-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    synchronized void stop() {
+        running = false;
+        restartScheduler.shutdownNow();
+        abortWatch();
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        int failures = 0;
+        while (running) {
+            try {
+                if (values.isEmpty()) {
+                    // nothing to watch until the first key is registered
+                    Thread.sleep(retryDelay);
+                    continue;
+                }
+                restartRequested.set(false);
+                authenticate();
+                queryRange();
+                failures = 0;
+                watch();
+            } catch (SocketTimeoutException e) {
+                log.debug("Etcd watch stream was silent for " + watchTimeout + " ms, reopening it");
+            } catch (IOException e) {
+                if (!running) {
+                    return;
+                }
+                if (restartRequested.get()) {
+                    log.debug("Reopening the etcd watch stream to watch new keys");
+                    continue;
+                }
+                failures++;
+                long delay = Math.min(MAX_RETRY_DELAY, retryDelay << Math.min(failures - 1, MAX_BACKOFF_EXPONENT));
+                log.warn("Etcd watch stream is broken, reconnecting in " + delay + " ms: " + e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void restartIfOutsideOfRange() {
+        restartScheduled.set(false);
+        for (String key : values.keySet()) {
+            if (isOutsideOfRange(key.getBytes(StandardCharsets.UTF_8))) {
+                restartRequested.set(true);
+                abortWatch();
+                return;
+            }
+        }
+    }
+
+    private boolean isOutsideOfRange(byte[] key) {
+        if (prefix.length > 0) {
+            return false;
+        }
+        byte[] start = rangeStart;
+        byte[] end = rangeEnd;
+        return start == null || compare(key, start) < 0 || compare(key, end) >= 0;
+    }
+
+    private void abortWatch() {
+        HttpConnectionPool.Response response = watchResponse;
+        if (response != null) {
+            response.abort();
+        }
+    }
+
+    private void authenticate() throws IOException {
+        token = null;
+        if (username.isEmpty() && password.isEmpty()) {
+            return;
+        }
+        Map<String, Object> response = post(AUTHENTICATE_PATH, "{\"name\":" + quote(username) + ",\"password\":"
+                + quote(password) + "}");
+        if (response.get("token") != null) {
+            token = String.valueOf(response.get("token"));
+            return;
+        }
+        String error = String.valueOf(response.get("error"));
+        if (!error.contains(AUTHENTICATION_NOT_ENABLED)) {
+            throw new IOException("Etcd authentication failed: " + error);
+        }
+    }
+
+    // reads all the watched keys with a single range query
+    private void queryRange() throws IOException {
+        updateRange();
+        Map<String, Object> response = post(RANGE_PATH, "{\"key\":\"" + encode(rangeStart) + "\",\"range_end\":\""
+                + encode(rangeEnd) + "\"}");
+        if (response.get("error") != null) {
+            throw new IOException("Etcd range query failed: " + response.get("error"));
+        }
+        rangeQueryCount.incrementAndGet();
+        revision = getRevision(response);
+        Map<String, String> found = new HashMap<>();
+        for (Object kv : getList(response, "kvs")) {
+            Map<String, Object> pair = getMap(kv);
+            found.put(decode(pair.get("key")), decode(pair.get("value")));
+        }
+        for (String key : values.keySet()) {
+            String value = found.get(key);
+            update(key, value != null ? value : "");
+        }
+    }
+
+    // the watch stream does not end, hence it is aborted to be reopened, by the watcher thread or by another thread
+    private void watch() throws IOException {
+        byte[] body = ("{\"create_request\":{\"key\":\"" + encode(rangeStart) + "\",\"range_end\":\""
+                + encode(rangeEnd) + "\",\"start_revision\":\"" + (revision + 1)
+                + "\",\"progress_notify\":true}}").getBytes(StandardCharsets.UTF_8);
+        HttpConnectionPool.Response response = watchClient.post(basePath + WATCH_PATH, createHeaders(), body);
+        watchResponse = response;
+        try {
+            if (restartRequested.get()) {
+                throw new IOException("Watch restarted");
+            }
+            if (response.getStatus() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Etcd responded to the watch request with status " + response.getStatus());
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(response.getBody(),
+                    StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    onWatchResponse(parse(new StringReader(line)));
+                }
+            }
+            throw new IOException("Watch stream was closed by etcd");
+        } finally {
+            watchResponse = null;
+            // closing the body would otherwise wait for the end of the stream
+            response.abort();
+            response.getBody().close();
+        }
+    }
+
+    private void onWatchResponse(Map<String, Object> response) throws IOException {
+        if (response.get("result") == null) {
+            throw new IOException("Etcd watch failed: " + response.get("error"));
+        }
+        Map<String, Object> result = getMap(response.get("result"));
+        if (Boolean.TRUE.equals(result.get("canceled"))) {
+            // for example when the revision to watch from is compacted, which is recovered by the next range query
+            throw new IOException("Watch was canceled by etcd: " + result.get("cancel_reason"));
+        }
+        revision = Math.max(revision, getRevision(result));
+        for (Object event : getList(result, "events")) {
+            Map<String, Object> watchEvent = getMap(event);
+            Map<String, Object> kv = getMap(watchEvent.get("kv"));
+            String key = decode(kv.get("key"));
+            if (values.containsKey(key)) {
+                update(key, DELETE_EVENT.equals(watchEvent.get("type")) ? "" : decode(kv.get("value")));
+            }
+            if (kv.get("mod_revision") != null) {
+                revision = Math.max(revision, Long.parseLong(String.valueOf(kv.get("mod_revision"))));
+            }
+        }
+    }
+
+    private void update(String key, String value) {
+        String previous = values.put(key, value);
+        if (!value.equals(previous)) {
+            log.debug("Value of the etcd key " + key + " changed");
+            changes.put(key, value);
+        }
+    }
+
+    private void updateRange() {
+        if (prefix.length > 0) {
+            rangeStart = prefix;
+            rangeEnd = getPrefixEnd(prefix);
+            return;
+        }
+        byte[] start = null;
+        byte[] end = null;
+        for (String key : values.keySet()) {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            if (start == null || compare(keyBytes, start) < 0) {
+                start = keyBytes;
+            }
+            if (end == null || compare(keyBytes, end) >= 0) {
+                // the end of the range is exclusive, so the largest key followed by a zero byte
+                end = Arrays.copyOf(keyBytes, keyBytes.length + 1);
+            }
+        }
+        rangeStart = start;
+        rangeEnd = end;
+    }
+
+    private Map<String, Object> post(String path, String body) throws IOException {
+        HttpConnectionPool.Response response = client.post(basePath + path, createHeaders(),
+                body.getBytes(StandardCharsets.UTF_8));
+        // etcd describes errors in a JSON body as well
+        try (Reader reader = new InputStreamReader(response.getBody(), StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    private String[] createHeaders() {
+        return token != null ? new String[]{"Content-Type", "application/json", "Authorization", token}
+                : new String[]{"Content-Type", "application/json"};
+    }
+
+    private static long getRevision(Map<String, Object> response) {
+        Object header = response.get("header");
+        if (header == null || getMap(header).get("revision") == null) {
+            return 0;
+        }
+        return Long.parseLong(String.valueOf(getMap(header).get("revision")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> getMap(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap();
+    }
+
+    private static List<?> getList(Map<String, Object> object, String name) {
+        Object value = object.get(name);
+        return value instanceof List ? (List<?>) value : Collections.emptyList();
+    }
+
+    // reads a JSON document into maps, lists, strings, numbers and booleans
+    static Map<String, Object> parse(Reader reader) throws IOException {
+        JsonTokenizer tokenizer = new JsonTokenizer(reader);
+        Object value = readValue(tokenizer, tokenizer.next());
+        return getMap(value);
+    }
+
+    private static Object readValue(JsonTokenizer tokenizer, JsonTokenizer.Token token) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                Map<String, Object> object = new LinkedHashMap<>();
+                JsonTokenizer.Token next;
+                while ((next = tokenizer.next()) == JsonTokenizer.Token.FIELD_NAME) {
+                    String name = tokenizer.getText();
+                    object.put(name, readValue(tokenizer, tokenizer.next()));
+                }
+                return object;
+            case START_ARRAY:
+                List<Object> array = new ArrayList<>();
+                JsonTokenizer.Token element;
+                while ((element = tokenizer.next()) != JsonTokenizer.Token.END_ARRAY) {
+                    array.add(readValue(tokenizer, element));
+                }
+                return array;
+            case STRING:
+                return tokenizer.getText();
+            case NUMBER:
+                return tokenizer.getNumber();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private static String decode(Object base64) {
+        return base64 == null ? "" : new String(Base64.getDecoder().decode(String.valueOf(base64)),
+                StandardCharsets.UTF_8);
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    // the range end of a prefix is the prefix with its last byte incremented, skipping trailing 0xff bytes
+    private static byte[] getPrefixEnd(byte[] prefix) {
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            if (prefix[i] != (byte) 0xff) {
+                byte[] end = Arrays.copyOf(prefix, i + 1);
+                end[i]++;
+                return end;
+            }
+        }
+        // all the keys after the prefix
+        return new byte[]{0};
+    }
+
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        return key.length >= prefix.length && compare(Arrays.copyOf(key, prefix.length), prefix) == 0;
+    }
+
+    // etcd orders keys by their unsigned bytes
+    private static int compare(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int difference = (a[i] & 0xff) - (b[i] & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return a.length - b.length;
+    }
+}
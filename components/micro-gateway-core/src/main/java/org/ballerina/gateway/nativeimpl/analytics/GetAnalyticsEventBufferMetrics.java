@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.analytics;
+
+import org.ballerina.gateway.analytics.AnalyticsEvent;
+import org.ballerina.gateway.analytics.AnalyticsEventWriter;
+import org.ballerina.gateway.analytics.EventRingBuffer;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.BMapType;
+import org.ballerinalang.model.types.BTypes;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.model.values.BInteger;
+import org.ballerinalang.model.values.BMap;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+/**
+ * Native function gateway:getAnalyticsEventBufferMetrics{}, which returns the number of analytics events added to and
+ * dropped by the event buffer so far, and the number of events waiting to be written.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "getAnalyticsEventBufferMetrics",
+        returnType = {@ReturnType(type = TypeKind.MAP, elementType = TypeKind.INT)},
+        isPublic = true
+)
+public class GetAnalyticsEventBufferMetrics extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        BMap<String, BInteger> metrics = new BMap<>(new BMapType(BTypes.typeInt));
+        AnalyticsEventWriter eventWriter = AnalyticsEventWriter.getInstance();
+        if (eventWriter != null) {
+            EventRingBuffer<AnalyticsEvent> buffer = eventWriter.getBuffer();
+            metrics.put("enqueued", new BInteger(buffer.getEnqueuedCount()));
+            metrics.put("dropped", new BInteger(buffer.getDroppedCount()));
+            metrics.put("lag", new BInteger(buffer.size()));
+        }
+        context.setReturnValues(metrics);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.analytics;
+
+import org.ballerina.gateway.analytics.AnalyticsFileUploader;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.BMapType;
+import org.ballerinalang.model.types.BTypes;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.model.values.BInteger;
+import org.ballerinalang.model.values.BMap;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+/**
+ * Native function gateway:getAnalyticsUploadMetrics{}, which returns the number of usage file segments and bytes
+ * uploaded so far, the number of failed uploads, the number of segments waiting to be uploaded and the average upload
+ * throughput in bytes per second.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "getAnalyticsUploadMetrics",
+        returnType = {@ReturnType(type = TypeKind.MAP, elementType = TypeKind.INT)},
+        isPublic = true
+)
+public class GetAnalyticsUploadMetrics extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        BMap<String, BInteger> metrics = new BMap<>(new BMapType(BTypes.typeInt));
+        AnalyticsFileUploader uploader = AnalyticsFileUploader.getInstance();
+        if (uploader != null) {
+            metrics.put("uploaded", new BInteger(uploader.getUploadedSegmentCount()));
+            metrics.put("uploadedBytes", new BInteger(uploader.getUploadedBytes()));
+            metrics.put("failed", new BInteger(uploader.getFailedUploadCount()));
+            metrics.put("pending", new BInteger(uploader.getPendingSegmentCount()));
+            metrics.put("throughput", new BInteger(uploader.getThroughput()));
+        }
+        context.setReturnValues(metrics);
+    }
+}
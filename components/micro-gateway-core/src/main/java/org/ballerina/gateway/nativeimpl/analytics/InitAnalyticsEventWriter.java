@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.analytics;
+
+import org.ballerina.gateway.analytics.AnalyticsEvent;
+import org.ballerina.gateway.analytics.AnalyticsEventEncoder;
+import org.ballerina.gateway.analytics.AnalyticsEventWriter;
+import org.ballerina.gateway.analytics.EventRingBuffer;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BLangVMErrors;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+/**
+ * Native function gateway:initAnalyticsEventWriter{}, which starts the writer of the analytics usage file.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "initAnalyticsEventWriter",
+        args = {@Argument(name = "filePath", type = TypeKind.STRING),
+                @Argument(name = "bufferSize", type = TypeKind.INT),
+                @Argument(name = "batchSize", type = TypeKind.INT),
+                @Argument(name = "flushInterval", type = TypeKind.INT),
+                @Argument(name = "eventBufferCapacity", type = TypeKind.INT),
+                @Argument(name = "overflowPolicy", type = TypeKind.STRING),
+                @Argument(name = "sampleRate", type = TypeKind.INT),
+                @Argument(name = "fileFormat", type = TypeKind.STRING)},
+        returnType = {@ReturnType(type = TypeKind.ERROR)},
+        isPublic = true
+)
+public class InitAnalyticsEventWriter extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        EventRingBuffer.OverflowPolicy overflowPolicy;
+        AnalyticsEventEncoder encoder;
+        try {
+            overflowPolicy = EventRingBuffer.OverflowPolicy.fromName(context.getStringArgument(1));
+            encoder = AnalyticsEventEncoder.create(context.getStringArgument(2));
+        } catch (IllegalArgumentException e) {
+            context.setReturnValues(BLangVMErrors.createError(context, e.getMessage()));
+            return;
+        }
+        EventRingBuffer<AnalyticsEvent> buffer = new EventRingBuffer<>((int) context.getIntArgument(3),
+                overflowPolicy, (int) context.getIntArgument(4));
+        AnalyticsEventWriter.init(context.getStringArgument(0), buffer, encoder, (int) context.getIntArgument(0),
+                (int) context.getIntArgument(1), context.getIntArgument(2));
+    }
+}
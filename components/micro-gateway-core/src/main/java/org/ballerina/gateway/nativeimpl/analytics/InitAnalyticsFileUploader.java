@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.analytics;
+
+import org.ballerina.gateway.analytics.AnalyticsFileUploader;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BLangVMErrors;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+/**
+ * Native function gateway:initAnalyticsFileUploader{}, which creates the uploader of the rotated usage file segments.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "initAnalyticsFileUploader",
+        args = {@Argument(name = "directory", type = TypeKind.STRING),
+                @Argument(name = "endpointUrl", type = TypeKind.STRING),
+                @Argument(name = "username", type = TypeKind.STRING),
+                @Argument(name = "password", type = TypeKind.STRING),
+                @Argument(name = "concurrency", type = TypeKind.INT),
+                @Argument(name = "initialRetryDelay", type = TypeKind.INT),
+                @Argument(name = "maxRetryDelay", type = TypeKind.INT),
+                @Argument(name = "verifyHostname", type = TypeKind.BOOLEAN),
+                @Argument(name = "trustStorePath", type = TypeKind.STRING),
+                @Argument(name = "trustStorePassword", type = TypeKind.STRING)},
+        returnType = {@ReturnType(type = TypeKind.ERROR)},
+        isPublic = true
+)
+public class InitAnalyticsFileUploader extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        try {
+            AnalyticsFileUploader.init(context.getStringArgument(0), context.getStringArgument(1),
+                    context.getStringArgument(2), context.getStringArgument(3), (int) context.getIntArgument(0),
+                    context.getIntArgument(1), context.getIntArgument(2), context.getBooleanArgument(0),
+                    context.getStringArgument(4), context.getStringArgument(5));
+        } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
+            context.setReturnValues(BLangVMErrors.createError(context,
+                    "Unable to create the analytics file uploader: " + e.getMessage()));
+        }
+    }
+}
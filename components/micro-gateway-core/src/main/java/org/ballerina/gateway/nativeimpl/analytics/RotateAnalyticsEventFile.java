@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.analytics;
+
+import org.ballerina.gateway.analytics.AnalyticsEventWriter;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.model.values.BString;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+/**
+ * Native function gateway:rotateAnalyticsEventFile{}, which writes the pending analytics events and closes the current
+ * usage file segment, so that it can be uploaded. Returns the name of the closed segment, or an empty string if no
+ * events were written since the last rotation.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "rotateAnalyticsEventFile",
+        returnType = {@ReturnType(type = TypeKind.STRING)},
+        isPublic = true
+)
+public class RotateAnalyticsEventFile extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        AnalyticsEventWriter eventWriter = AnalyticsEventWriter.getInstance();
+        String segment = eventWriter != null ? eventWriter.rotate() : null;
+        context.setReturnValues(new BString(segment != null ? segment : ""));
+    }
+}
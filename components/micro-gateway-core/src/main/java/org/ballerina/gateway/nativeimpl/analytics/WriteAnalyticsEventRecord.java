@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.analytics;
+
+import org.ballerina.gateway.analytics.AnalyticsEvent;
+import org.ballerina.gateway.analytics.AnalyticsEventWriter;
+import org.ballerina.gateway.analytics.AnalyticsStream;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BLangVMErrors;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.model.values.BMap;
+import org.ballerinalang.model.values.BValue;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+/**
+ * Native function gateway:writeAnalyticsEventRecord{}, which enqueues an event to be written to the analytics usage
+ * file. The payload values are read from the fields of the given record in the order of the attributes of the stream,
+ * so the payload is not serialized on the request thread.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "writeAnalyticsEventRecord",
+        args = {@Argument(name = "streamId", type = TypeKind.STRING),
+                @Argument(name = "metaData", type = TypeKind.STRING),
+                @Argument(name = "payload", type = TypeKind.MAP)},
+        returnType = {@ReturnType(type = TypeKind.ERROR)},
+        isPublic = true
+)
+public class WriteAnalyticsEventRecord extends BlockingNativeCallableUnit {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute(Context context) {
+        AnalyticsEventWriter eventWriter = AnalyticsEventWriter.getInstance();
+        if (eventWriter == null) {
+            return;
+        }
+        String streamId = context.getStringArgument(0);
+        AnalyticsStream stream = AnalyticsStream.get(streamId);
+        if (stream == null) {
+            context.setReturnValues(BLangVMErrors.createError(context, "Unknown analytics stream " + streamId));
+            return;
+        }
+        BMap<String, BValue> record = (BMap<String, BValue>) context.getRefArgument(0);
+        String[] payload = new String[stream.getAttributeCount()];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = getValue(record, stream.getAttributePath(i));
+        }
+        eventWriter.write(new AnalyticsEvent(streamId, System.currentTimeMillis(), context.getStringArgument(1),
+                payload));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String getValue(BMap<String, BValue> record, String[] path) {
+        BValue value = record;
+        for (String field : path) {
+            if (!(value instanceof BMap)) {
+                return "";
+            }
+            value = ((BMap<String, BValue>) value).get(field);
+        }
+        return value == null ? "" : value.stringValue();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.cache;
+
+import org.ballerina.gateway.cache.ResponseCache;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.model.values.BBoolean;
+import org.ballerinalang.model.values.BMap;
+import org.ballerinalang.model.values.BValue;
+import org.ballerinalang.model.values.BValueArray;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Native function gateway:cacheResponse{}, which caches a backend response for the given number of milliseconds, or
+ * for as long as its Cache-Control header allows if that is shorter, and returns whether it was cached.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "cacheResponse",
+        args = {@Argument(name = "key", type = TypeKind.STRING),
+                @Argument(name = "apiName", type = TypeKind.STRING),
+                @Argument(name = "statusCode", type = TypeKind.INT),
+                @Argument(name = "headers", type = TypeKind.MAP, elementType = TypeKind.STRING),
+                @Argument(name = "body", type = TypeKind.ARRAY, elementType = TypeKind.BYTE),
+                @Argument(name = "ttl", type = TypeKind.INT)},
+        returnType = {@ReturnType(type = TypeKind.BOOLEAN)},
+        isPublic = true
+)
+public class CacheResponse extends BlockingNativeCallableUnit {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute(Context context) {
+        ResponseCache cache = ResponseCache.getInstance();
+        Map<String, String> headers = toMap((BMap<String, BValue>) context.getRefArgument(0));
+        int statusCode = (int) context.getIntArgument(0);
+        boolean cached = false;
+        if (cache != null && ResponseCache.isCacheable(statusCode, headers)) {
+            BValueArray body = (BValueArray) context.getRefArgument(1);
+            cached = cache.put(context.getStringArgument(0), context.getStringArgument(1), statusCode, headers,
+                    Arrays.copyOf(body.getBytes(), (int) body.size()),
+                    System.currentTimeMillis() + context.getIntArgument(1));
+        }
+        context.setReturnValues(new BBoolean(cached));
+    }
+
+    static Map<String, String> toMap(BMap<String, BValue> headers) {
+        Map<String, String> map = new HashMap<>();
+        for (String name : headers.keys()) {
+            map.put(name.toLowerCase(Locale.ENGLISH), headers.get(name).stringValue());
+        }
+        return map;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.cache;
+
+import org.ballerina.gateway.cache.ResponseCache;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.BMapType;
+import org.ballerinalang.model.types.BTypes;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.model.values.BBoolean;
+import org.ballerinalang.model.values.BInteger;
+import org.ballerinalang.model.values.BMap;
+import org.ballerinalang.model.values.BString;
+import org.ballerinalang.model.values.BValue;
+import org.ballerinalang.model.values.BValueArray;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Native function gateway:getCachedResponse{}, which returns the cached response of a request as a map of its status
+ * code, headers and body, whether it is fresh and whether it matches the conditional headers of the request. An empty
+ * map is returned if the response is not cached.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "getCachedResponse",
+        args = {@Argument(name = "key", type = TypeKind.STRING),
+                @Argument(name = "apiName", type = TypeKind.STRING),
+                @Argument(name = "ifNoneMatch", type = TypeKind.STRING),
+                @Argument(name = "ifModifiedSince", type = TypeKind.STRING)},
+        returnType = {@ReturnType(type = TypeKind.MAP, elementType = TypeKind.ANY)},
+        isPublic = true
+)
+public class GetCachedResponse extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        BMap<String, BValue> response = new BMap<>(new BMapType(BTypes.typeAny));
+        ResponseCache cache = ResponseCache.getInstance();
+        if (cache != null) {
+            long now = System.currentTimeMillis();
+            ResponseCache.Entry entry = cache.get(context.getStringArgument(0), context.getStringArgument(1), now);
+            if (entry != null) {
+                fill(response, entry, now);
+                response.put("notModified", new BBoolean(entry.isFresh(now) && entry.isNotModified(
+                        context.getStringArgument(2), context.getStringArgument(3))));
+            }
+        }
+        context.setReturnValues(response);
+    }
+
+    static void fill(BMap<String, BValue> response, ResponseCache.Entry entry, long currentTime) {
+        BMap<String, BString> headers = new BMap<>(new BMapType(BTypes.typeString));
+        for (Map.Entry<String, String> header : entry.getHeaders().entrySet()) {
+            headers.put(header.getKey(), new BString(header.getValue()));
+        }
+        headers.put("age", new BString(String.valueOf(entry.getAge(currentTime))));
+        response.put("statusCode", new BInteger(entry.getStatusCode()));
+        response.put("headers", headers);
+        // a Ballerina byte array is backed by a byte[] of its own, hence the body is copied once on its way to the
+        // response. The copy also keeps the filters and interceptors from changing the cached body
+        ByteBuffer body = entry.getBody();
+        byte[] bytes = new byte[body.remaining()];
+        body.get(bytes);
+        response.put("body", new BValueArray(bytes));
+        response.put("fresh", new BBoolean(entry.isFresh(currentTime)));
+        response.put("eTag", new BString(entry.getETag() == null ? "" : entry.getETag()));
+        response.put("lastModified", new BString(entry.getLastModified() == null ? "" : entry.getLastModified()));
+    }
+}
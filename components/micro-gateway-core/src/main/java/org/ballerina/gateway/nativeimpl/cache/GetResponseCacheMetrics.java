@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.cache;
+
+import org.ballerina.gateway.cache.ResponseCache;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.BMapType;
+import org.ballerinalang.model.types.BTypes;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.model.values.BInteger;
+import org.ballerinalang.model.values.BMap;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+import java.util.Map;
+
+/**
+ * Native function gateway:getResponseCacheMetrics{}, which returns the number of response cache hits, misses,
+ * revalidations and evictions of each API which used the response cache. The numbers are running totals.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "getResponseCacheMetrics",
+        returnType = {@ReturnType(type = TypeKind.MAP, elementType = TypeKind.MAP)},
+        isPublic = true
+)
+public class GetResponseCacheMetrics extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        BMapType apiMetricsType = new BMapType(BTypes.typeInt);
+        BMap<String, BMap<String, BInteger>> metrics = new BMap<>(new BMapType(apiMetricsType));
+        ResponseCache cache = ResponseCache.getInstance();
+        if (cache != null) {
+            for (Map.Entry<String, ResponseCache.Metrics> entry : cache.getMetrics().entrySet()) {
+                BMap<String, BInteger> apiMetrics = new BMap<>(apiMetricsType);
+                apiMetrics.put("hits", new BInteger(entry.getValue().getHits()));
+                apiMetrics.put("misses", new BInteger(entry.getValue().getMisses()));
+                apiMetrics.put("revalidations", new BInteger(entry.getValue().getRevalidations()));
+                apiMetrics.put("evictions", new BInteger(entry.getValue().getEvictions()));
+                metrics.put(entry.getKey(), apiMetrics);
+            }
+        }
+        context.setReturnValues(metrics);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.cache;
+
+import org.ballerina.gateway.cache.ResponseCache;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.BMapType;
+import org.ballerinalang.model.types.BTypes;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.model.values.BInteger;
+import org.ballerinalang.model.values.BMap;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+/**
+ * Native function gateway:getResponseCacheUsage{}, which returns the number and the total size of the responses in
+ * the response cache.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "getResponseCacheUsage",
+        returnType = {@ReturnType(type = TypeKind.MAP, elementType = TypeKind.INT)},
+        isPublic = true
+)
+public class GetResponseCacheUsage extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        BMap<String, BInteger> usage = new BMap<>(new BMapType(BTypes.typeInt));
+        ResponseCache cache = ResponseCache.getInstance();
+        if (cache != null) {
+            usage.put("entries", new BInteger(cache.getEntryCount()));
+            usage.put("size", new BInteger(cache.size()));
+        }
+        context.setReturnValues(usage);
+    }
+}
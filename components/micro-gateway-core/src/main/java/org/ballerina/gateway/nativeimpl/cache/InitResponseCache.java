@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.cache;
+
+import org.ballerina.gateway.cache.ResponseCache;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+
+/**
+ * Native function gateway:initResponseCache{}, which creates the response cache with the given maximum total size and
+ * maximum entry size, keeping the cached bodies off the heap if requested. The vary headers are the request headers
+ * the cache keys include.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "initResponseCache",
+        args = {@Argument(name = "maxSize", type = TypeKind.INT),
+                @Argument(name = "maxEntrySize", type = TypeKind.INT),
+                @Argument(name = "offHeap", type = TypeKind.BOOLEAN),
+                @Argument(name = "varyHeaders", type = TypeKind.STRING)},
+        isPublic = true
+)
+public class InitResponseCache extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        ResponseCache.init(context.getIntArgument(0), (int) context.getIntArgument(1), context.getBooleanArgument(0),
+                context.getStringArgument(0));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.cache;
+
+import org.ballerina.gateway.cache.ResponseCache;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.BMapType;
+import org.ballerinalang.model.types.BTypes;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.model.values.BMap;
+import org.ballerinalang.model.values.BValue;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+/**
+ * Native function gateway:revalidateCachedResponse{}, which renews a cached response for the given number of
+ * milliseconds after the backend answered a conditional request with a 304 response. Returns the renewed response in
+ * the same form as gateway:getCachedResponse{}, or an empty map if the response is no longer cached.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "revalidateCachedResponse",
+        args = {@Argument(name = "key", type = TypeKind.STRING),
+                @Argument(name = "apiName", type = TypeKind.STRING),
+                @Argument(name = "headers", type = TypeKind.MAP, elementType = TypeKind.STRING),
+                @Argument(name = "ttl", type = TypeKind.INT)},
+        returnType = {@ReturnType(type = TypeKind.MAP, elementType = TypeKind.ANY)},
+        isPublic = true
+)
+public class RevalidateCachedResponse extends BlockingNativeCallableUnit {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute(Context context) {
+        BMap<String, BValue> response = new BMap<>(new BMapType(BTypes.typeAny));
+        ResponseCache cache = ResponseCache.getInstance();
+        if (cache != null) {
+            long now = System.currentTimeMillis();
+            ResponseCache.Entry entry = cache.revalidate(context.getStringArgument(0), context.getStringArgument(1),
+                    CacheResponse.toMap((BMap<String, BValue>) context.getRefArgument(0)),
+                    now + context.getIntArgument(0));
+            if (entry != null) {
+                GetCachedResponse.fill(response, entry, now);
+            }
+        }
+        context.setReturnValues(response);
+    }
+}
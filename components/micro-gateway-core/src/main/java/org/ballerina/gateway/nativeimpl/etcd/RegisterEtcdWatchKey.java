@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.etcd;
+
+import org.ballerina.gateway.etcd.EtcdWatcher;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+
+/**
+ * Native function gateway:registerEtcdWatchKey{}, which adds the etcd key of an endpoint URL to the watched keys.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "registerEtcdWatchKey",
+        args = {@Argument(name = "key", type = TypeKind.STRING),
+                @Argument(name = "value", type = TypeKind.STRING)},
+        isPublic = true
+)
+public class RegisterEtcdWatchKey extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        EtcdWatcher watcher = EtcdWatcher.getInstance();
+        if (watcher != null) {
+            watcher.register(context.getStringArgument(0), context.getStringArgument(1));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.etcd;
+
+import org.ballerina.gateway.etcd.EtcdWatcher;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BLangVMErrors;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+/**
+ * Native function gateway:startEtcdWatch{}, which starts watching the etcd keys of the endpoint URLs.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "startEtcdWatch",
+        args = {@Argument(name = "etcdUrl", type = TypeKind.STRING),
+                @Argument(name = "username", type = TypeKind.STRING),
+                @Argument(name = "password", type = TypeKind.STRING),
+                @Argument(name = "prefix", type = TypeKind.STRING),
+                @Argument(name = "retryDelay", type = TypeKind.INT),
+                @Argument(name = "trustStorePath", type = TypeKind.STRING),
+                @Argument(name = "trustStorePassword", type = TypeKind.STRING)},
+        returnType = {@ReturnType(type = TypeKind.ERROR)},
+        isPublic = true
+)
+public class StartEtcdWatch extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        try {
+            EtcdWatcher.init(context.getStringArgument(0), context.getStringArgument(1), context.getStringArgument(2),
+                    context.getStringArgument(3), context.getIntArgument(0), context.getStringArgument(4),
+                    context.getStringArgument(5));
+        } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
+            context.setReturnValues(BLangVMErrors.createError(context,
+                    "Unable to start watching etcd: " + e.getMessage()));
+        }
+    }
+}
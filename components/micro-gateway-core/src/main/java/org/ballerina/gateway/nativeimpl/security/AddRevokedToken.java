@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.security;
+
+import org.ballerina.gateway.security.RevokedTokenStore;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+
+/**
+ * Native function gateway:addRevokedToken{}, which stores the JTI of a revoked token until the token expires.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "addRevokedToken",
+        args = {@Argument(name = "jti", type = TypeKind.STRING),
+                @Argument(name = "ttl", type = TypeKind.STRING)},
+        isPublic = true
+)
+public class AddRevokedToken extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        long currentTime = System.currentTimeMillis();
+        RevokedTokenStore.getInstance().add(context.getStringArgument(0),
+                RevokedTokenStore.getExpiryTime(context.getStringArgument(1), currentTime), currentTime);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.security;
+
+import org.ballerina.gateway.security.KeyValidationClient;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BLangVMErrors;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+/**
+ * Native function gateway:initKeyValidationClient{}, which creates the client of the key validation service.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "initKeyValidationClient",
+        args = {@Argument(name = "serviceUrl", type = TypeKind.STRING),
+                @Argument(name = "username", type = TypeKind.STRING),
+                @Argument(name = "password", type = TypeKind.STRING),
+                @Argument(name = "maxConnections", type = TypeKind.INT),
+                @Argument(name = "connectTimeout", type = TypeKind.INT),
+                @Argument(name = "readTimeout", type = TypeKind.INT),
+                @Argument(name = "cacheExpiry", type = TypeKind.INT),
+                @Argument(name = "refreshAheadTime", type = TypeKind.INT),
+                @Argument(name = "cacheCapacity", type = TypeKind.INT),
+                @Argument(name = "verifyHostname", type = TypeKind.BOOLEAN),
+                @Argument(name = "trustStorePath", type = TypeKind.STRING),
+                @Argument(name = "trustStorePassword", type = TypeKind.STRING)},
+        returnType = {@ReturnType(type = TypeKind.ERROR)},
+        isPublic = true
+)
+public class InitKeyValidationClient extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        try {
+            KeyValidationClient.init(context.getStringArgument(0), context.getStringArgument(1),
+                    context.getStringArgument(2), (int) context.getIntArgument(0), (int) context.getIntArgument(1),
+                    (int) context.getIntArgument(2), context.getIntArgument(3), context.getIntArgument(4),
+                    (int) context.getIntArgument(5), context.getBooleanArgument(0), context.getStringArgument(3),
+                    context.getStringArgument(4));
+        } catch (IOException | GeneralSecurityException e) {
+            context.setReturnValues(BLangVMErrors.createError(context,
+                    "Unable to create the key validation client: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.security;
+
+import org.ballerina.gateway.security.RevokedTokenStore;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+
+/**
+ * Native function gateway:initRevokedTokenStoreCapacity{}, which sets the maximum number of revoked tokens kept and
+ * whether lookups go through a Bloom filter.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "initRevokedTokenStoreCapacity",
+        args = {@Argument(name = "capacity", type = TypeKind.INT),
+                @Argument(name = "bloomFilterEnabled", type = TypeKind.BOOLEAN)},
+        isPublic = true
+)
+public class InitRevokedTokenStoreCapacity extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        RevokedTokenStore.getInstance().configure((int) context.getIntArgument(0), context.getBooleanArgument(0));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.security;
+
+import org.ballerina.gateway.security.KeyValidationClient;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BLangVMErrors;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.BMapType;
+import org.ballerinalang.model.types.BTypes;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.model.values.BMap;
+import org.ballerinalang.model.values.BString;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Native function gateway:validateKey{}, which validates an access token at the key validation service and returns
+ * the fields of the key validation info. Concurrent validations of the same token cache key share one request.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "validateKey",
+        args = {@Argument(name = "cacheKey", type = TypeKind.STRING),
+                @Argument(name = "context", type = TypeKind.STRING),
+                @Argument(name = "apiVersion", type = TypeKind.STRING),
+                @Argument(name = "accessToken", type = TypeKind.STRING),
+                @Argument(name = "requiredAuthenticationLevel", type = TypeKind.STRING),
+                @Argument(name = "clientDomain", type = TypeKind.STRING),
+                @Argument(name = "matchingResource", type = TypeKind.STRING),
+                @Argument(name = "httpVerb", type = TypeKind.STRING)},
+        returnType = {@ReturnType(type = TypeKind.MAP, elementType = TypeKind.STRING),
+                @ReturnType(type = TypeKind.ERROR)},
+        isPublic = true
+)
+public class ValidateKey extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        KeyValidationClient client = KeyValidationClient.getInstance();
+        if (client == null) {
+            context.setReturnValues(BLangVMErrors.createError(context, "Key validation client is not initialized"));
+            return;
+        }
+        try {
+            Map<String, String> info = client.validate(context.getStringArgument(0), context.getStringArgument(1),
+                    context.getStringArgument(2), context.getStringArgument(3), context.getStringArgument(4),
+                    context.getStringArgument(5), context.getStringArgument(6), context.getStringArgument(7));
+            BMap<String, BString> fields = new BMap<>(new BMapType(BTypes.typeString));
+            for (Map.Entry<String, String> field : info.entrySet()) {
+                fields.put(field.getKey(), new BString(field.getValue()));
+            }
+            context.setReturnValues(fields);
+        } catch (IOException e) {
+            context.setReturnValues(BLangVMErrors.createError(context, e.getMessage()));
+        }
+    }
+}
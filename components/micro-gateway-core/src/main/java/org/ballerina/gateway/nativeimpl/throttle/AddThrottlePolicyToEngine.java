@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.throttle;
+
+import org.ballerina.gateway.throttle.LocalThrottleEngine;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+
+/**
+ * Native function gateway:addThrottlePolicyToEngine{}, which adds a throttle policy to the local throttle engine.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "addThrottlePolicyToEngine",
+        args = {@Argument(name = "tierType", type = TypeKind.STRING),
+                @Argument(name = "tier", type = TypeKind.STRING),
+                @Argument(name = "count", type = TypeKind.INT),
+                @Argument(name = "unitTime", type = TypeKind.INT),
+                @Argument(name = "stopOnQuota", type = TypeKind.BOOLEAN)},
+        isPublic = true
+)
+public class AddThrottlePolicyToEngine extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        LocalThrottleEngine.getInstance().addPolicy(context.getStringArgument(0), context.getStringArgument(1),
+                context.getIntArgument(0), context.getIntArgument(1), context.getBooleanArgument(0));
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.throttle;
+
+import org.ballerina.gateway.throttle.ThrottleDecisionStore;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.model.values.BInteger;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+/**
+ * Native function gateway:getThrottleDecision{}, which returns whether a key is throttled. Returns 0 if the key is not
+ * throttled, 1 if it is throttled but requests may continue once the quota is reached and 2 if requests should be
+ * stopped.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "getThrottleDecision",
+        args = {@Argument(name = "key", type = TypeKind.STRING)},
+        returnType = {@ReturnType(type = TypeKind.INT)},
+        isPublic = true
+)
+public class GetThrottleDecision extends BlockingNativeCallableUnit {
+
+    private static final int NOT_THROTTLED = 0;
+    private static final int THROTTLED = 1;
+    private static final int THROTTLED_STOP_ON_QUOTA = 2;
+
+    @Override
+    public void execute(Context context) {
+        ThrottleDecisionStore.Decision decision = ThrottleDecisionStore.getInstance()
+                .get(context.getStringArgument(0), System.currentTimeMillis());
+        context.setReturnValues(new BInteger(toResult(decision)));
+    }
+
+    static int toResult(ThrottleDecisionStore.Decision decision) {
+        if (decision == null) {
+            return NOT_THROTTLED;
+        }
+        return decision.isStopOnQuota() ? THROTTLED_STOP_ON_QUOTA : THROTTLED;
+    }
+}
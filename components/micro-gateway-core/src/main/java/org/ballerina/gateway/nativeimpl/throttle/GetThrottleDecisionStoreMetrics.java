@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.throttle;
+
+import org.ballerina.gateway.throttle.ThrottleDecisionStore;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.BMapType;
+import org.ballerinalang.model.types.BTypes;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.model.values.BInteger;
+import org.ballerinalang.model.values.BMap;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+/**
+ * Native function gateway:getThrottleDecisionStoreMetrics{}, which returns the number of decisions in the store and
+ * the number of decisions evicted and expired so far, along with the number of throttle keys interned.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "getThrottleDecisionStoreMetrics",
+        returnType = {@ReturnType(type = TypeKind.MAP, elementType = TypeKind.INT)},
+        isPublic = true
+)
+public class GetThrottleDecisionStoreMetrics extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        ThrottleDecisionStore store = ThrottleDecisionStore.getInstance();
+        BMap<String, BInteger> metrics = new BMap<>(new BMapType(BTypes.typeInt));
+        metrics.put("size", new BInteger(store.size()));
+        metrics.put("evictions", new BInteger(store.getEvictionCount()));
+        metrics.put("expirations", new BInteger(store.getExpiryCount()));
+        metrics.put("internedKeys", new BInteger(store.getKeyTable().size()));
+        context.setReturnValues(metrics);
+    }
+}
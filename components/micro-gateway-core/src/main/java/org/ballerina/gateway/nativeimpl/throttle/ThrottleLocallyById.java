@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.throttle;
+
+import org.ballerina.gateway.throttle.LocalThrottleEngine;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.model.values.BBoolean;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+/**
+ * Native function gateway:throttleLocallyById{}, which counts a request of an interned key against the local throttle
+ * policy of its tier and returns whether the throttle decision of the key was updated.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "throttleLocallyById",
+        args = {@Argument(name = "tierType", type = TypeKind.STRING),
+                @Argument(name = "tier", type = TypeKind.STRING),
+                @Argument(name = "keyId", type = TypeKind.INT)},
+        returnType = {@ReturnType(type = TypeKind.BOOLEAN)},
+        isPublic = true
+)
+public class ThrottleLocallyById extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        boolean updated = LocalThrottleEngine.getInstance().throttle(context.getStringArgument(0),
+                context.getStringArgument(1), (int) context.getIntArgument(0), System.currentTimeMillis());
+        context.setReturnValues(new BBoolean(updated));
+    }
+}
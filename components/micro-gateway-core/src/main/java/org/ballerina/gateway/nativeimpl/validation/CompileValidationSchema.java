@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.validation;
+
+import org.ballerina.gateway.validation.SchemaRegistry;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BLangVMErrors;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+import java.io.IOException;
+
+/**
+ * Native function gateway:compileValidationSchema{}, which compiles a schema and registers it against a key of the
+ * validation schema index.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "compileValidationSchema",
+        args = {@Argument(name = "key", type = TypeKind.STRING),
+                @Argument(name = "schema", type = TypeKind.STRING)},
+        returnType = {@ReturnType(type = TypeKind.ERROR)},
+        isPublic = true
+)
+public class CompileValidationSchema extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        String key = context.getStringArgument(0);
+        try {
+            SchemaRegistry.getInstance().register(key, context.getStringArgument(1));
+        } catch (IOException | RuntimeException e) {
+            context.setReturnValues(BLangVMErrors.createError(context, "Unable to compile the schema of " + key
+                    + ": " + e.getMessage()));
+        }
+    }
+}
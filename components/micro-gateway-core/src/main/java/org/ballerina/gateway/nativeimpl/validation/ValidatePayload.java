@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.validation;
+
+import org.ballerina.gateway.validation.JsonReader;
+import org.ballerina.gateway.validation.SchemaRegistry;
+import org.ballerina.gateway.validation.SchemaValidator;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.model.values.BString;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Native function gateway:validatePayload{}, which validates a payload against a compiled schema. Returns the
+ * description of the first violation or an empty string if the payload is valid. Payloads which are not JSON are not
+ * validated.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "validatePayload",
+        args = {@Argument(name = "key", type = TypeKind.STRING),
+                @Argument(name = "payload", type = TypeKind.STRING),
+                @Argument(name = "ignoreFaults", type = TypeKind.BOOLEAN)},
+        returnType = {@ReturnType(type = TypeKind.STRING)},
+        isPublic = true
+)
+public class ValidatePayload extends BlockingNativeCallableUnit {
+
+    @Override
+    public void execute(Context context) {
+        SchemaValidator validator = SchemaRegistry.getInstance().getValidator(context.getStringArgument(0));
+        String payload = context.getStringArgument(1);
+        boolean ignoreFaults = context.getBooleanArgument(0);
+        String error = null;
+        if (validator != null && payload != null && !payload.isEmpty()) {
+            try {
+                Object value = JsonReader.read(payload);
+                //fault responses sent by the gateway itself are not validated
+                if (value != null && !(ignoreFaults && value instanceof Map && ((Map) value).get("fault") != null)) {
+                    error = validator.validatePayload(value);
+                }
+            } catch (IOException e) {
+                // not a JSON payload
+            }
+        }
+        context.setReturnValues(new BString(error == null ? "" : error));
+    }
+}
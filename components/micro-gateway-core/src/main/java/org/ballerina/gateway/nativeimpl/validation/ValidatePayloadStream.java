@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.nativeimpl.validation;
+
+import org.ballerina.gateway.validation.MalformedJsonException;
+import org.ballerina.gateway.validation.SchemaRegistry;
+import org.ballerina.gateway.validation.SchemaValidator;
+import org.ballerinalang.bre.Context;
+import org.ballerinalang.bre.bvm.BlockingNativeCallableUnit;
+import org.ballerinalang.model.types.BMapType;
+import org.ballerinalang.model.types.BTypes;
+import org.ballerinalang.model.types.TypeKind;
+import org.ballerinalang.model.values.BMap;
+import org.ballerinalang.model.values.BString;
+import org.ballerinalang.model.values.BValue;
+import org.ballerinalang.model.values.BValueArray;
+import org.ballerinalang.natives.annotations.Argument;
+import org.ballerinalang.natives.annotations.BallerinaFunction;
+import org.ballerinalang.natives.annotations.ReturnType;
+import org.ballerinalang.stdlib.io.channels.base.Channel;
+import org.ballerinalang.stdlib.io.utils.IOConstants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Native function gateway:validatePayloadStream{}, which validates a payload against a compiled schema while it is
+ * read from the byte channel of the entity, without building the JSON tree of the payload. Reading stops at the first
+ * violation. Returns a map with the description of the first violation as "error", an empty string if the payload is
+ * valid, and the bytes read as "payload", which the caller sets back to the entity since the channel is consumed.
+ * Payloads which are not JSON are not validated. As the payload is only forwarded once it is known to be valid, the
+ * bytes read are kept in memory up to the given maximum size. Larger payloads are reported as a violation instead of
+ * being buffered.
+ */
+@BallerinaFunction(
+        orgName = "wso2",
+        packageName = "gateway",
+        functionName = "validatePayloadStream",
+        args = {@Argument(name = "key", type = TypeKind.STRING),
+                @Argument(name = "payload", type = TypeKind.OBJECT, structType = "ReadableByteChannel",
+                        structPackage = "ballerina/io"),
+                @Argument(name = "ignoreFaults", type = TypeKind.BOOLEAN),
+                @Argument(name = "maxSize", type = TypeKind.INT)},
+        returnType = {@ReturnType(type = TypeKind.MAP, elementType = TypeKind.ANY)},
+        isPublic = true
+)
+public class ValidatePayloadStream extends BlockingNativeCallableUnit {
+
+    private static final String FAULT = "fault";
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute(Context context) {
+        SchemaValidator validator = SchemaRegistry.getInstance().getValidator(context.getStringArgument(0));
+        Channel channel = (Channel) ((BMap<String, BValue>) context.getRefArgument(0))
+                .getNativeData(IOConstants.BYTE_CHANNEL_NAME);
+        boolean ignoreFaults = context.getBooleanArgument(0);
+        long maxSize = context.getIntArgument(0);
+        BMap<String, BValue> result = new BMap<>(new BMapType(BTypes.typeAny));
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        String error = null;
+        try (InputStream in = new CopyingInputStream(channel.getInputStream(), payload, maxSize)) {
+            if (validator != null) {
+                try {
+                    //fault responses sent by the gateway itself are not validated
+                    error = validator.validatePayload(new InputStreamReader(in, StandardCharsets.UTF_8),
+                            ignoreFaults ? FAULT : null);
+                } catch (MalformedJsonException e) {
+                    // not a JSON payload
+                }
+            }
+            if (error == null) {
+                // the rest of the payload is forwarded as it is
+                byte[] buffer = new byte[8192];
+                while (in.read(buffer) != -1) {
+                    // copied while read
+                }
+                result.put("payload", new BValueArray(payload.toByteArray()));
+            }
+        } catch (PayloadTooLargeException e) {
+            error = "Payload is larger than the maximum of " + maxSize + " bytes which can be validated";
+        } catch (IOException e) {
+            error = "Unable to read the payload: " + e.getMessage();
+        }
+        result.put("error", new BString(error == null ? "" : error));
+        context.setReturnValues(result);
+    }
+
+    /**
+     * Keeps a copy of the bytes read from the channel, so that the payload can be forwarded once it is validated.
+     * Reading fails once the copy would exceed the maximum size.
+     */
+    private static class CopyingInputStream extends FilterInputStream {
+
+        private final ByteArrayOutputStream copy;
+        private final long maxSize;
+
+        CopyingInputStream(InputStream in, ByteArrayOutputStream copy, long maxSize) {
+            super(in);
+            this.copy = copy;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                checkSize(1);
+                copy.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int length = super.read(b, off, len);
+            if (length > 0) {
+                checkSize(length);
+                copy.write(b, off, length);
+            }
+            return length;
+        }
+
+        private void checkSize(int length) throws PayloadTooLargeException {
+            if (copy.size() + length > maxSize) {
+                throw new PayloadTooLargeException();
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            throw new IOException("Skipping is not supported");
+        }
+    }
+
+    /**
+     * Thrown when a payload exceeds the maximum size which can be kept in memory for validation.
+     */
+    private static class PayloadTooLargeException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of strings. A string which was added is always reported as possibly contained, while a string which was
+ * not added is reported as possibly contained only with the false positive probability the filter was sized for.
+ * Strings can be added and looked up concurrently. The bits of a string are picked by double hashing with two
+ * independent hashes, the string hash code and a MurmurHash3 of its characters.
+ */
+public class BloomFilter {
+
+    private static final int MURMUR_SEED = 0x9747b28c;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedEntries           number of strings the filter is sized for
+     * @param falsePositiveProbability  probability of reporting a string which was not added as contained, once the
+     *                                  expected number of strings are added
+     */
+    public BloomFilter(int expectedEntries, double falsePositiveProbability) {
+        long optimalBits = (long) Math.ceil(-Math.max(expectedEntries, 1) * Math.log(falsePositiveProbability)
+                / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / Math.max(expectedEntries, 1) * Math.log(2)));
+    }
+
+    public void add(String value) {
+        int hash1 = (int) mix(value.hashCode());
+        int hash2 = murmur3(value);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash1 + i * hash2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    public boolean mightContain(String value) {
+        int hash1 = (int) mix(value.hashCode());
+        int hash2 = murmur3(value);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash1 + i * hash2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int hash) {
+        return (hash & 0x7fffffffL) % bitCount;
+    }
+
+    // MurmurHash3 (x86, 32 bit) of the characters of the string, two characters to a block. The hash is made odd, so
+    // that the bits picked for a string never collapse into one
+    static int murmur3(String value) {
+        int length = value.length();
+        int hash = MURMUR_SEED;
+        int i = 0;
+        for (; i + 1 < length; i += 2) {
+            hash ^= mixBlock(value.charAt(i) | (value.charAt(i + 1) << 16));
+            hash = Integer.rotateLeft(hash, 13) * 5 + 0xe6546b64;
+        }
+        if (i < length) {
+            hash ^= mixBlock(value.charAt(i));
+        }
+        hash ^= length * 2;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash | 1;
+    }
+
+    private static int mixBlock(int block) {
+        return Integer.rotateLeft(block * 0xcc9e2d51, 15) * 0x1b873593;
+    }
+
+    // finalizer of MurmurHash3, which spreads the bits of the string hash code over a long
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,453 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.ballerina.gateway.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.net.SocketFactory;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * HTTP/1.1 client of a single server, used by the clients of the key manager and of etcd, whose connections are kept
+ * alive between requests. The idle connections are pooled by the client itself, rather than by the keep-alive cache
+ * of the JVM, which is shared by all the HTTP clients of the JVM and sized by the JVM wide http.maxConnections
+ * property once it is loaded. At most maxConnections requests are sent at a time, which also bounds the number of
+ * open connections, since a connection is only opened by a request which finds no idle connection. A request waits
+ * up to the connect timeout for one of the other requests to complete.
+ */
+public class HttpConnectionPool {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpConnectionPool.class);
+
+    private final String host;
+    private final int port;
+    private final SocketFactory socketFactory;
+    private final boolean verifyHostname;
+    private final int maxConnections;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final BlockingDeque<Connection> idleConnections;
+    // a permit is held by every request from when it is sent until the body of its response is closed
+    private final Semaphore permits;
+    private final AtomicLong openedCount = new AtomicLong();
+
+    /**
+     * @param url              URL of the server
+     * @param sslSocketFactory socket factory of the HTTPS connections, null to use the default one
+     * @param verifyHostname   whether the host name of the server should be verified
+     * @param maxConnections   maximum number of connections to the server
+     * @param connectTimeout   connect timeout in milliseconds, which is also the longest time a request waits for a
+     *                         connection once all of them are in use
+     * @param readTimeout      read timeout in milliseconds
+     */
+    public HttpConnectionPool(URL url, SSLSocketFactory sslSocketFactory, boolean verifyHostname, int maxConnections,
+                              int connectTimeout, int readTimeout) {
+        boolean secure = "https".equalsIgnoreCase(url.getProtocol());
+        this.host = url.getHost();
+        this.port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+        this.socketFactory = !secure ? SocketFactory.getDefault()
+                : sslSocketFactory != null ? sslSocketFactory : SSLSocketFactory.getDefault();
+        this.verifyHostname = verifyHostname;
+        this.maxConnections = Math.max(1, maxConnections);
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.idleConnections = new LinkedBlockingDeque<>(this.maxConnections);
+        this.permits = new Semaphore(this.maxConnections, true);
+    }
+
+    /**
+     * Sends a POST request over an idle connection, or a new one if none is idle. The server may have closed an idle
+     * connection, hence a request which fails on an idle connection before the response starts is sent again over a
+     * new connection. The connection is pooled again once the body of the response is closed.
+     *
+     * @param path    path of the request
+     * @param headers names and values of the headers of the request, one after the other
+     * @param body    body of the request
+     * @return the response, whose body should be closed
+     * @throws IOException if all the connections stayed in use for longer than the connect timeout, or the request
+     *                     could not be sent or the response could not be read
+     */
+    public Response post(String path, String[] headers, byte[] body) throws IOException {
+        byte[] head = createRequestHead(path, headers, body.length);
+        acquire();
+        try {
+            Connection connection = idleConnections.pollFirst();
+            if (connection != null) {
+                try {
+                    return send(connection, head, body);
+                } catch (ConnectionClosedException e) {
+                    log.debug("Idle connection to " + host + ":" + port
+                            + " was closed, sending the request over a new connection");
+                }
+            }
+            return send(connect(), head, body);
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public long getOpenedCount() {
+        return openedCount.get();
+    }
+
+    public int getIdleCount() {
+        return idleConnections.size();
+    }
+
+    private void acquire() throws IOException {
+        try {
+            if (!permits.tryAcquire(connectTimeout, TimeUnit.MILLISECONDS)) {
+                throw new IOException("All the " + maxConnections + " connections to " + host + ":" + port
+                        + " stayed in use for " + connectTimeout + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection to " + host + ":" + port);
+        }
+    }
+
+    private Connection connect() throws IOException {
+        Socket socket = socketFactory.createSocket();
+        try {
+            if (socket instanceof SSLSocket && verifyHostname) {
+                SSLParameters parameters = ((SSLSocket) socket).getSSLParameters();
+                parameters.setEndpointIdentificationAlgorithm("HTTPS");
+                ((SSLSocket) socket).setSSLParameters(parameters);
+            }
+            socket.setKeepAlive(true);
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(readTimeout);
+            socket.connect(new InetSocketAddress(host, port), connectTimeout);
+            openedCount.incrementAndGet();
+            return new Connection(socket);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private Response send(Connection connection, byte[] head, byte[] body) throws IOException {
+        try {
+            try {
+                connection.out.write(head);
+                connection.out.write(body);
+                connection.out.flush();
+            } catch (IOException e) {
+                throw new ConnectionClosedException(e.getMessage());
+            }
+            int first;
+            try {
+                first = connection.in.read();
+            } catch (SocketTimeoutException e) {
+                throw e;
+            } catch (IOException e) {
+                throw new ConnectionClosedException(e.getMessage());
+            }
+            if (first == -1) {
+                throw new ConnectionClosedException("Connection was closed by " + host + ":" + port);
+            }
+            String statusLine = (char) first + readLine(connection.in);
+            String[] status = statusLine.split(" ");
+            if (status.length < 2 || !status[0].startsWith("HTTP/")) {
+                throw new IOException("Invalid response status line from " + host + ":" + port + ": " + statusLine);
+            }
+            int statusCode;
+            try {
+                statusCode = Integer.parseInt(status[1]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid response status line from " + host + ":" + port + ": " + statusLine,
+                        e);
+            }
+            boolean keepAlive = !"HTTP/1.0".equals(status[0]);
+            boolean chunked = false;
+            long contentLength = -1;
+            String header;
+            while (!(header = readLine(connection.in)).isEmpty()) {
+                int separator = header.indexOf(':');
+                if (separator <= 0) {
+                    continue;
+                }
+                String name = header.substring(0, separator).trim().toLowerCase(Locale.ENGLISH);
+                String value = header.substring(separator + 1).trim().toLowerCase(Locale.ENGLISH);
+                if ("transfer-encoding".equals(name)) {
+                    chunked = value.contains("chunked");
+                } else if ("content-length".equals(name)) {
+                    try {
+                        contentLength = Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Invalid content length in the response of " + host + ":" + port
+                                + ": " + value, e);
+                    }
+                } else if ("connection".equals(name)) {
+                    keepAlive = value.contains("keep-alive") || (keepAlive && !value.contains("close"));
+                }
+            }
+            if (statusCode == HttpURLConnection.HTTP_NO_CONTENT || statusCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                // these responses never have a body, whatever their headers say
+                chunked = false;
+                contentLength = 0;
+            }
+            // a body which ends when the connection is closed can not be followed by another response
+            keepAlive = keepAlive && (chunked || contentLength >= 0);
+            return new Response(statusCode, new ResponseBody(connection, chunked, contentLength, keepAlive));
+        } catch (IOException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private byte[] createRequestHead(String path, String[] headers, int contentLength) {
+        StringBuilder head = new StringBuilder(256).append("POST ").append(path).append(" HTTP/1.1\r\n")
+                .append("Host: ").append(host).append(':').append(port).append("\r\n");
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            head.append(headers[i]).append(": ").append(headers[i + 1]).append("\r\n");
+        }
+        head.append("Content-Length: ").append(contentLength).append("\r\n\r\n");
+        return head.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    // the connection is made idle before the permit is released, so that a request which gets the permit and finds no
+    // idle connection knows that all the other connections are in use
+    private void release(Connection connection) {
+        if (!idleConnections.offerFirst(connection)) {
+            connection.close();
+        }
+        permits.release();
+    }
+
+    // reads a line of the head of the response or of a chunk, without the line break
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c == -1) {
+                throw new IOException("Response ended unexpectedly");
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * Status and body of a response of the server.
+     */
+    public static final class Response {
+
+        private final int status;
+        private final ResponseBody body;
+
+        private Response(int status, ResponseBody body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * Returns the body of the response. Closing the body reads the rest of it and pools the connection again.
+         *
+         * @return body of the response
+         */
+        public InputStream getBody() {
+            return body;
+        }
+
+        /**
+         * Closes the connection of the response, so that a read of the body blocked in another thread fails and the
+         * connection is not pooled again. Used for bodies which do not end, such as watch streams. The body still has
+         * to be closed.
+         */
+        public void abort() {
+            body.abort();
+        }
+    }
+
+    private static final class Connection {
+
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        private Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Unable to close a connection", e);
+            }
+        }
+    }
+
+    /**
+     * Body of a response, delimited by its content length, by its chunks or by the end of the connection.
+     */
+    private final class ResponseBody extends InputStream {
+
+        private final Connection connection;
+        private final boolean chunked;
+        private final boolean keepAlive;
+        // bytes left in the body or in the current chunk, -1 if the body ends when the connection is closed
+        private long remaining;
+        private boolean ended;
+        private boolean closed;
+        private volatile boolean aborted;
+
+        private ResponseBody(Connection connection, boolean chunked, long contentLength, boolean keepAlive) {
+            this.connection = connection;
+            this.chunked = chunked;
+            this.keepAlive = keepAlive;
+            this.remaining = chunked ? 0 : contentLength;
+            this.ended = !chunked && contentLength == 0;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (closed) {
+                throw new IOException("Response body is closed");
+            }
+            if (ended || (chunked && remaining == 0 && !nextChunk())) {
+                return -1;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            int toRead = remaining < 0 ? length : (int) Math.min(length, remaining);
+            int read = connection.in.read(bytes, offset, toRead);
+            if (read == -1) {
+                if (remaining < 0) {
+                    ended = true;
+                    return -1;
+                }
+                throw new IOException("Response of " + host + ":" + port + " ended unexpectedly");
+            }
+            if (remaining > 0) {
+                remaining -= read;
+                if (remaining == 0) {
+                    if (chunked) {
+                        // the line break after the chunk
+                        readLine(connection.in);
+                    } else {
+                        ended = true;
+                    }
+                }
+            }
+            return read;
+        }
+
+        private boolean nextChunk() throws IOException {
+            String size = readLine(connection.in);
+            int extension = size.indexOf(';');
+            try {
+                remaining = Long.parseLong((extension >= 0 ? size.substring(0, extension) : size).trim(), 16);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid chunk size " + size, e);
+            }
+            if (remaining == 0) {
+                // the trailers end with an empty line
+                while (!readLine(connection.in).isEmpty()) {
+                    // trailers are not used
+                }
+                ended = true;
+            }
+            return !ended;
+        }
+
+        private void abort() {
+            aborted = true;
+            connection.close();
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            boolean reusable = keepAlive && !aborted;
+            if (reusable) {
+                try {
+                    byte[] buffer = new byte[1024];
+                    while (read(buffer, 0, buffer.length) != -1) {
+                        // discard the rest of the response
+                    }
+                } catch (IOException e) {
+                    log.debug("Unable to read the rest of the response of " + host + ":" + port + ": "
+                            + e.getMessage());
+                    reusable = false;
+                }
+            }
+            closed = true;
+            if (reusable) {
+                release(connection);
+            } else {
+                connection.close();
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Thrown when a connection turns out to be closed before the response starts, so the request can be sent again.
+     */
+    private static final class ConnectionClosedException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        private ConnectionClosedException(String message) {
+            super(message);
+        }
+    }
+}
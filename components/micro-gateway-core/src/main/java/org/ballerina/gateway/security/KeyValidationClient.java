@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.security;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.net.ssl.SSLSocketFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Client of the key validation service of the key manager. The SOAP envelope of the request is serialized once, so a
+ * request is written by filling the escaped values of the token into the serialized envelope. Responses are read with
+ * a pull parser which only keeps the fields of the key validation info, without building the XML tree.
+ * <p>
+ * The connections to the key manager are kept alive in a pool of the client, which is sized by the maxConnections of
+ * the key manager config independently of the other HTTP clients of the JVM. Once all of them are in use, a
+ * validation waits up to the connect timeout for one of them.
+ * <p>
+ * Concurrent validations of the same token cache key are coalesced, so that when a popular token is missing in the
+ * token cache, only one request is sent to the key manager and the other callers wait for its result. The time of the
+ * last validation of each key is kept, so that hot tokens can be revalidated shortly before their cache entries
+ * expire.
+ */
+public class KeyValidationClient {
+
+    private static final String SOAP_NAMESPACE = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final String SERVICE_NAMESPACE = "http://org.apache.axis2/xsd";
+    private static final String DTO_NAMESPACE = "http://dto.impl.apimgt.carbon.wso2.org/xsd";
+    private static final String SOAP_ACTION = "urn:validateKey";
+    private static final String RETURN_ELEMENT = "return";
+    private static final String FAULT_ELEMENT = "Fault";
+    private static final String FAULT_STRING_ELEMENT = "faultstring";
+    // marks a key which is being revalidated ahead of the expiry of its cache entry
+    private static final long REFRESHING = Long.MIN_VALUE;
+    private static final String[] REQUEST_FIELDS = {"context", "version", "accessToken", "requiredAuthenticationLevel",
+            "clientDomain", "matchingResource", "httpVerb"};
+    /**
+     * Fields of the key validation info returned by the key validation service.
+     */
+    public static final String[] RESPONSE_FIELDS = {"apiName", "apiPublisher", "apiTier", "applicationId",
+            "applicationName", "applicationTier", "authorized", "authorizedDomains", "consumerKey", "contentAware",
+            "endUserName", "endUserToken", "issuedTime", "spikeArrestLimit", "spikeArrestUnit", "stopOnQuotaReach",
+            "subscriber", "subscriberTenantDomain", "throttlingDataList", "tier", "type", "userType",
+            "validationStatus", "validityPeriod"};
+    private static final Set<String> RESPONSE_FIELD_SET = new HashSet<>(Arrays.asList(RESPONSE_FIELDS));
+    // serialized envelope around the values of the request fields
+    private static final byte[][] REQUEST_TEMPLATE = createRequestTemplate();
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private static KeyValidationClient instance;
+
+    private final String servicePath;
+    private final String[] requestHeaders;
+    private final HttpConnectionPool connectionPool;
+    private final long refreshAfter;
+    private final int maxTrackedKeys;
+    private final Map<String, CompletableFuture<Map<String, String>>> inFlight = new ConcurrentHashMap<>();
+    // time of the last validation of each cache key, used to revalidate keys ahead of the expiry of their entries
+    private final Map<String, Long> validationTimes = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    KeyValidationClient(String serviceUrl, String username, String password, int maxConnections, int connectTimeout,
+                        int readTimeout, long refreshAfter, int maxTrackedKeys, SSLSocketFactory sslSocketFactory,
+                        boolean verifyHostname) throws MalformedURLException {
+        URL url = new URL(serviceUrl);
+        this.servicePath = url.getFile().isEmpty() ? "/" : url.getFile();
+        this.requestHeaders = new String[]{"Content-Type", "text/xml; charset=UTF-8", "SOAPAction", SOAP_ACTION,
+                "Authorization", "Basic " + Base64.getEncoder().encodeToString((username + ":" + password)
+                        .getBytes(StandardCharsets.UTF_8))};
+        this.connectionPool = new HttpConnectionPool(url, sslSocketFactory, verifyHostname, maxConnections,
+                connectTimeout, readTimeout);
+        this.refreshAfter = refreshAfter;
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    /**
+     * Creates the client used by the gateway. The client is created only once.
+     *
+     * @param serviceUrl         URL of the key validation service
+     * @param username           username of the key manager
+     * @param password           password of the key manager
+     * @param maxConnections     maximum number of connections to the key manager
+     * @param connectTimeout     connect timeout in milliseconds
+     * @param readTimeout        read timeout in milliseconds
+     * @param cacheExpiry        expiry time of the token cache entries in milliseconds
+     * @param refreshAheadTime   time before the expiry of a cache entry from which a hit revalidates the token, or 0
+     *                           to revalidate tokens only once they are missing in the cache
+     * @param cacheCapacity      capacity of the token cache
+     * @param verifyHostname     whether the host name of the key manager should be verified
+     * @param trustStorePath     path of the trust store holding the certificate of the key manager
+     * @param trustStorePassword password of the trust store
+     * @throws IOException              if the URL is invalid or the trust store could not be read
+     * @throws GeneralSecurityException if the trust store could not be loaded
+     */
+    public static void init(String serviceUrl, String username, String password, int maxConnections,
+                            int connectTimeout, int readTimeout, long cacheExpiry, long refreshAheadTime,
+                            int cacheCapacity, boolean verifyHostname, String trustStorePath,
+                            String trustStorePassword) throws IOException, GeneralSecurityException {
+        synchronized (KeyValidationClient.class) {
+            if (instance != null) {
+                return;
+            }
+            long refreshAfter = refreshAheadTime > 0 ? Math.max(1, cacheExpiry - refreshAheadTime) : 0;
+            instance = new KeyValidationClient(serviceUrl, username, password, maxConnections, connectTimeout,
+                    readTimeout, refreshAfter, cacheCapacity,
+                    SslUtils.createSocketFactory(trustStorePath, trustStorePassword), verifyHostname);
+        }
+    }
+
+    public static KeyValidationClient getInstance() {
+        synchronized (KeyValidationClient.class) {
+            return instance;
+        }
+    }
+
+    /**
+     * Validates an access token at the key validation service. If the same cache key is being validated by another
+     * caller, waits for the result of that validation instead of sending another request.
+     *
+     * @param cacheKey key of the token in the token cache
+     * @param values   values of the request fields, in the order of context, version, access token, required
+     *                 authentication level, client domain, matching resource and HTTP verb
+     * @return the fields of the key validation info by name, empty for the fields which are not set
+     * @throws IOException if the key manager could not be reached or did not return the key validation info
+     */
+    public Map<String, String> validate(String cacheKey, String... values) throws IOException {
+        CompletableFuture<Map<String, String>> validation = new CompletableFuture<>();
+        CompletableFuture<Map<String, String>> inFlightValidation = inFlight.putIfAbsent(cacheKey, validation);
+        if (inFlightValidation != null) {
+            coalescedCount.incrementAndGet();
+            return await(inFlightValidation);
+        }
+        try {
+            Map<String, String> info = Collections.unmodifiableMap(send(values));
+            recordValidation(cacheKey);
+            validation.complete(info);
+            return info;
+        } catch (IOException | RuntimeException e) {
+            validationTimes.remove(cacheKey);
+            validation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, validation);
+        }
+    }
+
+    /**
+     * Returns whether a cached token should be revalidated since its cache entry is about to expire. Only the first
+     * caller is told to revalidate the token, until it is validated again.
+     *
+     * @param cacheKey key of the token in the token cache
+     * @return true if the caller should revalidate the token
+     */
+    public boolean isRefreshDue(String cacheKey) {
+        if (refreshAfter <= 0) {
+            return false;
+        }
+        Long validationTime = validationTimes.get(cacheKey);
+        return validationTime != null && validationTime != REFRESHING
+                && System.currentTimeMillis() - validationTime >= refreshAfter
+                && validationTimes.replace(cacheKey, validationTime, REFRESHING);
+    }
+
+    long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private void recordValidation(String cacheKey) {
+        if (refreshAfter <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        validationTimes.put(cacheKey, now);
+        if (validationTimes.size() > maxTrackedKeys) {
+            // forget the keys whose cache entries would have expired
+            validationTimes.values().removeIf(time -> time != REFRESHING && now - time > refreshAfter * 2);
+        }
+    }
+
+    private static Map<String, String> await(CompletableFuture<Map<String, String>> validation) throws IOException {
+        try {
+            return validation.get();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the key validation response");
+        }
+    }
+
+    private Map<String, String> send(String... values) throws IOException {
+        HttpConnectionPool.Response response = connectionPool.post(servicePath, requestHeaders,
+                createRequest(values));
+        // closing the body reads the rest of the response, so that the connection is pooled again
+        try (InputStream in = response.getBody()) {
+            return parseResponse(in);
+        }
+    }
+
+    HttpConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    static byte[] createRequest(String... values) {
+        if (values.length != REQUEST_FIELDS.length) {
+            throw new IllegalArgumentException("Expected " + REQUEST_FIELDS.length + " values, but found "
+                    + values.length);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        for (int i = 0; i < values.length; i++) {
+            out.write(REQUEST_TEMPLATE[i], 0, REQUEST_TEMPLATE[i].length);
+            byte[] value = escape(values[i]).getBytes(StandardCharsets.UTF_8);
+            out.write(value, 0, value.length);
+        }
+        byte[] end = REQUEST_TEMPLATE[values.length];
+        out.write(end, 0, end.length);
+        return out.toByteArray();
+    }
+
+    static Map<String, String> parseResponse(InputStream in) throws IOException {
+        Map<String, String> fields = new HashMap<>();
+        try {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                boolean found = false;
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    String namespace = reader.getNamespaceURI();
+                    String name = reader.getLocalName();
+                    if (SOAP_NAMESPACE.equals(namespace) && FAULT_ELEMENT.equals(name)) {
+                        throw new IOException("Key validation service responded with a fault: " + readFault(reader));
+                    }
+                    if (SERVICE_NAMESPACE.equals(namespace) && RETURN_ELEMENT.equals(name)) {
+                        found = true;
+                    } else if (found && DTO_NAMESPACE.equals(namespace) && RESPONSE_FIELD_SET.contains(name)) {
+                        // nil values are read as empty text. The values of repeated fields, such as the throttling
+                        // data list and the authorized domains, are concatenated
+                        fields.merge(name, reader.getElementText().trim(), String::concat);
+                    }
+                }
+                if (!found) {
+                    throw new IOException("Key validation response does not contain the key validation info");
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid key validation response: " + e.getMessage(), e);
+        }
+        for (String field : RESPONSE_FIELDS) {
+            fields.putIfAbsent(field, "");
+        }
+        return fields;
+    }
+
+    private static String readFault(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT
+                    && FAULT_STRING_ELEMENT.equals(reader.getLocalName())) {
+                return reader.getElementText().trim();
+            }
+        }
+        return "";
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            switch (c) {
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '"':
+                    replacement = "&quot;";
+                    break;
+                case '\'':
+                    replacement = "&apos;";
+                    break;
+                default:
+                    if (escaped != null) {
+                        escaped.append(c);
+                    }
+                    continue;
+            }
+            if (escaped == null) {
+                escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+            }
+            escaped.append(replacement);
+        }
+        return escaped == null ? value : escaped.toString();
+    }
+
+    private static byte[][] createRequestTemplate() {
+        byte[][] template = new byte[REQUEST_FIELDS.length + 1][];
+        String previous = "<soapenv:Envelope xmlns:soapenv=\"" + SOAP_NAMESPACE + "\" xmlns:xsd=\""
+                + SERVICE_NAMESPACE + "\"><soapenv:Body><xsd:validateKey>";
+        for (int i = 0; i < REQUEST_FIELDS.length; i++) {
+            template[i] = (previous + "<xsd:" + REQUEST_FIELDS[i] + ">").getBytes(StandardCharsets.UTF_8);
+            previous = "</xsd:" + REQUEST_FIELDS[i] + ">";
+        }
+        template[REQUEST_FIELDS.length] = (previous + "</xsd:validateKey></soapenv:Body></soapenv:Envelope>")
+                .getBytes(StandardCharsets.UTF_8);
+        return template;
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
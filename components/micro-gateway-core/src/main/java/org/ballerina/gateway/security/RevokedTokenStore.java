@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the JTIs of revoked tokens until the tokens expire. Lookups are lock free and, when the Bloom filter is
+ * enabled, a JTI which was never revoked is usually rejected by the filter without probing the map. Once the store is
+ * full, the expired tokens are removed. A token evicted before it expires would be accepted again, hence the capacity
+ * is doubled if the store is full of unexpired tokens, up to {@link #MAX_CAPACITY_FACTOR} times the configured
+ * capacity. Past that limit the tokens closest to expiry are evicted, since they would be accepted the soonest anyway,
+ * and every such overflow is logged as an error.
+ */
+public class RevokedTokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RevokedTokenStore.class);
+    public static final int DEFAULT_CAPACITY = 1000000;
+    public static final long NO_EXPIRY = Long.MAX_VALUE;
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+    private static final long SWEEP_INTERVAL = 60000;
+    // the capacity is never grown past this many times the configured capacity
+    static final int MAX_CAPACITY_FACTOR = 4;
+    // share of the maximum capacity which is evicted at once when the store overflows
+    private static final int OVERFLOW_EVICTION_DIVISOR = 100;
+
+    private static RevokedTokenStore instance;
+
+    // JTI -> time in milliseconds at which the token expires
+    private final Map<String, Long> tokens = new ConcurrentHashMap<>();
+    private volatile int capacity;
+    private int maxCapacity;
+    // number of unexpired tokens evicted since the store was created
+    private long evictedTokens;
+    // written while holding the store lock, so that no token is added while the filter is rebuilt
+    private volatile BloomFilter bloomFilter;
+
+    RevokedTokenStore(int capacity, boolean bloomFilterEnabled) {
+        configure(capacity, bloomFilterEnabled);
+    }
+
+    public static RevokedTokenStore getInstance() {
+        synchronized (RevokedTokenStore.class) {
+            if (instance == null) {
+                instance = new RevokedTokenStore(DEFAULT_CAPACITY, true);
+                ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "revoked-token-store-sweeper");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                RevokedTokenStore store = instance;
+                sweeper.scheduleWithFixedDelay(() -> store.removeExpired(System.currentTimeMillis()),
+                        SWEEP_INTERVAL, SWEEP_INTERVAL, TimeUnit.MILLISECONDS);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Sets the maximum number of tokens kept and whether lookups go through a Bloom filter.
+     *
+     * @param capacity           maximum number of revoked tokens
+     * @param bloomFilterEnabled whether a Bloom filter is kept in front of the map
+     */
+    public synchronized void configure(int capacity, boolean bloomFilterEnabled) {
+        this.capacity = Math.max(capacity, 1);
+        this.maxCapacity = (int) Math.min(Integer.MAX_VALUE, (long) MAX_CAPACITY_FACTOR * this.capacity);
+        if (bloomFilterEnabled) {
+            // tokens may have been added before the store was configured
+            rebuildBloomFilter();
+        } else {
+            bloomFilter = null;
+        }
+    }
+
+    /**
+     * Adds a revoked token.
+     *
+     * @param jti         JTI of the token
+     * @param expiryTime  time in milliseconds at which the token expires, {@link #NO_EXPIRY} if it is not known
+     * @param currentTime current time in milliseconds
+     */
+    public synchronized void add(String jti, long expiryTime, long currentTime) {
+        if (expiryTime < currentTime) {
+            return;
+        }
+        tokens.put(jti, expiryTime);
+        BloomFilter filter = bloomFilter;
+        if (filter != null) {
+            filter.add(jti);
+        }
+        if (tokens.size() > capacity) {
+            removeExpired(currentTime);
+            if (tokens.size() > capacity) {
+                if (capacity < maxCapacity) {
+                    grow();
+                } else {
+                    evictClosestToExpiry(jti);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether a token is revoked and has not expired yet.
+     *
+     * @param jti         JTI of the token
+     * @param currentTime current time in milliseconds
+     * @return true if the token is revoked
+     */
+    public boolean isRevoked(String jti, long currentTime) {
+        BloomFilter filter = bloomFilter;
+        if (filter != null && !filter.mightContain(jti)) {
+            return false;
+        }
+        Long expiryTime = tokens.get(jti);
+        if (expiryTime == null) {
+            return false;
+        }
+        if (expiryTime < currentTime) {
+            tokens.remove(jti, expiryTime);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes the tokens which expired before the given time. The Bloom filter is rebuilt if any token was removed, so
+     * that it does not fill up with expired tokens.
+     *
+     * @param currentTime current time in milliseconds
+     */
+    public synchronized void removeExpired(long currentTime) {
+        boolean removed = tokens.values().removeIf(expiryTime -> expiryTime < currentTime);
+        if (removed && bloomFilter != null) {
+            rebuildBloomFilter();
+        }
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    /**
+     * Returns the number of tokens which were evicted before they expired, since the store overflowed.
+     *
+     * @return number of evicted unexpired tokens
+     */
+    public synchronized long getEvictedTokens() {
+        return evictedTokens;
+    }
+
+    /**
+     * Returns the time at which a token expires, given the ttl of a revocation event in seconds.
+     *
+     * @param ttl         remaining lifetime of the token in seconds
+     * @param currentTime current time in milliseconds
+     * @return time in milliseconds at which the token expires, {@link #NO_EXPIRY} if the ttl is not a positive number
+     */
+    public static long getExpiryTime(String ttl, long currentTime) {
+        try {
+            long seconds = Long.parseLong(ttl.trim());
+            return seconds > 0 ? currentTime + TimeUnit.SECONDS.toMillis(seconds) : NO_EXPIRY;
+        } catch (NumberFormatException e) {
+            return NO_EXPIRY;
+        }
+    }
+
+    // doubles the capacity, so that the expired tokens are not looked for on every token added to a full store
+    private void grow() {
+        capacity = (int) Math.min(maxCapacity, 2L * capacity);
+        log.warn("Revoked token store is full of tokens which have not expired. Increased its capacity to "
+                + capacity);
+        if (bloomFilter != null) {
+            rebuildBloomFilter();
+        }
+    }
+
+    // evicts the tokens which expire the soonest, other than the token just added, in a batch so that the tokens are
+    // not scanned again for each token added to the full store
+    private void evictClosestToExpiry(String addedJti) {
+        int count = Math.max(1, maxCapacity / OVERFLOW_EVICTION_DIVISOR);
+        // tokens which expire the soonest, with the one which expires the latest of them at the head
+        PriorityQueue<Map.Entry<String, Long>> soonest = new PriorityQueue<>(count + 1,
+                Comparator.comparing((Map.Entry<String, Long> entry) -> entry.getValue()).reversed());
+        for (Map.Entry<String, Long> entry : tokens.entrySet()) {
+            if (!entry.getKey().equals(addedJti)) {
+                soonest.add(entry);
+                if (soonest.size() > count) {
+                    soonest.poll();
+                }
+            }
+        }
+        for (Map.Entry<String, Long> entry : soonest) {
+            tokens.remove(entry.getKey(), entry.getValue());
+        }
+        evictedTokens += soonest.size();
+        log.error("Revoked token store is full of " + maxCapacity + " tokens which have not expired. Evicted "
+                + soonest.size() + " tokens closest to expiry, which are accepted again until they expire. "
+                + evictedTokens + " tokens were evicted so far. Increase the revoked token store capacity.");
+        if (bloomFilter != null) {
+            rebuildBloomFilter();
+        }
+    }
+
+    private void rebuildBloomFilter() {
+        BloomFilter filter = createBloomFilter();
+        for (String jti : tokens.keySet()) {
+            filter.add(jti);
+        }
+        bloomFilter = filter;
+    }
+
+    private BloomFilter createBloomFilter() {
+        return new BloomFilter(capacity, FALSE_POSITIVE_PROBABILITY);
+    }
+}
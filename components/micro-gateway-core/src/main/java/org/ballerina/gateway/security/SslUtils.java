@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.security;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManagerFactory;
+
+/**
+ * Utilities to create the TLS connections opened by the gateway outside of the Ballerina HTTP clients.
+ */
+public class SslUtils {
+
+    private static final String BALLERINA_HOME = "${ballerina.home}";
+    private static final String PKCS12_EXTENSION = ".p12";
+
+    private SslUtils() {
+    }
+
+    /**
+     * Creates a socket factory trusting the certificates of the given trust store. The ${ballerina.home} placeholder
+     * of the path is resolved as it is by the Ballerina configuration.
+     *
+     * @param trustStorePath     path of the trust store, in PKCS12 format if it ends with .p12
+     * @param trustStorePassword password of the trust store
+     * @return the socket factory, or null if no trust store is given, to use the default trust store of the JVM
+     * @throws IOException              if the trust store could not be read
+     * @throws GeneralSecurityException if the trust store could not be loaded
+     */
+    public static SSLSocketFactory createSocketFactory(String trustStorePath, String trustStorePassword)
+            throws IOException, GeneralSecurityException {
+        if (trustStorePath == null || trustStorePath.trim().isEmpty()) {
+            return null;
+        }
+        String path = trustStorePath.replace(BALLERINA_HOME, System.getProperty("ballerina.home", ""));
+        KeyStore trustStore = KeyStore.getInstance(path.endsWith(PKCS12_EXTENSION) ? "PKCS12"
+                : KeyStore.getDefaultType());
+        try (InputStream in = new FileInputStream(path)) {
+            trustStore.load(in, trustStorePassword.toCharArray());
+        }
+        TrustManagerFactory trustManagerFactory =
+                TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(trustStore);
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+        return sslContext.getSocketFactory();
+    }
+}
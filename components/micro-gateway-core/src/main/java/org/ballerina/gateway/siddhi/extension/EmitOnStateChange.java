@@ -27,6 +27,7 @@ import org.ballerinalang.siddhi.core.event.ComplexEventChunk;
 import org.ballerinalang.siddhi.core.event.stream.StreamEvent;
 import org.ballerinalang.siddhi.core.event.stream.StreamEventCloner;
 import org.ballerinalang.siddhi.core.event.stream.populater.ComplexEventPopulater;
+import org.ballerinalang.siddhi.core.executor.ConstantExpressionExecutor;
 import org.ballerinalang.siddhi.core.executor.ExpressionExecutor;
 import org.ballerinalang.siddhi.core.executor.VariableExpressionExecutor;
 import org.ballerinalang.siddhi.core.query.processor.Processor;
@@ -37,7 +38,6 @@ import org.ballerinalang.siddhi.query.api.definition.Attribute;
 import org.ballerinalang.siddhi.query.api.exception.SiddhiAppValidationException;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -53,12 +53,22 @@ import java.util.Map;
  * This is useful when the throttler needs to alert only when the throttling decision is changed, in contrast to
  * alerting about every decision taken.
  * <p/>
+ * The last decision of a key is only kept until the decision expires, and at most maxKeys keys are kept. When a key
+ * is forgotten, its next decision is emitted as if it was the first request from the key.
+ * <p/>
  * Usage:
  * throttler:emitOnStateChange(key, isThrottled)
+ * throttler:emitOnStateChange(key, isThrottled, expiryTimeStamp)
+ * throttler:emitOnStateChange(key, isThrottled, expiryTimeStamp, maxKeys, idleTime)
  * <p/>
  * Parameters:
  * key: The key coming in the request, based on which throttling decision was made.
  * isThrottled: The throttling decision made.
+ * expiryTimeStamp: The time at which the throttling decision expires. If it is not given, the decision of a key is
+ * kept for idleTime after the last request from the key.
+ * maxKeys: Constant maximum number of keys whose last decision is kept. 100000 if it is not given.
+ * idleTime: Constant time in milliseconds for which the decision of a key without an expiry time is kept after the
+ * last request from the key. An hour if it is not given.
  * <p/>
  * Example on usage:
  * from DecisionStream#throttler:emitOnStateChange(key, isThrottled)
@@ -71,7 +81,14 @@ import java.util.Map;
         @Parameter(name = "throttle.key", description = "The priority/type of this log message.", type = {
                 DataType.STRING }),
         @Parameter(name = "is.throttled", description = "This submit the log message.", type = {
-                DataType.STRING }) }, examples = {
+                DataType.STRING }),
+        @Parameter(name = "expiry.time.stamp", description = "The time at which the throttling decision expires.",
+                type = { DataType.LONG }),
+        @Parameter(name = "max.keys", description = "The maximum number of keys whose last decision is kept, "
+                + "100000 by default.", type = { DataType.INT, DataType.LONG }),
+        @Parameter(name = "idle.time", description = "The time in milliseconds for which the decision of a key "
+                + "without an expiry time is kept after the last request from the key, an hour by default.",
+                type = { DataType.INT, DataType.LONG }) }, examples = {
         @Example(syntax = "from fooStream#log(\"INFO\", \"Sample Event :\", true)\nselect *\ninsert into barStream;",
                 description = "This will log as INFO with the message \"Sample Event :\" + fooStream:events."),
         @Example(syntax = "from fooStream#log(\"Sample Event :\", true)\nselect *\ninsert into barStream;",
@@ -83,9 +100,13 @@ import java.util.Map;
         @Example(syntax = "from fooStream#log(\"Sample Event :\")\nselect *\ninsert into barStream;",
                 description = "This will log message and fooStream:events.") })
 public class EmitOnStateChange extends StreamProcessor {
+    private static final int DEFAULT_MAX_KEYS = 100000;
+    private static final long DEFAULT_IDLE_TIME = 3600000;
     private VariableExpressionExecutor keyExpressionExecutor;
     private VariableExpressionExecutor isThrottledExpressionExecutor;
-    private Map<String, Object> throttleStateMap = new HashMap<String, Object>();
+    private VariableExpressionExecutor expiryTimeStampExpressionExecutor;
+    private SiddhiAppContext siddhiAppContext;
+    private ThrottleStateTable throttleStateTable;
 
     public void start() {
         //Nothing to do.
@@ -96,25 +117,27 @@ public class EmitOnStateChange extends StreamProcessor {
     }
 
     public Map<String, Object> currentState() {
-        return throttleStateMap;
+        return throttleStateTable.snapshot();
     }
 
     public void restoreState(Map<String, Object> map) {
-        throttleStateMap = map;
+        throttleStateTable.restore(map, siddhiAppContext.getTimestampGenerator().currentTime());
     }
 
     @Override
     protected void process(ComplexEventChunk<StreamEvent> streamEventChunk, Processor processor,
             StreamEventCloner streamEventCloner, ComplexEventPopulater complexEventPopulater) {
+        long currentTime = siddhiAppContext.getTimestampGenerator().currentTime();
         while (streamEventChunk.hasNext()) {
             StreamEvent event = streamEventChunk.next();
             Boolean currentThrottleState = (Boolean) isThrottledExpressionExecutor.execute(event);
             String key = (String) keyExpressionExecutor.execute(event);
-            Boolean lastThrottleState = (Boolean) throttleStateMap.get(key);
-            if (currentThrottleState.equals(lastThrottleState) && !currentThrottleState) {
+            long expiryTimeStamp = -1;
+            if (expiryTimeStampExpressionExecutor != null) {
+                expiryTimeStamp = ((Number) expiryTimeStampExpressionExecutor.execute(event)).longValue();
+            }
+            if (!throttleStateTable.update(key, currentThrottleState, expiryTimeStamp, currentTime)) {
                 streamEventChunk.remove();
-            } else {
-                throttleStateMap.put(key, currentThrottleState);
             }
         }
         nextProcessor.process(streamEventChunk);
@@ -123,9 +146,12 @@ public class EmitOnStateChange extends StreamProcessor {
     @Override
     protected List<Attribute> init(AbstractDefinition abstractDefinition, ExpressionExecutor[] expressionExecutors,
             ConfigReader configReader, SiddhiAppContext siddhiAppContext) {
-        if (attributeExpressionExecutors.length != 2) {
+        this.siddhiAppContext = siddhiAppContext;
+        int length = attributeExpressionExecutors.length;
+        if (length != 2 && length != 3 && length != 5) {
             throw new SiddhiAppValidationException("Invalid no of arguments passed to throttler:emitOnStateChange"
-                    + "(key,isThrottled), required 2, but found " + attributeExpressionExecutors.length);
+                    + "(key,isThrottled[,expiryTimeStamp[,maxKeys,idleTime]]), required 2, 3 or 5, but found "
+                    + length);
         }
         if (attributeExpressionExecutors[0].getReturnType() != Attribute.Type.STRING) {
             throw new SiddhiAppValidationException("Invalid parameter type found for the argument of "
@@ -139,6 +165,40 @@ public class EmitOnStateChange extends StreamProcessor {
         }
         keyExpressionExecutor = (VariableExpressionExecutor) attributeExpressionExecutors[0];
         isThrottledExpressionExecutor = (VariableExpressionExecutor) attributeExpressionExecutors[1];
+        long maxKeys = DEFAULT_MAX_KEYS;
+        long idleTime = DEFAULT_IDLE_TIME;
+        if (length == 5) {
+            maxKeys = getPositiveConstant(attributeExpressionExecutors[3], "maxKeys");
+            idleTime = getPositiveConstant(attributeExpressionExecutors[4], "idleTime");
+        }
+        throttleStateTable = new ThrottleStateTable((int) Math.min(maxKeys, Integer.MAX_VALUE), idleTime);
+        if (length >= 3) {
+            Attribute.Type type = attributeExpressionExecutors[2].getReturnType();
+            if (type != Attribute.Type.LONG && type != Attribute.Type.INT) {
+                throw new SiddhiAppValidationException("Invalid parameter type found for the argument of "
+                        + "throttler:emitOnStateChange(key,isThrottled,expiryTimeStamp), required "
+                        + Attribute.Type.LONG + ", but found " + type);
+            }
+            expiryTimeStampExpressionExecutor = (VariableExpressionExecutor) attributeExpressionExecutors[2];
+        }
         return new ArrayList<Attribute>();
     }
+
+    private static long getPositiveConstant(ExpressionExecutor executor, String name) {
+        if (!(executor instanceof ConstantExpressionExecutor)) {
+            throw new SiddhiAppValidationException("The " + name + " parameter of throttler:emitOnStateChange needs "
+                    + "to be a constant, but found a dynamic attribute " + executor.getClass().getCanonicalName());
+        }
+        Attribute.Type type = executor.getReturnType();
+        if (type != Attribute.Type.INT && type != Attribute.Type.LONG) {
+            throw new SiddhiAppValidationException("Invalid parameter type found for the " + name + " parameter of "
+                    + "throttler:emitOnStateChange, required " + Attribute.Type.LONG + ", but found " + type);
+        }
+        long value = ((Number) ((ConstantExpressionExecutor) executor).getValue()).longValue();
+        if (value <= 0) {
+            throw new SiddhiAppValidationException("The " + name + " parameter of throttler:emitOnStateChange "
+                    + "needs to be positive, but found " + value);
+        }
+        return value;
+    }
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.siddhi.extension;
+
+import org.ballerina.gateway.throttle.ThrottleWindowCounter;
+import org.ballerinalang.siddhi.annotation.Example;
+import org.ballerinalang.siddhi.annotation.Extension;
+import org.ballerinalang.siddhi.annotation.Parameter;
+import org.ballerinalang.siddhi.annotation.util.DataType;
+import org.ballerinalang.siddhi.core.config.SiddhiAppContext;
+import org.ballerinalang.siddhi.core.event.ComplexEvent;
+import org.ballerinalang.siddhi.core.event.ComplexEventChunk;
+import org.ballerinalang.siddhi.core.event.stream.StreamEvent;
+import org.ballerinalang.siddhi.core.event.stream.StreamEventCloner;
+import org.ballerinalang.siddhi.core.event.stream.populater.ComplexEventPopulater;
+import org.ballerinalang.siddhi.core.executor.ConstantExpressionExecutor;
+import org.ballerinalang.siddhi.core.executor.ExpressionExecutor;
+import org.ballerinalang.siddhi.core.query.processor.Processor;
+import org.ballerinalang.siddhi.core.query.processor.stream.StreamProcessor;
+import org.ballerinalang.siddhi.core.util.config.ConfigReader;
+import org.ballerinalang.siddhi.query.api.definition.AbstractDefinition;
+import org.ballerinalang.siddhi.query.api.definition.Attribute;
+import org.ballerinalang.siddhi.query.api.exception.SiddhiAppValidationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Throttling window which counts the events of each throttle key within tumbling time windows. Unlike
+ * {@link ThrottleStreamProcessor}, events are not held until the window expires and no lock is shared by all the
+ * throttle keys. Each event is emitted with the number of events of its key in the current window and the time at
+ * which the window expires, so the count does not need to be aggregated afterwards. As with throttler:timeBatch,
+ * the first window starts with the first event unless a start time is given.
+ * <p/>
+ * Usage:
+ * throttler:keyedTimeBatch(windowTime, key)
+ * throttler:keyedTimeBatch(windowTime, key, startTime)
+ * <p/>
+ * Example on usage:
+ * from EligibilityStream[isEligible == true]#throttler:keyedTimeBatch(60000, throttleKey)
+ * select throttleKey, eventCount, expiryTimeStamp
+ * insert into IntermediateStream;
+ */
+@Extension(name = "keyedTimeBatch", namespace = "throttler", description = "A batch (tumbling) time window which "
+        + "counts the events of each throttle key during window.time periods and emits every event with the count of "
+        + "its key.", parameters = {
+        @Parameter(name = "window.time", description = "The batch time period for which events are counted.",
+                type = { DataType.INT, DataType.LONG, DataType.TIME }),
+        @Parameter(name = "throttle.key", description = "The key which events are counted against.",
+                type = { DataType.STRING }),
+        @Parameter(name = "start.time", description = "This specifies an offset in milliseconds in order to start the "
+                + "window at a time different to the standard time.", type = { DataType.INT, DataType.LONG }) },
+        examples = {
+        @Example(syntax = "from requestStream#throttler:keyedTimeBatch(60000, throttleKey)\n"
+                + "select throttleKey, eventCount >= 10 as isThrottled, expiryTimeStamp\n"
+                + "insert into decisionStream;", description = "This will emit every request with the number of "
+                + "requests received with its throttle key during the current minute.") })
+public class KeyedThrottleStreamProcessor extends StreamProcessor {
+    private static final String EVENT_COUNT = "eventCount";
+    private static final String EXPIRY_TIME_STAMP = "expiryTimeStamp";
+    private static final String STATE_COUNTERS = "counters";
+    private static final String STATE_START_TIME = "startTime";
+    private SiddhiAppContext siddhiAppContext;
+    private ExpressionExecutor keyExpressionExecutor;
+    private ThrottleWindowCounter counter;
+
+    @Override
+    protected List<Attribute> init(AbstractDefinition abstractDefinition, ExpressionExecutor[] expressionExecutors,
+            ConfigReader configReader, SiddhiAppContext siddhiAppContext) {
+        this.siddhiAppContext = siddhiAppContext;
+        if (attributeExpressionExecutors.length != 2 && attributeExpressionExecutors.length != 3) {
+            throw new SiddhiAppValidationException("Invalid no of arguments passed to throttler:keyedTimeBatch"
+                    + "(windowTime,key[,startTime]), required 2 or 3, but found "
+                    + attributeExpressionExecutors.length);
+        }
+        long timeInMilliSeconds = getConstantTime(attributeExpressionExecutors[0], "1st");
+        if (attributeExpressionExecutors[1].getReturnType() != Attribute.Type.STRING) {
+            throw new SiddhiAppValidationException("Invalid parameter type found for the argument of "
+                    + "throttler:keyedTimeBatch(windowTime,key[,startTime]), required " + Attribute.Type.STRING
+                    + ", but found " + attributeExpressionExecutors[1].getReturnType());
+        }
+        keyExpressionExecutor = attributeExpressionExecutors[1];
+        long startTime = ThrottleWindowCounter.FIRST_EVENT;
+        if (attributeExpressionExecutors.length == 3) {
+            startTime = getConstantTime(attributeExpressionExecutors[2], "3rd");
+        }
+        counter = new ThrottleWindowCounter(timeInMilliSeconds, startTime);
+
+        List<Attribute> attributeList = new ArrayList<Attribute>();
+        attributeList.add(new Attribute(EVENT_COUNT, Attribute.Type.LONG));
+        attributeList.add(new Attribute(EXPIRY_TIME_STAMP, Attribute.Type.LONG));
+        return attributeList;
+    }
+
+    @Override
+    protected void process(ComplexEventChunk<StreamEvent> complexEventChunk, Processor processor,
+            StreamEventCloner streamEventCloner, ComplexEventPopulater complexEventPopulater) {
+        while (complexEventChunk.hasNext()) {
+            StreamEvent streamEvent = complexEventChunk.next();
+            if (streamEvent.getType() != ComplexEvent.Type.CURRENT) {
+                complexEventChunk.remove();
+                continue;
+            }
+            long windowEnd = counter.getWindowEnd(siddhiAppContext.getTimestampGenerator().currentTime());
+            long eventCount = counter.increment((String) keyExpressionExecutor.execute(streamEvent), windowEnd);
+            complexEventPopulater.populateComplexEvent(streamEvent, new Object[] { eventCount, windowEnd });
+        }
+        if (complexEventChunk.getFirst() != null) {
+            nextProcessor.process(complexEventChunk);
+        }
+    }
+
+    public void start() {
+        //Nothing to do.
+    }
+
+    public void stop() {
+        //Nothing to do.
+    }
+
+    public Map<String, Object> currentState() {
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put(STATE_COUNTERS, counter.getState());
+        map.put(STATE_START_TIME, counter.getStartTime());
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void restoreState(Map<String, Object> map) {
+        Object counters = map.get(STATE_COUNTERS);
+        if (counters instanceof Map) {
+            counter.setState((Map<String, long[]>) counters);
+        }
+        Object startTime = map.get(STATE_START_TIME);
+        if (startTime instanceof Long) {
+            counter.setStartTime((Long) startTime);
+        }
+    }
+
+    private static long getConstantTime(ExpressionExecutor executor, String position) {
+        if (!(executor instanceof ConstantExpressionExecutor)) {
+            throw new SiddhiAppValidationException("Throttle keyed batch window " + position + " parameter needs to "
+                    + "be constant attribute but found a dynamic attribute " + executor.getClass()
+                    .getCanonicalName());
+        }
+        Object value = ((ConstantExpressionExecutor) executor).getValue();
+        if (executor.getReturnType() == Attribute.Type.INT) {
+            return (Integer) value;
+        } else if (executor.getReturnType() == Attribute.Type.LONG) {
+            return (Long) value;
+        }
+        throw new SiddhiAppValidationException("Throttle keyed batch window's " + position + " parameter attribute "
+                + "should be either int or long, but found " + executor.getReturnType());
+    }
+}
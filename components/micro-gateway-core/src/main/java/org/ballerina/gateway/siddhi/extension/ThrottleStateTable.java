@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.siddhi.extension;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Last throttle state of each key seen by {@link EmitOnStateChange}. A state is only kept until the decision it was
+ * recorded for expires, and the number of states is bounded. Forgetting a state is always safe, since the next decision
+ * of the key is then emitted as if the key was seen for the first time.
+ */
+class ThrottleStateTable {
+
+    private static final String STATE_KEYS = "keys";
+    private static final String STATE_THROTTLED = "throttled";
+    private static final String STATE_EXPIRY_TIMES = "expiryTimes";
+    private static final long SWEEP_INTERVAL = 10000;
+
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final long idleTime;
+    private final AtomicLong nextSweepTime = new AtomicLong();
+
+    /**
+     * @param capacity maximum number of keys kept
+     * @param idleTime time in milliseconds a state is kept when the decision does not carry an expiry time
+     */
+    ThrottleStateTable(int capacity, long idleTime) {
+        this.capacity = capacity;
+        this.idleTime = idleTime;
+    }
+
+    /**
+     * Records the throttle state of a key and returns whether the decision should be emitted, which is when the key is
+     * throttled or its state changed.
+     *
+     * @param key         throttle key
+     * @param throttled   whether the key is throttled
+     * @param expiryTime  time in milliseconds at which the decision expires, or -1 if it does not carry one
+     * @param currentTime current time in milliseconds
+     * @return true if the decision should be emitted
+     */
+    boolean update(String key, boolean throttled, long expiryTime, long currentTime) {
+        State last = states.get(key);
+        if (last != null && !last.throttled && !throttled && last.expiryTime >= currentTime) {
+            return false;
+        }
+        states.put(key, new State(throttled, expiryTime > 0 ? expiryTime : currentTime + idleTime));
+        long sweepTime = nextSweepTime.get();
+        if ((currentTime >= sweepTime || states.size() > capacity)
+                && nextSweepTime.compareAndSet(sweepTime, currentTime + SWEEP_INTERVAL)) {
+            sweep(currentTime);
+        }
+        return true;
+    }
+
+    int size() {
+        return states.size();
+    }
+
+    /**
+     * Returns the states as parallel arrays, which are cheaper to serialize than a map of state objects.
+     *
+     * @return snapshot of the states
+     */
+    Map<String, Object> snapshot() {
+        int size = states.size();
+        String[] keys = new String[size];
+        boolean[] throttled = new boolean[size];
+        long[] expiryTimes = new long[size];
+        int i = 0;
+        for (Map.Entry<String, State> entry : states.entrySet()) {
+            if (i == size) {
+                // keys added while the snapshot is taken
+                break;
+            }
+            keys[i] = entry.getKey();
+            throttled[i] = entry.getValue().throttled;
+            expiryTimes[i] = entry.getValue().expiryTime;
+            i++;
+        }
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put(STATE_KEYS, i == size ? keys : Arrays.copyOf(keys, i));
+        snapshot.put(STATE_THROTTLED, i == size ? throttled : Arrays.copyOf(throttled, i));
+        snapshot.put(STATE_EXPIRY_TIMES, i == size ? expiryTimes : Arrays.copyOf(expiryTimes, i));
+        return snapshot;
+    }
+
+    /**
+     * Replaces the states with a snapshot. Snapshots taken before states expired, which map each key to its last
+     * state, are restored with the idle time as the expiry.
+     *
+     * @param snapshot    snapshot returned by {@link #snapshot()}
+     * @param currentTime current time in milliseconds
+     */
+    void restore(Map<String, Object> snapshot, long currentTime) {
+        states.clear();
+        Object keys = snapshot.get(STATE_KEYS);
+        if (keys instanceof String[]) {
+            boolean[] throttled = (boolean[]) snapshot.get(STATE_THROTTLED);
+            long[] expiryTimes = (long[]) snapshot.get(STATE_EXPIRY_TIMES);
+            String[] keyArray = (String[]) keys;
+            for (int i = 0; i < keyArray.length; i++) {
+                states.put(keyArray[i], new State(throttled[i], expiryTimes[i]));
+            }
+        } else {
+            for (Map.Entry<String, Object> entry : snapshot.entrySet()) {
+                if (entry.getValue() instanceof Boolean) {
+                    states.put(entry.getKey(), new State((Boolean) entry.getValue(), currentTime + idleTime));
+                }
+            }
+        }
+        sweep(currentTime);
+    }
+
+    private void sweep(long currentTime) {
+        states.values().removeIf(state -> state.expiryTime < currentTime);
+        Iterator<State> iterator = states.values().iterator();
+        while (states.size() > capacity && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static final class State {
+
+        private final boolean throttled;
+        private final long expiryTime;
+
+        private State(boolean throttled, long expiryTime) {
+            this.throttled = throttled;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.throttle;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluates the local throttle policies without the streaming queries generated for each policy. Policies are indexed
+ * by tier type and tier, so a request is only counted against the policies of its own tiers. The decisions are written
+ * to the {@link ThrottleDecisionStore} in the same way as the decisions of the generated queries. Keys interned in
+ * the key table of the store are counted by id.
+ */
+public class LocalThrottleEngine {
+
+    private static LocalThrottleEngine instance;
+
+    // tier type -> tier -> policy
+    private final Map<String, Map<String, Policy>> policies = new ConcurrentHashMap<>();
+    private final ThrottleDecisionStore decisionStore;
+
+    LocalThrottleEngine(ThrottleDecisionStore decisionStore) {
+        this.decisionStore = decisionStore;
+    }
+
+    public static LocalThrottleEngine getInstance() {
+        synchronized (LocalThrottleEngine.class) {
+            if (instance == null) {
+                instance = new LocalThrottleEngine(ThrottleDecisionStore.getInstance());
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Adds a policy which throttles a key once the given number of requests are received within a unit time.
+     *
+     * @param tierType    type of the tier, such as appTier or subscriptionTier
+     * @param tier        name of the tier
+     * @param count       number of requests allowed within the unit time
+     * @param unitTime    unit time in milliseconds
+     * @param stopOnQuota whether requests should be rejected once the key is throttled
+     */
+    public void addPolicy(String tierType, String tier, long count, long unitTime, boolean stopOnQuota) {
+        policies.computeIfAbsent(tierType, type -> new ConcurrentHashMap<>())
+                .put(tier, new Policy(count, stopOnQuota, new ThrottleWindowCounter(unitTime,
+                        ThrottleWindowCounter.FIRST_EVENT, decisionStore.getKeyTable())));
+    }
+
+    /**
+     * Counts a request against the policy of its tier and updates the throttle decision of the key.
+     *
+     * @param tierType    type of the tier, such as appTier or subscriptionTier
+     * @param tier        name of the tier of the request
+     * @param key         throttle key of the request
+     * @param currentTime current time in milliseconds
+     * @return true if the throttle decision store was updated
+     */
+    public boolean throttle(String tierType, String tier, String key, long currentTime) {
+        Policy policy = getPolicy(tierType, tier);
+        if (policy == null || key == null) {
+            return false;
+        }
+        long windowEnd = policy.counter.getWindowEnd(currentTime);
+        return updateDecision(policy, key, policy.counter.increment(key, windowEnd), windowEnd);
+    }
+
+    /**
+     * Counts a request of an interned key against the policy of its tier and updates the throttle decision of the key.
+     *
+     * @param tierType    type of the tier, such as appTier or subscriptionTier
+     * @param tier        name of the tier of the request
+     * @param keyId       id of the throttle key of the request in the key table of the decision store
+     * @param currentTime current time in milliseconds
+     * @return true if the throttle decision store was updated
+     */
+    public boolean throttle(String tierType, String tier, int keyId, long currentTime) {
+        Policy policy = getPolicy(tierType, tier);
+        if (policy == null) {
+            return false;
+        }
+        long windowEnd = policy.counter.getWindowEnd(currentTime);
+        long eventCount = policy.counter.increment(keyId, windowEnd);
+        return updateDecision(policy, decisionStore.getKeyTable().getKey(keyId), eventCount, windowEnd);
+    }
+
+    private Policy getPolicy(String tierType, String tier) {
+        Map<String, Policy> tierPolicies = policies.get(tierType);
+        if (tierPolicies == null || tier == null) {
+            return null;
+        }
+        return tierPolicies.get(tier);
+    }
+
+    private boolean updateDecision(Policy policy, String key, long eventCount, long windowEnd) {
+        // counts only grow within a window, so the decision changes once when the limit is reached and once when the
+        // first request of the next window is counted
+        if (eventCount == policy.count) {
+            decisionStore.put(key, policy.stopOnQuota, windowEnd);
+            return true;
+        } else if (eventCount == 1 && policy.count > 1) {
+            decisionStore.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    private static final class Policy {
+
+        private final long count;
+        private final boolean stopOnQuota;
+        private final ThrottleWindowCounter counter;
+
+        private Policy(long count, boolean stopOnQuota, ThrottleWindowCounter counter) {
+            this.count = count;
+            this.stopOnQuota = stopOnQuota;
+            this.counter = counter;
+        }
+    }
+}
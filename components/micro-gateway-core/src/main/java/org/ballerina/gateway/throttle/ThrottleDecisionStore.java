@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.throttle;
+
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Holds the throttle decisions received from the traffic manager or the local throttling policies until they expire.
+ * Lookups are lock free. Decisions are kept in a min-heap ordered by expiry time, so expired decisions are removed
+ * without scanning the store, and once the store is full the decisions closest to their expiry are evicted first.
+ * The decisions of the keys interned in the {@link ThrottleKeyTable} of the store are mirrored in an array indexed by
+ * the id of the key, so that the throttle filter can look them up without hashing the key.
+ */
+public class ThrottleDecisionStore {
+
+    public static final int DEFAULT_CAPACITY = 100000;
+    public static final int DEFAULT_KEY_TABLE_CAPACITY = 100000;
+    private static final long SWEEP_INTERVAL = 1000;
+
+    private static ThrottleDecisionStore instance;
+
+    private final Map<String, Decision> decisions = new ConcurrentHashMap<>();
+    // guarded by itself, as are the writes of the decisions and their mirrors by id
+    private final PriorityQueue<Decision> expiryQueue = new PriorityQueue<>();
+    private final ThrottleKeyTable keyTable;
+    private final AtomicReferenceArray<Decision> decisionsById;
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong expiryCount = new AtomicLong();
+    private volatile int capacity;
+
+    ThrottleDecisionStore(int capacity) {
+        this(capacity, DEFAULT_KEY_TABLE_CAPACITY);
+    }
+
+    ThrottleDecisionStore(int capacity, int keyTableCapacity) {
+        this.capacity = capacity;
+        this.keyTable = new ThrottleKeyTable(keyTableCapacity);
+        this.decisionsById = new AtomicReferenceArray<>(keyTableCapacity);
+    }
+
+    public static ThrottleDecisionStore getInstance() {
+        synchronized (ThrottleDecisionStore.class) {
+            if (instance == null) {
+                instance = new ThrottleDecisionStore(DEFAULT_CAPACITY);
+                ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "throttle-decision-store-sweeper");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                ThrottleDecisionStore store = instance;
+                sweeper.scheduleWithFixedDelay(() -> store.removeExpired(System.currentTimeMillis()),
+                        SWEEP_INTERVAL, SWEEP_INTERVAL, TimeUnit.MILLISECONDS);
+            }
+        }
+        return instance;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public ThrottleKeyTable getKeyTable() {
+        return keyTable;
+    }
+
+    /**
+     * Interns a throttle key, so that its decision can be looked up by id.
+     *
+     * @param key throttle key
+     * @return id of the key or {@link ThrottleKeyTable#NO_ID} if the key table is full
+     */
+    public int intern(String key) {
+        int id = keyTable.getId(key);
+        if (id != ThrottleKeyTable.NO_ID) {
+            return id;
+        }
+        synchronized (expiryQueue) {
+            id = keyTable.intern(key);
+            if (id != ThrottleKeyTable.NO_ID) {
+                // the key may have been throttled before it was interned
+                decisionsById.set(id, decisions.get(key));
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Returns the decision of a throttle key if it has not expired.
+     *
+     * @param key         throttle key
+     * @param currentTime current time in milliseconds
+     * @return decision of the key or null if the key is not throttled
+     */
+    public Decision get(String key, long currentTime) {
+        Decision decision = decisions.get(key);
+        if (decision == null) {
+            return null;
+        }
+        if (decision.expiryTime < currentTime) {
+            if (decisions.remove(key, decision)) {
+                expiryCount.incrementAndGet();
+            }
+            return null;
+        }
+        return decision;
+    }
+
+    /**
+     * Returns the decision of an interned throttle key if it has not expired.
+     *
+     * @param id          id of the key, as returned by {@link #intern(String)}
+     * @param currentTime current time in milliseconds
+     * @return decision of the key or null if the key is not throttled
+     */
+    public Decision get(int id, long currentTime) {
+        Decision decision = decisionsById.get(id);
+        if (decision == null) {
+            return null;
+        }
+        if (decision.expiryTime < currentTime) {
+            if (decisions.remove(decision.key, decision)) {
+                expiryCount.incrementAndGet();
+            }
+            decisionsById.compareAndSet(id, decision, null);
+            return null;
+        }
+        return decision;
+    }
+
+    /**
+     * Stores the decision to throttle a key until the given time.
+     *
+     * @param key         throttle key
+     * @param stopOnQuota whether requests should be rejected once the quota is reached
+     * @param expiryTime  time in milliseconds until which the key is throttled
+     */
+    public void put(String key, boolean stopOnQuota, long expiryTime) {
+        synchronized (expiryQueue) {
+            Decision decision = new Decision(key, stopOnQuota, expiryTime);
+            decisions.put(key, decision);
+            int id = keyTable.getId(key);
+            if (id != ThrottleKeyTable.NO_ID) {
+                decisionsById.set(id, decision);
+            }
+            expiryQueue.add(decision);
+            removeExpired(System.currentTimeMillis());
+            while (decisions.size() > capacity && !expiryQueue.isEmpty()) {
+                Decision evicted = expiryQueue.poll();
+                if (decisions.remove(evicted.key, evicted)) {
+                    removeById(evicted);
+                    evictionCount.incrementAndGet();
+                }
+            }
+            // replaced and removed decisions stay in the queue until they expire, unless they pile up
+            if (expiryQueue.size() > 2 * decisions.size() + 1024) {
+                expiryQueue.clear();
+                expiryQueue.addAll(decisions.values());
+            }
+        }
+    }
+
+    public void remove(String key) {
+        synchronized (expiryQueue) {
+            Decision removed = decisions.remove(key);
+            if (removed != null) {
+                removeById(removed);
+            }
+        }
+    }
+
+    /**
+     * Removes the decisions which expired before the given time.
+     *
+     * @param currentTime current time in milliseconds
+     */
+    public void removeExpired(long currentTime) {
+        synchronized (expiryQueue) {
+            while (!expiryQueue.isEmpty() && expiryQueue.peek().expiryTime < currentTime) {
+                Decision expired = expiryQueue.poll();
+                if (decisions.remove(expired.key, expired)) {
+                    removeById(expired);
+                    expiryCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void removeById(Decision decision) {
+        int id = keyTable.getId(decision.key);
+        if (id != ThrottleKeyTable.NO_ID) {
+            decisionsById.compareAndSet(id, decision, null);
+        }
+    }
+
+    public int size() {
+        return decisions.size();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getExpiryCount() {
+        return expiryCount.get();
+    }
+
+    /**
+     * Decision to throttle a key, valid until its expiry time.
+     */
+    public static final class Decision implements Comparable<Decision> {
+
+        private final String key;
+        private final boolean stopOnQuota;
+        private final long expiryTime;
+
+        Decision(String key, boolean stopOnQuota, long expiryTime) {
+            this.key = key;
+            this.stopOnQuota = stopOnQuota;
+            this.expiryTime = expiryTime;
+        }
+
+        public boolean isStopOnQuota() {
+            return stopOnQuota;
+        }
+
+        public long getExpiryTime() {
+            return expiryTime;
+        }
+
+        @Override
+        public int compareTo(Decision other) {
+            return Long.compare(expiryTime, other.expiryTime);
+        }
+    }
+}
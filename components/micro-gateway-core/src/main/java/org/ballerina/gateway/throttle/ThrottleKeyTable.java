@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.throttle;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns throttle keys into compact integer ids, so that the throttle decisions and the counters of a key can be kept
+ * in arrays indexed by its id instead of hash maps keyed by the key. Ids are handed out in sequence and never reused,
+ * hence the table stops interning once it is full and callers fall back to the string keyed lookups.
+ */
+public class ThrottleKeyTable {
+
+    public static final int NO_ID = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // an id is published through the map only after its key is written, so readers of an id see the key
+    private final String[] keys;
+    // guarded by this
+    private int size;
+
+    /**
+     * @param capacity maximum number of keys interned
+     */
+    public ThrottleKeyTable(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity should not be negative, but found " + capacity);
+        }
+        this.keys = new String[capacity];
+    }
+
+    /**
+     * Returns the id of a key, interning the key if it does not have one yet.
+     *
+     * @param key throttle key
+     * @return id of the key or {@link #NO_ID} if the table is full
+     */
+    public int intern(String key) {
+        Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(key);
+            if (id != null) {
+                return id;
+            }
+            if (size == keys.length) {
+                return NO_ID;
+            }
+            keys[size] = key;
+            ids.put(key, size);
+            return size++;
+        }
+    }
+
+    /**
+     * Returns the id of a key without interning it.
+     *
+     * @param key throttle key
+     * @return id of the key or {@link #NO_ID} if the key is not interned
+     */
+    public int getId(String key) {
+        Integer id = ids.get(key);
+        return id == null ? NO_ID : id;
+    }
+
+    /**
+     * Returns the key of an id returned by {@link #intern(String)}.
+     *
+     * @param id id of the key
+     * @return throttle key
+     */
+    public String getKey(int id) {
+        return keys[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.throttle;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Counts the events of each throttle key within tumbling time windows. Only a counter is kept for each key, so memory
+ * grows with the number of distinct keys rather than the number of events, and threads counting different keys do not
+ * contend with each other. As with throttler:timeBatch, the first window starts with the first event counted, unless
+ * a start time is given to align the windows to. All keys roll over at the same instant.
+ * When a {@link ThrottleKeyTable} is given, the counters of the interned keys are kept in an array indexed by the id
+ * of the key.
+ */
+public class ThrottleWindowCounter {
+
+    /**
+     * Start time which starts the first window with the first event.
+     */
+    public static final long FIRST_EVENT = -1;
+
+    private final long windowTime;
+    // time at which a window starts, set by the first event if it is FIRST_EVENT
+    private final AtomicLong startTime;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final ThrottleKeyTable keyTable;
+    private final AtomicReferenceArray<Window> windowsById;
+    // end of the window up to which the counters of finished windows were removed
+    private final AtomicLong sweptUntil = new AtomicLong();
+
+    /**
+     * @param windowTime length of a window in milliseconds
+     * @param startTime  time in milliseconds at which a window starts or {@link #FIRST_EVENT}
+     */
+    public ThrottleWindowCounter(long windowTime, long startTime) {
+        this(windowTime, startTime, null);
+    }
+
+    /**
+     * @param windowTime length of a window in milliseconds
+     * @param startTime  time in milliseconds at which a window starts or {@link #FIRST_EVENT}
+     * @param keyTable   table of the keys counted by id, or null if keys are only counted by key
+     */
+    public ThrottleWindowCounter(long windowTime, long startTime, ThrottleKeyTable keyTable) {
+        if (windowTime <= 0) {
+            throw new IllegalArgumentException("Window time should be greater than 0, but found " + windowTime);
+        }
+        this.windowTime = windowTime;
+        this.startTime = new AtomicLong(startTime);
+        this.keyTable = keyTable;
+        this.windowsById = new AtomicReferenceArray<>(keyTable == null ? 0 : keyTable.capacity());
+    }
+
+    /**
+     * Returns the end of the window which the given time falls into.
+     *
+     * @param currentTime time in milliseconds
+     * @return end of the window in milliseconds
+     */
+    public long getWindowEnd(long currentTime) {
+        long start = startTime.get();
+        if (start == FIRST_EVENT) {
+            startTime.compareAndSet(FIRST_EVENT, currentTime);
+            start = startTime.get();
+        }
+        return currentTime + windowTime - Math.floorMod(currentTime - start, windowTime);
+    }
+
+    /**
+     * Returns the time at which a window starts, so that it can be persisted along with the counters.
+     *
+     * @return start time in milliseconds or {@link #FIRST_EVENT} if no event was counted yet
+     */
+    public long getStartTime() {
+        return startTime.get();
+    }
+
+    /**
+     * Replaces the time at which a window starts with the one returned by {@link #getStartTime()}.
+     *
+     * @param startTime start time in milliseconds or {@link #FIRST_EVENT}
+     */
+    public void setStartTime(long startTime) {
+        this.startTime.set(startTime);
+    }
+
+    /**
+     * Counts an event of a key in the window ending at the given time. Events which arrive after the window of the key
+     * has rolled over are counted in the newer window.
+     *
+     * @param key       throttle key
+     * @param windowEnd end of the window of the event, as returned by {@link #getWindowEnd(long)}
+     * @return number of events of the key counted in the window so far
+     */
+    public long increment(String key, long windowEnd) {
+        // a key counted before it was interned starts a new count once it is interned
+        int id = getId(key);
+        if (id != ThrottleKeyTable.NO_ID) {
+            return increment(id, windowEnd);
+        }
+        sweep(windowEnd);
+        while (true) {
+            Window window = windows.get(key);
+            if (window == null) {
+                if (windows.putIfAbsent(key, new Window(windowEnd)) == null) {
+                    return 1;
+                }
+            } else if (window.end >= windowEnd) {
+                return window.count.incrementAndGet();
+            } else if (windows.replace(key, window, new Window(windowEnd))) {
+                // a window is never updated once it is replaced, so the removal of finished windows can not lose counts
+                return 1;
+            }
+        }
+    }
+
+    /**
+     * Counts an event of an interned key in the window ending at the given time.
+     *
+     * @param id        id of the key in the key table of the counter
+     * @param windowEnd end of the window of the event, as returned by {@link #getWindowEnd(long)}
+     * @return number of events of the key counted in the window so far
+     */
+    public long increment(int id, long windowEnd) {
+        sweep(windowEnd);
+        while (true) {
+            Window window = windowsById.get(id);
+            if (window == null) {
+                if (windowsById.compareAndSet(id, null, new Window(windowEnd))) {
+                    return 1;
+                }
+            } else if (window.end >= windowEnd) {
+                return window.count.incrementAndGet();
+            } else if (windowsById.compareAndSet(id, window, new Window(windowEnd))) {
+                return 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of events of a key counted in the window ending at the given time.
+     *
+     * @param key       throttle key
+     * @param windowEnd end of the window
+     * @return number of events of the key, 0 if none were counted in the window
+     */
+    public long getCount(String key, long windowEnd) {
+        int id = getId(key);
+        Window window = id != ThrottleKeyTable.NO_ID ? windowsById.get(id) : windows.get(key);
+        return window != null && window.end == windowEnd ? window.count.get() : 0;
+    }
+
+    /**
+     * Returns the number of keys which have a counter.
+     *
+     * @return number of keys
+     */
+    public int size() {
+        int size = windows.size();
+        for (int id = 0; id < getIdLimit(); id++) {
+            if (windowsById.get(id) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the counters of the keys as a map of key to {window end, count}, so that they can be persisted.
+     *
+     * @return counters of the keys
+     */
+    public Map<String, long[]> getState() {
+        Map<String, long[]> state = new HashMap<>();
+        for (Map.Entry<String, Window> entry : windows.entrySet()) {
+            state.put(entry.getKey(), new long[]{entry.getValue().end, entry.getValue().count.get()});
+        }
+        for (int id = 0; id < getIdLimit(); id++) {
+            Window window = windowsById.get(id);
+            if (window != null) {
+                state.put(keyTable.getKey(id), new long[]{window.end, window.count.get()});
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Replaces the counters of the keys with the state returned by {@link #getState()}.
+     *
+     * @param state counters of the keys
+     */
+    public void setState(Map<String, long[]> state) {
+        windows.clear();
+        for (int id = 0; id < windowsById.length(); id++) {
+            windowsById.set(id, null);
+        }
+        for (Map.Entry<String, long[]> entry : state.entrySet()) {
+            Window window = new Window(entry.getValue()[0]);
+            window.count.set(entry.getValue()[1]);
+            int id = getId(entry.getKey());
+            if (id != ThrottleKeyTable.NO_ID) {
+                windowsById.set(id, window);
+            } else {
+                windows.put(entry.getKey(), window);
+            }
+        }
+    }
+
+    private int getId(String key) {
+        return keyTable == null ? ThrottleKeyTable.NO_ID : keyTable.getId(key);
+    }
+
+    // ids are handed out in sequence, so only the ids below the size of the key table can have a counter
+    private int getIdLimit() {
+        return keyTable == null ? 0 : Math.min(keyTable.size(), windowsById.length());
+    }
+
+    private void sweep(long windowEnd) {
+        long swept = sweptUntil.get();
+        if (windowEnd > swept && sweptUntil.compareAndSet(swept, windowEnd)) {
+            removeFinishedWindows(windowEnd);
+        }
+    }
+
+    private void removeFinishedWindows(long windowEnd) {
+        windows.values().removeIf(window -> window.end < windowEnd);
+        for (int id = 0; id < getIdLimit(); id++) {
+            Window window = windowsById.get(id);
+            if (window != null && window.end < windowEnd) {
+                windowsById.compareAndSet(id, window, null);
+            }
+        }
+    }
+
+    private static final class Window {
+
+        private final long end;
+        private final AtomicLong count = new AtomicLong(1);
+
+        private Window(long end) {
+            this.end = end;
+        }
+    }
+}
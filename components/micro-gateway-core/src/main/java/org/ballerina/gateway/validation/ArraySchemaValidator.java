@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.validation;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Validates JSON arrays against the item count limits and the item schema of an array schema.
+ */
+public class ArraySchemaValidator extends SchemaValidator {
+
+    private final SchemaValidator items;
+    private final int minItems;
+    private final int maxItems;
+
+    ArraySchemaValidator(SchemaValidator items, int minItems, int maxItems) {
+        this.items = items;
+        this.minItems = minItems;
+        this.maxItems = maxItems;
+    }
+
+    @Override
+    public String getType() {
+        return ARRAY;
+    }
+
+    @Override
+    public String validate(String name, Object value) {
+        if (!(value instanceof List)) {
+            return value + " is not an array. An array is expected.";
+        }
+        List<?> array = (List<?>) value;
+        String error = validateItemCount(array.size());
+        if (error != null) {
+            return error;
+        }
+        if (items != null) {
+            for (Object item : array) {
+                if (item != null) {
+                    error = items.validate(name, item);
+                    if (error != null) {
+                        return error;
+                    }
+                }
+            }
+        }
+        return validateEnum(name, value);
+    }
+
+    @Override
+    String validate(String name, JsonTokenizer tokenizer, JsonTokenizer.Token token) throws IOException {
+        if (token != JsonTokenizer.Token.START_ARRAY || hasEnum()) {
+            return validate(name, JsonReader.readValue(tokenizer, token));
+        }
+        int count = 0;
+        for (JsonTokenizer.Token next = tokenizer.next(); next != JsonTokenizer.Token.END_ARRAY;
+             next = tokenizer.next()) {
+            count++;
+            if (items == null || next == JsonTokenizer.Token.NULL) {
+                JsonReader.skipValue(tokenizer, next);
+                continue;
+            }
+            String error = items.validate(name, tokenizer, next);
+            if (error != null) {
+                return error;
+            }
+        }
+        return validateItemCount(count);
+    }
+
+    /**
+     * Checks the number of items of an array against minItems and maxItems of the schema.
+     *
+     * @param count number of items in the array
+     * @return error message if the count is not within the limits, else null
+     */
+    String validateItemCount(int count) {
+        if (minItems > 0 && count < minItems) {
+            return "Array requires at least " + minItems + " item(s) and has " + count + " item(s).";
+        }
+        if (maxItems >= 0 && count > maxItems) {
+            return "Array requires no more than " + maxItems + " item(s) and has " + count + " item(s).";
+        }
+        return null;
+    }
+}
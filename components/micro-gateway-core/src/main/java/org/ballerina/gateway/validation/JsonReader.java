@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.validation;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a JSON document into plain java objects. Objects are read as {@link Map}s, arrays as {@link List}s, numbers
+ * as {@link Long} or {@link Double} and JSON null as java null.
+ */
+public final class JsonReader {
+
+    private JsonReader() {
+    }
+
+    public static Object read(String json) throws IOException {
+        return read(new StringReader(json));
+    }
+
+    public static Object read(Reader reader) throws IOException {
+        JsonTokenizer tokenizer = new JsonTokenizer(reader);
+        Object value = readValue(tokenizer, tokenizer.next());
+        if (tokenizer.next() != JsonTokenizer.Token.END_DOCUMENT) {
+            throw new MalformedJsonException("Unexpected content after the end of the document");
+        }
+        return value;
+    }
+
+    /**
+     * Reads the value starting with the given token, including all nested values if it is an object or an array.
+     *
+     * @param tokenizer tokenizer positioned at the given token
+     * @param token     first token of the value
+     * @return value read
+     * @throws IOException if the value could not be read
+     */
+    static Object readValue(JsonTokenizer tokenizer, JsonTokenizer.Token token) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                return readObject(tokenizer, tokenizer.next());
+            case START_ARRAY:
+                List<Object> array = new ArrayList<>();
+                for (JsonTokenizer.Token next = tokenizer.next(); next != JsonTokenizer.Token.END_ARRAY;
+                     next = tokenizer.next()) {
+                    array.add(readValue(tokenizer, next));
+                }
+                return array;
+            case STRING:
+                return tokenizer.getText();
+            case NUMBER:
+                return tokenizer.getNumber();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case NULL:
+                return null;
+            default:
+                throw new MalformedJsonException("Unexpected token " + token);
+        }
+    }
+
+    /**
+     * Reads the fields of an object, starting with the first token after the start of the object.
+     *
+     * @param tokenizer tokenizer positioned at the given token
+     * @param token     first token inside the object
+     * @return object read
+     * @throws IOException if the object could not be read
+     */
+    static Map<String, Object> readObject(JsonTokenizer tokenizer, JsonTokenizer.Token token) throws IOException {
+        Map<String, Object> object = new LinkedHashMap<>();
+        for (JsonTokenizer.Token next = token; next != JsonTokenizer.Token.END_OBJECT; next = tokenizer.next()) {
+            String fieldName = tokenizer.getText();
+            object.put(fieldName, readValue(tokenizer, tokenizer.next()));
+        }
+        return object;
+    }
+
+    /**
+     * Skips the value starting with the given token, including all nested values, without keeping them.
+     *
+     * @param tokenizer tokenizer positioned at the given token
+     * @param token     first token of the value
+     * @throws IOException if the value could not be read
+     */
+    static void skipValue(JsonTokenizer tokenizer, JsonTokenizer.Token token) throws IOException {
+        if (token == JsonTokenizer.Token.START_OBJECT || token == JsonTokenizer.Token.START_ARRAY) {
+            int depth = tokenizer.getDepth();
+            while (tokenizer.getDepth() >= depth) {
+                tokenizer.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.validation;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Pull tokenizer for JSON documents. Tokens are read one at a time from the underlying reader, so a document can be
+ * inspected without building the whole tree in memory.
+ */
+public class JsonTokenizer {
+
+    /**
+     * Types of the tokens returned by the tokenizer.
+     */
+    public enum Token {
+        START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, FIELD_NAME, STRING, NUMBER, TRUE, FALSE, NULL, END_DOCUMENT
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_DEPTH = 512;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private final StringBuilder text = new StringBuilder();
+    private Number number;
+    // true for each open object and false for each open array
+    private final boolean[] scopes = new boolean[MAX_DEPTH];
+    private int depth;
+    private boolean expectValue = true;
+    private boolean expectFieldName;
+    private boolean firstInScope;
+    private boolean completed;
+
+    public JsonTokenizer(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next token of the document.
+     *
+     * @return the token read
+     * @throws IOException if the document could not be read or is not a valid JSON document
+     */
+    public Token next() throws IOException {
+        int c = skipWhitespace();
+        if (completed) {
+            if (c != -1) {
+                throw syntaxError("Unexpected content after the end of the document");
+            }
+            return Token.END_DOCUMENT;
+        }
+        if (c == -1) {
+            throw syntaxError("Unexpected end of the document");
+        }
+        if (depth > 0 && !expectValue) {
+            // a value was read in this scope, so it should either close or continue with a comma
+            boolean inObject = scopes[depth - 1];
+            if ((inObject && c == '}') || (!inObject && c == ']')) {
+                return closeScope();
+            }
+            if (c != ',') {
+                throw syntaxError("Expected ',' but found '" + (char) c + "'");
+            }
+            c = skipWhitespace();
+            firstInScope = false;
+            expectValue = true;
+            expectFieldName = inObject;
+        }
+        if (expectFieldName) {
+            if (c == '}' && firstInScope) {
+                return closeScope();
+            }
+            if (c != '"') {
+                throw syntaxError("Expected a field name but found '" + (char) c + "'");
+            }
+            readString();
+            if (skipWhitespace() != ':') {
+                throw syntaxError("Expected ':' after the field name " + text);
+            }
+            expectFieldName = false;
+            return Token.FIELD_NAME;
+        }
+        if (c == ']' && depth > 0 && !scopes[depth - 1] && firstInScope) {
+            return closeScope();
+        }
+        return readValue(c);
+    }
+
+    /**
+     * Returns the text of the last field name or string value read.
+     *
+     * @return text of the last token
+     */
+    public String getText() {
+        return text.toString();
+    }
+
+    /**
+     * Returns the last number read, as a {@link Long} if it is an integer which fits in a long, else as a
+     * {@link Double}.
+     *
+     * @return value of the last number token
+     */
+    public Number getNumber() {
+        return number;
+    }
+
+    /**
+     * Returns the number of objects and arrays enclosing the current position.
+     *
+     * @return nesting depth of the current position
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    private Token readValue(int c) throws IOException {
+        switch (c) {
+            case '{':
+                openScope(true);
+                return Token.START_OBJECT;
+            case '[':
+                openScope(false);
+                return Token.START_ARRAY;
+            case '"':
+                readString();
+                valueRead();
+                return Token.STRING;
+            case 't':
+                readLiteral("rue");
+                valueRead();
+                return Token.TRUE;
+            case 'f':
+                readLiteral("alse");
+                valueRead();
+                return Token.FALSE;
+            case 'n':
+                readLiteral("ull");
+                valueRead();
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber(c);
+                    valueRead();
+                    return Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private void openScope(boolean isObject) throws IOException {
+        if (depth == MAX_DEPTH) {
+            throw syntaxError("Maximum nesting depth of " + MAX_DEPTH + " exceeded");
+        }
+        scopes[depth++] = isObject;
+        firstInScope = true;
+        expectValue = true;
+        expectFieldName = isObject;
+    }
+
+    private Token closeScope() {
+        boolean isObject = scopes[--depth];
+        valueRead();
+        return isObject ? Token.END_OBJECT : Token.END_ARRAY;
+    }
+
+    private void valueRead() {
+        expectValue = false;
+        expectFieldName = false;
+        firstInScope = false;
+        if (depth == 0) {
+            completed = true;
+        }
+    }
+
+    private void readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw syntaxError("Unterminated string");
+            }
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        text.append((char) c);
+                        break;
+                    case 'b':
+                        text.append('\b');
+                        break;
+                    case 'f':
+                        text.append('\f');
+                        break;
+                    case 'n':
+                        text.append('\n');
+                        break;
+                    case 'r':
+                        text.append('\r');
+                        break;
+                    case 't':
+                        text.append('\t');
+                        break;
+                    case 'u':
+                        text.append(readUnicodeEscape());
+                        break;
+                    default:
+                        throw syntaxError("Invalid escape sequence");
+                }
+            } else if (c < 0x20) {
+                throw syntaxError("Unescaped control character in string");
+            } else {
+                text.append((char) c);
+            }
+        }
+    }
+
+    private char readUnicodeEscape() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(read(), 16);
+            if (digit == -1) {
+                throw syntaxError("Invalid unicode escape sequence");
+            }
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+
+    private void readNumber(int first) throws IOException {
+        text.setLength(0);
+        text.append((char) first);
+        boolean isDecimal = false;
+        while (true) {
+            int c = peek();
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+') {
+                text.append((char) read());
+            } else if (c == '.' || c == 'e' || c == 'E') {
+                isDecimal = true;
+                text.append((char) read());
+            } else {
+                break;
+            }
+        }
+        String value = text.toString();
+        try {
+            if (!isDecimal) {
+                try {
+                    number = Long.parseLong(value);
+                    return;
+                } catch (NumberFormatException e) {
+                    // larger than a long, read it as a double
+                }
+            }
+            number = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Invalid number " + value);
+        }
+    }
+
+    private void readLiteral(String remaining) throws IOException {
+        for (int i = 0; i < remaining.length(); i++) {
+            if (read() != remaining.charAt(i)) {
+                throw syntaxError("Invalid literal");
+            }
+        }
+    }
+
+    private int skipWhitespace() throws IOException {
+        while (true) {
+            int c = read();
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, BUFFER_SIZE);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private MalformedJsonException syntaxError(String message) {
+        return new MalformedJsonException(message);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.validation;
+
+/**
+ * Validates JSON numbers against the type, format and limits of an integer or number schema.
+ */
+public class NumberSchemaValidator extends SchemaValidator {
+
+    private final boolean integer;
+    private final boolean int32;
+    private final Double minimum;
+    private final Double maximum;
+    private final boolean exclusiveMinimum;
+    private final boolean exclusiveMaximum;
+
+    NumberSchemaValidator(boolean integer, boolean int32, Double minimum, Double maximum, boolean exclusiveMinimum,
+            boolean exclusiveMaximum) {
+        this.integer = integer;
+        this.int32 = int32;
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.exclusiveMinimum = exclusiveMinimum;
+        this.exclusiveMaximum = exclusiveMaximum;
+    }
+
+    @Override
+    public String getType() {
+        return integer ? INTEGER : NUMBER;
+    }
+
+    @Override
+    public String validate(String name, Object value) {
+        if (!(value instanceof Number) || (integer && !(value instanceof Long))) {
+            return typeError(value, getType());
+        }
+        if (int32 && value instanceof Long && ((Long) value) != ((Long) value).intValue()) {
+            return typeError(value, getType());
+        }
+        double number = ((Number) value).doubleValue();
+        boolean belowMinimum = minimum != null && (exclusiveMinimum ? number <= minimum : number < minimum);
+        boolean aboveMaximum = maximum != null && (exclusiveMaximum ? number >= maximum : number > maximum);
+        if (belowMinimum || aboveMaximum) {
+            return name + " must be " + describeLimits();
+        }
+        return validateEnum(name, value);
+    }
+
+    private String describeLimits() {
+        StringBuilder limits = new StringBuilder();
+        if (minimum != null) {
+            limits.append(exclusiveMinimum ? "greater than " : "at least ").append(format(minimum));
+        }
+        if (maximum != null) {
+            if (minimum != null) {
+                limits.append(exclusiveMaximum ? " and less than " : " and no more than ");
+            } else {
+                limits.append(exclusiveMaximum ? "less than " : "not be more than ");
+            }
+            limits.append(format(maximum));
+        }
+        return limits.toString();
+    }
+
+    private static String format(double limit) {
+        if (limit == Math.rint(limit) && !Double.isInfinite(limit)) {
+            return Long.toString((long) limit);
+        }
+        return Double.toString(limit);
+    }
+}
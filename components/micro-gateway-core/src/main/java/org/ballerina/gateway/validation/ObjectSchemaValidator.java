@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.validation;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates JSON objects against the properties, required fields and discriminator of a model.
+ */
+public class ObjectSchemaValidator extends SchemaValidator {
+
+    private final Map<String, SchemaValidator> properties;
+    // in the order of the model, so that the first missing field is reported
+    private final Set<String> required;
+    private final boolean additionalPropertiesAllowed;
+    private final String discriminator;
+    private final Map<String, SchemaValidator> discriminatedModels;
+
+    ObjectSchemaValidator(Map<String, SchemaValidator> properties, Set<String> required,
+            boolean additionalPropertiesAllowed, String discriminator,
+            Map<String, SchemaValidator> discriminatedModels) {
+        this.properties = properties;
+        this.required = required;
+        this.additionalPropertiesAllowed = additionalPropertiesAllowed;
+        this.discriminator = discriminator;
+        this.discriminatedModels = discriminatedModels;
+    }
+
+    @Override
+    public String getType() {
+        return OBJECT;
+    }
+
+    @Override
+    public String validate(String name, Object value) {
+        if (!(value instanceof Map)) {
+            return typeError(value, OBJECT);
+        }
+        Map<?, ?> object = (Map<?, ?>) value;
+        if (discriminator != null) {
+            Object modelName = object.get(discriminator);
+            SchemaValidator discriminatedModel = modelName == null ? null : discriminatedModels.get(modelName);
+            if (discriminatedModel != null) {
+                discriminatedModel = discriminatedModel.resolve();
+            }
+            if (discriminatedModel != null && discriminatedModel != this) {
+                return discriminatedModel.validate(name, value);
+            }
+        }
+        for (String field : required) {
+            if (object.get(field) == null) {
+                return field + " is a required field";
+            }
+        }
+        for (Map.Entry<?, ?> entry : object.entrySet()) {
+            SchemaValidator property = properties.get(entry.getKey());
+            if (property == null) {
+                if (!additionalPropertiesAllowed && !entry.getKey().equals(discriminator)) {
+                    return "Target property " + entry.getKey() + " is not in the model";
+                }
+            } else if (entry.getValue() != null) {
+                String error = property.validate((String) entry.getKey(), entry.getValue());
+                if (error != null) {
+                    return error;
+                }
+            }
+        }
+        return validateEnum(name, value);
+    }
+
+    @Override
+    String validate(String name, JsonTokenizer tokenizer, JsonTokenizer.Token token) throws IOException {
+        if (token != JsonTokenizer.Token.START_OBJECT) {
+            return validate(name, JsonReader.readValue(tokenizer, token));
+        }
+        return validateFields(name, tokenizer, tokenizer.next());
+    }
+
+    /**
+     * Validates the fields of an object while they are read, starting with the first token after the start of the
+     * object. Required fields are checked once the end of the object is reached.
+     *
+     * @param name      name of the property the object belongs to
+     * @param tokenizer tokenizer positioned at the given token
+     * @param token     first token inside the object
+     * @return description of the first violation or null if the object is valid
+     * @throws IOException if the object could not be read
+     */
+    String validateFields(String name, JsonTokenizer tokenizer, JsonTokenizer.Token token) throws IOException {
+        if (discriminator != null || hasEnum()) {
+            return validate(name, JsonReader.readObject(tokenizer, token));
+        }
+        Set<String> requiredFieldsFound = required.isEmpty() ? null : new HashSet<>();
+        for (JsonTokenizer.Token next = token; next != JsonTokenizer.Token.END_OBJECT; next = tokenizer.next()) {
+            String field = tokenizer.getText();
+            JsonTokenizer.Token valueToken = tokenizer.next();
+            // required fields need not be defined as properties, in which case any value is accepted
+            if (requiredFieldsFound != null && valueToken != JsonTokenizer.Token.NULL && required.contains(field)) {
+                requiredFieldsFound.add(field);
+            }
+            SchemaValidator property = properties.get(field);
+            if (property == null) {
+                if (!additionalPropertiesAllowed) {
+                    return "Target property " + field + " is not in the model";
+                }
+                JsonReader.skipValue(tokenizer, valueToken);
+            } else if (valueToken != JsonTokenizer.Token.NULL) {
+                String error = property.validate(field, tokenizer, valueToken);
+                if (error != null) {
+                    return error;
+                }
+            }
+        }
+        if (requiredFieldsFound != null && requiredFieldsFound.size() < required.size()) {
+            for (String field : required) {
+                if (!requiredFieldsFound.contains(field)) {
+                    return field + " is a required field";
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.validation;
+
+import java.io.IOException;
+
+/**
+ * Validator of a referenced model. The referenced validator is set once the model is compiled, which allows models to
+ * refer to themselves.
+ */
+public class ReferenceSchemaValidator extends SchemaValidator {
+
+    private final String modelName;
+    private volatile SchemaValidator target;
+
+    ReferenceSchemaValidator(String modelName) {
+        this.modelName = modelName;
+    }
+
+    void setTarget(SchemaValidator target) {
+        this.target = target;
+    }
+
+    public String getModelName() {
+        return modelName;
+    }
+
+    @Override
+    SchemaValidator resolve() {
+        return target == null ? null : target.resolve();
+    }
+
+    @Override
+    public String getType() {
+        return target == null ? null : target.getType();
+    }
+
+    @Override
+    public String validate(String name, Object value) {
+        // references to models which are not defined in the swagger are not validated
+        return target == null ? null : target.validate(name, value);
+    }
+
+    @Override
+    String validate(String name, JsonTokenizer tokenizer, JsonTokenizer.Token token) throws IOException {
+        if (target == null) {
+            JsonReader.skipValue(tokenizer, token);
+            return null;
+        }
+        return target.validate(name, tokenizer, token);
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles the schemas of a swagger into {@link SchemaValidator}s. References are resolved, allOf models are merged,
+ * patterns are compiled and enums are converted to sets once, so that validating a payload does not need to look at
+ * the swagger again.
+ */
+public class SchemaCompiler {
+
+    private static final String DEFINITIONS_PREFIX = "#/definitions/";
+    private static final String COMPONENTS_SCHEMAS_PREFIX = "#/components/schemas/";
+
+    private final Map<String, Object> models;
+    private final Map<String, SchemaValidator> compiledModels = new ConcurrentHashMap<>();
+    private final Map<String, ReferenceSchemaValidator> references = new HashMap<>();
+
+    /**
+     * Creates a compiler for the given models and compiles all of them.
+     *
+     * @param models models defined under the definitions (swagger 2.0) or components.schemas (swagger 3.0)
+     */
+    public SchemaCompiler(Map<String, Object> models) {
+        this.models = models == null ? Collections.emptyMap() : models;
+        for (Map.Entry<String, Object> model : this.models.entrySet()) {
+            compiledModels.put(model.getKey(), compile(model.getValue()));
+        }
+        for (Map.Entry<String, ReferenceSchemaValidator> reference : references.entrySet()) {
+            reference.getValue().setTarget(compiledModels.get(reference.getKey()));
+        }
+    }
+
+    /**
+     * Compiles a schema of a request body or a response.
+     *
+     * @param schema schema read by {@link JsonReader}
+     * @return validator of the schema
+     */
+    public synchronized SchemaValidator compile(Object schema) {
+        if (!(schema instanceof Map)) {
+            return new TypeSchemaValidator(null);
+        }
+        Map<?, ?> definition = (Map<?, ?>) schema;
+        if (definition.get("$ref") instanceof String) {
+            return getReference(getModelName((String) definition.get("$ref")));
+        }
+        if (definition.get("allOf") instanceof List) {
+            definition = mergeAllOf(definition, new HashSet<>());
+        }
+        String type = definition.get("type") instanceof String ? (String) definition.get("type") : null;
+        if (type == null) {
+            if (definition.containsKey("properties") || definition.containsKey("discriminator")) {
+                type = SchemaValidator.OBJECT;
+            } else if (definition.containsKey("items")) {
+                type = SchemaValidator.ARRAY;
+            }
+        }
+        SchemaValidator validator;
+        if (SchemaValidator.OBJECT.equals(type)) {
+            validator = compileObject(definition);
+        } else if (SchemaValidator.ARRAY.equals(type)) {
+            validator = new ArraySchemaValidator(definition.containsKey("items") ? compile(definition.get("items"))
+                    : null, getInt(definition, "minItems", 0), getInt(definition, "maxItems", -1));
+        } else if (SchemaValidator.STRING.equals(type)) {
+            Object pattern = definition.get("pattern");
+            validator = new StringSchemaValidator(getInt(definition, "minLength", 0),
+                    getInt(definition, "maxLength", -1), pattern instanceof String ?
+                    Pattern.compile((String) pattern) : null);
+        } else if (SchemaValidator.INTEGER.equals(type) || SchemaValidator.NUMBER.equals(type)) {
+            validator = compileNumber(definition, SchemaValidator.INTEGER.equals(type));
+        } else {
+            validator = new TypeSchemaValidator(type);
+        }
+        if (definition.get("enum") instanceof List) {
+            validator.setEnumValues((List<?>) definition.get("enum"));
+        }
+        return validator;
+    }
+
+    /**
+     * Returns the compiled validator of a model.
+     *
+     * @param modelName name of the model
+     * @return validator of the model or null if there is no such model
+     */
+    public SchemaValidator getModel(String modelName) {
+        return compiledModels.get(modelName);
+    }
+
+    private SchemaValidator compileObject(Map<?, ?> definition) {
+        Map<String, SchemaValidator> properties = new LinkedHashMap<>();
+        if (definition.get("properties") instanceof Map) {
+            for (Map.Entry<?, ?> property : ((Map<?, ?>) definition.get("properties")).entrySet()) {
+                properties.put((String) property.getKey(), compile(property.getValue()));
+            }
+        }
+        Set<String> required = new LinkedHashSet<>();
+        if (definition.get("required") instanceof List) {
+            for (Object field : (List<?>) definition.get("required")) {
+                required.add(String.valueOf(field));
+            }
+        }
+        Object additionalProperties = definition.get("additionalProperties");
+        boolean additionalPropertiesAllowed = !definition.containsKey("properties")
+                || Boolean.TRUE.equals(additionalProperties) || additionalProperties instanceof Map;
+        String discriminator = null;
+        Map<String, SchemaValidator> discriminatedModels = compiledModels;
+        Object discriminatorDefinition = definition.get("discriminator");
+        if (discriminatorDefinition instanceof String) {//In swagger 2.0 the discriminator is the property name
+            discriminator = (String) discriminatorDefinition;
+        } else if (discriminatorDefinition instanceof Map) {
+            Map<?, ?> discriminatorObject = (Map<?, ?>) discriminatorDefinition;
+            discriminator = (String) discriminatorObject.get("propertyName");
+            if (discriminatorObject.get("mapping") instanceof Map) {
+                discriminatedModels = new HashMap<>();
+                for (Map.Entry<?, ?> mapping : ((Map<?, ?>) discriminatorObject.get("mapping")).entrySet()) {
+                    discriminatedModels.put((String) mapping.getKey(),
+                            getReference(getModelName(String.valueOf(mapping.getValue()))));
+                }
+            }
+        }
+        return new ObjectSchemaValidator(Collections.unmodifiableMap(properties), Collections.unmodifiableSet(required),
+                additionalPropertiesAllowed, discriminator, discriminatedModels);
+    }
+
+    private SchemaValidator compileNumber(Map<?, ?> definition, boolean integer) {
+        Double minimum = getDouble(definition, "minimum");
+        Double maximum = getDouble(definition, "maximum");
+        boolean exclusiveMinimum = Boolean.TRUE.equals(definition.get("exclusiveMinimum"));
+        boolean exclusiveMaximum = Boolean.TRUE.equals(definition.get("exclusiveMaximum"));
+        // exclusive limits are numbers instead of flags in newer versions of the json schema
+        if (getDouble(definition, "exclusiveMinimum") != null) {
+            minimum = getDouble(definition, "exclusiveMinimum");
+            exclusiveMinimum = true;
+        }
+        if (getDouble(definition, "exclusiveMaximum") != null) {
+            maximum = getDouble(definition, "exclusiveMaximum");
+            exclusiveMaximum = true;
+        }
+        return new NumberSchemaValidator(integer, "int32".equals(definition.get("format")), minimum, maximum,
+                exclusiveMinimum, exclusiveMaximum);
+    }
+
+    /**
+     * Merges the models listed in the allOf of a schema into a single model.
+     */
+    private Map<String, Object> mergeAllOf(Map<?, ?> definition, Set<String> visitedModels) {
+        Map<String, Object> merged = new LinkedHashMap<>();
+        Map<String, Object> properties = new LinkedHashMap<>();
+        Set<Object> required = new LinkedHashSet<>();
+        List<Map<?, ?>> parts = new ArrayList<>();
+        for (Object part : (List<?>) definition.get("allOf")) {
+            if (part instanceof Map) {
+                parts.add((Map<?, ?>) part);
+            }
+        }
+        parts.add(definition);
+        for (Map<?, ?> part : parts) {
+            if (part.get("$ref") instanceof String) {
+                String modelName = getModelName((String) part.get("$ref"));
+                if (!visitedModels.add(modelName) || !(models.get(modelName) instanceof Map)) {
+                    continue;
+                }
+                part = (Map<?, ?>) models.get(modelName);
+            }
+            if (part != definition && part.get("allOf") instanceof List) {
+                part = mergeAllOf(part, visitedModels);
+            }
+            for (Map.Entry<?, ?> entry : part.entrySet()) {
+                Object key = entry.getKey();
+                if ("properties".equals(key) && entry.getValue() instanceof Map) {
+                    for (Map.Entry<?, ?> property : ((Map<?, ?>) entry.getValue()).entrySet()) {
+                        properties.put((String) property.getKey(), property.getValue());
+                    }
+                } else if ("required".equals(key) && entry.getValue() instanceof List) {
+                    required.addAll((List<?>) entry.getValue());
+                } else if (!"allOf".equals(key) && !"$ref".equals(key)) {
+                    merged.put((String) key, entry.getValue());
+                }
+            }
+        }
+        if (!properties.isEmpty()) {
+            merged.put("properties", properties);
+        }
+        if (!required.isEmpty()) {
+            merged.put("required", new ArrayList<>(required));
+        }
+        return merged;
+    }
+
+    private ReferenceSchemaValidator getReference(String modelName) {
+        ReferenceSchemaValidator reference = references.get(modelName);
+        if (reference == null) {
+            reference = new ReferenceSchemaValidator(modelName);
+            // models are compiled in the constructor, so the target is only missing while compiling the models
+            reference.setTarget(compiledModels.get(modelName));
+            references.put(modelName, reference);
+        }
+        return reference;
+    }
+
+    /**
+     * Returns the name of the model referred by a reference such as #/definitions/Pet.
+     *
+     * @param reference reference to the model
+     * @return name of the model
+     */
+    public static String getModelName(String reference) {
+        if (reference.startsWith(DEFINITIONS_PREFIX)) {
+            return reference.substring(DEFINITIONS_PREFIX.length());
+        } else if (reference.startsWith(COMPONENTS_SCHEMAS_PREFIX)) {
+            return reference.substring(COMPONENTS_SCHEMAS_PREFIX.length());
+        }
+        return reference;
+    }
+
+    private static int getInt(Map<?, ?> definition, String key, int defaultValue) {
+        Object value = definition.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    private static Double getDouble(Map<?, ?> definition, String key) {
+        Object value = definition.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : null;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.validation;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the validators compiled from the swagger, keyed by the keys of the validation schema index.
+ */
+public class SchemaRegistry {
+
+    private static SchemaRegistry instance;
+    private volatile SchemaCompiler compiler = new SchemaCompiler(null);
+    private final Map<String, SchemaValidator> validators = new ConcurrentHashMap<>();
+
+    private SchemaRegistry() {
+    }
+
+    public static SchemaRegistry getInstance() {
+        synchronized (SchemaRegistry.class) {
+            if (instance == null) {
+                instance = new SchemaRegistry();
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Compiles the models of the swagger, which are referred by the schemas registered afterwards.
+     *
+     * @param models JSON object of the models defined in the swagger
+     * @throws IOException if the models are not a valid JSON document
+     */
+    @SuppressWarnings("unchecked")
+    public void setModels(String models) throws IOException {
+        Object modelsObject = JsonReader.read(models);
+        compiler = new SchemaCompiler(modelsObject instanceof Map ? (Map<String, Object>) modelsObject : null);
+        validators.clear();
+    }
+
+    /**
+     * Compiles a schema and registers it against the given key.
+     *
+     * @param key    key of the schema
+     * @param schema JSON schema of the payload
+     * @throws IOException if the schema is not a valid JSON document
+     */
+    public void register(String key, String schema) throws IOException {
+        validators.put(key, compiler.compile(JsonReader.read(schema)));
+    }
+
+    public SchemaValidator getValidator(String key) {
+        return validators.get(key);
+    }
+}
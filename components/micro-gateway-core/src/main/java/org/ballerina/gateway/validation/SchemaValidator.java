@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.validation;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validator compiled from a schema of the swagger. Validators are immutable once compiled and are safe to be used by
+ * multiple threads.
+ */
+public abstract class SchemaValidator {
+
+    public static final String OBJECT = "object";
+    public static final String ARRAY = "array";
+    public static final String STRING = "string";
+    public static final String INTEGER = "integer";
+    public static final String NUMBER = "number";
+    public static final String BOOLEAN = "boolean";
+
+    private Set<Object> enumValues;
+
+    /**
+     * Returns the type of the values accepted by this validator.
+     *
+     * @return JSON type name or null if values of any type are accepted
+     */
+    public abstract String getType();
+
+    /**
+     * Validates the given value against the schema.
+     *
+     * @param name  name of the property the value belongs to, used in the error messages
+     * @param value value to be validated, which is never null
+     * @return description of the first violation or null if the value is valid
+     */
+    public abstract String validate(String name, Object value);
+
+    /**
+     * Validates a complete payload against the schema.
+     *
+     * @param payload payload read by {@link JsonReader}
+     * @return description of the first violation or null if the payload is valid
+     */
+    public String validatePayload(Object payload) {
+        if (payload == null) {
+            return "Unable to validate an undefined value of property: ";
+        }
+        String expectedType = getType();
+        String payloadType = typeOf(payload);
+        if (expectedType != null && !isTypeCompatible(expectedType, payloadType)) {
+            return "Unable to validate a model with a type: " + payloadType + ", expected: " + expectedType;
+        }
+        return validate("payload", payload);
+    }
+
+    /**
+     * Validates a payload against the schema while it is read, without building the whole payload in memory. The
+     * validation stops at the first violation. Objects with a discriminator or an enum are read in full before they
+     * are validated, since the model they are validated against is not known until all the fields are read.
+     *
+     * @param payload     reader of the payload
+     * @param ignoreField payloads which are objects starting with this field are not validated, can be null
+     * @return description of the first violation or null if the payload is valid, content after the end of the
+     * validated document is a violation as well
+     * @throws IOException if the payload could not be read or is not a valid JSON document
+     */
+    public String validatePayload(Reader payload, String ignoreField) throws IOException {
+        JsonTokenizer tokenizer = new JsonTokenizer(payload);
+        JsonTokenizer.Token token = tokenizer.next();
+        JsonTokenizer.Token firstField = null;
+        if (token == JsonTokenizer.Token.START_OBJECT && ignoreField != null) {
+            firstField = tokenizer.next();
+            if (firstField == JsonTokenizer.Token.FIELD_NAME && ignoreField.equals(tokenizer.getText())) {
+                return null;
+            }
+        }
+        String error = validatePayload(tokenizer, token, firstField);
+        if (error == null && !isEndOfDocument(tokenizer)) {
+            // the backend could read a different document than the one validated
+            return "Unexpected content after the end of the payload";
+        }
+        return error;
+    }
+
+    private String validatePayload(JsonTokenizer tokenizer, JsonTokenizer.Token token,
+                                   JsonTokenizer.Token firstField) throws IOException {
+        if (token == JsonTokenizer.Token.NULL) {
+            return null;
+        }
+        String expectedType = getType();
+        String payloadType = typeOf(tokenizer, token);
+        if (expectedType != null && !isTypeCompatible(expectedType, payloadType)) {
+            return "Unable to validate a model with a type: " + payloadType + ", expected: " + expectedType;
+        }
+        if (firstField == null) {
+            return validate("payload", tokenizer, token);
+        }
+        SchemaValidator validator = resolve();
+        if (validator instanceof ObjectSchemaValidator) {
+            return ((ObjectSchemaValidator) validator).validateFields("payload", tokenizer, firstField);
+        }
+        return validator == null ? null : validator.validate("payload", JsonReader.readObject(tokenizer, firstField));
+    }
+
+    private static boolean isEndOfDocument(JsonTokenizer tokenizer) throws IOException {
+        try {
+            return tokenizer.next() == JsonTokenizer.Token.END_DOCUMENT;
+        } catch (MalformedJsonException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Validates the value starting with the given token, reading it from the tokenizer. Validators of objects and
+     * arrays override this to validate the nested values as they are read.
+     *
+     * @param name      name of the property the value belongs to
+     * @param tokenizer tokenizer positioned at the given token
+     * @param token     first token of the value, which is not {@link JsonTokenizer.Token#NULL}
+     * @return description of the first violation or null if the value is valid
+     * @throws IOException if the value could not be read
+     */
+    String validate(String name, JsonTokenizer tokenizer, JsonTokenizer.Token token) throws IOException {
+        return validate(name, JsonReader.readValue(tokenizer, token));
+    }
+
+    boolean hasEnum() {
+        return enumValues != null;
+    }
+
+    /**
+     * Returns the validator which actually validates the values, after resolving references.
+     *
+     * @return resolved validator or null if this is a reference to a model which is not defined
+     */
+    SchemaValidator resolve() {
+        return this;
+    }
+
+    void setEnumValues(List<?> values) {
+        enumValues = new HashSet<>();
+        for (Object value : values) {
+            enumValues.add(normalize(value));
+        }
+    }
+
+    /**
+     * Checks the value against the enum of the schema, if there is one.
+     *
+     * @param name  name of the property
+     * @param value value to be checked
+     * @return error message if the value is not one of the allowed values, else null
+     */
+    String validateEnum(String name, Object value) {
+        if (enumValues != null && !enumValues.contains(normalize(value))) {
+            return name + " is not set to an allowed value (see enum)";
+        }
+        return null;
+    }
+
+    static String typeError(Object value, String type) {
+        return value + " is not the type, " + type;
+    }
+
+    static String typeOf(Object value) {
+        if (value instanceof Map) {
+            return OBJECT;
+        } else if (value instanceof List) {
+            return ARRAY;
+        } else if (value instanceof String) {
+            return STRING;
+        } else if (value instanceof Boolean) {
+            return BOOLEAN;
+        } else if (value instanceof Long) {
+            return INTEGER;
+        }
+        return NUMBER;
+    }
+
+    private static String typeOf(JsonTokenizer tokenizer, JsonTokenizer.Token token) {
+        switch (token) {
+            case START_OBJECT:
+                return OBJECT;
+            case START_ARRAY:
+                return ARRAY;
+            case STRING:
+                return STRING;
+            case TRUE:
+            case FALSE:
+                return BOOLEAN;
+            default:
+                return tokenizer.getNumber() instanceof Long ? INTEGER : NUMBER;
+        }
+    }
+
+    static boolean isTypeCompatible(String expectedType, String actualType) {
+        return expectedType.equals(actualType) || (NUMBER.equals(expectedType) && INTEGER.equals(actualType));
+    }
+
+    private static Object normalize(Object value) {
+        // 1 and 1.0 are the same JSON number
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.validation;
+
+import java.util.regex.Pattern;
+
+/**
+ * Validates JSON strings against the length limits, pattern and enum of a string schema.
+ */
+public class StringSchemaValidator extends SchemaValidator {
+
+    private final int minLength;
+    private final int maxLength;
+    private final Pattern pattern;
+
+    StringSchemaValidator(int minLength, int maxLength, Pattern pattern) {
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.pattern = pattern;
+    }
+
+    @Override
+    public String getType() {
+        return STRING;
+    }
+
+    @Override
+    public String validate(String name, Object value) {
+        if (!(value instanceof String)) {
+            return typeError(value, STRING);
+        }
+        String string = (String) value;
+        if (minLength > 0 && string.length() < minLength) {
+            if (minLength == 1) {
+                return name + " cannot be blank";
+            }
+            return name + " must be at least " + minLength + " characters long";
+        }
+        if (maxLength >= 0 && string.length() > maxLength) {
+            return name + " must be no more than " + maxLength + " characters long";
+        }
+        if (pattern != null && !pattern.matcher(string).find()) {
+            return name + " does not match the pattern " + pattern.pattern();
+        }
+        return validateEnum(name, value);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.validation;
+
+import java.io.IOException;
+
+/**
+ * Validates values of schemas which only restrict the type and the enum, such as boolean schemas and schemas
+ * without a type.
+ */
+public class TypeSchemaValidator extends SchemaValidator {
+
+    private final String type;
+
+    /**
+     * Creates a validator accepting values of the given type.
+     *
+     * @param type JSON type name or null to accept values of any type
+     */
+    TypeSchemaValidator(String type) {
+        this.type = type;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public String validate(String name, Object value) {
+        if (type != null && !isTypeCompatible(type, typeOf(value))) {
+            return typeError(value, type);
+        }
+        return validateEnum(name, value);
+    }
+
+    @Override
+    String validate(String name, JsonTokenizer tokenizer, JsonTokenizer.Token token) throws IOException {
+        if (type == null && !hasEnum()) {
+            JsonReader.skipValue(tokenizer, token);
+            return null;
+        }
+        return super.validate(name, tokenizer, token);
+    }
+}
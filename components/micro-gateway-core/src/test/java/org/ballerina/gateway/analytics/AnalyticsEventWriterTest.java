@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.analytics;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Tests for {@link AnalyticsEventWriter}.
+ */
+public class AnalyticsEventWriterTest {
+
+    private File directory;
+    private File file;
+    private Thread writerThread;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("api-usage-data").toFile();
+        file = new File(directory, "api-usage-data.dat");
+    }
+
+    @After
+    public void tearDown() {
+        if (writerThread != null) {
+            writerThread.interrupt();
+        }
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testEventsAreWrittenInOrderToTheRotatedSegment() throws IOException {
+        AnalyticsEventWriter eventWriter = startWriter(new TextAnalyticsEventEncoder(), 100, 60000);
+        for (int i = 0; i < 10; i++) {
+            eventWriter.write(createEvent(i));
+        }
+        String segmentName = eventWriter.rotate();
+
+        Assert.assertTrue(segmentName.startsWith(file.getName() + "."));
+        Assert.assertTrue(segmentName.endsWith(AnalyticsEventWriter.ZIP_EXTENSION));
+        Assert.assertFalse(new File(file.getPath() + AnalyticsEventWriter.PART_SUFFIX).exists());
+        List<String> lines = readLines(readSegment(new File(directory, segmentName)));
+        Assert.assertEquals(10, lines.size());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(createEvent(i).toText().trim(), lines.get(i));
+        }
+    }
+
+    @Test
+    public void testEventsAfterRotationAreWrittenToANewSegment() throws IOException {
+        AnalyticsEventWriter eventWriter = startWriter(new TextAnalyticsEventEncoder(), 100, 50);
+        eventWriter.write(createEvent(1));
+        String firstSegment = eventWriter.rotate();
+        eventWriter.write(createEvent(2));
+        String secondSegment = eventWriter.rotate();
+
+        Assert.assertFalse(firstSegment.equals(secondSegment));
+        Assert.assertEquals(Collections.singletonList(createEvent(1).toText().trim()),
+                readLines(readSegment(new File(directory, firstSegment))));
+        Assert.assertEquals(Collections.singletonList(createEvent(2).toText().trim()),
+                readLines(readSegment(new File(directory, secondSegment))));
+    }
+
+    @Test
+    public void testNothingIsRotatedWithoutEvents() {
+        AnalyticsEventWriter eventWriter = startWriter(new TextAnalyticsEventEncoder(), 100, 50);
+        Assert.assertNull(eventWriter.rotate());
+        eventWriter.write(createEvent(1));
+        Assert.assertNotNull(eventWriter.rotate());
+        Assert.assertNull(eventWriter.rotate());
+    }
+
+    @Test
+    public void testSegmentIsFlushedOnceABatchIsWritten() throws IOException, InterruptedException {
+        AnalyticsEventWriter eventWriter = startWriter(new TextAnalyticsEventEncoder(), 2, 60000);
+        eventWriter.write(createEvent(1));
+        eventWriter.write(createEvent(2));
+
+        Assert.assertEquals(Arrays.asList(createEvent(1).toText().trim(), createEvent(2).toText().trim()),
+                waitForLines(2));
+    }
+
+    @Test
+    public void testUnclosedSegmentIsRecovered() throws IOException, InterruptedException {
+        AnalyticsEventWriter eventWriter = startWriter(new BinaryAnalyticsEventEncoder(16), 2, 60000);
+        eventWriter.write(createEvent(1));
+        eventWriter.write(createEvent(2));
+        Assert.assertEquals(2, waitForEvents(2).size());
+        // the writer is abandoned without closing the segment, as it would be on a crash
+        writerThread.interrupt();
+        writerThread.join();
+
+        AnalyticsEventWriter restartedWriter = startWriter(new BinaryAnalyticsEventEncoder(16), 100, 60000);
+        restartedWriter.write(createEvent(3));
+        String segmentName = restartedWriter.rotate();
+
+        File[] segments = directory.listFiles((dir, name) -> name.endsWith(AnalyticsEventWriter.ZIP_EXTENSION)
+                && !name.equals(segmentName));
+        Assert.assertEquals(1, segments.length);
+        Assert.assertEquals(Arrays.asList(createEvent(1), createEvent(2)), readEvents(readSegment(segments[0])));
+        Assert.assertEquals(Collections.singletonList(createEvent(3)),
+                readEvents(readSegment(new File(directory, segmentName))));
+    }
+
+    @Test
+    public void testUsageFileOfAnEarlierVersionIsCompressed() throws IOException {
+        String legacyEvent = createEvent(1).toText();
+        Files.write(file.toPath(), legacyEvent.getBytes(StandardCharsets.UTF_8));
+        AnalyticsEventWriter eventWriter = startWriter(new TextAnalyticsEventEncoder(), 100, 60000);
+        eventWriter.write(createEvent(2));
+        String segmentName = eventWriter.rotate();
+
+        Assert.assertFalse(file.exists());
+        File[] segments = directory.listFiles((dir, name) -> name.endsWith(AnalyticsEventWriter.ZIP_EXTENSION)
+                && !name.equals(segmentName));
+        Assert.assertEquals(1, segments.length);
+        Assert.assertEquals(legacyEvent, new String(readSegment(segments[0]), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCorruptedSegmentIsMovedAside() throws IOException {
+        Files.write(new File(file.getPath() + AnalyticsEventWriter.PART_SUFFIX).toPath(),
+                "not a zip file".getBytes(StandardCharsets.UTF_8));
+        AnalyticsEventWriter eventWriter = startWriter(new TextAnalyticsEventEncoder(), 100, 60000);
+        eventWriter.write(createEvent(1));
+        String segmentName = eventWriter.rotate();
+
+        Assert.assertEquals(Collections.singletonList(createEvent(1).toText().trim()),
+                readLines(readSegment(new File(directory, segmentName))));
+        Assert.assertEquals(1, directory.listFiles((dir, name) -> name.endsWith(".corrupted")).length);
+    }
+
+    private static AnalyticsEvent createEvent(int i) {
+        return new AnalyticsEvent(AnalyticsStream.THROTTLE.getId(), 1000 + i, "PRODUCTION",
+                new String[]{"admin", "carbon.super", "PizzaShackAPI", "1.0.0", "/pizzashack/1.0.0", "admin",
+                        "carbon.super", "1", "DefaultApplication", "admin", "API_LEVEL_LIMIT_EXCEEDED", "MICRO",
+                        String.valueOf(1000 + i), "localhost"});
+    }
+
+    // reads the entry of a segment, up to the last flush if the segment is not closed yet
+    private static byte[] readSegment(File segment) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipInputStream in = new ZipInputStream(new FileInputStream(segment))) {
+            if (in.getNextEntry() == null) {
+                return out.toByteArray();
+            }
+            copy(in, out);
+        } catch (EOFException e) {
+            // the segment is still being written
+        }
+        return out.toByteArray();
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] chunk = new byte[1024];
+        int length;
+        while ((length = in.read(chunk)) != -1) {
+            out.write(chunk, 0, length);
+        }
+    }
+
+    private static List<String> readLines(byte[] content) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(content), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static List<AnalyticsEvent> readEvents(byte[] content) throws IOException {
+        List<AnalyticsEvent> events = new ArrayList<>();
+        try {
+            AnalyticsFileReader reader = new AnalyticsFileReader(new ByteArrayInputStream(content));
+            AnalyticsEvent event;
+            while ((event = reader.next()) != null) {
+                events.add(event);
+            }
+        } catch (EOFException e) {
+            // the segment is not flushed yet
+        }
+        return events;
+    }
+
+    private List<String> waitForLines(int count) throws IOException, InterruptedException {
+        File segment = new File(file.getPath() + AnalyticsEventWriter.PART_SUFFIX);
+        long deadline = System.currentTimeMillis() + 5000;
+        List<String> lines = Collections.emptyList();
+        while (System.currentTimeMillis() < deadline) {
+            if (segment.exists() && (lines = readLines(readSegment(segment))).size() >= count) {
+                break;
+            }
+            Thread.sleep(10);
+        }
+        return lines;
+    }
+
+    private List<AnalyticsEvent> waitForEvents(int count) throws IOException, InterruptedException {
+        File segment = new File(file.getPath() + AnalyticsEventWriter.PART_SUFFIX);
+        long deadline = System.currentTimeMillis() + 5000;
+        List<AnalyticsEvent> events = Collections.emptyList();
+        while (System.currentTimeMillis() < deadline) {
+            if (segment.exists() && (events = readEvents(readSegment(segment))).size() >= count) {
+                break;
+            }
+            Thread.sleep(10);
+        }
+        return events;
+    }
+
+    private AnalyticsEventWriter startWriter(AnalyticsEventEncoder encoder, int batchSize, long flushInterval) {
+        AnalyticsEventWriter eventWriter = new AnalyticsEventWriter(file.getPath(),
+                new EventRingBuffer<>(1024, EventRingBuffer.OverflowPolicy.BLOCK, 1), encoder, 8192, batchSize,
+                flushInterval);
+        writerThread = new Thread(eventWriter::run);
+        writerThread.setDaemon(true);
+        writerThread.start();
+        return eventWriter;
+    }
+}
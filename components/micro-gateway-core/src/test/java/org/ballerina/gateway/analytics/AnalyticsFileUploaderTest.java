@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.analytics;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link AnalyticsFileUploader}.
+ */
+public class AnalyticsFileUploaderTest {
+
+    private File directory;
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private AnalyticsFileUploader uploader;
+    private final List<String> uploadedFiles = new CopyOnWriteArrayList<>();
+    private final List<String> uploadedBodies = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private volatile CountDownLatch concurrentUploads;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("api-usage-data").toFile();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/upload", exchange -> {
+            byte[] body = read(exchange.getRequestBody());
+            if (concurrentUploads != null) {
+                concurrentUploads.countDown();
+                try {
+                    concurrentUploads.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            int status = 201;
+            if (failuresLeft.getAndDecrement() > 0) {
+                status = 503;
+            } else {
+                uploadedFiles.add(exchange.getRequestHeaders().getFirst("FileName"));
+                uploadedBodies.add(new String(body, StandardCharsets.UTF_8));
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        if (uploader != null) {
+            uploader.shutdown();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testSegmentsAreUploadedAndDeleted() throws IOException, InterruptedException {
+        File segment = createSegment("api-usage-data.dat.1.a.zip", "segment content");
+        uploader = createUploader(2, 50);
+
+        Assert.assertEquals(1, uploader.scan());
+        waitUntilDeleted(segment);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (uploader.getPendingSegmentCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(1, uploadedFiles.size());
+        Assert.assertEquals(segment.getName(), uploadedFiles.get(0));
+        String body = uploadedBodies.get(0);
+        Assert.assertTrue(body.contains("filename=\"" + segment.getName() + "\""));
+        Assert.assertTrue(body.contains("\r\n\r\nsegment content\r\n--"));
+        Assert.assertEquals(1, uploader.getUploadedSegmentCount());
+        Assert.assertEquals("segment content".length(), uploader.getUploadedBytes());
+        Assert.assertEquals(0, uploader.getPendingSegmentCount());
+        Assert.assertEquals(0, uploader.scan());
+    }
+
+    @Test
+    public void testFailedUploadIsRetried() throws IOException, InterruptedException {
+        failuresLeft.set(2);
+        File segment = createSegment("api-usage-data.dat.1.a.zip", "segment content");
+        uploader = createUploader(1, 20);
+
+        uploader.scan();
+        // a scan while the segment waits to be retried does not upload it twice
+        uploader.scan();
+        waitUntilDeleted(segment);
+
+        Assert.assertEquals(1, uploadedFiles.size());
+        Assert.assertEquals(2, uploader.getFailedUploadCount());
+        Assert.assertEquals(1, uploader.getUploadedSegmentCount());
+    }
+
+    @Test
+    public void testSegmentsAreUploadedConcurrently() throws IOException, InterruptedException {
+        concurrentUploads = new CountDownLatch(3);
+        File[] segments = new File[3];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = createSegment("api-usage-data.dat." + i + ".a.zip", "segment " + i);
+        }
+        uploader = createUploader(3, 50);
+
+        uploader.scan();
+        for (File segment : segments) {
+            waitUntilDeleted(segment);
+        }
+        // every upload waits for the others, so they would have timed out if they were not concurrent
+        Assert.assertEquals(0, concurrentUploads.getCount());
+        Assert.assertEquals(3, uploadedFiles.size());
+    }
+
+    @Test
+    public void testUploadedSegmentIsNotUploadedAfterRestart() throws IOException, InterruptedException {
+        File segment = createSegment("api-usage-data.dat.1.a.zip", "segment content");
+        new SegmentUploadManifest(new File(directory, AnalyticsFileUploader.MANIFEST_FILE)).update(segment.getName(),
+                SegmentUploadManifest.State.UPLOADED, 0, 0);
+        uploader = createUploader(1, 50);
+
+        uploader.scan();
+
+        Assert.assertFalse(segment.exists());
+        Assert.assertTrue(uploadedFiles.isEmpty());
+        Assert.assertNull(new SegmentUploadManifest(new File(directory, AnalyticsFileUploader.MANIFEST_FILE))
+                .get(segment.getName()));
+    }
+
+    @Test
+    public void testBackoffOfFailedSegmentIsKeptAfterRestart() throws IOException, InterruptedException {
+        File segment = createSegment("api-usage-data.dat.1.a.zip", "segment content");
+        new SegmentUploadManifest(new File(directory, AnalyticsFileUploader.MANIFEST_FILE)).update(segment.getName(),
+                SegmentUploadManifest.State.PENDING, 3, System.currentTimeMillis() + 200);
+        uploader = createUploader(1, 50);
+
+        long start = System.currentTimeMillis();
+        uploader.scan();
+        waitUntilDeleted(segment);
+
+        Assert.assertTrue(System.currentTimeMillis() - start >= 150);
+        Assert.assertEquals(1, uploadedFiles.size());
+    }
+
+    @Test
+    public void testRetryDelayGrowsExponentiallyUpToTheMaximum() throws IOException {
+        uploader = createUploader(1, 100);
+        for (int i = 0; i < 100; i++) {
+            long first = uploader.getRetryDelay(1);
+            Assert.assertTrue(first >= 50 && first <= 100);
+            long third = uploader.getRetryDelay(3);
+            Assert.assertTrue(third >= 200 && third <= 400);
+            long last = uploader.getRetryDelay(100);
+            Assert.assertTrue(last >= 500 && last <= 1000);
+        }
+    }
+
+    private AnalyticsFileUploader createUploader(int concurrency, long initialRetryDelay) throws IOException {
+        return new AnalyticsFileUploader(directory.getPath(), "http://localhost:" + server.getAddress().getPort()
+                + "/upload", "admin", "admin", concurrency, initialRetryDelay, 1000, null, null);
+    }
+
+    private File createSegment(String name, String content) throws IOException {
+        File segment = new File(directory, name);
+        Files.write(segment.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return segment;
+    }
+
+    private static void waitUntilDeleted(File segment) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (segment.exists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(segment + " should be uploaded", segment.exists());
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[1024];
+        int length;
+        while ((length = in.read(chunk)) != -1) {
+            out.write(chunk, 0, length);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.analytics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests for {@link BinaryAnalyticsEventEncoder} and {@link AnalyticsFileReader}.
+ */
+public class BinaryAnalyticsEventEncoderTest {
+
+    @Test
+    public void testEventsAreReadAsWritten() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryAnalyticsEventEncoder encoder = new BinaryAnalyticsEventEncoder(1024);
+        encoder.start(out, false);
+        AnalyticsEvent[] events = new AnalyticsEvent[]{createFaultEvent("\u00fc", 1), createFaultEvent("", 2),
+                new AnalyticsEvent("custom:1.0.0", 3, "{}", new String[]{"a-OS-b"})};
+        for (AnalyticsEvent event : events) {
+            encoder.write(event, out);
+        }
+
+        AnalyticsFileReader reader = new AnalyticsFileReader(new ByteArrayInputStream(out.toByteArray()));
+        for (AnalyticsEvent event : events) {
+            Assert.assertEquals(event, reader.next());
+        }
+        Assert.assertNull(reader.next());
+    }
+
+    @Test
+    public void testRepeatedValuesAreWrittenOnce() throws IOException {
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        TextAnalyticsEventEncoder textEncoder = new TextAnalyticsEventEncoder();
+        BinaryAnalyticsEventEncoder binaryEncoder = new BinaryAnalyticsEventEncoder(1024);
+        binaryEncoder.start(binary, false);
+        for (int i = 0; i < 1000; i++) {
+            AnalyticsEvent event = createFaultEvent("Internal error", i);
+            textEncoder.write(event, text);
+            binaryEncoder.write(event, binary);
+        }
+
+        Assert.assertTrue("Binary file size " + binary.size(), binary.size() * 4 < text.size());
+        Assert.assertEquals(text.toString(StandardCharsets.UTF_8.name()),
+                convertToText(new ByteArrayInputStream(binary.toByteArray())));
+    }
+
+    @Test
+    public void testDictionaryIsResetWhenAppending() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryAnalyticsEventEncoder(1024).start(out, false);
+        for (int i = 0; i < 2; i++) {
+            // every encoder starts with an empty dictionary, as a new writer does after a restart
+            BinaryAnalyticsEventEncoder encoder = new BinaryAnalyticsEventEncoder(1024);
+            encoder.start(out, true);
+            encoder.write(createFaultEvent("error " + i, i), out);
+        }
+
+        AnalyticsFileReader reader = new AnalyticsFileReader(new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals(createFaultEvent("error 0", 0), reader.next());
+        Assert.assertEquals(createFaultEvent("error 1", 1), reader.next());
+        Assert.assertNull(reader.next());
+    }
+
+    @Test
+    public void testValuesAreWrittenInlineOnceTheDictionaryIsFull() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryAnalyticsEventEncoder encoder = new BinaryAnalyticsEventEncoder(2);
+        encoder.start(out, false);
+        encoder.write(createFaultEvent("error", 1), out);
+
+        AnalyticsFileReader reader = new AnalyticsFileReader(new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals(createFaultEvent("error", 1), reader.next());
+    }
+
+    @Test(expected = IOException.class)
+    public void testTextFileIsRejected() throws IOException {
+        new AnalyticsFileReader(new ByteArrayInputStream(createFaultEvent("error", 1).toText()
+                .getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String convertToText(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AnalyticsFileReader.convertToText(in, out);
+        return out.toString(StandardCharsets.UTF_8.name());
+    }
+
+    private static AnalyticsEvent createFaultEvent(String errorMessage, long time) {
+        return new AnalyticsEvent(AnalyticsStream.FAULT.getId(), time, "PRODUCTION",
+                new String[]{"consumerKey", "PizzaShackAPI", "1.0.0", "/pizzashack/1.0.0", "/menu", "GET", "admin",
+                        "admin", "carbon.super", "carbon.super", "localhost", "1", "DefaultApplication", "https",
+                        "101503", errorMessage, String.valueOf(time)});
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.analytics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link EventRingBuffer}.
+ */
+public class EventRingBufferTest {
+
+    @Test
+    public void testEventsAreReadInOrder() {
+        EventRingBuffer<String> buffer = new EventRingBuffer<>(4, EventRingBuffer.OverflowPolicy.DROP_NEWEST, 1);
+        for (int round = 0; round < 3; round++) {
+            Assert.assertTrue(buffer.offer("a"));
+            Assert.assertTrue(buffer.offer("b"));
+            Assert.assertTrue(buffer.offer("c"));
+            List<String> events = new ArrayList<>();
+            Assert.assertEquals(2, buffer.drainTo(events, 2));
+            Assert.assertEquals("c", buffer.poll());
+            Assert.assertEquals(Arrays.asList("a", "b"), events);
+            Assert.assertNull(buffer.poll());
+        }
+        Assert.assertEquals(9, buffer.getEnqueuedCount());
+    }
+
+    @Test
+    public void testNewestEventIsDropped() {
+        EventRingBuffer<String> buffer = new EventRingBuffer<>(2, EventRingBuffer.OverflowPolicy.DROP_NEWEST, 1);
+        buffer.offer("a");
+        buffer.offer("b");
+        Assert.assertFalse(buffer.offer("c"));
+
+        Assert.assertEquals(2, buffer.size());
+        Assert.assertEquals(1, buffer.getDroppedCount());
+        Assert.assertEquals("a", buffer.poll());
+    }
+
+    @Test
+    public void testOldestEventIsDropped() {
+        EventRingBuffer<String> buffer = new EventRingBuffer<>(2, EventRingBuffer.OverflowPolicy.DROP_OLDEST, 1);
+        buffer.offer("a");
+        buffer.offer("b");
+        Assert.assertTrue(buffer.offer("c"));
+
+        Assert.assertEquals(1, buffer.getDroppedCount());
+        Assert.assertEquals("b", buffer.poll());
+        Assert.assertEquals("c", buffer.poll());
+    }
+
+    @Test
+    public void testEventsAreSampledOnceHalfFull() {
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(8, EventRingBuffer.OverflowPolicy.SAMPLE, 2);
+        for (int i = 0; i < 8; i++) {
+            buffer.offer(i);
+        }
+
+        Assert.assertEquals(6, buffer.size());
+        Assert.assertEquals(2, buffer.getDroppedCount());
+    }
+
+    @Test
+    public void testProducerBlocksUntilEventIsConsumed() throws InterruptedException {
+        EventRingBuffer<String> buffer = new EventRingBuffer<>(2, EventRingBuffer.OverflowPolicy.BLOCK, 1);
+        buffer.offer("a");
+        buffer.offer("b");
+        Thread producer = new Thread(() -> buffer.offer("c"));
+        producer.start();
+        Thread.sleep(50);
+        Assert.assertTrue(producer.isAlive());
+
+        Assert.assertEquals("a", buffer.poll());
+        producer.join(5000);
+        Assert.assertFalse(producer.isAlive());
+        Assert.assertEquals(0, buffer.getDroppedCount());
+    }
+
+    @Test
+    public void testEventsOfConcurrentProducersAreNotLost() throws InterruptedException {
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(64, EventRingBuffer.OverflowPolicy.BLOCK, 1);
+        int producers = 4;
+        int eventsPerProducer = 10000;
+        Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < eventsPerProducer; j++) {
+                    buffer.offer(j);
+                }
+            });
+            threads[i].start();
+        }
+        long sum = 0;
+        int consumed = 0;
+        List<Integer> events = new ArrayList<>();
+        while (consumed < producers * eventsPerProducer && buffer.await(5, TimeUnit.SECONDS)) {
+            events.clear();
+            consumed += buffer.drainTo(events, 100);
+            for (int event : events) {
+                sum += event;
+            }
+        }
+
+        Assert.assertEquals(producers * eventsPerProducer, consumed);
+        Assert.assertEquals((long) producers * eventsPerProducer * (eventsPerProducer - 1) / 2, sum);
+        Assert.assertEquals(producers * eventsPerProducer, buffer.getEnqueuedCount());
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for {@link ResponseCache}.
+ */
+public class ResponseCacheTest {
+
+    private static final byte[] BODY = "{\"menu\":[]}".getBytes(StandardCharsets.UTF_8);
+    private static final String VARY_HEADERS = "Accept, Accept-Encoding";
+
+    @Test
+    public void testKeyIsNormalized() {
+        Assert.assertEquals(ResponseCache.createKey("GET", "/menu?b=2&a=1", "PRODUCTION"),
+                ResponseCache.createKey("GET", "/menu?a=1&&b=2", "PRODUCTION"));
+        Assert.assertEquals("GET /menu\nPRODUCTION", ResponseCache.createKey("GET", "/menu", "PRODUCTION"));
+        Assert.assertFalse(ResponseCache.createKey("GET", "/menu", "PRODUCTION")
+                .equals(ResponseCache.createKey("GET", "/menu", "SANDBOX")));
+        Assert.assertFalse(ResponseCache.createKey("GET", "/menu", "")
+                .equals(ResponseCache.createKey("HEAD", "/menu", "")));
+    }
+
+    @Test
+    public void testCacheability() {
+        Assert.assertTrue(ResponseCache.isCacheable(200, headers()));
+        Assert.assertTrue(ResponseCache.isCacheable(404, headers()));
+        Assert.assertTrue(ResponseCache.isCacheable(200, headers("cache-control", "public, max-age=60")));
+        Assert.assertFalse(ResponseCache.isCacheable(500, headers()));
+        Assert.assertFalse(ResponseCache.isCacheable(201, headers()));
+        Assert.assertFalse(ResponseCache.isCacheable(200, headers("cache-control", "No-Store")));
+        Assert.assertFalse(ResponseCache.isCacheable(200, headers("cache-control", "private")));
+        Assert.assertFalse(ResponseCache.isCacheable(200, headers("set-cookie", "session=1")));
+    }
+
+    @Test
+    public void testFreshnessLifetime() {
+        Assert.assertEquals(300000, ResponseCache.getFreshnessLifetime(headers(), 300000));
+        Assert.assertEquals(60000, ResponseCache.getFreshnessLifetime(headers("cache-control", "public, max-age=60"),
+                300000));
+        Assert.assertEquals(300000, ResponseCache.getFreshnessLifetime(headers("cache-control", "max-age=3600"),
+                300000));
+        Assert.assertEquals("s-maxage should take precedence over max-age", 10000L,
+                ResponseCache.getFreshnessLifetime(headers("cache-control", "max-age=60, S-MaxAge=\"10\""), 300000));
+        Assert.assertEquals(0, ResponseCache.getFreshnessLifetime(headers("cache-control", "max-age=60, no-cache"),
+                300000));
+        Assert.assertEquals(0, ResponseCache.getFreshnessLifetime(headers("cache-control", "no-cache=\"Set-Cookie\""),
+                300000));
+        Assert.assertEquals(0, ResponseCache.getFreshnessLifetime(headers("cache-control", "max-age=soon"), 300000));
+    }
+
+    @Test
+    public void testFreshnessIsCappedByMaxAge() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 1024 * 1024, false, VARY_HEADERS);
+        long now = System.currentTimeMillis();
+        cache.put("key", "api", 200, headers("Cache-Control", "max-age=1"), BODY, now + 300000);
+
+        Assert.assertTrue(cache.get("key", "api", now).isFresh(now));
+        Assert.assertNull(cache.get("key", "api", now + 5000));
+    }
+
+    @Test
+    public void testNoCacheResponseIsRevalidated() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 1024 * 1024, false, VARY_HEADERS);
+        long now = System.currentTimeMillis();
+        Assert.assertTrue(cache.put("key", "api", 200, headers("Cache-Control", "no-cache", "ETag", "\"v1\""), BODY,
+                now + 300000));
+
+        ResponseCache.Entry stale = cache.get("key", "api", System.currentTimeMillis());
+        Assert.assertNotNull(stale);
+        Assert.assertFalse("A no-cache response should be revalidated before it is served",
+                stale.isFresh(System.currentTimeMillis()));
+
+        ResponseCache.Entry renewed = cache.revalidate("key", "api", headers(), now + 300000);
+        Assert.assertFalse(renewed.isFresh(System.currentTimeMillis()));
+        Assert.assertEquals(0, cache.getMetrics("api").getHits());
+    }
+
+    @Test
+    public void testNoCacheResponseWithoutValidatorsIsNotCached() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 1024 * 1024, false, VARY_HEADERS);
+        Assert.assertFalse(cache.put("key", "api", 200, headers("Cache-Control", "no-cache"), BODY,
+                System.currentTimeMillis() + 300000));
+        Assert.assertFalse(cache.put("zero", "api", 200, headers("Cache-Control", "max-age=0"), BODY,
+                System.currentTimeMillis() + 300000));
+        Assert.assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    public void testFreshResponseIsHit() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 1024 * 1024, false, VARY_HEADERS);
+        long now = System.currentTimeMillis();
+        Assert.assertTrue(cache.put("key", "api", 200, headers("Content-Type", "application/json", "Connection",
+                "keep-alive"), BODY, now + 1000));
+
+        ResponseCache.Entry entry = cache.get("key", "api", now);
+        Assert.assertNotNull(entry);
+        Assert.assertTrue(entry.isFresh(now));
+        Assert.assertEquals(200, entry.getStatusCode());
+        Assert.assertEquals(ByteBuffer.wrap(BODY), entry.getBody());
+        Assert.assertEquals("application/json", entry.getHeaders().get("content-type"));
+        Assert.assertFalse("Hop-by-hop headers should not be cached", entry.getHeaders().containsKey("connection"));
+        Assert.assertNull(cache.get("other", "api", now));
+        Assert.assertEquals(1, cache.getMetrics("api").getHits());
+        Assert.assertEquals(1, cache.getMetrics("api").getMisses());
+    }
+
+    @Test
+    public void testExpiredResponseWithoutValidatorsIsDropped() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 1024 * 1024, false, VARY_HEADERS);
+        long now = System.currentTimeMillis();
+        cache.put("key", "api", 200, headers(), BODY, now - 1);
+
+        Assert.assertNull(cache.get("key", "api", now));
+        Assert.assertEquals(0, cache.getEntryCount());
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testExpiredResponseIsRevalidated() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 1024 * 1024, false, VARY_HEADERS);
+        long now = System.currentTimeMillis();
+        cache.put("key", "api", 200, headers("ETag", "\"v1\"", "Cache-Control", "max-age=1"), BODY, now - 1);
+
+        ResponseCache.Entry stale = cache.get("key", "api", now);
+        Assert.assertNotNull("A response with an ETag should be kept for revalidation", stale);
+        Assert.assertFalse(stale.isFresh(now));
+        Assert.assertEquals("\"v1\"", stale.getETag());
+        Assert.assertEquals(1, cache.getMetrics("api").getMisses());
+
+        ResponseCache.Entry renewed = cache.revalidate("key", "api", headers("Cache-Control", "max-age=60"),
+                now + 1000);
+        Assert.assertTrue(renewed.isFresh(now));
+        Assert.assertEquals("max-age=60", renewed.getHeaders().get("cache-control"));
+        Assert.assertEquals("\"v1\"", renewed.getETag());
+        Assert.assertEquals(ByteBuffer.wrap(BODY), renewed.getBody());
+        Assert.assertEquals(1, cache.getMetrics("api").getRevalidations());
+        Assert.assertTrue(cache.get("key", "api", now).isFresh(now));
+        Assert.assertNull(cache.revalidate("missing", "api", headers(), now + 1000));
+    }
+
+    @Test
+    public void testConditionalRequests() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 1024 * 1024, false, VARY_HEADERS);
+        long now = System.currentTimeMillis();
+        cache.put("etag", "api", 200, headers("ETag", "W/\"v1\""), BODY, now + 1000);
+        cache.put("date", "api", 200, headers("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT"), BODY, now + 1000);
+
+        ResponseCache.Entry tagged = cache.get("etag", "api", now);
+        Assert.assertTrue(tagged.isNotModified("\"v1\"", ""));
+        Assert.assertTrue(tagged.isNotModified("\"v0\", W/\"v1\"", ""));
+        Assert.assertTrue(tagged.isNotModified("*", ""));
+        Assert.assertFalse(tagged.isNotModified("\"v2\"", ""));
+        Assert.assertFalse(tagged.isNotModified("", ""));
+
+        ResponseCache.Entry dated = cache.get("date", "api", now);
+        Assert.assertTrue(dated.isNotModified("", "Wed, 21 Oct 2015 07:28:00 GMT"));
+        Assert.assertFalse(dated.isNotModified("", "Tue, 20 Oct 2015 07:28:00 GMT"));
+        Assert.assertFalse("If-None-Match takes precedence", dated.isNotModified("\"v1\"",
+                "Wed, 21 Oct 2015 07:28:00 GMT"));
+    }
+
+    @Test
+    public void testLargeResponseIsNotCached() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 512, false, VARY_HEADERS);
+        Assert.assertFalse(cache.put("key", "api", 200, headers(), new byte[1024], System.currentTimeMillis()
+                + 1000));
+        Assert.assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    public void testResponsesExpiringFirstAreEvicted() {
+        ResponseCache cache = new ResponseCache(3 * 1024, 1024, false, VARY_HEADERS);
+        long now = System.currentTimeMillis();
+        cache.put("late", "a", 200, headers(), new byte[600], now + 3000);
+        cache.put("early", "b", 200, headers(), new byte[600], now + 1000);
+        cache.put("middle", "a", 200, headers(), new byte[600], now + 2000);
+        Assert.assertEquals(3, cache.getEntryCount());
+
+        cache.put("new", "a", 200, headers(), new byte[600], now + 4000);
+        Assert.assertEquals(3, cache.getEntryCount());
+        Assert.assertNull(cache.get("early", "b", now));
+        Assert.assertNotNull(cache.get("middle", "a", now));
+        Assert.assertEquals(1, cache.getMetrics("b").getEvictions());
+        Assert.assertEquals(0, cache.getMetrics("a").getEvictions());
+        Assert.assertTrue(cache.size() <= 3 * 1024);
+    }
+
+    @Test
+    public void testReplacedResponseIsCountedOnce() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 1024 * 1024, false, VARY_HEADERS);
+        long now = System.currentTimeMillis();
+        cache.put("key", "api", 200, headers(), BODY, now + 1000);
+        long size = cache.size();
+        cache.put("key", "api", 200, headers(), BODY, now + 2000);
+
+        Assert.assertEquals(1, cache.getEntryCount());
+        Assert.assertEquals(size, cache.size());
+    }
+
+    @Test
+    public void testOffHeapBody() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 1024 * 1024, true, VARY_HEADERS);
+        long now = System.currentTimeMillis();
+        byte[] body = BODY.clone();
+        cache.put("key", "api", 200, headers(), body, now + 1000);
+        body[0] = 'x';
+
+        ResponseCache.Entry entry = cache.get("key", "api", now);
+        Assert.assertEquals(ByteBuffer.wrap(BODY), entry.getBody());
+        ByteBuffer read = entry.getBody();
+        read.get(new byte[read.remaining()]);
+        Assert.assertEquals("Bodies should be readable more than once", ByteBuffer.wrap(BODY), entry.getBody());
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void testBodyIsReadOnly() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 1024 * 1024, false, VARY_HEADERS);
+        long now = System.currentTimeMillis();
+        cache.put("key", "api", 200, headers(), BODY.clone(), now + 1000);
+
+        cache.get("key", "api", now).getBody().put(0, (byte) 'x');
+    }
+
+    @Test
+    public void testResponseVaryingOnHeadersOutsideTheKeyIsNotCached() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 1024 * 1024, false, VARY_HEADERS);
+        long now = System.currentTimeMillis();
+        Assert.assertTrue(cache.put("keyed", "api", 200, headers("Vary", "accept-encoding, Accept"), BODY,
+                now + 1000));
+        Assert.assertFalse(cache.put("cookie", "api", 200, headers("Vary", "Accept, Cookie"), BODY, now + 1000));
+        Assert.assertFalse(cache.put("any", "api", 200, headers("Vary", "*"), BODY, now + 1000));
+        Assert.assertEquals(1, cache.getEntryCount());
+    }
+
+    @Test
+    public void testRevalidationVaryingOnHeadersOutsideTheKeyIsNotCached() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 1024 * 1024, false, VARY_HEADERS);
+        long now = System.currentTimeMillis();
+        cache.put("key", "api", 200, headers("ETag", "\"v1\""), BODY, now - 1);
+
+        ResponseCache.Entry renewed = cache.revalidate("key", "api", headers("Vary", "User-Agent"), now + 1000);
+        Assert.assertNotNull("The renewed response should still be served", renewed);
+        Assert.assertEquals(ByteBuffer.wrap(BODY), renewed.getBody());
+        Assert.assertEquals(0, cache.getEntryCount());
+        Assert.assertEquals(0, cache.size());
+    }
+
+    private static Map<String, String> headers(String... nameValues) {
+        Map<String, String> headers = new HashMap<>();
+        for (int i = 0; i < nameValues.length; i += 2) {
+            headers.put(nameValues[i], nameValues[i + 1]);
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.etcd;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for {@link EtcdWatcher}.
+ */
+public class EtcdWatcherTest {
+
+    private static final String CLOSE_STREAM = "close";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private EtcdWatcher watcher;
+    private final Map<String, String> store = new ConcurrentHashMap<>();
+    private final AtomicLong revision = new AtomicLong(1);
+    // events to be sent through the last watch stream opened
+    private volatile BlockingQueue<String> watchEvents = new LinkedBlockingQueue<>();
+    private final AtomicInteger watchCount = new AtomicInteger();
+    private volatile String rangeAuthorization;
+    private volatile boolean authenticationEnabled;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v3alpha/auth/authenticate", exchange -> {
+            if (authenticationEnabled) {
+                respond(exchange, 200, "{\"token\":\"etcd-token\"}");
+            } else {
+                respond(exchange, 400, "{\"error\":\"etcdserver: authentication is not enabled\",\"code\":9}");
+            }
+        });
+        server.createContext("/v3alpha/kv/range", exchange -> {
+            rangeAuthorization = exchange.getRequestHeaders().getFirst("Authorization");
+            Map<String, Object> request = EtcdWatcher.parse(new InputStreamReader(exchange.getRequestBody(),
+                    StandardCharsets.UTF_8));
+            String start = decode(request.get("key"));
+            String end = decode(request.get("range_end"));
+            StringBuilder kvs = new StringBuilder();
+            for (Map.Entry<String, String> entry : store.entrySet()) {
+                if (entry.getKey().compareTo(start) >= 0 && entry.getKey().compareTo(end) < 0) {
+                    kvs.append(kvs.length() == 0 ? "" : ",").append(toKeyValue(entry.getKey(), entry.getValue()));
+                }
+            }
+            respond(exchange, 200, "{\"header\":{\"revision\":\"" + revision.get() + "\"},\"kvs\":[" + kvs
+                    + "],\"count\":\"" + store.size() + "\"}");
+        });
+        server.createContext("/v3alpha/watch", this::streamWatchEvents);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        if (watcher != null) {
+            watcher.stop();
+        }
+        watchEvents.add(CLOSE_STREAM);
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testRegisteredKeysAreReadWithASingleRangeQuery() throws Exception {
+        store.put("/endpoints/a", "http://a.example.com");
+        store.put("/endpoints/b", "http://b.example.com");
+        store.put("/other", "http://other.example.com");
+        watcher = createWatcher("");
+        watcher.register("/endpoints/a", "http://default-a");
+        watcher.register("/endpoints/b", "http://b.example.com");
+        watcher.register("/endpoints/c", "http://default-c");
+        watcher.start();
+
+        Map<String, String> changes = waitForChanges(2);
+
+        Assert.assertEquals(2, changes.size());
+        Assert.assertEquals("http://a.example.com", changes.get("/endpoints/a"));
+        // a key which is not defined at etcd is reported as empty, so that the default URL is used
+        Assert.assertEquals("", changes.get("/endpoints/c"));
+        Assert.assertEquals(1, watcher.getRangeQueryCount());
+        Assert.assertNull(rangeAuthorization);
+    }
+
+    @Test
+    public void testWatchEventsAreApplied() throws Exception {
+        store.put("/endpoints/a", "http://a.example.com");
+        store.put("/endpoints/b", "http://b.example.com");
+        watcher = createWatcher("/endpoints/");
+        watcher.register("/endpoints/a", "http://a.example.com");
+        watcher.register("/endpoints/b", "http://b.example.com");
+        watcher.start();
+        waitForWatch(1);
+
+        put("/endpoints/a", "http://new-a.example.com", true);
+        put("/endpoints/unused", "http://unused.example.com", true);
+        delete("/endpoints/b");
+        Map<String, String> changes = waitForChanges(2);
+
+        Assert.assertEquals(2, changes.size());
+        Assert.assertEquals("http://new-a.example.com", changes.get("/endpoints/a"));
+        Assert.assertEquals("", changes.get("/endpoints/b"));
+        Assert.assertEquals(1, watcher.getRangeQueryCount());
+    }
+
+    @Test
+    public void testChangesMissedWhileTheStreamIsBrokenAreRead() throws Exception {
+        store.put("/endpoints/a", "http://a.example.com");
+        watcher = createWatcher("");
+        watcher.register("/endpoints/a", "http://a.example.com");
+        watcher.start();
+        waitForWatch(1);
+
+        put("/endpoints/a", "http://new-a.example.com", false);
+        watchEvents.add(CLOSE_STREAM);
+        Map<String, String> changes = waitForChanges(1);
+
+        Assert.assertEquals("http://new-a.example.com", changes.get("/endpoints/a"));
+        waitForWatch(2);
+        Assert.assertEquals(2, watcher.getRangeQueryCount());
+    }
+
+    @Test
+    public void testKeyOutsideOfTheWatchedRangeRestartsTheWatch() throws Exception {
+        store.put("/endpoints/b", "http://b.example.com");
+        store.put("/endpoints/z", "http://z.example.com");
+        watcher = createWatcher("");
+        watcher.register("/endpoints/b", "http://b.example.com");
+        watcher.start();
+        waitForWatch(1);
+
+        watcher.register("/endpoints/z", "http://default-z");
+        Map<String, String> changes = waitForChanges(1);
+
+        Assert.assertEquals("http://z.example.com", changes.get("/endpoints/z"));
+        waitForWatch(2);
+        put("/endpoints/z", "http://new-z.example.com", true);
+        Assert.assertEquals("http://new-z.example.com", waitForChanges(1).get("/endpoints/z"));
+    }
+
+    @Test
+    public void testKeysRegisteredTogetherRestartTheWatchOnce() throws Exception {
+        store.put("/endpoints/b", "http://b.example.com");
+        watcher = createWatcher("");
+        watcher.register("/endpoints/b", "http://b.example.com");
+        watcher.start();
+        waitForWatch(1);
+
+        for (char c = 'c'; c <= 'z'; c++) {
+            store.put("/endpoints/" + c, "http://" + c + ".example.com");
+            watcher.register("/endpoints/" + c, "http://default-" + c);
+        }
+        Map<String, String> changes = waitForChanges(24);
+
+        Assert.assertEquals(24, changes.size());
+        waitForWatch(2);
+        Assert.assertEquals(2, watchCount.get());
+        Assert.assertEquals(2, watcher.getRangeQueryCount());
+    }
+
+    @Test
+    public void testSilentWatchStreamIsReopened() throws Exception {
+        store.put("/endpoints/a", "http://a.example.com");
+        watcher = new EtcdWatcher("http://localhost:" + server.getAddress().getPort(), "", "", "", 20, 200, null);
+        watcher.register("/endpoints/a", "http://a.example.com");
+        watcher.start();
+        waitForWatch(1);
+
+        // the change is not sent through the stream, as if the connection was dropped without being closed
+        put("/endpoints/a", "http://new-a.example.com", false);
+        Map<String, String> changes = waitForChanges(1);
+
+        Assert.assertEquals("http://new-a.example.com", changes.get("/endpoints/a"));
+        waitForWatch(2);
+    }
+
+    @Test
+    public void testTokenIsSentWhenAuthenticationIsEnabled() throws Exception {
+        authenticationEnabled = true;
+        store.put("/endpoints/a", "http://a.example.com");
+        watcher = new EtcdWatcher("http://localhost:" + server.getAddress().getPort(), "root", "root", "", 20, null);
+        watcher.register("/endpoints/a", "http://default-a");
+        watcher.start();
+
+        waitForChanges(1);
+
+        Assert.assertEquals("etcd-token", rangeAuthorization);
+    }
+
+    private EtcdWatcher createWatcher(String prefix) throws MalformedURLException {
+        return new EtcdWatcher("http://localhost:" + server.getAddress().getPort(), "", "", prefix, 20, null);
+    }
+
+    private void streamWatchEvents(HttpExchange exchange) throws IOException {
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        watchEvents = events;
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            writeLine(out, "{\"result\":{\"header\":{\"revision\":\"" + revision.get() + "\"},\"created\":true}}");
+            watchCount.incrementAndGet();
+            while (true) {
+                String event = events.poll(10, TimeUnit.SECONDS);
+                if (event == null || CLOSE_STREAM.equals(event)) {
+                    return;
+                }
+                writeLine(out, event);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void put(String key, String value, boolean notify) {
+        store.put(key, value);
+        long modRevision = revision.incrementAndGet();
+        if (notify) {
+            watchEvents.add("{\"result\":{\"header\":{\"revision\":\"" + modRevision + "\"},\"events\":[{\"kv\":"
+                    + toKeyValue(key, value).replace("}", ",\"mod_revision\":\"" + modRevision + "\"}") + "}]}}");
+        }
+    }
+
+    private void delete(String key) {
+        store.remove(key);
+        long modRevision = revision.incrementAndGet();
+        watchEvents.add("{\"result\":{\"header\":{\"revision\":\"" + modRevision + "\"},\"events\":[{\"type\":"
+                + "\"DELETE\",\"kv\":{\"key\":\"" + encode(key) + "\",\"mod_revision\":\"" + modRevision + "\"}}]}}");
+    }
+
+    private Map<String, String> waitForChanges(int count) throws InterruptedException {
+        Map<String, String> changes = new HashMap<>();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (changes.size() < count && System.currentTimeMillis() < deadline) {
+            changes.putAll(watcher.drainChanges());
+            Thread.sleep(10);
+        }
+        // changes which were not expected
+        Thread.sleep(50);
+        changes.putAll(watcher.drainChanges());
+        return changes;
+    }
+
+    private void waitForWatch(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (watchCount.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue("Watch stream should be opened " + count + " time(s)", watchCount.get() >= count);
+        // let the watcher read the response which confirms the watch
+        Thread.sleep(50);
+    }
+
+    private static void writeLine(OutputStream out, String line) throws IOException {
+        out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String toKeyValue(String key, String value) {
+        return "{\"key\":\"" + encode(key) + "\",\"value\":\"" + encode(value) + "\"}";
+    }
+
+    private static String encode(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(Object value) {
+        return new String(Base64.getDecoder().decode(String.valueOf(value)), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.ballerina.gateway.security;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests for {@link HttpConnectionPool}.
+ */
+public class HttpConnectionPoolTest {
+
+    private static final String[] HEADERS = {"Content-Type", "text/plain"};
+    private static final byte[] BODY = "request".getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private volatile int status = 200;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().close();
+            // responses without a body are sent without a content length
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testResponsesWithoutContentHaveNoBody() throws IOException {
+        HttpConnectionPool pool = createPool(1, 5000);
+        for (int responseStatus : new int[]{204, 304}) {
+            status = responseStatus;
+            long start = System.currentTimeMillis();
+            HttpConnectionPool.Response response = pool.post("/", HEADERS, BODY);
+            try (InputStream in = response.getBody()) {
+                Assert.assertEquals(responseStatus, response.getStatus());
+                Assert.assertEquals(-1, in.read());
+            }
+            Assert.assertTrue("The body should not be read until the read timeout",
+                    System.currentTimeMillis() - start < 5000);
+        }
+
+        Assert.assertEquals(1L, pool.getOpenedCount());
+        Assert.assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void testRequestWaitsForAConnectionOnceAllAreInUse() throws IOException {
+        HttpConnectionPool pool = createPool(1, 200);
+        HttpConnectionPool.Response response = pool.post("/", HEADERS, BODY);
+        try {
+            pool.post("/", HEADERS, BODY);
+            Assert.fail("A request should fail once the only connection stayed in use for the connect timeout");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("in use"));
+        }
+        response.getBody().close();
+        pool.post("/", HEADERS, BODY).getBody().close();
+
+        Assert.assertEquals(1L, pool.getOpenedCount());
+    }
+
+    @Test
+    public void testAbortedConnectionIsNotPooled() throws IOException {
+        HttpConnectionPool pool = createPool(1, 200);
+        HttpConnectionPool.Response response = pool.post("/", HEADERS, BODY);
+        response.abort();
+        response.getBody().close();
+        pool.post("/", HEADERS, BODY).getBody().close();
+
+        Assert.assertEquals(2L, pool.getOpenedCount());
+        Assert.assertEquals(1, pool.getIdleCount());
+    }
+
+    private HttpConnectionPool createPool(int maxConnections, int connectTimeout) throws IOException {
+        return new HttpConnectionPool(new URL("http://localhost:" + server.getAddress().getPort()), null, true,
+                maxConnections, connectTimeout, 5000);
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.security;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+/**
+ * Tests for {@link KeyValidationClient}.
+ */
+public class KeyValidationClientTest {
+
+    private static final String VALID_RESPONSE = "<soapenv:Envelope "
+            + "xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\"><soapenv:Body>"
+            + "<ns:validateKeyResponse xmlns:ns=\"http://org.apache.axis2/xsd\">"
+            + "<ns:return xmlns:ax2133=\"http://dto.impl.apimgt.carbon.wso2.org/xsd\" "
+            + "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:type=\"ax2133:APIKeyValidationInfoDTO\">"
+            + "<ax2133:apiName>PizzaShackAPI</ax2133:apiName>"
+            + "<ax2133:apiTier xsi:nil=\"true\" />"
+            + "<ax2133:authorized>true</ax2133:authorized>"
+            + "<ax2133:endUserName>admin@carbon.super</ax2133:endUserName>"
+            + "<ax2133:scopes>default</ax2133:scopes>"
+            + "<ax2133:subscriber>R&amp;D</ax2133:subscriber>"
+            + "<ax2133:type>PRODUCTION</ax2133:type>"
+            + "<ax2133:validationStatus>0</ax2133:validationStatus>"
+            + "</ns:return></ns:validateKeyResponse></soapenv:Body></soapenv:Envelope>";
+    private static final String FAULT_RESPONSE = "<soapenv:Envelope "
+            + "xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\"><soapenv:Body><soapenv:Fault>"
+            + "<faultcode>soapenv:Server</faultcode><faultstring>Access Denied</faultstring>"
+            + "</soapenv:Fault></soapenv:Body></soapenv:Envelope>";
+
+    private HttpServer server;
+    private final List<byte[]> requests = new CopyOnWriteArrayList<>();
+    private final Set<String> clientPorts = ConcurrentHashMap.newKeySet();
+    private volatile int status = 200;
+    private volatile String response = VALID_RESPONSE;
+    private volatile CountDownLatch responseGate;
+    private volatile boolean chunked;
+
+    @Before
+    public void setUp() throws IOException {
+        startServer(0);
+    }
+
+    private void startServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/services/APIKeyValidationService", exchange -> {
+            requests.add(read(exchange.getRequestBody()));
+            clientPorts.add(String.valueOf(exchange.getRemoteAddress().getPort()));
+            if (responseGate != null) {
+                try {
+                    responseGate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] body = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/xml");
+            exchange.sendResponseHeaders(status, chunked ? 0 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testRequestIsFilledWithEscapedValues() throws Exception {
+        byte[] request = KeyValidationClient.createRequest("/pizza<shack>", "1.0.0", "token&\"'", "Any", "*",
+                "/menu", "GET");
+
+        Document document = parse(request);
+        Assert.assertEquals("/pizza<shack>", getText(document, "context"));
+        Assert.assertEquals("1.0.0", getText(document, "version"));
+        Assert.assertEquals("token&\"'", getText(document, "accessToken"));
+        Assert.assertEquals("Any", getText(document, "requiredAuthenticationLevel"));
+        Assert.assertEquals("*", getText(document, "clientDomain"));
+        Assert.assertEquals("/menu", getText(document, "matchingResource"));
+        Assert.assertEquals("GET", getText(document, "httpVerb"));
+    }
+
+    @Test
+    public void testKeyValidationInfoIsRead() throws IOException {
+        Map<String, String> info = createClient().validate("token:/pizzashack:1.0.0", "/pizzashack", "1.0.0", "token",
+                "Any", "*", "/menu", "GET");
+
+        Assert.assertEquals("PizzaShackAPI", info.get("apiName"));
+        Assert.assertEquals("true", info.get("authorized"));
+        Assert.assertEquals("admin@carbon.super", info.get("endUserName"));
+        Assert.assertEquals("R&D", info.get("subscriber"));
+        Assert.assertEquals("PRODUCTION", info.get("type"));
+        Assert.assertEquals("0", info.get("validationStatus"));
+        // nil and missing fields are empty
+        Assert.assertEquals("", info.get("apiTier"));
+        Assert.assertEquals("", info.get("consumerKey"));
+        Assert.assertEquals(KeyValidationClient.RESPONSE_FIELDS.length, info.size());
+        Assert.assertTrue(new String(requests.get(0), StandardCharsets.UTF_8)
+                .contains("<xsd:accessToken>token</xsd:accessToken>"));
+    }
+
+    @Test
+    public void testConnectionIsReused() throws IOException {
+        KeyValidationClient client = createClient();
+        for (int i = 0; i < 10; i++) {
+            client.validate("token" + i, "/pizzashack", "1.0.0", "token" + i, "Any", "*", "/menu", "GET");
+        }
+
+        Assert.assertEquals(10, requests.size());
+        Assert.assertEquals(1, clientPorts.size());
+        Assert.assertEquals(1, client.getConnectionPool().getOpenedCount());
+    }
+
+    @Test
+    public void testConnectionIsReusedAfterChunkedResponse() throws IOException {
+        chunked = true;
+        KeyValidationClient client = createClient();
+        for (int i = 0; i < 3; i++) {
+            Map<String, String> info = client.validate("token" + i, "/pizzashack", "1.0.0", "token" + i, "Any", "*",
+                    "/menu", "GET");
+            Assert.assertEquals("PizzaShackAPI", info.get("apiName"));
+        }
+
+        Assert.assertEquals(1, client.getConnectionPool().getOpenedCount());
+        Assert.assertEquals(1, client.getConnectionPool().getIdleCount());
+    }
+
+    @Test
+    public void testRequestIsResentWhenIdleConnectionWasClosed() throws IOException {
+        KeyValidationClient client = createClient();
+        client.validate("token1", "/pizzashack", "1.0.0", "token1", "Any", "*", "/menu", "GET");
+        // restarting the server closes the connection kept alive by the client
+        int port = server.getAddress().getPort();
+        server.stop(0);
+        startServer(port);
+        Map<String, String> info = client.validate("token2", "/pizzashack", "1.0.0", "token2", "Any", "*", "/menu",
+                "GET");
+
+        Assert.assertEquals("PizzaShackAPI", info.get("apiName"));
+        Assert.assertEquals(2, client.getConnectionPool().getOpenedCount());
+    }
+
+    @Test
+    public void testRepeatedFieldsAreConcatenated() throws IOException {
+        response = VALID_RESPONSE.replace("<ax2133:type>", "<ax2133:authorizedDomains>ALL</ax2133:authorizedDomains>"
+                + "<ax2133:throttlingDataList>api_level_throttling_key</ax2133:throttlingDataList>"
+                + "<ax2133:throttlingDataList>,resource_level_throttling_key</ax2133:throttlingDataList>"
+                + "<ax2133:type>");
+
+        Map<String, String> info = createClient().validate("token:/pizzashack:1.0.0", "/pizzashack", "1.0.0", "token",
+                "Any", "*", "/menu", "GET");
+
+        Assert.assertEquals("api_level_throttling_key,resource_level_throttling_key", info.get("throttlingDataList"));
+        Assert.assertEquals("ALL", info.get("authorizedDomains"));
+    }
+
+    @Test
+    public void testFaultIsReported() throws IOException {
+        status = 500;
+        response = FAULT_RESPONSE;
+        try {
+            createClient().validate("token:/pizzashack:1.0.0", "/pizzashack", "1.0.0", "token", "Any", "*", "/menu",
+                    "GET");
+            Assert.fail("A fault should be reported as an error");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("Access Denied"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testResponseWithoutKeyValidationInfoIsRejected() throws IOException {
+        response = "<html><body>Not Found</body></html>";
+        createClient().validate("token:/pizzashack:1.0.0", "/pizzashack", "1.0.0", "token", "Any", "*", "/menu", "GET");
+    }
+
+    @Test
+    public void testConcurrentValidationsAreCoalesced() throws Exception {
+        KeyValidationClient client = createClient();
+        responseGate = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Map<String, String>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> client.validate("token:/pizzashack:1.0.0", "/pizzashack", "1.0.0",
+                        "token", "Any", "*", "/menu", "GET")));
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (client.getCoalescedCount() < 7 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            responseGate.countDown();
+            for (Future<Map<String, String>> result : results) {
+                Assert.assertEquals("PizzaShackAPI", result.get(5, TimeUnit.SECONDS).get("apiName"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(1, requests.size());
+        Assert.assertEquals(7, client.getCoalescedCount());
+    }
+
+    @Test
+    public void testTokenIsRefreshedAheadOfExpiry() throws Exception {
+        KeyValidationClient client = createClient(50);
+        Assert.assertFalse("An unknown token should not be refreshed", client.isRefreshDue("token:/pizzashack:1.0.0"));
+        client.validate("token:/pizzashack:1.0.0", "/pizzashack", "1.0.0", "token", "Any", "*", "/menu", "GET");
+        Assert.assertFalse(client.isRefreshDue("token:/pizzashack:1.0.0"));
+
+        Thread.sleep(60);
+        Assert.assertTrue(client.isRefreshDue("token:/pizzashack:1.0.0"));
+        Assert.assertFalse("Only one caller should refresh the token", client.isRefreshDue("token:/pizzashack:1.0.0"));
+
+        client.validate("token:/pizzashack:1.0.0", "/pizzashack", "1.0.0", "token", "Any", "*", "/menu", "GET");
+        Assert.assertFalse(client.isRefreshDue("token:/pizzashack:1.0.0"));
+    }
+
+    @Test
+    public void testTokenIsNotRefreshedAfterFailedValidation() throws Exception {
+        KeyValidationClient client = createClient(50);
+        client.validate("token:/pizzashack:1.0.0", "/pizzashack", "1.0.0", "token", "Any", "*", "/menu", "GET");
+        Thread.sleep(60);
+        Assert.assertTrue(client.isRefreshDue("token:/pizzashack:1.0.0"));
+
+        status = 500;
+        response = FAULT_RESPONSE;
+        try {
+            client.validate("token:/pizzashack:1.0.0", "/pizzashack", "1.0.0", "token", "Any", "*", "/menu", "GET");
+            Assert.fail("A fault should be reported as an error");
+        } catch (IOException e) {
+            Thread.sleep(60);
+            Assert.assertFalse(client.isRefreshDue("token:/pizzashack:1.0.0"));
+        }
+    }
+
+    private KeyValidationClient createClient() throws IOException {
+        return createClient(0);
+    }
+
+    private KeyValidationClient createClient(long refreshAfter) throws IOException {
+        return new KeyValidationClient("http://localhost:" + server.getAddress().getPort()
+                + "/services/APIKeyValidationService", "admin", "admin", 5, 5000, 5000, refreshAfter, 100, null, true);
+    }
+
+    private static Document parse(byte[] xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+    }
+
+    private static String getText(Document document, String name) {
+        return document.getElementsByTagNameNS("http://org.apache.axis2/xsd", name).item(0).getTextContent();
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[1024];
+        int length;
+        while ((length = in.read(chunk)) != -1) {
+            out.write(chunk, 0, length);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures checking whether a token is revoked with {@link RevokedTokenStore}, with and without its Bloom filter. Most
+ * tokens checked by the gateway are not revoked, so both revoked and valid tokens are looked up. The JTIs are created
+ * up front, so that only the lookup is measured. Run with the main method from the test classpath. The comparison with
+ * the scan of the revoked token map the gateway did before is made by security/revoked_token_benchmark.bal, since
+ * that lookup only runs in Ballerina.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class RevokedTokenStoreBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int revokedTokens;
+
+    @Param({"false", "true"})
+    private boolean bloomFilterEnabled;
+
+    private String[] revokedJtis;
+    private String[] validJtis;
+    private RevokedTokenStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long now = System.currentTimeMillis();
+        revokedJtis = new String[revokedTokens];
+        validJtis = new String[revokedTokens];
+        store = new RevokedTokenStore(revokedTokens, bloomFilterEnabled);
+        for (int i = 0; i < revokedTokens; i++) {
+            revokedJtis[i] = "revoked" + i;
+            validJtis[i] = "valid" + i;
+            store.add(revokedJtis[i], RevokedTokenStore.getExpiryTime("3600", now), now);
+        }
+    }
+
+    @Benchmark
+    public boolean validToken() {
+        return store.isRevoked(validJtis[ThreadLocalRandom.current().nextInt(revokedTokens)],
+                System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public boolean revokedToken() {
+        return store.isRevoked(revokedJtis[ThreadLocalRandom.current().nextInt(revokedTokens)],
+                System.currentTimeMillis());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RevokedTokenStoreBenchmark.class.getSimpleName()).build()).run();
+    }
+}
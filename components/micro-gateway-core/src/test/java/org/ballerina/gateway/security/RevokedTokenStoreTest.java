@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.security;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link RevokedTokenStore}.
+ */
+public class RevokedTokenStoreTest {
+
+    @Test
+    public void testTokenIsRevokedUntilItExpires() {
+        long now = System.currentTimeMillis();
+        RevokedTokenStore store = new RevokedTokenStore(10, true);
+        store.add("jti1", RevokedTokenStore.getExpiryTime("60", now), now);
+        store.add("jti2", RevokedTokenStore.getExpiryTime("-1", now), now);
+
+        Assert.assertTrue(store.isRevoked("jti1", now + 59000));
+        Assert.assertFalse(store.isRevoked("jti1", now + 61000));
+        Assert.assertTrue(store.isRevoked("jti2", now + 61000));
+        Assert.assertFalse(store.isRevoked("jti3", now));
+        Assert.assertEquals(1, store.size());
+    }
+
+    @Test
+    public void testExpiredTokensAreRemoved() {
+        long now = System.currentTimeMillis();
+        RevokedTokenStore store = new RevokedTokenStore(10, true);
+        store.add("jti1", now + 1000, now);
+        store.add("jti2", now + 3000, now);
+        store.add("jti3", now - 1000, now);
+        Assert.assertEquals(2, store.size());
+
+        store.removeExpired(now + 2000);
+        Assert.assertEquals(1, store.size());
+        Assert.assertFalse(store.isRevoked("jti1", now));
+        Assert.assertTrue(store.isRevoked("jti2", now));
+    }
+
+    @Test
+    public void testExpiredTokensAreRemovedOnceFull() {
+        long now = System.currentTimeMillis();
+        RevokedTokenStore store = new RevokedTokenStore(10, true);
+        for (int i = 0; i < 10; i++) {
+            store.add("jti" + i, now + (i + 1) * 1000, now);
+        }
+        store.add("jti10", now + 60000, now + 2500);
+
+        Assert.assertEquals(9, store.size());
+        Assert.assertFalse(store.isRevoked("jti1", now));
+        Assert.assertTrue(store.isRevoked("jti2", now));
+        Assert.assertTrue(store.isRevoked("jti10", now));
+    }
+
+    @Test
+    public void testUnexpiredTokensAreNotEvictedUntilTheMaximumCapacity() {
+        long now = System.currentTimeMillis();
+        RevokedTokenStore store = new RevokedTokenStore(10, true);
+        int maxCapacity = 10 * RevokedTokenStore.MAX_CAPACITY_FACTOR;
+        for (int i = 0; i < maxCapacity; i++) {
+            store.add("jti" + i, now + (i + 1) * 1000, now);
+        }
+
+        Assert.assertEquals(maxCapacity, store.size());
+        Assert.assertEquals(0L, store.getEvictedTokens());
+        for (int i = 0; i < maxCapacity; i++) {
+            Assert.assertTrue(store.isRevoked("jti" + i, now));
+        }
+    }
+
+    @Test
+    public void testTokensClosestToExpiryAreEvictedOnOverflow() {
+        long now = System.currentTimeMillis();
+        RevokedTokenStore store = new RevokedTokenStore(10, true);
+        int maxCapacity = 10 * RevokedTokenStore.MAX_CAPACITY_FACTOR;
+        for (int i = 0; i < maxCapacity; i++) {
+            store.add("jti" + i, now + (i + 2) * 1000, now);
+        }
+        store.add("soonest", now + 1000, now);
+
+        Assert.assertEquals(maxCapacity, store.size());
+        Assert.assertEquals(1L, store.getEvictedTokens());
+        Assert.assertTrue(store.isRevoked("soonest", now));
+        Assert.assertFalse(store.isRevoked("jti0", now));
+        Assert.assertTrue(store.isRevoked("jti1", now));
+    }
+
+    @Test
+    public void testBloomFilterIsRebuiltWhenConfigured() {
+        long now = System.currentTimeMillis();
+        RevokedTokenStore store = new RevokedTokenStore(10, false);
+        store.add("jti1", RevokedTokenStore.NO_EXPIRY, now);
+        store.configure(100, true);
+
+        Assert.assertTrue(store.isRevoked("jti1", now));
+        Assert.assertFalse(store.isRevoked("jti2", now));
+    }
+
+    @Test
+    public void testLookupWithoutBloomFilter() {
+        long now = System.currentTimeMillis();
+        RevokedTokenStore store = new RevokedTokenStore(10, false);
+        store.add("jti1", RevokedTokenStore.NO_EXPIRY, now);
+
+        Assert.assertTrue(store.isRevoked("jti1", now));
+        Assert.assertFalse(store.isRevoked("jti2", now));
+    }
+
+    @Test
+    public void testBloomFilterHasNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.add("jti" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertTrue(filter.mightContain("jti" + i));
+            if (filter.mightContain("token" + i)) {
+                falsePositives++;
+            }
+        }
+        Assert.assertTrue("False positives: " + falsePositives, falsePositives < 300);
+    }
+
+    @Test
+    public void testBloomFilterTellsApartStringsWithEqualHashCodes() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        filter.add("AaAa");
+        Assert.assertEquals("AaAa".hashCode(), "BBBB".hashCode());
+        Assert.assertTrue(filter.mightContain("AaAa"));
+        Assert.assertFalse(filter.mightContain("BBBB"));
+        Assert.assertFalse(filter.mightContain("AaBB"));
+    }
+}
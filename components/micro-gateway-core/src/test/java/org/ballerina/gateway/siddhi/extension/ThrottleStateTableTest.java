@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.siddhi.extension;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for {@link ThrottleStateTable}.
+ */
+public class ThrottleStateTableTest {
+
+    @Test
+    public void testOnlyStateChangesAndThrottledDecisionsAreEmitted() {
+        ThrottleStateTable table = new ThrottleStateTable(100, 1000);
+        Assert.assertTrue(table.update("app1", false, 60000, 0));
+        Assert.assertFalse(table.update("app1", false, 60000, 10));
+        Assert.assertTrue(table.update("app1", true, 60000, 20));
+        Assert.assertTrue(table.update("app1", true, 60000, 30));
+        Assert.assertTrue(table.update("app1", false, 120000, 60000));
+    }
+
+    @Test
+    public void testStateIsForgottenOnceDecisionExpires() {
+        ThrottleStateTable table = new ThrottleStateTable(100, 1000);
+        Assert.assertTrue(table.update("app1", false, 60000, 0));
+        Assert.assertTrue(table.update("app1", false, 120000, 60001));
+        // without an expiry time the state is kept for the idle time
+        Assert.assertTrue(table.update("app2", false, -1, 60001));
+        Assert.assertFalse(table.update("app2", false, -1, 61001));
+        Assert.assertTrue(table.update("app2", false, -1, 61002));
+        // expired states are swept when another key is updated
+        Assert.assertTrue(table.update("app3", false, 200000, 130000));
+        Assert.assertEquals(1, table.size());
+    }
+
+    @Test
+    public void testNumberOfKeysIsBounded() {
+        ThrottleStateTable table = new ThrottleStateTable(100, 1000);
+        for (int i = 0; i < 1000; i++) {
+            table.update("app" + i, false, 60000, 0);
+        }
+        Assert.assertTrue(table.size() <= 101);
+    }
+
+    @Test
+    public void testSnapshotIsRestored() {
+        ThrottleStateTable table = new ThrottleStateTable(100, 1000);
+        table.update("app1", false, 60000, 0);
+        table.update("app2", true, 60000, 0);
+        ThrottleStateTable restored = new ThrottleStateTable(100, 1000);
+        restored.restore(table.snapshot(), 10);
+        Assert.assertFalse(restored.update("app1", false, 60000, 20));
+        Assert.assertTrue(restored.update("app2", false, 60000, 20));
+
+        Map<String, Object> legacyState = new HashMap<>();
+        legacyState.put("app1", Boolean.FALSE);
+        restored.restore(legacyState, 10);
+        Assert.assertEquals(1, restored.size());
+        Assert.assertFalse(restored.update("app1", false, 60000, 20));
+    }
+}
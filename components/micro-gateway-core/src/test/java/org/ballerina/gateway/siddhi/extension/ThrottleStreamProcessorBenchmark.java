@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.siddhi.extension;
+
+import org.ballerinalang.siddhi.core.SiddhiAppRuntime;
+import org.ballerinalang.siddhi.core.SiddhiManager;
+import org.ballerinalang.siddhi.core.stream.input.InputHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of the counting query of a throttle policy when it is run with {@link
+ * ThrottleStreamProcessor} and with {@link KeyedThrottleStreamProcessor}, with requests sent from several threads as
+ * the request threads of the gateway do. Run with the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ThrottleStreamProcessorBenchmark {
+
+    private static final String STREAM_DEFINITION = "define stream eligibilityStream (throttleKey string, "
+            + "isEligible bool);\n";
+    private static final String TIME_BATCH_QUERY = "from eligibilityStream#throttler:timeBatch(60000)[isEligible "
+            + "== true]\nselect throttleKey, count() as eventCount, expiryTimeStamp\ngroup by throttleKey\n"
+            + "insert into intermediateStream;";
+    private static final String KEYED_TIME_BATCH_QUERY = "from eligibilityStream[isEligible == true]"
+            + "#throttler:keyedTimeBatch(60000, throttleKey)\nselect throttleKey, eventCount, expiryTimeStamp\n"
+            + "insert into intermediateStream;";
+
+    @Param({"1", "1000", "100000"})
+    private int keys;
+
+    @Param({"timeBatch", "keyedTimeBatch"})
+    private String window;
+
+    private SiddhiManager siddhiManager;
+    private SiddhiAppRuntime siddhiAppRuntime;
+    private InputHandler inputHandler;
+    private String[] throttleKeys;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("throttler:timeBatch", ThrottleStreamProcessor.class);
+        siddhiManager.setExtension("throttler:keyedTimeBatch", KeyedThrottleStreamProcessor.class);
+        String query = "timeBatch".equals(window) ? TIME_BATCH_QUERY : KEYED_TIME_BATCH_QUERY;
+        siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(STREAM_DEFINITION + query);
+        inputHandler = siddhiAppRuntime.getInputHandler("eligibilityStream");
+        siddhiAppRuntime.start();
+        throttleKeys = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            throttleKeys[i] = "admin:app" + i;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        siddhiAppRuntime.shutdown();
+        siddhiManager.shutdown();
+    }
+
+    @Benchmark
+    public void sendRequest() throws InterruptedException {
+        String throttleKey = throttleKeys[ThreadLocalRandom.current().nextInt(keys)];
+        inputHandler.send(new Object[] { throttleKey, true });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ThrottleStreamProcessorBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.throttle;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LocalThrottleEngine}.
+ */
+public class LocalThrottleEngineTest {
+
+    @Test
+    public void testKeyIsThrottledOnceLimitIsReached() {
+        ThrottleDecisionStore store = new ThrottleDecisionStore(100);
+        LocalThrottleEngine engine = new LocalThrottleEngine(store);
+        engine.addPolicy("appTier", "3PerMin", 3, 60000, true);
+        // start of the next window, as expired decisions are removed by the store
+        long now = (System.currentTimeMillis() / 60000 + 1) * 60000;
+
+        Assert.assertTrue(engine.throttle("appTier", "3PerMin", "admin:app1", now));
+        Assert.assertFalse(engine.throttle("appTier", "3PerMin", "admin:app1", now));
+        Assert.assertNull(store.get("admin:app1", now));
+        Assert.assertTrue(engine.throttle("appTier", "3PerMin", "admin:app1", now + 10));
+        Assert.assertTrue(store.get("admin:app1", now + 10).isStopOnQuota());
+        Assert.assertEquals(now + 60000, store.get("admin:app1", now + 10).getExpiryTime());
+
+        // a new window starts from the first request
+        Assert.assertTrue(engine.throttle("appTier", "3PerMin", "admin:app1", now + 60000));
+        Assert.assertNull(store.get("admin:app1", now + 60000));
+    }
+
+    @Test
+    public void testRequestsAreCountedOnlyAgainstTheirTier() {
+        ThrottleDecisionStore store = new ThrottleDecisionStore(100);
+        LocalThrottleEngine engine = new LocalThrottleEngine(store);
+        engine.addPolicy("appTier", "1PerMin", 1, 60000, true);
+        engine.addPolicy("subscriptionTier", "Gold", 1, 60000, false);
+        long now = System.currentTimeMillis();
+
+        Assert.assertFalse(engine.throttle("appTier", "Unlimited", "admin:app1", now));
+        Assert.assertFalse(engine.throttle("resourceTier", "1PerMin", "admin:app1", now));
+        Assert.assertNull(store.get("admin:app1", now));
+
+        Assert.assertTrue(engine.throttle("subscriptionTier", "Gold", "admin:app1:/pets:1.0.0", now));
+        Assert.assertFalse(store.get("admin:app1:/pets:1.0.0", now).isStopOnQuota());
+        Assert.assertNull(store.get("admin:app1", now));
+    }
+
+    @Test
+    public void testInternedKeyIsThrottledById() {
+        ThrottleDecisionStore store = new ThrottleDecisionStore(100, 100);
+        LocalThrottleEngine engine = new LocalThrottleEngine(store);
+        engine.addPolicy("appTier", "2PerMin", 2, 60000, false);
+        long now = (System.currentTimeMillis() / 60000 + 1) * 60000;
+        int key = store.intern("admin:app1");
+
+        Assert.assertTrue(engine.throttle("appTier", "2PerMin", key, now));
+        Assert.assertNull(store.get(key, now));
+        // requests counted by key and by id are counted together
+        Assert.assertTrue(engine.throttle("appTier", "2PerMin", "admin:app1", now));
+        Assert.assertFalse(store.get(key, now).isStopOnQuota());
+        Assert.assertNotNull(store.get("admin:app1", now));
+
+        Assert.assertTrue(engine.throttle("appTier", "2PerMin", key, now + 60000));
+        Assert.assertNull(store.get(key, now + 60000));
+    }
+}
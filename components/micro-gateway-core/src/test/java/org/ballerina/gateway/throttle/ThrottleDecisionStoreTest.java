@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.throttle;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ThrottleDecisionStore}.
+ */
+public class ThrottleDecisionStoreTest {
+
+    @Test
+    public void testExpiredDecisionIsNotReturned() {
+        long now = System.currentTimeMillis();
+        ThrottleDecisionStore store = new ThrottleDecisionStore(10);
+        store.put("app1", true, now + 1000);
+        store.put("app2", false, now + 2000);
+
+        Assert.assertTrue(store.get("app1", now).isStopOnQuota());
+        Assert.assertFalse(store.get("app2", now + 1500).isStopOnQuota());
+        Assert.assertNull(store.get("app1", now + 1500));
+        Assert.assertEquals(1, store.getExpiryCount());
+
+        store.removeExpired(now + 2500);
+        Assert.assertEquals(0, store.size());
+        Assert.assertEquals(2, store.getExpiryCount());
+    }
+
+    @Test
+    public void testEarliestExpiringDecisionIsEvicted() {
+        long now = System.currentTimeMillis();
+        ThrottleDecisionStore store = new ThrottleDecisionStore(2);
+        store.put("app1", true, now + 3000);
+        store.put("app2", true, now + 1000);
+        store.put("app3", true, now + 2000);
+
+        Assert.assertEquals(2, store.size());
+        Assert.assertEquals(1, store.getEvictionCount());
+        Assert.assertNull(store.get("app2", now));
+        Assert.assertNotNull(store.get("app1", now));
+        Assert.assertNotNull(store.get("app3", now));
+    }
+
+    @Test
+    public void testReplacedDecisionIsNotEvicted() {
+        long now = System.currentTimeMillis();
+        ThrottleDecisionStore store = new ThrottleDecisionStore(2);
+        store.put("app1", true, now + 1000);
+        store.put("app1", false, now + 5000);
+        store.put("app2", true, now + 2000);
+        store.removeExpired(now + 1500);
+
+        Assert.assertEquals(2, store.size());
+        Assert.assertEquals(0, store.getExpiryCount());
+        Assert.assertFalse(store.get("app1", now + 1500).isStopOnQuota());
+
+        store.remove("app1");
+        Assert.assertNull(store.get("app1", now));
+    }
+
+    @Test
+    public void testDecisionIsReturnedById() {
+        long now = System.currentTimeMillis();
+        ThrottleDecisionStore store = new ThrottleDecisionStore(10, 10);
+        // decisions stored before the key is interned are also returned by id
+        store.put("app1", true, now + 1000);
+        int app1 = store.intern("app1");
+        int app2 = store.intern("app2");
+        Assert.assertTrue(store.get(app1, now).isStopOnQuota());
+        Assert.assertNull(store.get(app2, now));
+
+        store.put("app2", false, now + 2000);
+        Assert.assertFalse(store.get(app2, now).isStopOnQuota());
+        store.remove("app2");
+        Assert.assertNull(store.get(app2, now));
+
+        Assert.assertNull(store.get(app1, now + 1500));
+        Assert.assertNull(store.get("app1", now));
+        Assert.assertEquals(1, store.getExpiryCount());
+    }
+
+    @Test
+    public void testEvictedDecisionIsNotReturnedById() {
+        long now = System.currentTimeMillis();
+        ThrottleDecisionStore store = new ThrottleDecisionStore(1, 1);
+        int app1 = store.intern("app1");
+        store.put("app1", true, now + 1000);
+        store.put("app2", true, now + 2000);
+
+        Assert.assertNull(store.get(app1, now));
+        Assert.assertEquals(ThrottleKeyTable.NO_ID, store.intern("app2"));
+        Assert.assertNotNull(store.get("app2", now));
+
+        store.removeExpired(now + 2500);
+        store.put("app1", false, now + 3000);
+        store.removeExpired(now + 3500);
+        Assert.assertNull(store.get(app1, now));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.throttle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throttling work done by the throttle filter for each request before and after the throttle keys were
+ * interned. Before, the application, subscription and resource keys were built from the API details once for the
+ * throttle checks and once more for the throttle event, and both the decisions and the local counters were looked up
+ * by key. After, the keys are built once from the precomputed key suffixes, and the decisions and counters are looked
+ * up by the ids of the keys. A fraction of the keys is throttled, so that the decision lookups hit the store. Run
+ * with the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ThrottleFilterBenchmark {
+
+    private static final String CONTEXT = "/pizzashack";
+    private static final String VERSION = "1.0.0";
+    private static final String RESOURCE_NAME = "get_menu";
+    private static final String CONTEXT_THROTTLE_KEY_SUFFIX = ":" + CONTEXT + ":" + VERSION;
+
+    @Param({"100", "10000"})
+    private int applications;
+
+    @Param({"stringKeys", "internedKeys"})
+    private String keys;
+
+    private ThrottleDecisionStore store;
+    private LocalThrottleEngine engine;
+    private String resourceThrottleKey;
+    private int resourceThrottleKeyId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new ThrottleDecisionStore(ThrottleDecisionStore.DEFAULT_CAPACITY);
+        engine = new LocalThrottleEngine(store);
+        // limits which are not reached during the benchmark, so that only the counting is measured
+        engine.addPolicy("appTier", "Gold", Long.MAX_VALUE, 60000, true);
+        engine.addPolicy("subscriptionTier", "Gold", Long.MAX_VALUE, 60000, true);
+        engine.addPolicy("resourceTier", "Gold", Long.MAX_VALUE, 60000, true);
+        // resolved once per resource by the resource descriptor
+        resourceThrottleKey = RESOURCE_NAME.replaceAll("_", "") + ":" + VERSION;
+        resourceThrottleKeyId = store.intern(resourceThrottleKey);
+        long expiryTime = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+        for (int i = 0; i < applications; i += 10) {
+            store.put(i + ":admin", false, expiryTime);
+        }
+    }
+
+    @Benchmark
+    public int throttleRequest() {
+        String applicationId = String.valueOf(ThreadLocalRandom.current().nextInt(applications));
+        if ("stringKeys".equals(keys)) {
+            return throttleByKey(applicationId, "admin");
+        }
+        return throttleById(applicationId, "admin");
+    }
+
+    private int throttleByKey(String applicationId, String username) {
+        long now = System.currentTimeMillis();
+        int throttled = 0;
+        // throttle checks
+        throttled += isThrottled(store.get(RESOURCE_NAME.replaceAll("_", "") + ":" + VERSION, now));
+        throttled += isThrottled(store.get(applicationId + ":" + CONTEXT + ":" + VERSION, now));
+        throttled += isThrottled(store.get(applicationId + ":" + username, now));
+        // throttle event
+        String appKey = applicationId + ":" + username;
+        String subscriptionKey = applicationId + ":" + CONTEXT + ":" + VERSION;
+        String resourceKey = RESOURCE_NAME.replaceAll("_", "") + ":" + VERSION;
+        engine.throttle("appTier", "Gold", appKey, now);
+        engine.throttle("subscriptionTier", "Gold", subscriptionKey, now);
+        engine.throttle("resourceTier", "Gold", resourceKey, now);
+        return throttled;
+    }
+
+    private int throttleById(String applicationId, String username) {
+        long now = System.currentTimeMillis();
+        int throttled = 0;
+        int appKeyId = store.intern(applicationId + ":" + username);
+        int subscriptionKeyId = store.intern(applicationId + CONTEXT_THROTTLE_KEY_SUFFIX);
+        // throttle checks
+        throttled += isThrottled(store.get(resourceThrottleKeyId, now));
+        throttled += isThrottled(store.get(subscriptionKeyId, now));
+        throttled += isThrottled(store.get(appKeyId, now));
+        // throttle event
+        engine.throttle("appTier", "Gold", appKeyId, now);
+        engine.throttle("subscriptionTier", "Gold", subscriptionKeyId, now);
+        engine.throttle("resourceTier", "Gold", resourceThrottleKeyId, now);
+        return throttled;
+    }
+
+    private static int isThrottled(ThrottleDecisionStore.Decision decision) {
+        return decision == null ? 0 : 1;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ThrottleFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
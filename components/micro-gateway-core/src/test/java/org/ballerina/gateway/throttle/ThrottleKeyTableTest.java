@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.throttle;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ThrottleKeyTable}.
+ */
+public class ThrottleKeyTableTest {
+
+    @Test
+    public void testKeysAreInternedOnce() {
+        ThrottleKeyTable table = new ThrottleKeyTable(10);
+        int id = table.intern("app1:admin");
+
+        Assert.assertEquals(0, id);
+        Assert.assertEquals(id, table.intern("app1:admin"));
+        Assert.assertEquals(id, table.getId("app1:admin"));
+        Assert.assertEquals("app1:admin", table.getKey(id));
+        Assert.assertEquals(1, table.intern("app2:admin"));
+        Assert.assertEquals(ThrottleKeyTable.NO_ID, table.getId("app3:admin"));
+        Assert.assertEquals(2, table.size());
+    }
+
+    @Test
+    public void testKeysAreNotInternedOnceFull() {
+        ThrottleKeyTable table = new ThrottleKeyTable(2);
+        table.intern("app1:admin");
+        table.intern("app2:admin");
+
+        Assert.assertEquals(ThrottleKeyTable.NO_ID, table.intern("app3:admin"));
+        Assert.assertEquals(ThrottleKeyTable.NO_ID, table.getId("app3:admin"));
+        Assert.assertEquals(1, table.intern("app2:admin"));
+        Assert.assertEquals(2, table.size());
+    }
+}
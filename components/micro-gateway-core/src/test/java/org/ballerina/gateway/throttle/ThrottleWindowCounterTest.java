@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.throttle;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link ThrottleWindowCounter}.
+ */
+public class ThrottleWindowCounterTest {
+
+    @Test
+    public void testWindowEnd() {
+        ThrottleWindowCounter counter = new ThrottleWindowCounter(1000, 250);
+        Assert.assertEquals(1250, counter.getWindowEnd(250));
+        Assert.assertEquals(1250, counter.getWindowEnd(1249));
+        Assert.assertEquals(2250, counter.getWindowEnd(1250));
+        Assert.assertEquals(250, counter.getWindowEnd(0));
+    }
+
+    @Test
+    public void testFirstWindowStartsWithFirstEvent() {
+        ThrottleWindowCounter counter = new ThrottleWindowCounter(1000, ThrottleWindowCounter.FIRST_EVENT);
+        Assert.assertEquals(ThrottleWindowCounter.FIRST_EVENT, counter.getStartTime());
+        Assert.assertEquals(1700, counter.getWindowEnd(700));
+        Assert.assertEquals(700, counter.getStartTime());
+        Assert.assertEquals(1700, counter.getWindowEnd(1699));
+        Assert.assertEquals(2700, counter.getWindowEnd(1700));
+        Assert.assertEquals(5700, counter.getWindowEnd(5000));
+
+        ThrottleWindowCounter restored = new ThrottleWindowCounter(1000, ThrottleWindowCounter.FIRST_EVENT);
+        restored.setStartTime(counter.getStartTime());
+        Assert.assertEquals(2700, restored.getWindowEnd(2000));
+    }
+
+    @Test
+    public void testCountsAreResetWhenWindowRollsOver() {
+        ThrottleWindowCounter counter = new ThrottleWindowCounter(1000, 0);
+        Assert.assertEquals(1, counter.increment("app1", 1000));
+        Assert.assertEquals(2, counter.increment("app1", 1000));
+        Assert.assertEquals(1, counter.increment("app2", 1000));
+        Assert.assertEquals(1, counter.increment("app1", 2000));
+        // an event of the previous window which arrives late is counted in the current window
+        Assert.assertEquals(2, counter.increment("app1", 1000));
+        Assert.assertEquals(2, counter.getCount("app1", 2000));
+        Assert.assertEquals(0, counter.getCount("app1", 1000));
+    }
+
+    @Test
+    public void testInternedKeysAreCountedById() {
+        ThrottleKeyTable keyTable = new ThrottleKeyTable(10);
+        ThrottleWindowCounter counter = new ThrottleWindowCounter(1000, 0, keyTable);
+        int app1 = keyTable.intern("app1");
+        Assert.assertEquals(1, counter.increment(app1, 1000));
+        Assert.assertEquals(2, counter.increment("app1", 1000));
+        Assert.assertEquals(1, counter.increment("app2", 1000));
+        Assert.assertEquals(2, counter.getCount("app1", 1000));
+        Assert.assertEquals(2, counter.size());
+
+        Map<String, long[]> state = counter.getState();
+        Assert.assertEquals(2, state.get("app1")[1]);
+        Assert.assertEquals(1, counter.increment(app1, 2000));
+        Assert.assertEquals(1, counter.size());
+
+        counter.setState(state);
+        Assert.assertEquals(3, counter.increment(app1, 1000));
+        Assert.assertEquals(2, counter.increment("app2", 1000));
+    }
+
+    @Test
+    public void testCountersOfFinishedWindowsAreRemoved() {
+        ThrottleWindowCounter counter = new ThrottleWindowCounter(1000, 0);
+        for (int i = 0; i < 100; i++) {
+            counter.increment("app" + i, 1000);
+        }
+        Assert.assertEquals(100, counter.size());
+        counter.increment("app0", 2000);
+        Assert.assertEquals(1, counter.size());
+    }
+
+    @Test
+    public void testConcurrentIncrements() throws InterruptedException {
+        ThrottleWindowCounter counter = new ThrottleWindowCounter(60000, 0);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    counter.increment("app" + (j % 4), 60000);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(20000, counter.getCount("app" + i, 60000));
+        }
+
+        Map<String, long[]> state = counter.getState();
+        ThrottleWindowCounter restored = new ThrottleWindowCounter(60000, 0);
+        restored.setState(state);
+        Assert.assertEquals(20001, restored.increment("app0", 60000));
+    }
+}
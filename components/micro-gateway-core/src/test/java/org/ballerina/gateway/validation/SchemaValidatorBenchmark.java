@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.validation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures validating payloads against a compiled schema, from a parsed payload and while the payload is read. Run with
+ * the main method from the test classpath. The comparison with the validation_util.bal interpreter the validation
+ * filter used before is made by validation/validation_benchmark.bal, since that path only runs in Ballerina.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchemaValidatorBenchmark {
+
+    private static final String PET = "{\"name\": \"doggie\", \"petType\": \"Pet\", \"id\": 10, "
+            + "\"category\": {\"id\": 1, \"name\": \"dogs\"}, \"photoUrls\": [\"http://pets/1.png\"], "
+            + "\"tags\": [{\"id\": 1, \"name\": \"friendly\"}], \"status\": \"available\", \"weight\": 12.5}";
+
+    @Param({"small", "nested", "largeArray"})
+    private String payloadType;
+
+    private String payloadJson;
+    private Object payload;
+    private SchemaValidator compiledValidator;
+
+    @Setup
+    public void setUp() throws IOException {
+        Map<String, Object> models = SchemaValidatorTest.readModels();
+        String schemaJson;
+        switch (payloadType) {
+            case "nested":
+                schemaJson = "{\"$ref\": \"#/definitions/Order\"}";
+                payloadJson = createOrder(5);
+                break;
+            case "largeArray":
+                schemaJson = "{\"type\": \"array\", \"items\": {\"$ref\": \"#/definitions/Pet\"}}";
+                StringBuilder pets = new StringBuilder("[");
+                for (int i = 0; i < 1000; i++) {
+                    pets.append(i == 0 ? "" : ",").append(PET);
+                }
+                payloadJson = pets.append("]").toString();
+                break;
+            default:
+                schemaJson = "{\"$ref\": \"#/definitions/Pet\"}";
+                payloadJson = PET;
+        }
+        payload = JsonReader.read(payloadJson);
+        compiledValidator = new SchemaCompiler(models).compile(JsonReader.read(schemaJson));
+        if (compiledValidator.validatePayload(payload) != null) {
+            throw new IllegalStateException("Benchmark payload is not valid");
+        }
+    }
+
+    @Benchmark
+    public String compiledSchema() {
+        return compiledValidator.validatePayload(payload);
+    }
+
+    @Benchmark
+    public String compiledSchemaStreaming() throws IOException {
+        return compiledValidator.validatePayload(new StringReader(payloadJson), null);
+    }
+
+    private static String createOrder(int depth) {
+        StringBuilder order = new StringBuilder("{\"pet\": ").append(PET).append(", \"quantity\": 1");
+        if (depth > 0) {
+            order.append(", \"related\": [").append(createOrder(depth - 1)).append(", ")
+                    .append(createOrder(depth - 1)).append("]");
+        }
+        return order.append("}").toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SchemaValidatorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
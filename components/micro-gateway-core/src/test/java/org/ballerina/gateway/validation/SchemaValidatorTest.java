@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerina.gateway.validation;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Tests for the validators compiled by {@link SchemaCompiler}.
+ */
+public class SchemaValidatorTest {
+
+    private static final String VALID_PET = "{\"name\": \"doggie\", \"petType\": \"Pet\", \"id\": 10, "
+            + "\"category\": {\"id\": 1, \"name\": \"dogs\"}, \"photoUrls\": [\"http://pets/1.png\"], "
+            + "\"tags\": [{\"id\": 1, \"name\": \"friendly\"}], \"status\": \"available\", \"weight\": 12.5}";
+
+    private SchemaCompiler compiler;
+
+    @Before
+    public void setUp() throws IOException {
+        compiler = new SchemaCompiler(readModels());
+    }
+
+    @Test
+    public void testValidPayload() throws IOException {
+        Assert.assertNull(validate("{\"$ref\": \"#/definitions/Pet\"}", VALID_PET));
+        Assert.assertNull(validate("{\"$ref\": \"#/definitions/Order\"}", "{\"pet\": " + VALID_PET
+                + ", \"quantity\": 2, \"related\": [{\"pet\": " + VALID_PET + ", \"quantity\": 1}]}"));
+    }
+
+    @Test
+    public void testRequiredFields() throws IOException {
+        Assert.assertEquals("photoUrls is a required field",
+                validate("{\"$ref\": \"#/definitions/Pet\"}", "{\"name\": \"doggie\", \"petType\": \"Pet\"}"));
+        Assert.assertEquals("name is a required field",
+                validate("{\"$ref\": \"#/definitions/Pet\"}", "{\"petType\": \"Pet\", \"photoUrls\": []}"));
+    }
+
+    @Test
+    public void testUnknownProperty() throws IOException {
+        Assert.assertEquals("Target property color is not in the model",
+                validate("{\"$ref\": \"#/definitions/Category\"}", "{\"id\": 1, \"color\": \"brown\"}"));
+    }
+
+    @Test
+    public void testPropertyConstraints() throws IOException {
+        String schema = "{\"$ref\": \"#/definitions/Pet\"}";
+        Assert.assertEquals("status is not set to an allowed value (see enum)",
+                validate(schema, VALID_PET.replace("available", "lost")));
+        Assert.assertEquals("name does not match the pattern ^[a-z][a-z0-9-]*$",
+                validate(schema, VALID_PET.replace("friendly", "Friendly")));
+        Assert.assertEquals("name cannot be blank", validate(schema, VALID_PET.replace("dogs", "")));
+        Assert.assertEquals("weight must be greater than 0 and no more than 100",
+                validate(schema, VALID_PET.replace("12.5", "0")));
+        Assert.assertEquals("id must be at least 1", validate(schema, VALID_PET.replace("\"id\": 10", "\"id\": 0")));
+        Assert.assertEquals("1 is not the type, integer",
+                validate(schema, VALID_PET.replace("\"id\": 10", "\"id\": \"1\"")));
+        Assert.assertEquals("Array requires at least 1 item(s) and has 0 item(s).",
+                validate(schema, VALID_PET.replace("[\"http://pets/1.png\"]", "[]")));
+    }
+
+    @Test
+    public void testInt32Format() throws IOException {
+        Assert.assertEquals("3000000000 is not the type, integer", validate("{\"$ref\": \"#/definitions/Order\"}",
+                "{\"pet\": " + VALID_PET + ", \"quantity\": 3000000000}"));
+    }
+
+    @Test
+    public void testRootType() throws IOException {
+        Assert.assertEquals("Unable to validate a model with a type: array, expected: object",
+                validate("{\"$ref\": \"#/definitions/Pet\"}", "[" + VALID_PET + "]"));
+        Assert.assertNull(validate("{\"type\": \"array\", \"items\": {\"$ref\": \"#/definitions/Pet\"}}",
+                "[" + VALID_PET + "]"));
+    }
+
+    @Test
+    public void testUndefinedReference() throws IOException {
+        Assert.assertNull(validate("{\"$ref\": \"#/definitions/Unknown\"}", "{\"any\": \"value\"}"));
+    }
+
+    @Test
+    public void testStreamingValidation() throws IOException {
+        String order = "{\"$ref\": \"#/definitions/Order\"}";
+        Assert.assertNull(validateStream(order, "{\"pet\": " + VALID_PET + ", \"quantity\": 2, \"related\": "
+                + "[{\"pet\": " + VALID_PET + ", \"quantity\": 1}, null]}"));
+        Assert.assertEquals("quantity is a required field", validateStream(order, "{\"pet\": " + VALID_PET + "}"));
+        Assert.assertEquals("Target property color is not in the model",
+                validateStream(order, "{\"color\": \"brown\", \"pet\": " + VALID_PET + ", \"quantity\": 1}"));
+        Assert.assertEquals("quantity must be at least 1 and no more than 100",
+                validateStream(order, "{\"quantity\": 200, \"pet\": " + VALID_PET + "}"));
+        Assert.assertEquals("Array requires at least 1 item(s) and has 0 item(s).", validateStream(order,
+                "{\"pet\": " + VALID_PET.replace("[\"http://pets/1.png\"]", "[]") + ", \"quantity\": 1}"));
+        Assert.assertEquals("Unable to validate a model with a type: array, expected: object",
+                validateStream(order, "[]"));
+        // validation stops at the first violation, so the rest of the payload is not read
+        Assert.assertEquals("Target property color is not in the model",
+                validateStream(order, "{\"color\": \"brown\", \"pet\": {,,,"));
+        Assert.assertNull(validateStream(order, "{\"fault\": {\"code\": 1}}"));
+    }
+
+    @Test
+    public void testRequiredFieldWithoutProperty() throws IOException {
+        String schema = "{\"type\": \"object\", \"required\": [\"id\"]}";
+        Assert.assertNull(validate(schema, "{\"id\": 1}"));
+        Assert.assertNull(validateStream(schema, "{\"id\": 1}"));
+        Assert.assertEquals("id is a required field", validate(schema, "{\"name\": \"doggie\"}"));
+        Assert.assertEquals("id is a required field", validateStream(schema, "{\"name\": \"doggie\"}"));
+        Assert.assertEquals("id is a required field", validateStream(schema, "{\"id\": null}"));
+    }
+
+    @Test
+    public void testContentAfterPayloadIsRejected() throws IOException {
+        String order = "{\"$ref\": \"#/definitions/Order\"}";
+        String payload = "{\"pet\": " + VALID_PET + ", \"quantity\": 1}";
+        Assert.assertNull(validateStream(order, payload + " \n"));
+        Assert.assertEquals("Unexpected content after the end of the payload",
+                validateStream(order, payload + " {\"quantity\": 1000}"));
+        Assert.assertEquals("Unexpected content after the end of the payload", validateStream(order, payload + "x"));
+        Assert.assertEquals("Unexpected content after the end of the payload", validateStream(order, "null 1"));
+    }
+
+    @Test
+    public void testStreamingValidationStopsReading() throws IOException {
+        String order = "{\"$ref\": \"#/definitions/Order\"}";
+        StringBuilder related = new StringBuilder("{\"color\": \"brown\", \"related\": [");
+        for (int i = 0; i < 10000; i++) {
+            related.append(i == 0 ? "" : ", ").append("{\"pet\": ").append(VALID_PET).append(", \"quantity\": 1}");
+        }
+        String payload = related.append("]}").toString();
+        int[] charsRead = new int[1];
+        Reader reader = new StringReader(payload) {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                charsRead[0] += Math.max(read, 0);
+                return read;
+            }
+        };
+
+        Assert.assertEquals("Target property color is not in the model",
+                compiler.compile(JsonReader.read(order)).validatePayload(reader, null));
+        Assert.assertTrue(charsRead[0] + " of " + payload.length() + " characters were read",
+                charsRead[0] < payload.length() / 10);
+    }
+
+    private String validateStream(String schema, String payload) throws IOException {
+        return compiler.compile(JsonReader.read(schema)).validatePayload(new StringReader(payload), "fault");
+    }
+
+    private String validate(String schema, String payload) throws IOException {
+        return compiler.compile(JsonReader.read(schema)).validatePayload(JsonReader.read(payload));
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> readModels() throws IOException {
+        try (Reader reader = new InputStreamReader(SchemaValidatorTest.class.getResourceAsStream(
+                "/validation/models.json"), StandardCharsets.UTF_8)) {
+            return (Map<String, Object>) JsonReader.read(reader);
+        }
+    }
+}
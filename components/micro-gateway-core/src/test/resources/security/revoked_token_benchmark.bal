@@ -0,0 +1,85 @@
+// Copyright (c)  WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file   except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/io;
+import ballerina/time;
+import wso2/gateway;
+
+// Compares gateway:retrieveFromRevokedTokenMap, which looks tokens up in the revoked token store, with the scan of the
+// revoked token map it did before the store was added. Run from this directory against the built gateway module with
+//     ballerina run revoked_token_benchmark.bal
+// The JTIs are created before the lookups are measured. Revoked tokens of earlier sizes stay in the store, which is
+// shared by the whole gateway, hence the sizes are measured in increasing order.
+
+const int WARMUP_ITERATIONS = 1000;
+const int ITERATIONS = 10000;
+
+public function main() {
+    gateway:initRevokedTokenStore();
+    benchmark(1000);
+    benchmark(10000);
+    benchmark(100000);
+}
+
+function benchmark(int revokedTokens) {
+    map<string> revokedTokenMap = {};
+    string[] revokedJtis = [];
+    string[] validJtis = [];
+    int i = 0;
+    while (i < revokedTokens) {
+        revokedJtis[i] = "revoked" + revokedTokens + "-" + i;
+        validJtis[i] = "valid" + revokedTokens + "-" + i;
+        revokedTokenMap[revokedJtis[i]] = "3600";
+        i = i + 1;
+    }
+    _ = gateway:addToRevokedTokenMap(revokedTokenMap);
+
+    _ = measure(function (string jti) { _ = retrievePreviously(revokedTokenMap, jti); }, validJtis,
+        WARMUP_ITERATIONS);
+    _ = measure(function (string jti) { _ = gateway:retrieveFromRevokedTokenMap(jti); }, validJtis,
+        WARMUP_ITERATIONS);
+    float previousValid = measure(function (string jti) { _ = retrievePreviously(revokedTokenMap, jti); },
+        validJtis, ITERATIONS);
+    float storeValid = measure(function (string jti) { _ = gateway:retrieveFromRevokedTokenMap(jti); }, validJtis,
+        ITERATIONS);
+    float previousRevoked = measure(function (string jti) { _ = retrievePreviously(revokedTokenMap, jti); },
+        revokedJtis, ITERATIONS);
+    float storeRevoked = measure(function (string jti) { _ = gateway:retrieveFromRevokedTokenMap(jti); },
+        revokedJtis, ITERATIONS);
+    io:println(revokedTokens + " revoked tokens: valid token previous " + previousValid + " ops/s, store "
+        + storeValid + " ops/s; revoked token previous " + previousRevoked + " ops/s, store " + storeRevoked
+        + " ops/s");
+}
+
+function measure(function (string) lookup, string[] jtis, int iterations) returns float {
+    int startTime = time:nanoTime();
+    int i = 0;
+    while (i < iterations) {
+        lookup.call(jtis[i % jtis.length()]);
+        i = i + 1;
+    }
+    return <float>iterations * 1000000000.0 / <float>(time:nanoTime() - startTime);
+}
+
+// the lookup retrieveFromRevokedTokenMap made before the revoked token store was added
+function retrievePreviously(map<string> revokedTokenMap, string token) returns boolean {
+    foreach var (revokedTokenKey, revokedTokenValue) in revokedTokenMap {
+        if (token == revokedTokenKey) {
+            return true;
+        }
+    }
+    return false;
+}
@@ -0,0 +1,112 @@
+// Copyright (c)  WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file   except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/io;
+import ballerina/time;
+import wso2/gateway;
+
+// Compares the compiled validators of the validation filter with the path the filter used before they were added:
+// reading the swagger, finding the model of the request and interpreting it with gateway:validate. Run from this
+// directory against the built gateway module with
+//     ballerina run --config validation_benchmark.conf validation_benchmark.bal
+// Each payload is validated for warm up, then measured over the same number of iterations.
+
+const int WARMUP_ITERATIONS = 200;
+const int ITERATIONS = 1000;
+const string SWAGGER_PATH = "petstore_swagger.json";
+const string PET = "{\"name\": \"doggie\", \"petType\": \"Pet\", \"id\": 10, \"category\": {\"id\": 1, \"name\": "
+    + "\"dogs\"}, \"photoUrls\": [\"http://pets/1.png\"], \"tags\": [{\"id\": 1, \"name\": \"friendly\"}], "
+    + "\"status\": \"available\", \"weight\": 12.5}";
+
+public function main() {
+    gateway:initValidationSchemaIndex();
+    string pets = "[";
+    int i = 0;
+    while (i < 100) {
+        pets = pets + (i == 0 ? "" : ",") + PET;
+        i = i + 1;
+    }
+    benchmark("small", "/pet", PET);
+    benchmark("nested", "/order", createOrder(3));
+    benchmark("largeArray", "/pets", pets + "]");
+}
+
+function benchmark(string name, string path, string payload) {
+    if (!validatePreviously(path, payload) || gateway:validateRequestPayload(path, "post", payload) != "") {
+        io:println(name + ": benchmark payload is not valid");
+        return;
+    }
+    _ = measure(function () { _ = validatePreviously(path, payload); }, WARMUP_ITERATIONS);
+    _ = measure(function () { _ = gateway:validateRequestPayload(path, "post", payload); }, WARMUP_ITERATIONS);
+    float previous = measure(function () { _ = validatePreviously(path, payload); }, ITERATIONS);
+    float compiled = measure(function () { _ = gateway:validateRequestPayload(path, "post", payload); }, ITERATIONS);
+    io:println(name + ": previous " + previous + " ops/s, compiled " + compiled + " ops/s");
+}
+
+function measure(function () validation, int iterations) returns float {
+    int startTime = time:nanoTime();
+    int i = 0;
+    while (i < iterations) {
+        validation.call();
+        i = i + 1;
+    }
+    return <float>iterations * 1000000000.0 / <float>(time:nanoTime() - startTime);
+}
+
+// the steps doValidationFilterRequest took for every request before the schemas were compiled
+function validatePreviously(string path, string payload) returns boolean {
+    json|error payloadJson = readJson(io:createReadableChannel(payload.toByteArray("UTF-8")));
+    json swagger = checkpanic readJson(io:openReadableFile(SWAGGER_PATH));
+    json models = swagger.definitions;
+    json model = {};
+    string modelName = "";
+    foreach var key in swagger["paths"].getKeys() {
+        if (key == path) {
+            json[] parameters = <json[]>swagger["paths"][key]["post"]["parameters"];
+            foreach var parameter in parameters {
+                if (parameter["schema"] != null) {
+                    if (parameter["schema"]["$ref"] != null) {
+                        modelName = gateway:replaceModelPrefix(parameter["schema"]["$ref"].toString());
+                        if (models[modelName] != null) {
+                            model = models[modelName];
+                        }
+                    } else {
+                        model = parameter["schema"];
+                    }
+                }
+            }
+        }
+    }
+    if (payloadJson is json && model != null && payloadJson != null) {
+        return gateway:validate(modelName, payloadJson, model, models).valid;
+    }
+    return true;
+}
+
+function readJson(io:ReadableByteChannel byteChannel) returns json|error {
+    io:ReadableCharacterChannel characterChannel = new(byteChannel, "UTF8");
+    var result = characterChannel.readJson();
+    _ = characterChannel.close();
+    return result;
+}
+
+function createOrder(int depth) returns string {
+    string order = "{\"pet\": " + PET + ", \"quantity\": 1";
+    if (depth > 0) {
+        order = order + ", \"related\": [" + createOrder(depth - 1) + ", " + createOrder(depth - 1) + "]";
+    }
+    return order + "}";
+}
@@ -17,6 +17,7 @@
  */
 package org.wso2.micro.gateway.tests.common;
 
+import org.apache.commons.lang3.ArrayUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.testng.Assert;
@@ -51,6 +52,21 @@ public class BaseTestCase {
     protected final static int MOCK_SERVER_PORT = 9443;
 
     protected void init(String label, String project, String security) throws Exception {
+        init(label, project, security, null);
+    }
+
+    /**
+     * Generate the project of the given label and start the gateway with it.
+     *
+     * @param label           label of the APIs
+     * @param project         name of the project
+     * @param security        security of the APIs
+     * @param extensionFilter path of the extension filter to build the project with, or null to keep the default one
+     * @param runtimeArgs     additional arguments the gateway is started with
+     * @throws Exception if the gateway could not be started
+     */
+    protected void init(String label, String project, String security, String extensionFilter,
+                        String... runtimeArgs) throws Exception {
         CLIExecutor cliExecutor;
 
         microGWServer = ServerInstance.initMicroGwServer();
@@ -63,13 +79,13 @@ public class BaseTestCase {
         //System.setProperty(GatewayCliConstants.SYS_PROP_SECURITY, "oauth2");
         cliExecutor = CLIExecutor.getInstance();
         cliExecutor.setCliHome(cliHome);
-        cliExecutor.generate(label, project, security);
+        cliExecutor.generate(label, project, security, extensionFilter);
 
         String balPath = CLIExecutor.getInstance().getLabelBalx(project);
         String configPath = getClass().getClassLoader()
                 .getResource("confs" + File.separator + "default-test-config.conf").getPath();
         String[] args = {"--config", configPath, "--experimental"};
-        microGWServer.startMicroGwServer(balPath, args);
+        microGWServer.startMicroGwServer(balPath, ArrayUtils.addAll(args, runtimeArgs));
     }
 
     protected void init(String project) throws Exception {
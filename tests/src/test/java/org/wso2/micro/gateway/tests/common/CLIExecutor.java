@@ -42,6 +42,19 @@ public class CLIExecutor {
     private static CLIExecutor instance;
 
     public void generate(String label, String project, String security) throws Exception {
+        generate(label, project, security, null);
+    }
+
+    /**
+     * Generate and build the project of the given label, with the extension filter of the project replaced.
+     *
+     * @param label           label of the APIs
+     * @param project         name of the project
+     * @param security        security of the APIs
+     * @param extensionFilter path of the extension filter to build the project with, or null to keep the default one
+     * @throws Exception if the project could not be generated or built
+     */
+    public void generate(String label, String project, String security, String extensionFilter) throws Exception {
         org.wso2.apimgt.gateway.cli.cmd.Main main = new org.wso2.apimgt.gateway.cli.cmd.Main();
 
         String baseDir = (System.getProperty(Constants.SYSTEM_PROP_BASE_DIR, ".")) + File.separator + "target";
@@ -58,6 +71,10 @@ public class CLIExecutor {
 
         String[] initArgs = {"init", project};
         main.main(initArgs);
+        if (extensionFilter != null) {
+            FileUtils.copyFile(new File(extensionFilter), new File(GatewayCmdUtils.getProjectExtensionsDirectoryPath(
+                    project) + File.separator + GatewayCliConstants.GW_DIST_EXTENSION_FILTER));
+        }
 
         String[] args = {"import", project, "--label", label, "--username", "admin", "--password",
                 "admin", "--server-url", "http://localhost:9443", "--truststore",
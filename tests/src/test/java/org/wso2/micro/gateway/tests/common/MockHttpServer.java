@@ -42,6 +42,7 @@ import java.security.KeyStore;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Mock http server for key-manager and APIM rest api endpoints
@@ -56,6 +57,10 @@ public class MockHttpServer extends Thread {
     private String PubRestAPIBasePath = "/api/am/publisher/v0.14";
     private String AdminRestAPIBasePath = "/api/am/admin/v0.14";
     private String TMRestAPIBasePath = "/endpoints";
+    private String AnalyticsUploadBasePath = "/analytics/v1.0/usage";
+    // number of times each usage file was sent by the gateway
+    private final Map<String, Integer> analyticsFileUploadAttempts = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> uploadedAnalyticsFiles = new ConcurrentHashMap<>();
     public final static String PROD_ENDPOINT_RESPONSE = "{\"type\": \"production\"}";
     public final static String SAND_ENDPOINT_RESPONSE = "{\"type\": \"sandbox\"}";
     public final static String PROD_ENDPOINT_NEW_RESPONSE = "{\"type\": \"new-production\"}";
@@ -289,15 +294,11 @@ public class MockHttpServer extends Thread {
                         exchange.getResponseBody().write(xmlResponse);
                     } catch (ParserConfigurationException e) {
                         log.error("Error occurred while parsing request", e);
+                        exchange.sendResponseHeaders(HttpURLConnection.HTTP_INTERNAL_ERROR, -1);
                     } catch (SAXException e) {
                         log.error("Error occurred while parsing request", e);
+                        exchange.sendResponseHeaders(HttpURLConnection.HTTP_INTERNAL_ERROR, -1);
                     }
-
-                    byte[] xmlResponse = MockAPIPublisher.getInstance().getKeyValidationResponseForToken(token)
-                            .getBytes();
-                    exchange.getResponseHeaders().set("Content-Type", "application/soap+xml");
-                    exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, xmlResponse.length);
-                    exchange.getResponseBody().write(xmlResponse);
                     exchange.close();
 
                 }
@@ -332,6 +333,21 @@ public class MockHttpServer extends Thread {
                     exchange.close();
                 }
             });
+            httpServer.createContext(AnalyticsUploadBasePath + "/upload-file", new HttpHandler() {
+                public void handle(HttpExchange exchange) throws IOException {
+
+                    String fileName = exchange.getRequestHeaders().getFirst("FileName");
+                    byte[] content = IOUtils.toByteArray(exchange.getRequestBody());
+                    // the first upload of every file is rejected, so that the gateway has to retry it
+                    if (fileName == null || analyticsFileUploadAttempts.merge(fileName, 1, Integer::sum) == 1) {
+                        exchange.sendResponseHeaders(HttpURLConnection.HTTP_UNAVAILABLE, -1);
+                    } else {
+                        uploadedAnalyticsFiles.put(fileName, content);
+                        exchange.sendResponseHeaders(HttpURLConnection.HTTP_CREATED, -1);
+                    }
+                    exchange.close();
+                }
+            });
             httpServer.start();
             KMServerUrl = "http://localhost:" + KMServerPort;
         } catch (IOException e) {
@@ -348,6 +364,27 @@ public class MockHttpServer extends Thread {
         httpServer.stop(0);
     }
 
+    /**
+     * Returns the usage files uploaded by the gateway, by file name. Only the files accepted on the retry are
+     * returned, since the first upload of every file is rejected.
+     *
+     * @return content of the uploaded files
+     */
+    public Map<String, byte[]> getUploadedAnalyticsFiles() {
+
+        return uploadedAnalyticsFiles;
+    }
+
+    /**
+     * Returns the number of times the gateway sent each usage file, by file name, including the rejected first upload.
+     *
+     * @return number of upload attempts of the usage files
+     */
+    public Map<String, Integer> getAnalyticsFileUploadAttempts() {
+
+        return analyticsFileUploadAttempts;
+    }
+
     public String getKMServerUrl() {
 
         return KMServerUrl;
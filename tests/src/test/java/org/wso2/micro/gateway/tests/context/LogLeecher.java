@@ -44,7 +44,7 @@ public class LogLeecher {
      * @param logLIne The log line which was read
      */
     void feedLine(String logLIne) {
-        if (text.contains(logLIne)) {
+        if (logLIne.contains(text)) {
             textFound = true;
 
             synchronized (this) {
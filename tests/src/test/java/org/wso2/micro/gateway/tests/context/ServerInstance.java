@@ -156,6 +156,7 @@ public class ServerInstance implements Server {
         tmpLeechers.forEach(leacher -> serverInfoLogReader.addLeecher(leacher));
         serverInfoLogReader.start();
         serverErrorLogReader = new ServerLogReader("errorStream", process.getErrorStream());
+        tmpLeechers.forEach(leacher -> serverErrorLogReader.addLeecher(leacher));
         serverErrorLogReader.start();
         log.info("Waiting for port " + httpServerPort + " to open");
         Utils.waitForPort(httpServerPort, 1000 * 60 * 2, false, "localhost");
@@ -273,6 +274,7 @@ public class ServerInstance implements Server {
             tmpLeechers.forEach(leacher -> serverInfoLogReader.addLeecher(leacher));
             serverInfoLogReader.start();
             serverErrorLogReader = new ServerLogReader("errorStream", process.getErrorStream());
+            tmpLeechers.forEach(leacher -> serverErrorLogReader.addLeecher(leacher));
             serverErrorLogReader.start();
 
             process.waitFor();
@@ -330,7 +332,8 @@ public class ServerInstance implements Server {
     }
 
     /**
-     * Add a Leecher which is going to listen to an expected text.
+     * Add a Leecher which is going to listen to an expected text. The Leecher is fed with both the output and the
+     * error stream, since the gateway writes its logs to the error stream.
      *
      * @param leecher The Leecher instance
      */
@@ -340,6 +343,7 @@ public class ServerInstance implements Server {
             return;
         }
         serverInfoLogReader.addLeecher(leecher);
+        serverErrorLogReader.addLeecher(leecher);
     }
 
     /**
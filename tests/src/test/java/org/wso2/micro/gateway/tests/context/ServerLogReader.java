@@ -109,8 +109,8 @@ public class ServerLogReader implements Runnable {
                     if (s == null) {
                         break;
                     }
+                    feedLeechers(s);
                     if (STREAM_TYPE_IN.equals(streamType)) {
-                        feedLeechers(s);
                         log.info(s);
                     } else if (STREAM_TYPE_ERROR.equals(streamType)) {
                         log.error(s);
@@ -307,6 +307,11 @@ public class EtcdSupportTestCase extends BaseTestCase {
         etcdClient.addKeyValuePair(token, base64EncodedPizzaShackProdKey, Utils.encodeValueToBase64(invalidUrlValue));
 
         retryPolicy(jwtTokenProd, INVALID_URL_AT_ETCD_RESPONSE, 500);
+
+        //correct the url at etcd node. The forward should use the client created for the new url
+        etcdClient.addKeyValuePair(token, base64EncodedPizzaShackProdKey, base64EncodedPizzaShackProdNewValue);
+
+        retryPolicy(jwtTokenProd, MockHttpServer.PROD_ENDPOINT_NEW_RESPONSE, 200);
         microGWServer.stopServer(false);
     }
 
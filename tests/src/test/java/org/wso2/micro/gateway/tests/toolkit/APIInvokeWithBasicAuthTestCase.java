@@ -28,14 +28,19 @@ import org.wso2.micro.gateway.tests.common.MockAPIPublisher;
 import org.wso2.micro.gateway.tests.common.MockHttpServer;
 import org.wso2.micro.gateway.tests.common.model.API;
 import org.wso2.micro.gateway.tests.common.model.ApplicationDTO;
+import org.wso2.micro.gateway.tests.context.LogLeecher;
 import org.wso2.micro.gateway.tests.util.HttpClientRequest;
 import org.wso2.micro.gateway.tests.util.TestConstant;
 
+import java.io.File;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
 
 public class APIInvokeWithBasicAuthTestCase extends BaseTestCase {
+    private static final long LOG_TIMEOUT = 10000;
+    // SHA-1 of "newpassword", the way the passwords of b7a.users are configured
+    private static final String NEW_PASSWORD_HASH = "F2C57870308DC87F432E5912D4DE6F8E322721BA";
     private String prodToken, sandToken, jwtTokenProd, jwtTokenSand, expiringJwtTokenProd;
 
     @BeforeClass
@@ -85,8 +90,11 @@ public class APIInvokeWithBasicAuthTestCase extends BaseTestCase {
         jwtTokenProd = getJWT(api, application, "Unlimited", TestConstant.KEY_TYPE_PRODUCTION, 3600);
         jwtTokenSand = getJWT(api, application, "Unlimited", TestConstant.KEY_TYPE_SANDBOX, 3600);
         expiringJwtTokenProd = getJWT(api, application, "Unlimited", TestConstant.KEY_TYPE_PRODUCTION, 1);
-        //generate apis with CLI and start the micro gateway server only supports basic Auth
-        super.init(label, project, security);
+        //generate apis with CLI and start the micro gateway server only supports basic Auth. The extension filter
+        //changes the password of a user, and the debug logs show whether the basic auth cache is used
+        String extensionFilter = getClass().getClassLoader()
+                .getResource("filters" + File.separator + "basic_auth_extension_filter.bal").getPath();
+        super.init(label, project, security, extensionFilter, "-e", "b7a.log.level=DEBUG");
     }
 
     @Test(description = "Test API invocation with a JWT token")
@@ -151,6 +159,45 @@ public class APIInvokeWithBasicAuthTestCase extends BaseTestCase {
         invokeBasic(basicAuthToken, 401);
     }
 
+    @Test(description = "Test that a repeated Basic Auth request is authenticated from the basic auth cache")
+    public void testBasicAuthCredentialsAreCached() throws Exception {
+        String basicAuthToken = Base64.getEncoder().encodeToString("cachedUser:password".getBytes());
+
+        LogLeecher cachedLeecher = new LogLeecher(
+                "Added the basic auth credentials of cachedUser to the basic auth cache.");
+        microGWServer.addLogLeecher(cachedLeecher);
+        invokeBasic(basicAuthToken, MockHttpServer.SAND_ENDPOINT_RESPONSE, 200);
+        cachedLeecher.waitForText(LOG_TIMEOUT);
+
+        LogLeecher hitLeecher = new LogLeecher("Basic auth credentials of cachedUser found in the basic auth cache.");
+        microGWServer.addLogLeecher(hitLeecher);
+        invokeBasic(basicAuthToken, MockHttpServer.SAND_ENDPOINT_RESPONSE, 200);
+        hitLeecher.waitForText(LOG_TIMEOUT);
+    }
+
+    @Test(description = "Test that changing the password of a user invalidates the cached Basic Auth credentials")
+    public void testCachedCredentialsAreInvalidatedWhenPasswordIsChanged() throws Exception {
+        String oldBasicAuthToken = Base64.getEncoder().encodeToString("changedUser:password".getBytes());
+        String newBasicAuthToken = Base64.getEncoder().encodeToString("changedUser:newpassword".getBytes());
+        invokeBasic(oldBasicAuthToken, MockHttpServer.SAND_ENDPOINT_RESPONSE, 200);
+
+        //the request is authenticated from the cache, after which the extension filter changes the password
+        Map<String, String> headers = new HashMap<>();
+        headers.put(HttpHeaderNames.AUTHORIZATION.toString(), "Basic " + oldBasicAuthToken);
+        headers.put("X-New-Password", NEW_PASSWORD_HASH);
+        org.wso2.micro.gateway.tests.util.HttpResponse response = HttpClientRequest
+                .doGet(getServiceURLHttp("/pizzashack/1.0.0/menu"), headers);
+        Assert.assertNotNull(response);
+        Assert.assertEquals(response.getResponseCode(), 200, "Response code mismatched");
+
+        LogLeecher removedLeecher = new LogLeecher(
+                "Removed the basic auth credentials of changedUser from the basic auth cache");
+        microGWServer.addLogLeecher(removedLeecher);
+        invokeBasic(oldBasicAuthToken, 401);
+        removedLeecher.waitForText(LOG_TIMEOUT);
+        invokeBasic(newBasicAuthToken, MockHttpServer.SAND_ENDPOINT_RESPONSE, 200);
+    }
+
     private void invokeBasic(String token, String responseData, int responseCode) throws Exception {
         Map<String, String> headers = new HashMap<>();
         //test endpoint with token
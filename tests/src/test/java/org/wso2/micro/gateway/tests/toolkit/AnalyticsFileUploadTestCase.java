@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.micro.gateway.tests.toolkit;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.awaitility.Awaitility;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.micro.gateway.tests.common.BaseTestCase;
+import org.wso2.micro.gateway.tests.common.CLIExecutor;
+import org.wso2.micro.gateway.tests.common.MockAPIPublisher;
+import org.wso2.micro.gateway.tests.common.MockHttpServer;
+import org.wso2.micro.gateway.tests.common.model.API;
+import org.wso2.micro.gateway.tests.common.model.ApplicationDTO;
+import org.wso2.micro.gateway.tests.context.ServerInstance;
+import org.wso2.micro.gateway.tests.context.Utils;
+import org.wso2.micro.gateway.tests.util.HttpClientRequest;
+import org.wso2.micro.gateway.tests.util.HttpResponse;
+import org.wso2.micro.gateway.tests.util.TestConstant;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Test uploading the analytics usage files to the analytics server.
+ */
+public class AnalyticsFileUploadTestCase extends BaseTestCase {
+
+    private static final int REQUEST_COUNT = 5;
+    // written by the uploader next to the usage files
+    private static final String MANIFEST_FILE = ".upload-manifest";
+    private String jwtToken;
+    private File usageDirectory;
+
+    @BeforeClass
+    private void start() throws Exception {
+        String label = "apimTestLabel";
+        String project = "analyticsUploadTestProject";
+        MockAPIPublisher pub = MockAPIPublisher.getInstance();
+        API api = new API();
+        api.setName("PizzaShackAPI");
+        api.setContext("/pizzashack");
+        api.setProdEndpoint(getMockServiceURLHttp("/echo/prod"));
+        api.setSandEndpoint(getMockServiceURLHttp("/echo/sand"));
+        api.setVersion("1.0.0");
+        api.setProvider("admin");
+        pub.addApi(label, api);
+
+        ApplicationDTO application = new ApplicationDTO();
+        application.setName("jwtApp");
+        application.setTier("Unlimited");
+        application.setId((int) (Math.random() * 1000));
+        jwtToken = getJWT(api, application, "Unlimited", TestConstant.KEY_TYPE_PRODUCTION, 3600);
+
+        microGWServer = ServerInstance.initMicroGwServer();
+        String cliHome = microGWServer.getServerHome();
+        Assert.assertFalse(Utils.isPortOpen(MOCK_SERVER_PORT), "Port: " + MOCK_SERVER_PORT + " already in use.");
+        mockHttpServer = new MockHttpServer(MOCK_SERVER_PORT);
+        mockHttpServer.start();
+        CLIExecutor cliExecutor = CLIExecutor.getInstance();
+        cliExecutor.setCliHome(cliHome);
+        cliExecutor.generate(label, project, "oauth2");
+
+        String balPath = CLIExecutor.getInstance().getLabelBalx(project);
+        String configPath = getClass().getClassLoader()
+                .getResource("confs" + File.separator + "analytics-upload-test-config.conf").getPath();
+        usageDirectory = Files.createTempDirectory("api-usage-data").toFile();
+        String[] args = {"--config", configPath, "-e", "api.usage.data.path=" + usageDirectory.getAbsolutePath(),
+                "--experimental"};
+        microGWServer.startMicroGwServer(balPath, args);
+    }
+
+    @Test(description = "Test usage files are uploaded to the analytics server and retried once rejected")
+    public void testUsageFilesAreUploaded() throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(HttpHeaderNames.AUTHORIZATION.toString(), "Bearer " + jwtToken);
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            HttpResponse response = HttpClientRequest.doGet(getServiceURLHttp("/pizzashack/1.0.0/menu"), headers);
+            Assert.assertNotNull(response);
+            Assert.assertEquals(response.getResponseCode(), 200, "Request should be successful");
+        }
+        Awaitility.await().atMost(60, TimeUnit.SECONDS)
+                .until(() -> countUploadedRequestEvents() >= REQUEST_COUNT);
+        // files are deleted once the upload is acknowledged, and a file rejected last may still be retried
+        Awaitility.await().atMost(30, TimeUnit.SECONDS).until(() -> {
+            for (String fileName : mockHttpServer.getAnalyticsFileUploadAttempts().keySet()) {
+                if (!mockHttpServer.getUploadedAnalyticsFiles().containsKey(fileName) || isKept(fileName)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+
+        Map<String, Integer> uploadAttempts = mockHttpServer.getAnalyticsFileUploadAttempts();
+        Assert.assertEquals(uploadAttempts.keySet(), mockHttpServer.getUploadedAnalyticsFiles().keySet(),
+                "Every rejected file should be uploaded");
+        for (Map.Entry<String, Integer> attempts : uploadAttempts.entrySet()) {
+            String fileName = attempts.getKey();
+            Assert.assertTrue(fileName.startsWith("api-usage-data.dat."), "Unexpected file " + fileName);
+            Assert.assertTrue(fileName.endsWith(".zip"), "Unexpected file " + fileName);
+            Assert.assertEquals(attempts.getValue().intValue(), 2,
+                    fileName + " should be rejected once and then uploaded once");
+            Assert.assertFalse(new File(usageDirectory, fileName).exists(), fileName + " should be deleted");
+            Assert.assertFalse(isInManifest(fileName), fileName + " should be removed from the manifest");
+        }
+    }
+
+    private boolean isKept(String fileName) throws Exception {
+        return new File(usageDirectory, fileName).exists() || isInManifest(fileName);
+    }
+
+    private boolean isInManifest(String fileName) throws Exception {
+        File manifest = new File(usageDirectory, MANIFEST_FILE);
+        if (!manifest.exists()) {
+            return false;
+        }
+        List<String> lines = Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8);
+        for (String line : lines) {
+            if (line.startsWith(fileName + "\t")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int countUploadedRequestEvents() throws Exception {
+        int count = 0;
+        for (byte[] file : mockHttpServer.getUploadedAnalyticsFiles().values()) {
+            try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(file))) {
+                if (in.getNextEntry() == null) {
+                    continue;
+                }
+                for (String line : IOUtils.toString(in, StandardCharsets.UTF_8).split("\n")) {
+                    if (line.contains("org.wso2.apimgt.statistics.request") && line.contains("PizzaShackAPI")) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    @AfterClass
+    public void stop() throws Exception {
+        mockHttpServer.stopIt();
+        microGWServer.stopServer(false);
+        MockAPIPublisher.getInstance().clear();
+        FileUtils.deleteDirectory(usageDirectory);
+    }
+}
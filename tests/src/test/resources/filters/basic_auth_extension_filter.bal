@@ -0,0 +1,40 @@
+// Copyright (c)  WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file   except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/config;
+import ballerina/http;
+import wso2/gateway;
+
+# Extension filter of the basic auth tests. A request carrying the X-New-Password header changes the password of the
+# authenticated user in b7a.users to the value of the header once the request has been authenticated.
+public type ExtensionFilter object {
+
+    public function filterRequest(http:Caller caller, http:Request request, http:FilterContext context) returns
+                                                                                                         boolean {
+        if (request.hasHeader("X-New-Password")) {
+            var authenticationContext = context.attributes[gateway:AUTHENTICATION_CONTEXT];
+            if (authenticationContext is gateway:AuthenticationContext) {
+                config:setConfig("b7a.users." + authenticationContext.username + ".password",
+                    untaint request.getHeader("X-New-Password"));
+            }
+        }
+        return true;
+    }
+
+    public function filterResponse(http:Response response, http:FilterContext context) returns boolean {
+        return true;
+    }
+};